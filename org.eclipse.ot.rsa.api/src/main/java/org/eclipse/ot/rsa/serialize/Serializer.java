@@ -10,22 +10,60 @@
  * 		Paremus Ltd. - initial API and implementation
  *      Data In Motion
  */
-package org.eclipse.ot.rsa.distribution.provider.serialize;
+package org.eclipse.ot.rsa.serialize;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import org.osgi.annotation.versioning.ConsumerType;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
+/**
+ * Encodes the arguments and return values of remote calls. A serializer is
+ * created by a {@link SerializerFactory} for the class space of one service,
+ * and may be used by many threads at once.
+ */
+@ConsumerType
 public interface Serializer {
 
+	/**
+	 * Write the arguments of a call
+	 *
+	 * @param buffer the buffer to write to
+	 * @param args the arguments
+	 * @throws IOException if the arguments cannot be written
+	 */
 	void serializeArgs(ByteBuf buffer, Object... args) throws IOException;
 
+	/**
+	 * Read the arguments of a call
+	 *
+	 * @param buffer the buffer to read from
+	 * @return the arguments
+	 * @throws ClassNotFoundException if the type of an argument is not visible
+	 * @throws IOException if the arguments cannot be read
+	 */
 	Object[] deserializeArgs(ByteBuf buffer) throws ClassNotFoundException, IOException;
 
+	/**
+	 * Write the return value of a call
+	 *
+	 * @param buffer the buffer to write to
+	 * @param o the value
+	 * @throws IOException if the value cannot be written
+	 */
 	void serializeReturn(ByteBuf buffer, Object o) throws IOException;
 
+	/**
+	 * Read the return value of a call
+	 *
+	 * @param buffer the buffer to read from
+	 * @return the value
+	 * @throws ClassNotFoundException if the type of the value is not visible
+	 * @throws IOException if the value cannot be read
+	 */
 	Object deserializeReturn(ByteBuf buffer) throws ClassNotFoundException, IOException;
 
 	default void serializeArgs(ByteBuffer buffer, Object[] args) throws IOException {
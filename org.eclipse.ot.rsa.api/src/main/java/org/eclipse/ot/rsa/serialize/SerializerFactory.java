@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.serialize;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import org.osgi.annotation.versioning.ConsumerType;
+import org.osgi.framework.Bundle;
+
+/**
+ * A whiteboard service interface implemented by bundles which provide a
+ * serialization for the distribution provider.
+ * <p>
+ * Each factory must have the {@link #SERIALIZATION_NAME} service property. A
+ * service selects the serializations which it may be exported with by name,
+ * in order of preference, using the
+ * <code>org.eclipse.ot.rsa.distribution.config.serialization</code> property.
+ * The name of the serialization used is advertised in the endpoint, and the
+ * importing framework must have a factory with the same name.
+ */
+@ConsumerType
+public interface SerializerFactory {
+
+	/**
+	 * The service property naming the serialization provided by a factory.
+	 * Names are case sensitive, and the names of the built in serializations,
+	 * such as <code>FAST_BINARY</code>, are reserved.
+	 */
+	public static final String SERIALIZATION_NAME = "org.eclipse.ot.rsa.serialization.name";
+
+	/**
+	 * Create a serializer
+	 *
+	 * @param classSpace the bundle used to load the classes being serialized
+	 * @return the serializer
+	 */
+	public Serializer create(Bundle classSpace);
+
+	/**
+	 * Create the serializer for an exported service. Factories which need to
+	 * tell importers about the service add properties to its endpoint.
+	 *
+	 * @param classSpace the class space of the service
+	 * @param methods the exported methods
+	 * @param endpointProperties the properties of the endpoint being created
+	 * @return the serializer
+	 */
+	public default Serializer createForExport(Bundle classSpace, Method[] methods,
+		Map<String, Object> endpointProperties) {
+		return create(classSpace);
+	}
+
+	/**
+	 * Get the factory to use for an imported service
+	 *
+	 * @param endpointProperties the properties of the imported endpoint
+	 * @return the factory
+	 */
+	public default SerializerFactory forImport(Map<String, Object> endpointProperties) {
+		return this;
+	}
+
+}
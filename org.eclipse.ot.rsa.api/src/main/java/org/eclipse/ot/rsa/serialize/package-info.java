@@ -6,5 +6,5 @@
  * Contributors: Paremus Ltd. - initial API and implementation Data In Motion
  */
 @org.osgi.annotation.bundle.Export
-@org.osgi.annotation.versioning.Version("1.0.0")
+@org.osgi.annotation.versioning.Version("1.1.0")
 package org.eclipse.ot.rsa.serialize;
@@ -22,6 +22,7 @@ import org.eclipse.ot.rsa.cluster.manager.provider.MemberInfo;
 import org.eclipse.ot.rsa.cluster.manager.provider.Update;
 import org.osgi.framework.ServiceReference;
 
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 
 public interface ClusterManager {
@@ -34,6 +35,18 @@ public interface ClusterManager {
 
 	Snapshot getSnapshot(SnapshotType type, int hops);
 
+	/**
+	 * Get a snapshot of the local attributes which changed after a state
+	 * sequence. This is a full {@link SnapshotType#PAYLOAD_UPDATE} if the
+	 * changes since that sequence are no longer known, or if delta updates are
+	 * disabled.
+	 *
+	 * @param since the state sequence that the receivers are known to have
+	 * @param hops the number of hops for the snapshot
+	 * @return the snapshot
+	 */
+	Snapshot getDeltaSnapshot(short since, int hops);
+
 	Collection<MemberInfo> selectRandomPartners(int max);
 
 	MemberInfo getMemberInfo(UUID id);
@@ -50,5 +63,15 @@ public interface ClusterManager {
 
 	EventExecutorGroup getEventExecutorGroup();
 
+	/**
+	 * Get the worker which merges the snapshots of a member. The snapshots of
+	 * one member are always merged on the same worker, so that they are
+	 * processed in order, while different members are spread over the workers.
+	 *
+	 * @param member the id of the member
+	 * @return the worker for the member
+	 */
+	EventExecutor getMergeExecutor(UUID member);
+
 	Collection<MemberInfo> getMembers();
 }
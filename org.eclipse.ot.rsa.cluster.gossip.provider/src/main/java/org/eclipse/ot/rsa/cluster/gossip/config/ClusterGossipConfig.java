@@ -25,6 +25,16 @@ public @interface ClusterGossipConfig {
 
 	String bind_address() default "0.0.0.0";
 
+	/**
+	 * The Netty transport used for gossip: <code>nio</code>,
+	 * <code>epoll</code>, <code>io_uring</code> or <code>auto</code>. The
+	 * native transports are only used if they are available, otherwise NIO is
+	 * used. <code>auto</code> selects epoll when it is available, and io_uring
+	 * is treated as epoll as it is not supported by this version of Netty. The
+	 * default is NIO, the same as the RSA channels.
+	 */
+	String io_transport() default "nio";
+
 	@AttributeDefinition(min = "50")
 	int gossip_interval() default 300;
 
@@ -37,12 +47,34 @@ public @interface ClusterGossipConfig {
 	@AttributeDefinition(min = "1")
 	int gossip_broadcast_rounds() default 20;
 
+	/**
+	 * Gossip only the attributes that changed in each broadcast round, rather
+	 * than all of them. Older nodes cannot read delta updates, so only enable
+	 * this once every node in the cluster understands them.
+	 */
+	boolean gossip_delta_updates() default false;
+
+	/**
+	 * The number of threads which merge incoming gossip. The snapshots of each
+	 * member are always merged by the same thread.
+	 */
+	@AttributeDefinition(min = "1")
+	int gossip_merge_threads() default 4;
+
 	@AttributeDefinition(min = "0")
 	long sync_interval() default 20000;
 
 	@AttributeDefinition(min = "0")
 	long sync_retry() default 1000;
 
+	/**
+	 * Compare digests of the members' states when synchronizing over TCP, and
+	 * only exchange the members which differ, rather than sending a header for
+	 * every member. Older nodes reject digest synchronization, so only enable
+	 * this once every node in the cluster understands it.
+	 */
+	boolean sync_digests() default false;
+
 	String[] initial_peers();
 
 	String cluster_name();
@@ -12,8 +12,11 @@
  */
 package org.eclipse.ot.rsa.cluster.gossip.net;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -34,9 +37,30 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.util.concurrent.PromiseCombiner;
 
+/**
+ * Synchronizes the members known to two nodes over TCP. Both ends send the
+ * same messages at the same time, starting with an exchange header.
+ * <p>
+ * In a {@link #FULL_EXCHANGE} both ends then send a header snapshot for every
+ * member that they know. In a {@link #DIGEST_EXCHANGE} the ends walk a
+ * {@link DigestTree} from the root, sending the digests of the tree nodes
+ * which differed in the previous round, and only send header snapshots for
+ * the members in the leaves which differ. Each end then sends the full
+ * snapshots of the members which are newer than the other end's headers.
+ */
 public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter {
 
-	private static final Logger				logger	= LoggerFactory.getLogger(AbstractTCPReplicator.class);
+	private static final Logger				logger			= LoggerFactory.getLogger(AbstractTCPReplicator.class);
+
+	/**
+	 * The version of an exchange which sends every header
+	 */
+	protected static final int				FULL_EXCHANGE	= 2;
+
+	/**
+	 * The version of an exchange which compares digests before sending headers
+	 */
+	protected static final int				DIGEST_EXCHANGE	= 3;
 
 	protected final UUID					localId;
 
@@ -46,7 +70,10 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 
 	private final ChannelPromise			syncCompletionPromise;
 
-	public AbstractTCPReplicator(Channel channel, UUID localId, Gossip gossip, Collection<Snapshot> snapshotHeaders) {
+	protected int							version;
+
+	public AbstractTCPReplicator(Channel channel, UUID localId, Gossip gossip, Collection<Snapshot> snapshotHeaders,
+		int version) {
 
 		syncCompletionPromise = channel.newPromise();
 
@@ -55,6 +82,7 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 		this.localId = localId;
 		this.gossip = gossip;
 		this.snapshotHeaders = snapshotHeaders;
+		this.version = version;
 	}
 
 	public ChannelFuture getSyncCompletionFuture() {
@@ -71,11 +99,24 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 		syncCompletionPromise.tryFailure(new IllegalStateException("Handler removed before completion"));
 	}
 
+	/**
+	 * Write the exchange header, followed by every header snapshot in a
+	 * {@link #FULL_EXCHANGE}
+	 */
+	protected void writeExchangeStart(ChannelHandlerContext ctx, long exchangeId) {
+		ctx.write(getHeader(ctx, exchangeId));
+		if (version == FULL_EXCHANGE) {
+			writeSnapshots(ctx, snapshotHeaders);
+		} else {
+			ctx.flush();
+		}
+	}
+
 	protected ByteBuf getHeader(ChannelHandlerContext ctx, long exchangeId) {
 		ByteBuf buffer = ctx.alloc()
 			.buffer(29);
 
-		buffer.writeByte(2);
+		buffer.writeByte(version);
 		buffer.writeLong(exchangeId);
 		buffer.writeLong(localId.getMostSignificantBits());
 		buffer.writeLong(localId.getLeastSignificantBits());
@@ -106,6 +147,7 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 
 	protected static enum REPLICATION_STATE {
 		HEADER,
+		DIGESTS,
 		SNAPSHOTS_LITE,
 		SNAPSHOTS_FULL
 	}
@@ -118,6 +160,21 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 
 	private Map<UUID, Snapshot>	receivedSnapshots	= new HashMap<>();
 
+	/**
+	 * The local headers to compare with the headers sent by the remote end,
+	 * or <code>null</code> to compare all of them
+	 */
+	private List<Snapshot>		comparedHeaders;
+
+	private DigestTree			tree;
+
+	private int					level;
+
+	/**
+	 * The tree nodes whose digests are being compared
+	 */
+	private int[]				frontier;
+
 	private ChannelFuture		outputShutdown;
 
 	@Override
@@ -144,6 +201,9 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 			case HEADER :
 				handleHeader(ctx);
 				break;
+			case DIGESTS :
+				handleDigests(ctx);
+				break;
 			case SNAPSHOTS_LITE :
 				handleLiteSnapshots(ctx);
 				break;
@@ -155,7 +215,9 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 
 	private void handleHeader(ChannelHandlerContext ctx) {
 
-		if (unread.getByte(unread.readerIndex()) != 2) {
+		int incomingVersion = unread.getByte(unread.readerIndex());
+		if ((incomingVersion != FULL_EXCHANGE && incomingVersion != DIGEST_EXCHANGE)
+			|| !acceptVersion(incomingVersion)) {
 			logger.warn("Received an invalid gossip synchronization exchange from {}", ctx.channel()
 				.remoteAddress());
 			ctx.close();
@@ -177,10 +239,94 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 			syncCompletionPromise.tryFailure(new IllegalArgumentException("Failed to validate the exchange header"));
 			ctx.close();
 			return;
-		} else {
+		} else if (version == FULL_EXCHANGE) {
 			snapshotsExpected = snapshotsToReceive;
 			state = REPLICATION_STATE.SNAPSHOTS_LITE;
 			processRead(ctx);
+		} else {
+			// In a digest exchange the header holds the number of members, and
+			// both ends pick the same tree depth from the larger
+			tree = new DigestTree(snapshotHeaders,
+				DigestTree.depthFor(Math.max(snapshotHeaders.size(), snapshotsToReceive)));
+			level = 0;
+			frontier = new int[] {
+				0
+			};
+			writeDigests(ctx);
+			state = REPLICATION_STATE.DIGESTS;
+			processRead(ctx);
+		}
+	}
+
+	/**
+	 * @param incomingVersion the version of the exchange started by the remote
+	 *            end
+	 * @return <code>true</code> if this end can take part in the exchange
+	 */
+	protected boolean acceptVersion(int incomingVersion) {
+		return incomingVersion == version;
+	}
+
+	private void writeDigests(ChannelHandlerContext ctx) {
+		long[] digests = tree.digests(level, frontier);
+		ByteBuf buffer = ctx.alloc()
+			.buffer(4 + 8 * digests.length);
+		buffer.writeInt(digests.length);
+		for (long digest : digests) {
+			buffer.writeLong(digest);
+		}
+		ctx.writeAndFlush(buffer);
+	}
+
+	private void handleDigests(ChannelHandlerContext ctx) {
+		while (true) {
+			if (unread.readableBytes() < 4) {
+				return;
+			}
+			int count = unread.getInt(unread.readerIndex());
+			if (count != frontier.length) {
+				logger.warn("Received an invalid gossip synchronization digest from {}", ctx.channel()
+					.remoteAddress());
+				syncCompletionPromise.tryFailure(new IllegalArgumentException("Failed to validate the digests"));
+				ctx.close();
+				return;
+			}
+			if (unread.readableBytes() < 4 + 8 * count) {
+				return;
+			}
+			unread.skipBytes(4);
+
+			long[] local = tree.digests(level, frontier);
+			int[] differing = new int[count];
+			int differences = 0;
+			for (int i = 0; i < count; i++) {
+				if (unread.readLong() != local[i]) {
+					differing[differences++] = frontier[i];
+				}
+			}
+			differing = Arrays.copyOf(differing, differences);
+
+			if (differences > 0 && level < tree.depth()) {
+				level++;
+				frontier = DigestTree.children(differing);
+				writeDigests(ctx);
+				continue;
+			}
+
+			comparedHeaders = differences == 0 ? Collections.emptyList() : tree.members(differing);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Found {} members to compare with {} after {} rounds", comparedHeaders.size(),
+					ctx.channel()
+						.remoteAddress(),
+					level + 1);
+			}
+			ctx.write(Unpooled.copyInt(comparedHeaders.size()));
+			writeSnapshots(ctx, comparedHeaders);
+
+			snapshotsExpected = -1;
+			state = REPLICATION_STATE.SNAPSHOTS_LITE;
+			processRead(ctx);
+			return;
 		}
 	}
 
@@ -196,6 +342,14 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 		int incomingSnapshotLength);
 
 	private void handleLiteSnapshots(ChannelHandlerContext ctx) {
+		if (snapshotsExpected < 0) {
+			if (unread.readableBytes() < 4) {
+				return;
+			} else {
+				snapshotsExpected = unread.readInt();
+			}
+		}
+
 		while (snapshotsExpected > 0) {
 			if (readSnapshot()) {
 				unread.discardSomeReadBytes();
@@ -204,7 +358,8 @@ public abstract class AbstractTCPReplicator extends ChannelInboundHandlerAdapter
 			}
 		}
 
-		Collection<Snapshot> fullSnapshotsToSend = getFullSnapshotsToSend(snapshotHeaders, receivedSnapshots);
+		Collection<Snapshot> fullSnapshotsToSend = getFullSnapshotsToSend(
+			comparedHeaders == null ? snapshotHeaders : comparedHeaders, receivedSnapshots);
 		ctx.write(Unpooled.copyInt(fullSnapshotsToSend.size()));
 		writeSnapshots(ctx, fullSnapshotsToSend)
 			.addListener(f -> outputShutdown = ((SocketChannel) ctx.channel()).shutdownOutput());
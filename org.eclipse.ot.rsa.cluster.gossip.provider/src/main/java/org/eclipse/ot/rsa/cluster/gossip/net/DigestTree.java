@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.cluster.gossip.net;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
+
+/**
+ * A hash tree over the state sequence numbers of the cluster members, used to
+ * find the members which differ between two nodes without exchanging a header
+ * for every member.
+ * <p>
+ * Each member is placed in a leaf using a hash of its id, so that it is in the
+ * same leaf on every node. The digest of a tree node is the XOR of the hashes
+ * of (id, state sequence number) for the members below it, so two nodes with
+ * the same members at the same states have the same digests. Each tree node
+ * has {@link #FANOUT} children, and the depth of the tree grows with the size
+ * of the cluster so that each leaf holds a handful of members.
+ */
+final class DigestTree {
+
+	static final int					FANOUT_BITS			= 4;
+
+	static final int					FANOUT				= 1 << FANOUT_BITS;
+
+	static final int					MAX_DEPTH			= 4;
+
+	/**
+	 * The number of members that a leaf should hold
+	 */
+	private static final int			MEMBERS_PER_LEAF	= 4;
+
+	private final int					depth;
+
+	/**
+	 * The digests of each level of the tree, the root is level zero
+	 */
+	private final long[][]				levels;
+
+	private final List<List<Snapshot>>	leaves;
+
+	DigestTree(Collection<Snapshot> headers, int depth) {
+		if (depth < 1 || depth > MAX_DEPTH) {
+			throw new IllegalArgumentException("The depth must be between 1 and " + MAX_DEPTH);
+		}
+		this.depth = depth;
+
+		levels = new long[depth + 1][];
+		for (int level = 0; level <= depth; level++) {
+			levels[level] = new long[1 << (FANOUT_BITS * level)];
+		}
+
+		int leafCount = levels[depth].length;
+		leaves = new ArrayList<>(leafCount);
+		for (int i = 0; i < leafCount; i++) {
+			leaves.add(null);
+		}
+
+		for (Snapshot s : headers) {
+			long position = position(s.getId());
+			long hash = mix(position + s.getStateSequenceNumber());
+			int leaf = (int) (position >>> (64 - FANOUT_BITS * depth));
+
+			for (int level = 0; level <= depth; level++) {
+				levels[level][leaf >>> (FANOUT_BITS * (depth - level))] ^= hash;
+			}
+
+			List<Snapshot> members = leaves.get(leaf);
+			if (members == null) {
+				members = new ArrayList<>(MEMBERS_PER_LEAF);
+				leaves.set(leaf, members);
+			}
+			members.add(s);
+		}
+	}
+
+	/**
+	 * @param members the number of members known to each end of an exchange
+	 * @return the depth of tree to use, which must be the same at both ends
+	 */
+	static int depthFor(int members) {
+		int depth = 1;
+		while (depth < MAX_DEPTH && (MEMBERS_PER_LEAF << (FANOUT_BITS * depth)) < members) {
+			depth++;
+		}
+		return depth;
+	}
+
+	int depth() {
+		return depth;
+	}
+
+	/**
+	 * @param level the level of the tree, the root is level zero
+	 * @param nodes the indexes of nodes at that level
+	 * @return the digests of the nodes
+	 */
+	long[] digests(int level, int[] nodes) {
+		long[] digests = new long[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			digests[i] = levels[level][nodes[i]];
+		}
+		return digests;
+	}
+
+	/**
+	 * @param leaves the indexes of some leaves
+	 * @return the members in those leaves
+	 */
+	List<Snapshot> members(int[] leaves) {
+		List<Snapshot> members = new ArrayList<>();
+		for (int leaf : leaves) {
+			List<Snapshot> l = this.leaves.get(leaf);
+			if (l != null) {
+				members.addAll(l);
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * @param nodes the indexes of some nodes
+	 * @return the indexes of their children, in the next level of the tree
+	 */
+	static int[] children(int[] nodes) {
+		int[] children = new int[nodes.length * FANOUT];
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j = 0; j < FANOUT; j++) {
+				children[i * FANOUT + j] = (nodes[i] << FANOUT_BITS) + j;
+			}
+		}
+		return children;
+	}
+
+	private static long position(UUID id) {
+		return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+	}
+
+	/**
+	 * The SplitMix64 finalizer
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.cluster.gossip.net;
+
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+/**
+ * The native epoll transport. When several datagrams are flushed together the
+ * epoll datagram channel sends them using a single <code>sendmmsg</code> call.
+ * <p>
+ * The epoll packages are optional, so this class must only be used once
+ * {@link #isAvailable()} has returned <code>true</code>, and any
+ * {@link LinkageError} from loading it must be treated as the transport being
+ * unavailable.
+ */
+final class EpollTransport {
+
+	private EpollTransport() {}
+
+	static boolean isAvailable() {
+		return Epoll.isAvailable();
+	}
+
+	static EventLoopGroup eventLoopGroup(int threads, ThreadFactory threadFactory) {
+		return new EpollEventLoopGroup(threads, threadFactory);
+	}
+
+	static Class<? extends DatagramChannel> datagramChannel() {
+		return EpollDatagramChannel.class;
+	}
+
+	static Class<? extends SocketChannel> socketChannel() {
+		return EpollSocketChannel.class;
+	}
+
+	static Class<? extends ServerSocketChannel> serverSocketChannel() {
+		return EpollServerSocketChannel.class;
+	}
+}
@@ -28,7 +28,16 @@ public class IncomingTCPReplicator extends AbstractTCPReplicator {
 	private static final Logger logger = LoggerFactory.getLogger(IncomingTCPReplicator.class);
 
 	public IncomingTCPReplicator(Channel channel, UUID localId, Gossip gossip) {
-		super(channel, localId, gossip, gossip.getAllSnapshots());
+		super(channel, localId, gossip, gossip.getAllSnapshots(), FULL_EXCHANGE);
+	}
+
+	/**
+	 * Take part in whichever kind of exchange the remote end started
+	 */
+	@Override
+	protected boolean acceptVersion(int incomingVersion) {
+		version = incomingVersion;
+		return true;
 	}
 
 	@Override
@@ -50,8 +59,7 @@ public class IncomingTCPReplicator extends AbstractTCPReplicator {
 			}
 		}
 
-		ctx.write(getHeader(ctx, incomingExchangeId));
-		writeSnapshots(ctx, snapshotHeaders);
+		writeExchangeStart(ctx, incomingExchangeId);
 
 		return incomingSnapshotLength;
 	}
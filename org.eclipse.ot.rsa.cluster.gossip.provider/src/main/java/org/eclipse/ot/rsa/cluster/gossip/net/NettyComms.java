@@ -24,6 +24,8 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -32,10 +34,12 @@ import org.eclipse.ot.rsa.cluster.gossip.api.Gossip;
 import org.eclipse.ot.rsa.cluster.gossip.api.GossipComms;
 import org.eclipse.ot.rsa.cluster.gossip.api.GossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.config.ClusterGossipConfig;
+import org.eclipse.ot.rsa.cluster.gossip.v1.messages.ForwardableGossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.MessageType;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
 import org.eclipse.ot.rsa.cluster.manager.provider.MemberInfo;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
+import org.eclipse.ot.rsa.transport.util.IOTransport;
 import org.osgi.service.cm.ConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,11 +54,13 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
@@ -67,6 +73,17 @@ public class NettyComms implements GossipComms {
 
 	private static final Logger			logger				= LoggerFactory.getLogger(NettyComms.class);
 
+	/**
+	 * Room left in each datagram for the IPv6 and UDP headers, and for the
+	 * header, IV, MAC and padding of a DTLS record
+	 */
+	private static final int			DATAGRAM_OVERHEAD	= 40 + 8 + 80;
+
+	/**
+	 * The gossip header, version and message type
+	 */
+	private static final int			HEADER_SIZE			= 3;
+
 	private final UUID					id;
 	private final NettyTLS				ssl;
 
@@ -84,6 +101,9 @@ public class NettyComms implements GossipComms {
 	private final AtomicLong			exchangeIdGenerator	= new AtomicLong();
 
 	private final int					networkMTU;
+	private final int					maxMessageSize;
+
+	private final boolean				syncDigests;
 
 	public NettyComms(String cluster, UUID id, ClusterGossipConfig config, NettyTLS ssl, Gossip gossip)
 		throws IOException, ConfigurationException, InterruptedException {
@@ -109,14 +129,33 @@ public class NettyComms implements GossipComms {
 		}
 
 		networkMTU = discoveredMTU <= 0 ? 1500 : discoveredMTU;
+		maxMessageSize = networkMTU - DATAGRAM_OVERHEAD - HEADER_SIZE;
+		syncDigests = config.sync_digests();
 
-		this.eventLoop = new NioEventLoopGroup(1, r -> {
+		ThreadFactory threadFactory = r -> {
 			Thread t = new FastThreadLocalThread(r, "Gossip IO Worker - " + cluster);
 			t.setDaemon(true);
 			return t;
-		});
+		};
+
+		// All of the channels share one event loop, so they must all use the
+		// same transport
+		Class<? extends DatagramChannel> datagramChannel;
+		Class<? extends SocketChannel> socketChannel;
+		Class<? extends ServerSocketChannel> serverSocketChannel;
+		if (IOTransport.useEpoll(config.io_transport(), epollAvailable())) {
+			this.eventLoop = EpollTransport.eventLoopGroup(1, threadFactory);
+			datagramChannel = EpollTransport.datagramChannel();
+			socketChannel = EpollTransport.socketChannel();
+			serverSocketChannel = EpollTransport.serverSocketChannel();
+		} else {
+			this.eventLoop = new NioEventLoopGroup(1, threadFactory);
+			datagramChannel = NioDatagramChannel.class;
+			socketChannel = NioSocketChannel.class;
+			serverSocketChannel = NioServerSocketChannel.class;
+		}
 
-		udpChannel = (DatagramChannel) new Bootstrap().channel(NioDatagramChannel.class)
+		udpChannel = (DatagramChannel) new Bootstrap().channel(datagramChannel)
 			.group(eventLoop)
 			.handler(new ChannelInitializer<Channel>() {
 				@Override
@@ -134,7 +173,7 @@ public class NettyComms implements GossipComms {
 			.sync()
 			.channel();
 
-		tcpClientChannel = new Bootstrap().channel(NioSocketChannel.class)
+		tcpClientChannel = new Bootstrap().channel(socketChannel)
 			.group(eventLoop)
 			.handler(new ChannelInitializer<Channel>() {
 				@Override
@@ -147,7 +186,7 @@ public class NettyComms implements GossipComms {
 				}
 			});
 
-		tcpServerChannel = (ServerSocketChannel) new ServerBootstrap().channel(NioServerSocketChannel.class)
+		tcpServerChannel = (ServerSocketChannel) new ServerBootstrap().channel(serverSocketChannel)
 			.group(eventLoop)
 			.childHandler(new ChannelInitializer<Channel>() {
 				@Override
@@ -174,6 +213,14 @@ public class NettyComms implements GossipComms {
 
 	}
 
+	private static boolean epollAvailable() {
+		try {
+			return EpollTransport.isAvailable();
+		} catch (LinkageError e) {
+			return false;
+		}
+	}
+
 	@Override
 	public List<Future<?>> destroy() {
 		if (!open.getAndSet(false))
@@ -199,44 +246,91 @@ public class NettyComms implements GossipComms {
 			return;
 		}
 
+		List<GossipMessage> messages;
+		if (message instanceof ForwardableGossipMessage) {
+			messages = new ArrayList<>(((ForwardableGossipMessage) message).pack(maxMessageSize));
+		} else {
+			messages = Collections.singletonList(message);
+		}
+
+		List<ByteBuf> datagrams = new ArrayList<>(messages.size());
+		try {
+			for (GossipMessage m : messages) {
+				datagrams.add(encode(m));
+			}
+		} catch (Exception e) {
+			logger.error("Unable to send a gossipmessage", e);
+			datagrams.forEach(ByteBuf::release);
+			return;
+		}
+
+		// Write every datagram to every participant and then flush once, so
+		// that a native transport can send them all in a single call
+		List<InetSocketAddress> recipients = new ArrayList<>(participants);
+		Runnable send = () -> {
+			try {
+				for (InetSocketAddress p : recipients) {
+					for (ByteBuf datagram : datagrams) {
+						safeSend(p, datagram);
+					}
+				}
+				udpChannel.flush();
+			} catch (Exception e) {
+				logger.error("Unable to send a gossipmessage", e);
+			} finally {
+				datagrams.forEach(ByteBuf::release);
+			}
+		};
+
+		EventLoop loop = udpChannel.eventLoop();
+		if (loop.inEventLoop()) {
+			send.run();
+		} else {
+			try {
+				loop.execute(send);
+			} catch (RejectedExecutionException ree) {
+				logger.debug("Unable to send a gossipmessage as communications are shutting down");
+				datagrams.forEach(ByteBuf::release);
+			}
+		}
+	}
+
+	private ByteBuf encode(GossipMessage message) {
 		ByteBuf buf = udpChannel.alloc()
-			.ioBuffer(message.estimateSize() + 3);
+			.ioBuffer(message.estimateSize() + HEADER_SIZE);
 		try {
 			buf.writeByte(2);
 			buf.writeByte(1);
 			buf.writeByte(message.getType()
 				.ordinal());
 			message.writeOut(buf);
+		} catch (RuntimeException e) {
+			buf.release();
+			throw e;
+		}
 
-			if (logger.isInfoEnabled()) {
-				int size = buf.readableBytes();
-				if (size > networkMTU) {
-					Instant now = Instant.now();
-					boolean log;
-					synchronized (this) {
-						if (lastReportedLargeMessage == null
-							|| now.isAfter(lastReportedLargeMessage.plus(5, ChronoUnit.MINUTES))) {
-							lastReportedLargeMessage = now;
-							log = true;
-						} else {
-							log = false;
-						}
-					}
-					if (log) {
-						logger.info(
-							"A large gossip message ({} bytes) is being sent, this often indicates that a message is being forwarded too many times. This message will be suppressed for the next 5 minutes",
-							size);
+		if (logger.isInfoEnabled()) {
+			int size = buf.readableBytes();
+			if (size > networkMTU) {
+				Instant now = Instant.now();
+				boolean log;
+				synchronized (this) {
+					if (lastReportedLargeMessage == null
+						|| now.isAfter(lastReportedLargeMessage.plus(5, ChronoUnit.MINUTES))) {
+						lastReportedLargeMessage = now;
+						log = true;
+					} else {
+						log = false;
 					}
 				}
+				if (log) {
+					logger.info(
+						"A large gossip message ({} bytes) is being sent, this often indicates that a message is being forwarded too many times. This message will be suppressed for the next 5 minutes",
+						size);
+				}
 			}
-
-			participants.stream()
-				.forEach(p -> safeSend(p, buf));
-		} catch (Exception e) {
-			logger.error("Unable to send a gossipmessage", e);
-		} finally {
-			buf.release();
 		}
+		return buf;
 	}
 
 	private void safeSend(InetSocketAddress p, ByteBuf data) {
@@ -252,7 +346,7 @@ public class NettyComms implements GossipComms {
 			writePromise = udpChannel.voidPromise();
 		}
 
-		udpChannel.writeAndFlush(new DatagramPacket(data.retainedDuplicate(), p), writePromise);
+		udpChannel.write(new DatagramPacket(data.retainedDuplicate(), p), writePromise);
 	}
 
 	/*
@@ -277,7 +371,8 @@ public class NettyComms implements GossipComms {
 			.get(SslHandler.class);
 
 		OutgoingTCPReplicator replicator = new OutgoingTCPReplicator(connect.channel(), id, gossip, member.getId(),
-			exchangeIdGenerator.get(), snapshots, sslHandler == null ? connect : sslHandler.handshakeFuture());
+			exchangeIdGenerator.get(), snapshots, sslHandler == null ? connect : sslHandler.handshakeFuture(),
+			syncDigests);
 
 		connect.channel()
 			.pipeline()
@@ -296,6 +391,14 @@ public class NettyComms implements GossipComms {
 		return ssl.getTLSServerHandler() != null;
 	}
 
+	/**
+	 * @return the largest datagram, including the gossip header, that
+	 *         forwarded snapshots are packed into
+	 */
+	int getMaxDatagramSize() {
+		return maxMessageSize + HEADER_SIZE;
+	}
+
 	public static class GossipHandler extends ChannelInboundHandlerAdapter {
 
 		private final Gossip gossip;
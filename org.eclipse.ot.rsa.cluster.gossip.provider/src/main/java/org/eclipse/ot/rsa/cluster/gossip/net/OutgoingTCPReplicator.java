@@ -34,9 +34,22 @@ public class OutgoingTCPReplicator extends AbstractTCPReplicator {
 
 	private final Future<?>		start;
 
+	/**
+	 * Create a replicator which sends a header for every member, which all
+	 * versions of the remote end support
+	 */
 	public OutgoingTCPReplicator(Channel channel, UUID localId, Gossip gossip, UUID remoteId, long exchangeId,
 		Collection<Snapshot> snapshotHeaders, Future<?> readyToSend) {
-		super(channel, localId, gossip, snapshotHeaders);
+		this(channel, localId, gossip, remoteId, exchangeId, snapshotHeaders, readyToSend, false);
+	}
+
+	/**
+	 * @param digests <code>true</code> to compare digests before sending
+	 *            headers, which the remote end must support
+	 */
+	public OutgoingTCPReplicator(Channel channel, UUID localId, Gossip gossip, UUID remoteId, long exchangeId,
+		Collection<Snapshot> snapshotHeaders, Future<?> readyToSend, boolean digests) {
+		super(channel, localId, gossip, snapshotHeaders, digests ? DIGEST_EXCHANGE : FULL_EXCHANGE);
 		this.remoteId = remoteId;
 		this.exchangeId = exchangeId;
 		this.start = readyToSend;
@@ -47,8 +60,7 @@ public class OutgoingTCPReplicator extends AbstractTCPReplicator {
 
 		start.addListener(f -> {
 			if (f.isSuccess()) {
-				ctx.write(getHeader(ctx, exchangeId));
-				writeSnapshots(ctx, snapshotHeaders);
+				writeExchangeStart(ctx, exchangeId);
 			} else {
 				if (logger.isDebugEnabled()) {
 					logger.debug("Failed to synchronize with {} on {}", remoteId, ctx.channel()
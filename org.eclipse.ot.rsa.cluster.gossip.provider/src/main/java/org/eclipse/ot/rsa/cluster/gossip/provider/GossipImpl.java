@@ -33,6 +33,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -53,7 +54,6 @@ import org.eclipse.ot.rsa.cluster.gossip.v1.messages.ForwardableGossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.PingRequest;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.PingResponse;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
-import org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType;
 import org.eclipse.ot.rsa.cluster.manager.provider.ClusterManagerImpl;
 import org.eclipse.ot.rsa.cluster.manager.provider.MemberInfo;
 import org.eclipse.ot.rsa.cluster.manager.provider.Update;
@@ -102,6 +102,12 @@ public class GossipImpl implements InternalClusterListener, Gossip {
 
 	volatile long																	lastPing		= 0;
 
+	/**
+	 * The state sequence before the first local update of the current
+	 * broadcast, so that the payload rounds carry every change made during it
+	 */
+	volatile short																	deltaBase;
+
 	final AtomicBoolean																inGossip		= new AtomicBoolean();
 
 	public GossipImpl(BundleContext context, ClusterManager manager, Function<Gossip, GossipComms> commsCreator,
@@ -182,73 +188,94 @@ public class GossipImpl implements InternalClusterListener, Gossip {
 		}
 	}
 
+	/*
+	 * Snapshots are merged on the worker for their member, so that the updates
+	 * for a member are processed in order while different members are merged
+	 * in parallel, and off the IO thread
+	 */
 	private void handleGossip(InetSocketAddress sender, ForwardableGossipMessage gm) {
-		gm.getAllSnapshots(sender)
-			.stream()
-			.forEach((s) -> {
-
-				if (comms.preventIndirectDiscovery() && manager.getMemberInfo(s.getId()) == null) {
-					if (logger.isDebugEnabled()) {
-						logger.debug("The node {} in cluster {} is not currently known and must be directly pinged.",
-							new Object[] {
-								s.getId(), cluster
-						});
-					}
-					ping(s.getUdpAddress());
-					return;
+		for (Snapshot s : gm.getAllSnapshots(sender)) {
+			try {
+				manager.getMergeExecutor(s.getId())
+					.execute(() -> handleSnapshot(s));
+			} catch (RejectedExecutionException ree) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Unable to merge the update for node {} as the cluster is closing", s.getId());
 				}
+			}
+		}
+	}
 
-				if (logger.isTraceEnabled()) {
-					logger.debug("The node {} in cluster {} has received an update.", new Object[] {
+	private void handleSnapshot(Snapshot s) {
+		try {
+			processSnapshot(s);
+		} catch (Exception e) {
+			logger.error("There was an error merging the update for node {}", s.getId(), e);
+		}
+	}
+
+	private void processSnapshot(Snapshot s) {
+		if (comms.preventIndirectDiscovery() && manager.getMemberInfo(s.getId()) == null) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("The node {} in cluster {} is not currently known and must be directly pinged.",
+					new Object[] {
 						s.getId(), cluster
-					});
-				}
+				});
+			}
+			ping(s.getUdpAddress());
+			return;
+		}
+
+		if (logger.isTraceEnabled()) {
+			logger.debug("The node {} in cluster {} has received an update.", new Object[] {
+				s.getId(), cluster
+			});
+		}
+
+		Update u = manager.mergeSnapshot(s);
+		if (manager.getLocalUUID()
+			.equals(s.getId()) && s.getUdpAddress() != null) {
+			registerClusterNetworkInfo(s.getUdpAddress()
+				.getAddress());
+		}
 
-				Update u = manager.mergeSnapshot(s);
-				if (manager.getLocalUUID()
-					.equals(s.getId()) && s.getUdpAddress() != null) {
-					registerClusterNetworkInfo(s.getUdpAddress()
-						.getAddress());
+		switch (u) {
+			case RESYNC :
+				if (logger.isTraceEnabled()) {
+					logger.trace("Out of sync with node {}", s.getId());
+				}
+				ping(s.getUdpAddress());
+			case FORWARD :
+				if (s.forwardable()) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("Forwardable snapshot from {}", s.getId());
+					}
+					toSend.merge(s.getId(), s,
+						(o, n) -> (o.getSnapshotTimestamp() - n.getSnapshotTimestamp()) > 0 ? o : n);
 				}
+				break;
+			case CONSUME :
+				break;
+			case FORWARD_LOCAL :
+				if (s.forwardable() && !toSend.containsKey(s.getId())) {
+					if (logger.isTraceEnabled()) {
+						logger.trace("Forward the local snapshot for {} as it is more up to date", s.getId());
+					}
+					MemberInfo info = manager.getMemberInfo(s.getId());
+					Snapshot s2 = info.toSnapshot(PAYLOAD_UPDATE, s.getRemainingHops());
 
-				switch (u) {
-					case RESYNC :
-						if (logger.isTraceEnabled()) {
-							logger.trace("Out of sync with node {}", s.getId());
-						}
-						ping(s.getUdpAddress());
-					case FORWARD :
-						if (s.forwardable()) {
-							if (logger.isTraceEnabled()) {
-								logger.trace("Forwardable snapshot from {}", s.getId());
-							}
-							toSend.merge(s.getId(), s,
-								(o, n) -> (o.getSnapshotTimestamp() - n.getSnapshotTimestamp()) > 0 ? o : n);
-						}
-						break;
-					case CONSUME :
-						break;
-					case FORWARD_LOCAL :
-						if (s.forwardable() && !toSend.containsKey(s.getId())) {
-							if (logger.isTraceEnabled()) {
-								logger.trace("Forward the local snapshot for {} as it is more up to date", s.getId());
-							}
-							MemberInfo info = manager.getMemberInfo(s.getId());
-							Snapshot s2 = info.toSnapshot(PAYLOAD_UPDATE, s.getRemainingHops());
-
-							if (s.getMessageType() != PAYLOAD_UPDATE
-								&& s2.getStateSequenceNumber() == s.getStateSequenceNumber()) {
-								s2 = info.toSnapshot(HEARTBEAT, s.getRemainingHops());
-							}
-
-							toSend.merge(s.getId(), s2,
-								(o, n) -> (o.getSnapshotTimestamp() - n.getSnapshotTimestamp()) > 0 ? o : n);
-						}
-						break;
-					default :
-						logger.warn("Unhandled snapshot update state {}, the snapshot will not be forwarded", u);
+					if (s.getMessageType() != PAYLOAD_UPDATE
+						&& s2.getStateSequenceNumber() == s.getStateSequenceNumber()) {
+						s2 = info.toSnapshot(HEARTBEAT, s.getRemainingHops());
+					}
+
+					toSend.merge(s.getId(), s2,
+						(o, n) -> (o.getSnapshotTimestamp() - n.getSnapshotTimestamp()) > 0 ? o : n);
 				}
-			});
+				break;
+			default :
+				logger.warn("Unhandled snapshot update state {}, the snapshot will not be forwarded", u);
+		}
 	}
 
 	private void respondToFirstContact(Snapshot s) {
@@ -379,7 +406,6 @@ public class GossipImpl implements InternalClusterListener, Gossip {
 		try {
 
 			int updateCycle = updateCycles.getAndUpdate((i) -> (i < 1) ? 0 : i - 1);
-			SnapshotType type = (updateCycle > 0) ? PAYLOAD_UPDATE : HEARTBEAT;
 
 			final Snapshot s;
 			Runnable action;
@@ -414,12 +440,19 @@ public class GossipImpl implements InternalClusterListener, Gossip {
 						.collect(toSet()), cluster);
 				}
 
-				s = manager.getSnapshot(type, config.gossip_hops());
-
-				List<Snapshot> q = toSend.values()
-					.stream()
-					.collect(toList());
-				toSend.clear();
+				s = (updateCycle > 0) ? manager.getDeltaSnapshot(deltaBase, config.gossip_hops())
+					: manager.getSnapshot(HEARTBEAT, config.gossip_hops());
+
+				// Snapshots are merged concurrently by the stripe threads, so
+				// each one is taken by an atomic removal. A snapshot merged
+				// after its removal waits for the next round.
+				List<Snapshot> q = new ArrayList<>();
+				for (UUID id : toSend.keySet()) {
+					Snapshot snapshot = toSend.remove(id);
+					if (snapshot != null) {
+						q.add(snapshot);
+					}
+				}
 
 				action = () -> comms.publish(new ForwardableGossipMessage(cluster, s, q), getEndpoints(partners));
 			}
@@ -501,6 +534,11 @@ public class GossipImpl implements InternalClusterListener, Gossip {
 
 	@Override
 	public void localUpdate(Snapshot s) {
+		// Extend a broadcast which is still running, as some members may have
+		// missed its earlier rounds
+		if (updateCycles.get() == 0) {
+			deltaBase = s.getDeltaBase();
+		}
 		updateCycles.set(config.gossip_broadcast_rounds());
 	}
 
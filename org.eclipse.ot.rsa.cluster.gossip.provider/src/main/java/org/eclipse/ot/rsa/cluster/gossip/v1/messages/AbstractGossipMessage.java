@@ -62,6 +62,10 @@ public abstract class AbstractGossipMessage implements GossipMessage {
 		return new Snapshot(update, sentFrom);
 	}
 
+	Snapshot getSnapshot() {
+		return update;
+	}
+
 	@Override
 	public abstract MessageType getType();
 
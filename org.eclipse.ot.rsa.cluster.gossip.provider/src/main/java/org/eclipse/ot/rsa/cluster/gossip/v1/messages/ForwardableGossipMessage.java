@@ -12,8 +12,10 @@
  */
 package org.eclipse.ot.rsa.cluster.gossip.v1.messages;
 
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.MessageType.FORWARDABLE;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
@@ -23,10 +25,15 @@ import io.netty.buffer.ByteBuf;
 
 public class ForwardableGossipMessage extends AbstractGossipMessage {
 
+	/**
+	 * The number of forwarded snapshots is written as an unsigned byte
+	 */
+	public static final int			MAX_FORWARDS	= 255;
+
 	/**
 	 * What are the other Snapshots from this message?
 	 */
-	private final List<Snapshot> forwards;
+	private final List<Snapshot>	forwards;
 
 	public ForwardableGossipMessage(final ByteBuf input) {
 		super(input);
@@ -67,6 +74,58 @@ public class ForwardableGossipMessage extends AbstractGossipMessage {
 		return toReturn;
 	}
 
+	/**
+	 * Split this message into messages which are no larger than the supplied
+	 * size and carry no more than {@link #MAX_FORWARDS} snapshots. Only the
+	 * first message carries the sender's full snapshot, the others carry a
+	 * heartbeat for the sender so that a large payload is sent just once. The
+	 * first message has no forwarded snapshots if the sender's snapshot leaves
+	 * no room for them, and every other message has at least one, so a
+	 * snapshot which is too large on its own is sent by itself.
+	 *
+	 * @param maxSize the estimated size that each message should fit in
+	 * @return the messages to send, or just this message if it already fits
+	 */
+	public List<ForwardableGossipMessage> pack(int maxSize) {
+		if (forwards.size() <= MAX_FORWARDS && estimateSize() <= maxSize) {
+			return singletonList(this);
+		}
+
+		Snapshot snapshot = getSnapshot();
+		Snapshot heartbeat = toHeartbeat(snapshot);
+		int baseSize = super.estimateSize() + 1;
+		int heartbeatBaseSize = baseSize - snapshot.guessSize() + heartbeat.guessSize();
+
+		List<ForwardableGossipMessage> packed = new ArrayList<>();
+		List<Snapshot> current = new ArrayList<>();
+		int size = baseSize;
+		for (Snapshot s : forwards) {
+			int snapshotSize = s.guessSize();
+			if ((!current.isEmpty() || packed.isEmpty())
+				&& (size + snapshotSize > maxSize || current.size() == MAX_FORWARDS)) {
+				packed.add(new ForwardableGossipMessage(getClusterName(), packed.isEmpty() ? snapshot : heartbeat,
+					current));
+				current = new ArrayList<>();
+				size = heartbeatBaseSize;
+			}
+			current.add(s);
+			size += snapshotSize;
+		}
+		packed.add(new ForwardableGossipMessage(getClusterName(), packed.isEmpty() ? snapshot : heartbeat, current));
+		return packed;
+	}
+
+	private static Snapshot toHeartbeat(Snapshot s) {
+		switch (s.getMessageType()) {
+			case PAYLOAD_UPDATE :
+			case PAYLOAD_DELTA :
+				return new Snapshot(s.getId(), s.getUdpAddress(), s.getTcpPort(), s.getStateSequenceNumber(),
+					s.getSnapshotTimestamp(), HEARTBEAT, null, s.getRemainingHops());
+			default :
+				return s;
+		}
+	}
+
 	@Override
 	public MessageType getType() {
 		return FORWARDABLE;
@@ -35,6 +35,12 @@ public class Snapshot {
 
 	private static final Logger			logger	= LoggerFactory.getLogger(Snapshot.class);
 
+	/**
+	 * The value length written for an attribute removed by a delta. Values are
+	 * never this large.
+	 */
+	private static final int			REMOVED	= 0xFFFF;
+
 	/**
 	 * The id of this node
 	 */
@@ -70,10 +76,33 @@ public class Snapshot {
 	 */
 	private final Map<String, byte[]>	data;
 
+	/**
+	 * The state counter that the changes in a {@link SnapshotType#PAYLOAD_DELTA}
+	 * apply on top of. For other types this is the state counter.
+	 */
+	private final short					deltaBase;
+
 	private final int					hopsToLive;
 
 	public Snapshot(UUID id, int tcpPort, short stateSequenceNumber, SnapshotType type, Map<String, byte[]> data,
 		int hopsToLive) {
+		this(id, tcpPort, stateSequenceNumber, stateSequenceNumber, type, data, hopsToLive);
+	}
+
+	/**
+	 * Create a {@link SnapshotType#PAYLOAD_DELTA} snapshot
+	 *
+	 * @param deltaBase the state counter that the changes apply on top of
+	 * @param changes the attributes changed after the delta base, with a
+	 *            <code>null</code> value for each removed attribute
+	 */
+	public Snapshot(UUID id, int tcpPort, short stateSequenceNumber, short deltaBase, Map<String, byte[]> changes,
+		int hopsToLive) {
+		this(id, tcpPort, stateSequenceNumber, deltaBase, SnapshotType.PAYLOAD_DELTA, changes, hopsToLive);
+	}
+
+	private Snapshot(UUID id, int tcpPort, short stateSequenceNumber, short deltaBase, SnapshotType type,
+		Map<String, byte[]> data, int hopsToLive) {
 		this.id = id;
 		this.address = null;
 		this.tcpPort = tcpPort;
@@ -81,6 +110,7 @@ public class Snapshot {
 		this.snapshotTimestamp = (int) ((0xFFFFFF & NANOSECONDS.toMillis(System.nanoTime())) << 8);
 		this.snapshotType = type;
 		this.data = data == null ? emptyMap() : data;
+		this.deltaBase = deltaBase;
 		this.hopsToLive = Math.max(0, Math.min(255, hopsToLive));
 	}
 
@@ -92,6 +122,7 @@ public class Snapshot {
 		this.snapshotTimestamp = s.snapshotTimestamp;
 		this.snapshotType = s.snapshotType;
 		this.data = s.data;
+		this.deltaBase = s.deltaBase;
 		this.hopsToLive = Math.max(0, Math.min(255, s.hopsToLive - 1));
 	}
 
@@ -111,14 +142,20 @@ public class Snapshot {
 				address = inetAddress == null ? null : new InetSocketAddress(inetAddress, input.readUnsignedShort());
 				tcpPort = input.readUnsignedShort();
 				data = new HashMap<>();
-				if (snapshotType == SnapshotType.PAYLOAD_UPDATE) {
+				deltaBase = snapshotType == SnapshotType.PAYLOAD_DELTA ? input.readShort() : stateSequenceNumber;
+				if (snapshotType == SnapshotType.PAYLOAD_UPDATE || snapshotType == SnapshotType.PAYLOAD_DELTA) {
 					int size = input.readUnsignedShort();
 					for (int i = 0; i < size; i++) {
 						String key = input.readCharSequence(input.readUnsignedShort(), UTF_8)
 							.toString();
-						byte[] value = new byte[input.readUnsignedShort()];
-						input.readBytes(value);
-						data.put(key, value);
+						int length = input.readUnsignedShort();
+						if (length == REMOVED) {
+							data.put(key, null);
+						} else {
+							byte[] value = new byte[length];
+							input.readBytes(value);
+							data.put(key, value);
+						}
 					}
 				}
 				this.hopsToLive = input.readUnsignedByte();
@@ -126,6 +163,7 @@ public class Snapshot {
 				address = null;
 				tcpPort = -1;
 				data = null;
+				deltaBase = stateSequenceNumber;
 				hopsToLive = -1;
 			}
 
@@ -144,6 +182,7 @@ public class Snapshot {
 		this.snapshotTimestamp = snapshotTime;
 		this.snapshotType = type;
 		this.data = data == null ? Collections.emptyMap() : data;
+		this.deltaBase = stateSequenceNumber;
 		this.hopsToLive = hopsToLive;
 	}
 
@@ -164,12 +203,18 @@ public class Snapshot {
 
 				output.writeShort(tcpPort);
 
-				if (snapshotType == SnapshotType.PAYLOAD_UPDATE) {
+				if (snapshotType == SnapshotType.PAYLOAD_DELTA) {
+					output.writeShort(deltaBase);
+				}
+				if (snapshotType == SnapshotType.PAYLOAD_UPDATE || snapshotType == SnapshotType.PAYLOAD_DELTA) {
 					output.writeShort(data.size());
 					for (Entry<String, byte[]> e : data.entrySet()) {
 						AbstractGossipMessage.writeUTF8(output, e.getKey());
 						byte[] value = e.getValue();
-						if (value.length > 0x0FFF) {
+						if (value == null) {
+							output.writeShort(REMOVED);
+							continue;
+						} else if (value.length > 0x0FFF) {
 							throw new IllegalArgumentException(
 								"The stored value for key " + e.getKey() + " is too large");
 						}
@@ -221,6 +266,10 @@ public class Snapshot {
 		return data;
 	}
 
+	public short getDeltaBase() {
+		return deltaBase;
+	}
+
 	public boolean forwardable() {
 		return hopsToLive > 0;
 	}
@@ -251,7 +300,7 @@ public class Snapshot {
 	public String toString() {
 		return "Snapshot [id=" + id + ", address=" + address + ", tcpPort=" + tcpPort + ", stateSequenceNumber="
 			+ stateSequenceNumber + ", snapshotTimestamp=" + snapshotTimestamp + ", snapshotType=" + snapshotType
-			+ ", data=" + data + ", hopsToLive=" + hopsToLive + "]";
+			+ ", data=" + data + ", deltaBase=" + deltaBase + ", hopsToLive=" + hopsToLive + "]";
 	}
 
 	/**
@@ -274,11 +323,12 @@ public class Snapshot {
 				if (data != null) {
 					extra = data.entrySet()
 						.stream()
-						.mapToInt(e -> ByteBufUtil.utf8MaxBytes(e.getKey()) + 2 + e.getValue().length)
+						.mapToInt(e -> ByteBufUtil.utf8MaxBytes(e.getKey()) + 2
+							+ (e.getValue() == null ? 0 : e.getValue().length))
 						.sum();
 				}
 
-				return FIXED_OVERHEAD_HEARTBEAT + extra;
+				return FIXED_OVERHEAD_HEARTBEAT + extra + (snapshotType == SnapshotType.PAYLOAD_DELTA ? 2 : 0);
 		}
 	}
 }
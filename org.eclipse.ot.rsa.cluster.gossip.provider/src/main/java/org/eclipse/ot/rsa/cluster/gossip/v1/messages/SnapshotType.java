@@ -15,5 +15,9 @@ package org.eclipse.ot.rsa.cluster.gossip.v1.messages;
 public enum SnapshotType {
 	HEADER,
 	HEARTBEAT,
-	PAYLOAD_UPDATE;
+	PAYLOAD_UPDATE,
+	/**
+	 * The attributes which changed after the snapshot's delta base
+	 */
+	PAYLOAD_DELTA;
 }
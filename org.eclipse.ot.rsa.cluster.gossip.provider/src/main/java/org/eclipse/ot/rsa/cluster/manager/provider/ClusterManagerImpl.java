@@ -20,6 +20,7 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.eclipse.ot.rsa.cluster.api.ClusterListener.CLUSTER_NAMES;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_DELTA;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_UPDATE;
 import static org.eclipse.ot.rsa.cluster.manager.provider.WrappedClusterListener.getStringPlusProperty;
 
@@ -40,6 +41,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
@@ -59,6 +61,7 @@ import org.osgi.framework.ServiceEvent;
 import org.osgi.framework.ServiceReference;
 
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import io.netty.util.concurrent.Future;
@@ -66,6 +69,11 @@ import io.netty.util.concurrent.Future;
 @ServiceCapability(ClusterInformation.class)
 public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 
+	/**
+	 * How many state sequences of changes are kept for delta snapshots
+	 */
+	static final int																DELTA_HISTORY	= 1024;
+
 	final BundleContext																context;
 	final UUID																		id;
 	final ClusterGossipConfig														config;
@@ -76,9 +84,22 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 	final ReadWriteLock																lock		= new ReentrantReadWriteLock();
 	short																			stateSequence;
 	ConcurrentMap<String, byte[]>													data		= new ConcurrentHashMap<>();
+	/**
+	 * The state sequence at which each attribute last changed
+	 */
+	final Map<String, Short>														versions	= new HashMap<>();
+	/**
+	 * The state sequence at which each recently removed attribute was removed
+	 */
+	final Map<String, Short>														tombstones	= new HashMap<>();
 	final ConcurrentMap<UUID, MemberInfo>											members		= new ConcurrentHashMap<>();
 	final EventExecutorGroup														gossipWorker;
 	final EventExecutorGroup														listenerWorker;
+	final EventExecutorGroup														mergeWorkers;
+	/**
+	 * The merge workers, indexed by the stripe of a member
+	 */
+	final EventExecutor[]															mergeStripes;
 	final InternalClusterListener													internalListener;
 	final HLogger																	log;
 
@@ -102,6 +123,16 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 			t.setDaemon(true);
 			return t;
 		});
+		AtomicInteger mergeThreads = new AtomicInteger();
+		this.mergeWorkers = new DefaultEventExecutorGroup(Math.max(1, config.gossip_merge_threads()), r -> {
+			Thread t = new FastThreadLocalThread(r,
+				"Gossip merge worker " + mergeThreads.incrementAndGet() + " - " + config.cluster_name());
+			t.setDaemon(true);
+			return t;
+		});
+		List<EventExecutor> stripes = new ArrayList<>();
+		mergeWorkers.forEach(stripes::add);
+		this.mergeStripes = stripes.toArray(new EventExecutor[0]);
 
 		if (localAddress != null) {
 			mergeSnapshot(new Snapshot(getSnapshot(PAYLOAD_UPDATE, 0), new InetSocketAddress(localAddress, udpPort)));
@@ -153,6 +184,8 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 					return new Snapshot(id, tcpPort, stateSequence, type, emptyMap(), hops);
 				case PAYLOAD_UPDATE :
 					return new Snapshot(id, tcpPort, stateSequence, PAYLOAD_UPDATE, new HashMap<>(data), hops);
+				case PAYLOAD_DELTA :
+					throw new IllegalArgumentException("A delta snapshot needs a base state sequence");
 				default :
 					throw new IllegalArgumentException("Unknown snapshot type " + type);
 			}
@@ -162,6 +195,34 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 		}
 	}
 
+	@Override
+	public Snapshot getDeltaSnapshot(short since, int hops) {
+		lock.readLock()
+			.lock();
+		try {
+			int behind = (short) (stateSequence - since);
+			if (!config.gossip_delta_updates() || behind < 0 || behind > DELTA_HISTORY) {
+				return new Snapshot(id, tcpPort, stateSequence, PAYLOAD_UPDATE, new HashMap<>(data), hops);
+			}
+
+			Map<String, byte[]> changes = new HashMap<>();
+			versions.forEach((k, v) -> {
+				if ((short) (v - since) > 0) {
+					changes.put(k, data.get(k));
+				}
+			});
+			tombstones.forEach((k, v) -> {
+				if ((short) (v - since) > 0) {
+					changes.put(k, null);
+				}
+			});
+			return new Snapshot(id, tcpPort, stateSequence, since, changes, hops);
+		} finally {
+			lock.readLock()
+				.unlock();
+		}
+	}
+
 	@Override
 	public MemberInfo getMemberInfo(UUID uuid) {
 		return members.get(uuid);
@@ -239,6 +300,7 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 
 		l.add(gossipWorker.shutdownGracefully(500, 1000, TimeUnit.MILLISECONDS));
 		l.add(listenerWorker.shutdownGracefully(500, 1000, TimeUnit.MILLISECONDS));
+		l.add(mergeWorkers.shutdownGracefully(500, 1000, TimeUnit.MILLISECONDS));
 
 		try {
 			for (Future<?> f : l) {
@@ -300,8 +362,11 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 		lock.writeLock()
 			.lock();
 		try {
+			stateSequence++;
 			if (bytes == null) {
 				data.remove(key);
+				versions.remove(key);
+				tombstones.put(key, stateSequence);
 			} else {
 				if (bytes.length > 128) {
 					log.info("A large amount of data %s is being associated with attribute %s", new Object[] {
@@ -309,11 +374,15 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 					});
 				}
 				data.put(key, Arrays.copyOf(bytes, bytes.length));
+				versions.put(key, stateSequence);
+				tombstones.remove(key);
 			}
-			stateSequence++;
+			// Older removals can only be sent in a full snapshot
+			tombstones.values()
+				.removeIf(v -> (short) (stateSequence - v) > DELTA_HISTORY);
 			log.debug("Updating advertised attribute %s. New state sequence is %s", key, stateSequence);
 
-			Snapshot update = getSnapshot(PAYLOAD_UPDATE, 0);
+			Snapshot update = getDeltaSnapshot((short) (stateSequence - 1), 0);
 			mergeSnapshot(update);
 			internalListener.localUpdate(update);
 		} finally {
@@ -349,6 +418,11 @@ public class ClusterManagerImpl implements ClusterInformation, ClusterManager {
 		return gossipWorker;
 	}
 
+	@Override
+	public EventExecutor getMergeExecutor(UUID member) {
+		return mergeStripes[Math.floorMod(member.hashCode(), mergeStripes.length)];
+	}
+
 	@Override
 	public Collection<MemberInfo> getMembers() {
 		return members.values();
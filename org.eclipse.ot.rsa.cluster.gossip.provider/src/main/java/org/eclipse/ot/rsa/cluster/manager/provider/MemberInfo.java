@@ -20,6 +20,7 @@ import static org.eclipse.ot.rsa.cluster.api.Action.REMOVED;
 import static org.eclipse.ot.rsa.cluster.api.Action.UPDATED;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEADER;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_DELTA;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_UPDATE;
 import static org.eclipse.ot.rsa.cluster.manager.provider.Update.CONSUME;
 import static org.eclipse.ot.rsa.cluster.manager.provider.Update.FORWARD;
@@ -46,94 +47,90 @@ import org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The state of a remote member of the cluster.
+ * <p>
+ * The state is held in an immutable {@link State} which is replaced as a whole
+ * by each change, so reads never lock and always see a consistent view of the
+ * member. Changes are serialized on this object, so that the listeners see the
+ * events for a member in the order that they happened.
+ */
 public class MemberInfo {
 
-	private static final Logger			logger		= LoggerFactory.getLogger(MemberInfo.class);
-
-	private final UUID					id;
-	private final String				cluster;
-	private final ClusterInformation	ci;
-
-	private InetAddress					address;
-	private int							udpPort;
-	private int							tcpPort;
-
-	private short						stateSequenceNumber;
-	private int							messageTimeStamp;
-
-	private Map<String, byte[]>			data;
-
-	private long						lastUpdatedTimestamp;
+	private static final Logger						logger	= LoggerFactory.getLogger(MemberInfo.class);
 
-	private int							unreachableCount;
+	private final UUID								id;
+	private final String							cluster;
+	private final ClusterInformation				ci;
 
-	private boolean						initialised	= false;
+	private volatile State							state;
 
-	private boolean						closed;
-
-	private Collection<ClusterListener>	listeners	= new HashSet<>();
+	private volatile Collection<ClusterListener>	listeners;
 
 	public MemberInfo(ClusterGossipConfig config, Snapshot s, ClusterInformation ci,
 		Collection<? extends ClusterListener> listeners) {
 		this.ci = ci;
 		this.id = s.getId();
 		this.cluster = config.cluster_name();
-		this.address = s.getAddress();
-		this.udpPort = s.getUdpPort();
-		this.tcpPort = s.getTcpPort();
-		this.messageTimeStamp = s.getSnapshotTimestamp();
-
-		this.listeners.addAll(listeners);
-		lastUpdatedTimestamp = NANOSECONDS.toMillis(System.nanoTime());
+		this.listeners = new HashSet<>(listeners);
+		this.state = new State(s.getAddress(), s.getUdpPort(), s.getTcpPort(), (short) 0, s.getSnapshotTimestamp(),
+			null, NANOSECONDS.toMillis(System.nanoTime()), 0, false, false);
 	}
 
-	public synchronized long getLastUpdatedTimestamp() {
-		return lastUpdatedTimestamp;
+	public long getLastUpdatedTimestamp() {
+		return state.lastUpdatedTimestamp;
 	}
 
 	public UUID getId() {
 		return id;
 	}
 
-	public synchronized InetAddress getAddress() {
-		return address;
+	public InetAddress getAddress() {
+		return state.address;
 	}
 
-	public synchronized InetSocketAddress getUdpAddress() {
-		return new InetSocketAddress(address, udpPort);
+	public InetSocketAddress getUdpAddress() {
+		State current = state;
+		return new InetSocketAddress(current.address, current.udpPort);
 	}
 
-	public synchronized InetSocketAddress getTcpAddress() {
-		return new InetSocketAddress(address, tcpPort);
+	public InetSocketAddress getTcpAddress() {
+		State current = state;
+		return new InetSocketAddress(current.address, current.tcpPort);
 	}
 
-	public synchronized Map<String, byte[]> getData() {
-		if (closed)
+	public Map<String, byte[]> getData() {
+		State current = state;
+		if (current.closed)
 			return Collections.emptyMap();
-		return data;
+		return current.data;
 	}
 
 	public synchronized void updateListeners(Collection<? extends ClusterListener> listeners) {
-		if (closed)
+		State current = state;
+		if (current.closed)
 			return;
 
-		if (initialised) {
+		if (current.initialised) {
+			Collection<ClusterListener> existing = this.listeners;
 			listeners.stream()
-				.filter(l -> !this.listeners.contains(l))
-				.forEach((l) -> l.clusterEvent(ci, ADDED, id, data.keySet(), emptySet(), emptySet()));
+				.filter(l -> !existing.contains(l))
+				.forEach((l) -> l.clusterEvent(ci, ADDED, id, current.data.keySet(), emptySet(), emptySet()));
 		}
 
 		this.listeners = new HashSet<>(listeners);
 	}
 
 	public synchronized Update update(Snapshot s) {
-		if (closed) {
+		State current = state;
+		if (current.closed) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Ignoring snapshot for {} as the member is closed", s.getId());
 			}
 			return CONSUME;
 		}
 
+		InetAddress address = current.address;
 		if (address == null) {
 			if (s.getAddress() != null) {
 				address = s.getAddress();
@@ -147,13 +144,13 @@ public class MemberInfo {
 			});
 		}
 
-		if (!initialised) {
-			return initialise(s);
+		if (!current.initialised) {
+			return initialise(current, address, s);
 		}
 
 		long now = NANOSECONDS.toMillis(System.nanoTime());
-		int seqDelta = s.getStateSequenceNumber() - stateSequenceNumber;
-		int timeDelta = s.getSnapshotTimestamp() - messageTimeStamp;
+		int seqDelta = s.getStateSequenceNumber() - current.stateSequenceNumber;
+		int timeDelta = s.getSnapshotTimestamp() - current.messageTimeStamp;
 
 		if (seqDelta < 0 || timeDelta < 0) {
 			// An old message
@@ -164,11 +161,16 @@ public class MemberInfo {
 						s, cluster, seqDelta, timeDelta
 					});
 			}
+			if (address != current.address) {
+				state = new State(address, current.udpPort, current.tcpPort, current.stateSequenceNumber,
+					current.messageTimeStamp, current.data, current.lastUpdatedTimestamp, current.unreachableCount,
+					true, false);
+			}
 			return FORWARD_LOCAL;
-		} else {
-			unreachableCount = 0;
 		}
 
+		int udpPort = current.udpPort;
+		int tcpPort = current.tcpPort;
 		if (s.getMessageType() != HEADER) {
 			if (s.getUdpPort() != -1 && udpPort != s.getUdpPort()) {
 				logger.warn(
@@ -192,22 +194,54 @@ public class MemberInfo {
 				logger.trace("The member {} of cluster {} has received an updated heartbeat", id, cluster);
 			}
 
-			messageTimeStamp = s.getSnapshotTimestamp();
-			lastUpdatedTimestamp = now;
+			state = new State(address, udpPort, tcpPort, current.stateSequenceNumber, s.getSnapshotTimestamp(),
+				current.data, now, 0, true, false);
+			return FORWARD;
+		} else if (s.getMessageType() == PAYLOAD_DELTA && current.stateSequenceNumber - s.getDeltaBase() >= 0) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("The member {} of cluster {} has a payload delta", id, cluster);
+			}
+
+			Set<String> added = new HashSet<>();
+			Set<String> removed = new HashSet<>();
+			Set<String> updated = new HashSet<>();
+
+			Map<String, byte[]> newData = new HashMap<>(current.data);
+			for (Entry<String, byte[]> e : s.getData()
+				.entrySet()) {
+				String key = e.getKey();
+				if (e.getValue() == null) {
+					if (newData.remove(key) != null) {
+						removed.add(key);
+					}
+				} else {
+					byte[] old = newData.put(key, e.getValue());
+					if (old == null) {
+						added.add(key);
+					} else if (!Arrays.equals(old, e.getValue())) {
+						updated.add(key);
+					}
+				}
+			}
+
+			state = new State(address, udpPort, tcpPort, s.getStateSequenceNumber(), s.getSnapshotTimestamp(),
+				Collections.unmodifiableMap(newData), now, 0, true, false);
+			listeners.stream()
+				.forEach((c) -> c.clusterEvent(ci, UPDATED, id, added, removed, updated));
 			return FORWARD;
 		} else if (s.getMessageType() != PAYLOAD_UPDATE) {
 			if (logger.isTraceEnabled()) {
 				logger.trace("The member {} of cluster {} has missed a payload update", id, cluster);
 			}
+			state = new State(address, udpPort, tcpPort, current.stateSequenceNumber, current.messageTimeStamp,
+				current.data, current.lastUpdatedTimestamp, 0, true, false);
 			return RESYNC;
 		} else {
 			if (logger.isTraceEnabled()) {
 				logger.trace("The member {} of cluster {} has an updated payload", id, cluster);
 			}
-			stateSequenceNumber = s.getStateSequenceNumber();
-			messageTimeStamp = s.getSnapshotTimestamp();
+			Map<String, byte[]> data = current.data;
 			Map<String, byte[]> snapshotData = s.getData();
-			lastUpdatedTimestamp = now;
 
 			Set<String> added = snapshotData.entrySet()
 				.stream()
@@ -227,33 +261,34 @@ public class MemberInfo {
 				.map(Entry::getKey)
 				.collect(toSet());
 
-			data = new HashMap<>(snapshotData);
+			state = new State(address, udpPort, tcpPort, s.getStateSequenceNumber(), s.getSnapshotTimestamp(),
+				Collections.unmodifiableMap(new HashMap<>(snapshotData)), now, 0, true, false);
 			listeners.stream()
 				.forEach((c) -> c.clusterEvent(ci, UPDATED, id, added, removed, updated));
 			return FORWARD;
 		}
 	}
 
-	private Update initialise(Snapshot s) {
+	private Update initialise(State current, InetAddress address, Snapshot s) {
 		if (s.getMessageType() != PAYLOAD_UPDATE) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Received a first update that was a heartbeat - requesting resynchronization with {}",
 					s.getId());
 			}
+			if (address != current.address) {
+				state = new State(address, current.udpPort, current.tcpPort, current.stateSequenceNumber,
+					current.messageTimeStamp, current.data, current.lastUpdatedTimestamp, current.unreachableCount,
+					false, false);
+			}
 			return RESYNC;
 		} else {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Initialising member {} with snapshot {}", s.getId(), s);
 			}
-			stateSequenceNumber = s.getStateSequenceNumber();
-			messageTimeStamp = s.getSnapshotTimestamp();
-			data = new HashMap<>(s.getData());
-			lastUpdatedTimestamp = NANOSECONDS.toMillis(System.nanoTime());
-			initialised = true;
-
-			address = s.getAddress();
-			udpPort = s.getUdpPort();
-			tcpPort = s.getTcpPort();
+			Map<String, byte[]> data = Collections.unmodifiableMap(new HashMap<>(s.getData()));
+			state = new State(address, s.getUdpPort(), s.getTcpPort(), s.getStateSequenceNumber(),
+				s.getSnapshotTimestamp(), data, NANOSECONDS.toMillis(System.nanoTime()), current.unreachableCount, true,
+				false);
 
 			listeners.stream()
 				.forEach((l) -> l.clusterEvent(ci, ADDED, id, data.keySet(), emptySet(), emptySet()));
@@ -261,61 +296,113 @@ public class MemberInfo {
 		}
 	}
 
-	public synchronized Snapshot toSnapshot() {
-		return new Snapshot(id, new InetSocketAddress(address, udpPort), tcpPort, stateSequenceNumber, messageTimeStamp,
-			PAYLOAD_UPDATE, data, 1);
+	public Snapshot toSnapshot() {
+		return toSnapshot(1);
 	}
 
-	public synchronized Snapshot toSnapshot(int hops) {
-		return new Snapshot(id, new InetSocketAddress(address, udpPort), tcpPort, stateSequenceNumber, messageTimeStamp,
-			PAYLOAD_UPDATE, data, hops);
+	public Snapshot toSnapshot(int hops) {
+		State current = state;
+		return new Snapshot(id, new InetSocketAddress(current.address, current.udpPort), current.tcpPort,
+			current.stateSequenceNumber, current.messageTimeStamp, PAYLOAD_UPDATE, current.data, hops);
 	}
 
-	public synchronized Snapshot toSnapshot(SnapshotType type) {
+	public Snapshot toSnapshot(SnapshotType type) {
 		return toSnapshot(type, 1);
 	}
 
-	public synchronized Snapshot toSnapshot(SnapshotType type, int hops) {
+	public Snapshot toSnapshot(SnapshotType type, int hops) {
+		State current = state;
 		switch (type) {
 			case PAYLOAD_UPDATE :
-				return toSnapshot(hops);
+				return new Snapshot(id, new InetSocketAddress(current.address, current.udpPort), current.tcpPort,
+					current.stateSequenceNumber, current.messageTimeStamp, PAYLOAD_UPDATE, current.data, hops);
 			case HEARTBEAT :
-				return new Snapshot(id, new InetSocketAddress(address, udpPort), tcpPort, stateSequenceNumber,
-					messageTimeStamp, HEARTBEAT, null, hops);
+				return new Snapshot(id, new InetSocketAddress(current.address, current.udpPort), current.tcpPort,
+					current.stateSequenceNumber, current.messageTimeStamp, HEARTBEAT, null, hops);
 			case HEADER :
-				return new Snapshot(id, null, -1, stateSequenceNumber, messageTimeStamp, HEADER, null, hops);
+				return new Snapshot(id, null, -1, current.stateSequenceNumber, current.messageTimeStamp, HEADER, null,
+					hops);
 			default :
 				throw new IllegalArgumentException("Unknown snapshot type");
 		}
 	}
 
 	public synchronized void markUnreachable() {
-		unreachableCount++;
+		State current = state;
+		int unreachableCount = current.unreachableCount + 1;
+		state = new State(current.address, current.udpPort, current.tcpPort, current.stateSequenceNumber,
+			current.messageTimeStamp, current.data, current.lastUpdatedTimestamp, unreachableCount,
+			current.initialised, current.closed);
 		// TODO configure
 		if (unreachableCount > 5) {
 			close();
 		}
 	}
 
-	public synchronized boolean shouldResync(long now, int threshold) {
-		return !closed && (unreachableCount > 0 || (now - lastUpdatedTimestamp) > threshold);
+	public boolean shouldResync(long now, int threshold) {
+		State current = state;
+		return !current.closed && (current.unreachableCount > 0 || (now - current.lastUpdatedTimestamp) > threshold);
 	}
 
 	public synchronized void close() {
-		closed = true;
-		lastUpdatedTimestamp = NANOSECONDS.toMillis(System.nanoTime());
-		if (initialised) {
+		State current = state;
+		state = new State(current.address, current.udpPort, current.tcpPort, current.stateSequenceNumber,
+			current.messageTimeStamp, current.data, NANOSECONDS.toMillis(System.nanoTime()), current.unreachableCount,
+			current.initialised, true);
+		if (current.initialised) {
 			listeners.stream()
-				.forEach((l) -> l.clusterEvent(ci, REMOVED, id, emptySet(), data == null ? emptySet() : data.keySet(),
-					emptySet()));
+				.forEach((l) -> l.clusterEvent(ci, REMOVED, id, emptySet(),
+					current.data == null ? emptySet() : current.data.keySet(), emptySet()));
 		}
 	}
 
-	public synchronized boolean isOpen() {
-		return !closed && initialised;
+	public boolean isOpen() {
+		State current = state;
+		return !current.closed && current.initialised;
 	}
 
-	public synchronized boolean evictable(int threshold) {
-		return closed && (NANOSECONDS.toMillis(System.nanoTime()) - lastUpdatedTimestamp) > threshold;
+	public boolean evictable(int threshold) {
+		State current = state;
+		return current.closed && (NANOSECONDS.toMillis(System.nanoTime()) - current.lastUpdatedTimestamp) > threshold;
+	}
+
+	/**
+	 * An immutable view of the member at one point in time
+	 */
+	private static final class State {
+		final InetAddress			address;
+		final int					udpPort;
+		final int					tcpPort;
+
+		final short					stateSequenceNumber;
+		final int					messageTimeStamp;
+
+		/**
+		 * An unmodifiable map, <code>null</code> until the member is initialised
+		 */
+		final Map<String, byte[]>	data;
+
+		final long					lastUpdatedTimestamp;
+
+		final int					unreachableCount;
+
+		final boolean				initialised;
+
+		final boolean				closed;
+
+		State(InetAddress address, int udpPort, int tcpPort, short stateSequenceNumber, int messageTimeStamp,
+			Map<String, byte[]> data, long lastUpdatedTimestamp, int unreachableCount, boolean initialised,
+			boolean closed) {
+			this.address = address;
+			this.udpPort = udpPort;
+			this.tcpPort = tcpPort;
+			this.stateSequenceNumber = stateSequenceNumber;
+			this.messageTimeStamp = messageTimeStamp;
+			this.data = data;
+			this.lastUpdatedTimestamp = lastUpdatedTimestamp;
+			this.unreachableCount = unreachableCount;
+			this.initialised = initialised;
+			this.closed = closed;
+		}
 	}
 }
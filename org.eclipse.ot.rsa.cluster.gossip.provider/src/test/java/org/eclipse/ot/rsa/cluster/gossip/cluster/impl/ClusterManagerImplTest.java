@@ -22,10 +22,15 @@ import static org.eclipse.ot.rsa.cluster.api.Action.ADDED;
 import static org.eclipse.ot.rsa.cluster.api.Action.REMOVED;
 import static org.eclipse.ot.rsa.cluster.api.Action.UPDATED;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_DELTA;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_UPDATE;
+import static org.eclipse.ot.rsa.cluster.manager.provider.Update.FORWARD;
+import static org.eclipse.ot.rsa.cluster.manager.provider.Update.RESYNC;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
@@ -34,15 +39,19 @@ import static org.osgi.util.converter.Converters.standardConverter;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -72,6 +81,9 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceEvent;
 import org.osgi.framework.ServiceReference;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
 @ExtendWith(MockitoExtension.class)
@@ -150,6 +162,16 @@ public class ClusterManagerImplTest {
 			.to(ClusterGossipConfig.class), UDP, TCP, null, x -> listener, log);
 	}
 
+	private void enableDeltas() {
+		Map<String, Object> config = new HashMap<>();
+		config.put("cluster.name", CLUSTER);
+		config.put("gossip.delta.updates", true);
+
+		HLogger log = HLogger.root(ClusterManagerImplTest.class);
+		impl = new ClusterManagerImpl(context, ID, standardConverter().convert(config)
+			.to(ClusterGossipConfig.class), UDP, TCP, null, x -> listener, log);
+	}
+
 	@Test
 	public void testHeartbeatSnapshot() {
 		int now = (int) (0xFFFFFF & NANOSECONDS.toMillis(System.nanoTime())) << 8;
@@ -187,6 +209,129 @@ public class ClusterManagerImplTest {
 		assertSnapshot(captor.getValue(), now, 1, TCP, ID, PAYLOAD, PAYLOAD_UPDATE);
 	}
 
+	@Test
+	public void testPayloadUpdateTriggersListenerWithDelta() {
+		enableDeltas();
+
+		int now = (int) (0xFFFFFF & NANOSECONDS.toMillis(System.nanoTime())) << 8;
+
+		impl.updateAttribute(FOO, PAYLOAD);
+
+		ArgumentCaptor<Snapshot> captor = ArgumentCaptor.forClass(Snapshot.class);
+
+		Mockito.verify(listener)
+			.localUpdate(captor.capture());
+
+		assertSnapshot(captor.getValue(), now, 1, TCP, ID, PAYLOAD, PAYLOAD_DELTA);
+		assertEquals(0, captor.getValue()
+			.getDeltaBase());
+	}
+
+	@Test
+	public void testDeltaSnapshot() {
+		enableDeltas();
+
+		impl.updateAttribute(FOO, PAYLOAD);
+		impl.updateAttribute(BAR, PAYLOAD_2);
+
+		Snapshot s = impl.getDeltaSnapshot((short) 1, 1);
+		assertEquals(PAYLOAD_DELTA, s.getMessageType());
+		assertEquals(2, s.getStateSequenceNumber());
+		assertEquals(1, s.getDeltaBase());
+		assertEquals(singleton(BAR), s.getData()
+			.keySet());
+
+		impl.updateAttribute(FOO, null);
+
+		s = impl.getDeltaSnapshot((short) 1, 1);
+		assertEquals(new HashSet<>(Arrays.asList(FOO, BAR)), s.getData()
+			.keySet());
+		assertNull(s.getData()
+			.get(FOO), () -> "A removed attribute has no value");
+
+		// Nothing has changed
+		s = impl.getDeltaSnapshot((short) 3, 1);
+		assertTrue(s.getData()
+			.isEmpty());
+
+		// The changes are no longer known
+		s = impl.getDeltaSnapshot((short) -2000, 1);
+		assertEquals(PAYLOAD_UPDATE, s.getMessageType());
+		assertEquals(singleton(BAR), s.getData()
+			.keySet());
+	}
+
+	@Test
+	public void testDeltaSnapshotDisabledByDefault() {
+		impl.updateAttribute(FOO, PAYLOAD);
+		impl.updateAttribute(BAR, PAYLOAD_2);
+
+		Snapshot s = impl.getDeltaSnapshot((short) 1, 1);
+		assertEquals(PAYLOAD_UPDATE, s.getMessageType());
+		assertEquals(new HashSet<>(Arrays.asList(FOO, BAR)), s.getData()
+			.keySet());
+	}
+
+	@Test
+	public void testDeltaSnapshotWireFormat() throws UnknownHostException {
+		Map<String, byte[]> changes = new HashMap<>();
+		changes.put(FOO, PAYLOAD);
+		changes.put(BAR, null);
+
+		Snapshot s = new Snapshot(
+			new Snapshot(INCOMING_ID, INCOMING_TCP, (short) 7, (short) 5, changes, 2),
+			new InetSocketAddress(InetAddress.getByAddress(INCOMING_ADDRESS), INCOMING_UDP));
+
+		ByteBuf buf = Unpooled.buffer(s.guessSize());
+		try {
+			s.writeOut(buf);
+			Snapshot read = new Snapshot(buf);
+
+			assertEquals(PAYLOAD_DELTA, read.getMessageType());
+			assertEquals(7, read.getStateSequenceNumber());
+			assertEquals(5, read.getDeltaBase());
+			assertEquals(INCOMING_UDP, read.getUdpPort());
+			assertTrue(Arrays.equals(PAYLOAD, read.getData()
+				.get(FOO)));
+			assertTrue(read.getData()
+				.containsKey(BAR));
+			assertNull(read.getData()
+				.get(BAR));
+			assertEquals(0, buf.readableBytes());
+		} finally {
+			buf.release();
+		}
+	}
+
+	@Test
+	public void testMergeDelta() throws UnknownHostException {
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getByAddress(INCOMING_ADDRESS), INCOMING_UDP);
+		Map<String, byte[]> attrs = new HashMap<>();
+		attrs.put(FOO, PAYLOAD);
+		attrs.put(BAR, PAYLOAD_2);
+
+		impl.mergeSnapshot(
+			new Snapshot(new Snapshot(INCOMING_ID, INCOMING_TCP, (short) 0, PAYLOAD_UPDATE, attrs, 1), address));
+
+		// The member missed the changes before the base
+		assertEquals(RESYNC, impl.mergeSnapshot(new Snapshot(
+			new Snapshot(INCOMING_ID, INCOMING_TCP, (short) 2, (short) 1, singletonMap(BAZ, PAYLOAD), 1), address)));
+
+		Map<String, byte[]> changes = new HashMap<>();
+		changes.put(FOO, null);
+		changes.put(BAZ, PAYLOAD);
+		assertEquals(FORWARD, impl.mergeSnapshot(
+			new Snapshot(new Snapshot(INCOMING_ID, INCOMING_TCP, (short) 1, (short) 0, changes, 1), address)));
+
+		Map<String, byte[]> merged = impl.getMemberAttributes(INCOMING_ID);
+		assertEquals(new HashSet<>(Arrays.asList(BAR, BAZ)), merged.keySet());
+		assertTrue(Arrays.equals(PAYLOAD_2, merged.get(BAR)));
+		assertTrue(Arrays.equals(PAYLOAD, merged.get(BAZ)));
+		assertEquals(1, impl.getMemberInfo(INCOMING_ID)
+			.toSnapshot()
+			.getStateSequenceNumber());
+	}
+
 	@Test
 	public void testDestroyTriggersListener() {
 		impl.destroy();
@@ -466,4 +611,46 @@ public class ClusterManagerImplTest {
 		Mockito.verify(context, Mockito.never())
 			.getService(refC);
 	}
+
+	@Test
+	public void testMergesStripedByMember() throws Exception {
+		assertSame(impl.getMergeExecutor(INCOMING_ID), impl.getMergeExecutor(INCOMING_ID));
+
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getByAddress(INCOMING_ADDRESS), INCOMING_UDP);
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			ids.add(UUID.randomUUID());
+		}
+
+		// Each member's updates must be merged in order on its own worker
+		Set<EventExecutor> used = new HashSet<>();
+		CountDownLatch latch = new CountDownLatch(ids.size() * 3);
+		for (short seq = 0; seq < 3; seq++) {
+			byte[] payload = {
+				(byte) seq
+			};
+			for (UUID id : ids) {
+				Snapshot s = new Snapshot(
+					new Snapshot(id, INCOMING_TCP, seq, PAYLOAD_UPDATE, singletonMap(FOO, payload), 1), address);
+				EventExecutor executor = impl.getMergeExecutor(id);
+				used.add(executor);
+				executor.execute(() -> {
+					impl.mergeSnapshot(s);
+					latch.countDown();
+				});
+			}
+		}
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(used.size() > 1, () -> "The members should be spread over the workers");
+
+		for (UUID id : ids) {
+			MemberInfo info = impl.getMemberInfo(id);
+			assertTrue(info.isOpen());
+			assertArrayEquals(new byte[] {
+				2
+			}, info.getData()
+				.get(FOO));
+		}
+	}
 }
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.cluster.gossip.cluster.impl;
+
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_UPDATE;
+import static org.osgi.util.converter.Converters.standardConverter;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ot.rsa.cluster.gossip.api.InternalClusterListener;
+import org.eclipse.ot.rsa.cluster.gossip.config.ClusterGossipConfig;
+import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
+import org.eclipse.ot.rsa.cluster.manager.provider.ClusterManagerImpl;
+import org.eclipse.ot.rsa.cluster.manager.provider.MemberInfo;
+import org.eclipse.ot.rsa.logger.util.HLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+/**
+ * Simulates a cluster of thousands of members in process, merging a round of
+ * heartbeats from every member either on the calling thread, as the IO thread
+ * used to, or spread over the merge workers by member. The
+ * <code>readWhileMerging</code> group stresses the member state, reading
+ * snapshots of every member while other threads merge heartbeats.
+ * <p>
+ * Run with {@link #main(String[])}, e.g. from the IDE, adding
+ * <code>-prof gc</code> to the options to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClusterMergeBenchmark {
+
+	@Param({
+		"1000", "5000"
+	})
+	int					members;
+
+	@Param({
+		"1", "4"
+	})
+	int					mergeThreads;
+
+	ClusterManagerImpl	impl;
+
+	Snapshot[]			heartbeats;
+
+	@Setup
+	public void setUp() throws Exception {
+		Map<String, Object> config = new HashMap<>();
+		config.put("cluster.name", "benchmark");
+		config.put("gossip.merge.threads", mergeThreads);
+
+		impl = new ClusterManagerImpl(null, UUID.randomUUID(), standardConverter().convert(config)
+			.to(ClusterGossipConfig.class), 1234, 1235, null, x -> new NoOpListener(),
+			HLogger.root(ClusterMergeBenchmark.class));
+
+		Map<String, byte[]> attrs = new HashMap<>();
+		attrs.put("foo", new byte[] {
+			1, 2, 3, 4
+		});
+		attrs.put("bar", new byte[64]);
+
+		heartbeats = new Snapshot[members];
+		for (int i = 0; i < members; i++) {
+			UUID id = UUID.randomUUID();
+			InetSocketAddress address = new InetSocketAddress(InetAddress.getByAddress(new byte[] {
+				10, (byte) (i >> 16), (byte) (i >> 8), (byte) i
+			}), 2345);
+			impl.mergeSnapshot(new Snapshot(new Snapshot(id, 2346, (short) 1, PAYLOAD_UPDATE, attrs, 1), address));
+			heartbeats[i] = new Snapshot(new Snapshot(id, 2346, (short) 1, HEARTBEAT, null, 1), address);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		impl.destroy();
+	}
+
+	@Benchmark
+	public void mergeOnCallingThread() {
+		for (Snapshot s : heartbeats) {
+			impl.mergeSnapshot(s);
+		}
+	}
+
+	@Benchmark
+	public void mergeOnStripes() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(heartbeats.length);
+		for (Snapshot s : heartbeats) {
+			impl.getMergeExecutor(s.getId())
+				.execute(() -> {
+					impl.mergeSnapshot(s);
+					latch.countDown();
+				});
+		}
+		latch.await();
+	}
+
+	@Benchmark
+	@Group("readWhileMerging")
+	@GroupThreads(3)
+	public Object merge() {
+		return impl.mergeSnapshot(heartbeats[ThreadLocalRandom.current()
+			.nextInt(heartbeats.length)]);
+	}
+
+	@Benchmark
+	@Group("readWhileMerging")
+	@GroupThreads(1)
+	public Object read() {
+		return impl.getMemberSnapshots(PAYLOAD_UPDATE);
+	}
+
+	static class NoOpListener implements InternalClusterListener {
+
+		@Override
+		public void localUpdate(Snapshot s) {}
+
+		@Override
+		public List<Future<?>> destroy() {
+			return Collections.singletonList(GlobalEventExecutor.INSTANCE.newSucceededFuture(null));
+		}
+
+		@Override
+		public void darkNodes(Collection<MemberInfo> darkNodes) {}
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(ClusterMergeBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -138,6 +138,8 @@ public class GossipImplTest {
 
 		Mockito.when(mgr.getEventExecutorGroup())
 			.thenReturn(executorGroup);
+		Mockito.when(mgr.getMergeExecutor(ArgumentMatchers.any()))
+			.thenReturn(executorGroup.next());
 	}
 
 	@AfterEach
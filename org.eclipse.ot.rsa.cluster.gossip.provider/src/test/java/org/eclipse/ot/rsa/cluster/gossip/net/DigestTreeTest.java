@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.cluster.gossip.net;
+
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEADER;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
+import org.junit.jupiter.api.Test;
+
+public class DigestTreeTest {
+
+	private static List<Snapshot> members(int count) {
+		List<Snapshot> members = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			members.add(new Snapshot(new UUID(i, i * 31), 9033, (short) i, HEADER, null, 0));
+		}
+		return members;
+	}
+
+	@Test
+	public void testDepth() {
+		assertEquals(1, DigestTree.depthFor(0));
+		assertEquals(1, DigestTree.depthFor(64));
+		assertEquals(2, DigestTree.depthFor(65));
+		assertEquals(2, DigestTree.depthFor(1000));
+		assertEquals(DigestTree.MAX_DEPTH, DigestTree.depthFor(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void testSameMembersHaveSameDigests() {
+		List<Snapshot> members = members(1000);
+		List<Snapshot> reversed = new ArrayList<>(members);
+		Collections.reverse(reversed);
+
+		DigestTree a = new DigestTree(members, 2);
+		DigestTree b = new DigestTree(reversed, 2);
+
+		int[] root = new int[] {
+			0
+		};
+		assertArrayEquals(a.digests(0, root), b.digests(0, root));
+		assertEquals(1000, a.members(DigestTree.children(DigestTree.children(root)))
+			.size());
+	}
+
+	@Test
+	public void testFindsDifferingMembers() {
+		List<Snapshot> local = members(1000);
+		List<Snapshot> remote = new ArrayList<>(local);
+		Snapshot changed = new Snapshot(local.get(123)
+			.getId(), 9033, (short) 5000, HEADER, null, 0);
+		remote.set(123, changed);
+		Snapshot missing = remote.remove(456);
+
+		DigestTree a = new DigestTree(local, 2);
+		DigestTree b = new DigestTree(remote, 2);
+
+		int[] frontier = new int[] {
+			0
+		};
+		for (int level = 0;; level++) {
+			long[] digestsA = a.digests(level, frontier);
+			long[] digestsB = b.digests(level, frontier);
+			int[] differing = new int[frontier.length];
+			int differences = 0;
+			for (int i = 0; i < frontier.length; i++) {
+				if (digestsA[i] != digestsB[i]) {
+					differing[differences++] = frontier[i];
+				}
+			}
+			assertTrue(differences > 0 && differences <= 2);
+			differing = Arrays.copyOf(differing, differences);
+
+			if (level == a.depth()) {
+				frontier = differing;
+				break;
+			}
+			frontier = DigestTree.children(differing);
+		}
+
+		List<Snapshot> toCompare = a.members(frontier);
+		assertTrue(toCompare.contains(local.get(123)));
+		assertTrue(toCompare.contains(missing));
+		assertTrue(toCompare.size() < 20);
+		assertTrue(b.members(frontier)
+			.contains(changed));
+		assertFalse(b.members(frontier)
+			.contains(missing));
+	}
+}
@@ -243,4 +243,86 @@ public class ReplicatorTest extends AbstractLeakCheckingTest {
 			.getSnapshotTimestamp());
 	}
 
+	@Test
+	public void testReplicateWithDigests() throws Exception {
+		UUID snapCId = new UUID(2345, 6789);
+		Snapshot snapC = new Snapshot(
+			new Snapshot(snapCId, 2, (short) 1, PAYLOAD_UPDATE, singletonMap("bar", new byte[] {
+				0x7F
+			}), 1), new InetSocketAddress(getLoopbackAddress(), 1));
+
+		MemberInfo memberC = new MemberInfo(standardConverter().convert(config)
+			.to(ClusterGossipConfig.class), snapC, clusterInfo, Collections.emptyList());
+		memberC.update(snapC);
+
+		UUID snapDId = new UUID(3456, 7890);
+		Snapshot snapDA = new Snapshot(
+			new Snapshot(snapDId, 2, (short) 1, PAYLOAD_UPDATE, singletonMap("bar", new byte[] {
+				0x7F
+			}), 1), new InetSocketAddress(getLoopbackAddress(), 1));
+
+		Thread.sleep(50);
+
+		Snapshot snapDB = new Snapshot(
+			new Snapshot(snapDId, 2, (short) 1, PAYLOAD_UPDATE, singletonMap("bar", new byte[] {
+				0x7F
+			}), 1), new InetSocketAddress(getLoopbackAddress(), 1));
+
+		MemberInfo memberDA = new MemberInfo(standardConverter().convert(config)
+			.to(ClusterGossipConfig.class), snapDA, clusterInfo, Collections.emptyList());
+		memberDA.update(snapDA);
+		MemberInfo memberDB = new MemberInfo(standardConverter().convert(config)
+			.to(ClusterGossipConfig.class), snapDB, clusterInfo, Collections.emptyList());
+		memberDB.update(snapDB);
+
+		Mockito.when(gossipA.getInfoFor(snapCId))
+			.thenReturn(memberC);
+		Mockito.when(gossipA.getInfoFor(IDB))
+			.thenReturn(memberB);
+		Mockito.when(gossipA.getInfoFor(snapDId))
+			.thenReturn(memberDA);
+
+		Mockito.when(gossipB.getInfoFor(snapDId))
+			.thenReturn(memberDB);
+		Mockito.when(gossipB.getAllSnapshots())
+			.thenReturn(Arrays.asList(memberB.toSnapshot(HEADER), memberDB.toSnapshot(HEADER)));
+
+		Channel client = b.handler(new ChannelInitializer<Channel>() {
+			@Override
+			protected void initChannel(Channel ch) throws Exception {
+				ch.pipeline()
+					.addLast(
+						new OutgoingTCPReplicator(
+							ch, IDA, gossipA, IDB, 72, Arrays.asList(memberA.toSnapshot(HEADER),
+								memberB.toSnapshot(HEADER), memberC.toSnapshot(HEADER), memberDA.toSnapshot(HEADER)),
+							ch.newSucceededFuture(), true));
+			}
+		})
+			.connect(server.localAddress())
+			.sync()
+			.channel();
+
+		Future<Void> clientSync = client.closeFuture();
+		Future<Void> serverSync = group.newCloseFuture();
+
+		clientSync.addListener(f -> semA.release());
+		serverSync.addListener(f -> semB.release());
+
+		assertTrue(semA.tryAcquire(2, SECONDS));
+		assertTrue(semB.tryAcquire(2, SECONDS));
+
+		Mockito.verify(gossipB)
+			.merge(ArgumentMatchers.argThat(isSnapshotWithIdAndType(IDA, PAYLOAD_UPDATE)));
+		Mockito.verify(gossipB)
+			.merge(ArgumentMatchers.argThat(isSnapshotWithIdAndType(snapCId, PAYLOAD_UPDATE)));
+
+		Mockito.verify(gossipA, Mockito.never())
+			.merge(ArgumentMatchers.argThat(isSnapshotWithIdAndType(snapDId, PAYLOAD_UPDATE)));
+		Mockito.verify(gossipB, Mockito.never())
+			.merge(ArgumentMatchers.argThat(isSnapshotWithIdAndType(snapDId, PAYLOAD_UPDATE)));
+
+		assertEquals(snapDB.getSnapshotTimestamp(), memberDA.toSnapshot(HEADER)
+			.getSnapshotTimestamp());
+	}
+
 }
@@ -16,6 +16,8 @@ import static io.netty.buffer.Unpooled.wrappedBuffer;
 import static java.net.InetAddress.getLoopbackAddress;
 import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.HEARTBEAT;
 import static org.eclipse.ot.rsa.cluster.gossip.v1.messages.SnapshotType.PAYLOAD_UPDATE;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -29,6 +31,8 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +47,7 @@ import org.eclipse.ot.rsa.cluster.gossip.api.GossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.config.ClusterGossipConfig;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.AbstractGossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.FirstContactRequest;
+import org.eclipse.ot.rsa.cluster.gossip.v1.messages.ForwardableGossipMessage;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.MessageType;
 import org.eclipse.ot.rsa.cluster.gossip.v1.messages.Snapshot;
 import org.eclipse.ot.rsa.cluster.manager.provider.MemberInfo;
@@ -208,6 +213,123 @@ public class SocketCommsTest extends AbstractLeakCheckingTest {
 		}
 	}
 
+	@Test
+	public void testPublishPacksForwards() throws Exception {
+		List<Snapshot> forwards = forwards(600);
+		GossipMessage gm = new ForwardableGossipMessage("FOO",
+			new Snapshot(ID, 1234, (short) 0, PAYLOAD_UPDATE, singletonMap("FOO", new byte[] {
+				1, 2, 3, 4
+			}), 1), forwards);
+
+		List<List<Snapshot>> received = publishAndReceive(gm);
+
+		assertTrue(received.size() > 1);
+		List<Snapshot> full = received.stream()
+			.map(l -> l.get(l.size() - 1))
+			.filter(sender -> sender.getMessageType() == PAYLOAD_UPDATE)
+			.collect(toList());
+		assertEquals(1, full.size());
+		validateSnapshot(full.get(0));
+		assertEquals(forwards.size(), countForwards(received));
+	}
+
+	@Test
+	public void testPublishSendsLargeSenderPayloadOnce() throws Exception {
+		List<Snapshot> forwards = forwards(600);
+		byte[] payload = new byte[socketComms.getMaxDatagramSize() / 2];
+		GossipMessage gm = new ForwardableGossipMessage("FOO",
+			new Snapshot(ID, 1234, (short) 0, PAYLOAD_UPDATE, singletonMap("FOO", payload), 1), forwards);
+
+		List<List<Snapshot>> received = publishAndReceive(gm);
+
+		assertTrue(received.size() > 1);
+		int full = 0;
+		for (List<Snapshot> snapshots : received) {
+			Snapshot sender = snapshots.get(snapshots.size() - 1);
+			assertEquals(ID, sender.getId());
+			if (sender.getMessageType() == PAYLOAD_UPDATE) {
+				assertEquals(payload.length, sender.getData()
+					.get("FOO").length);
+				full++;
+			} else {
+				assertEquals(HEARTBEAT, sender.getMessageType());
+			}
+		}
+		assertEquals(1, full);
+		assertEquals(forwards.size(), countForwards(received));
+	}
+
+	@Test
+	public void testPackOversizedSenderSnapshot() throws Exception {
+		ForwardableGossipMessage gm = new ForwardableGossipMessage("FOO",
+			new Snapshot(ID, 1234, (short) 0, PAYLOAD_UPDATE, singletonMap("FOO", new byte[2000]), 1), forwards(20));
+
+		List<ForwardableGossipMessage> packed = gm.pack(1000);
+
+		// The sender's payload goes alone, and only once
+		assertEquals(1, packed.get(0)
+			.getAllSnapshots(null)
+			.size());
+		assertTrue(packed.get(0)
+			.estimateSize() > 1000);
+		int forwarded = 0;
+		for (ForwardableGossipMessage m : packed.subList(1, packed.size())) {
+			List<Snapshot> snapshots = m.getAllSnapshots(null);
+			assertEquals(HEARTBEAT, snapshots.get(snapshots.size() - 1)
+				.getMessageType());
+			assertTrue(m.estimateSize() <= 1000);
+			forwarded += snapshots.size() - 1;
+		}
+		assertEquals(20, forwarded);
+	}
+
+	private List<Snapshot> forwards(int count) {
+		List<Snapshot> forwards = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			forwards.add(new Snapshot(new UUID(0, i), 1234, (short) 0, PAYLOAD_UPDATE, singletonMap("FOO", new byte[64]),
+				1));
+		}
+		return forwards;
+	}
+
+	private int countForwards(List<List<Snapshot>> received) {
+		return received.stream()
+			.mapToInt(l -> l.size() - 1)
+			.sum();
+	}
+
+	/*
+	 * Publish the message and return the snapshots from each datagram, checking
+	 * that each datagram fits in the maximum datagram size
+	 */
+	private List<List<Snapshot>> publishAndReceive(GossipMessage gm) throws Exception {
+		List<List<Snapshot>> received = new ArrayList<>();
+		try (DatagramSocket s = new DatagramSocket(0, getLoopbackAddress())) {
+			socketComms.publish(gm, Arrays.asList((InetSocketAddress) s.getLocalSocketAddress()));
+			s.setSoTimeout(500);
+
+			try {
+				while (true) {
+					DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+					s.receive(packet);
+
+					assertTrue(packet.getLength() <= socketComms.getMaxDatagramSize(),
+						"The datagram of " + packet.getLength() + " bytes is too large");
+					assertEquals(MessageType.FORWARDABLE.ordinal(), packet.getData()[packet.getOffset() + 2]);
+					ForwardableGossipMessage message = new ForwardableGossipMessage(
+						wrappedBuffer(packet.getData(), packet.getOffset() + 3, packet.getLength() - 3));
+					List<Snapshot> snapshots = message
+						.getAllSnapshots((InetSocketAddress) s.getLocalSocketAddress());
+					assertTrue(snapshots.size() - 1 <= ForwardableGossipMessage.MAX_FORWARDS);
+					received.add(snapshots);
+				}
+			} catch (SocketTimeoutException ste) {
+				// No more packets
+			}
+		}
+		return received;
+	}
+
 	private AbstractGossipMessage getTestPacket() {
 		AbstractGossipMessage gm = new FirstContactRequest("FOO",
 			new Snapshot(ID, 1234, (short) 0, PAYLOAD_UPDATE, singletonMap("FOO", new byte[] {
@@ -30,10 +30,36 @@ public @interface DistributionConfig {
 
 	int server_io_threads() default 4;
 
+	/**
+	 * The maximum number of remote invocations waiting for a server worker.
+	 * When {@link #server_worker_mode()} is <code>virtual</code> there is no
+	 * queue, and this is instead the maximum number of invocations running at
+	 * once.
+	 */
 	int server_task_queue_depth() default 1024;
 
+	/**
+	 * Either <code>platform</code>, using a pool of
+	 * {@link #server_worker_threads()} threads, or <code>virtual</code>, running
+	 * each remote invocation on its own virtual thread. In virtual mode the
+	 * {@link #server_task_queue_depth()} limits the number of invocations
+	 * running at once. Virtual mode falls back to platform threads on a JVM
+	 * without virtual threads.
+	 */
+	String server_worker_mode() default "platform";
+
 	boolean share_io_threads() default true;
 
+	/**
+	 * The Netty transport used for the IO threads: <code>nio</code>,
+	 * <code>epoll</code>, <code>io_uring</code> or <code>auto</code>. The
+	 * native transports are only used if they are available, otherwise NIO is
+	 * used. <code>auto</code> selects epoll when it is available. With epoll,
+	 * a server transport with the <code>reuse.port=true</code> option binds a
+	 * channel for each server IO thread using <code>SO_REUSEPORT</code>.
+	 */
+	String io_transport() default "nio";
+
 	boolean share_worker_threads() default true;
 
 	boolean allow_insecure_transports() default false;
@@ -28,5 +28,46 @@ public @interface ExportedServiceConfig {
 
 	String[] service_intents() default {};
 
-	String org_eclipse_ot_rsa_distribution_config_serialization() default "";
+	/**
+	 * The serializations which may be used for this service, in order of
+	 * preference. Each entry is the name of a built in serialization, such as
+	 * <code>FAST_BINARY</code>, or of a <code>SerializerFactory</code> whiteboard
+	 * service, and may be a comma separated list. The first one available is
+	 * used and advertised by the endpoint. If empty then FAST_BINARY is used.
+	 */
+	String[] org_eclipse_ot_rsa_distribution_config_serialization() default {};
+
+	/**
+	 * The maximum number of calls to this service that may run at once. If not
+	 * positive the calls share the server workers without a limit.
+	 */
+	int org_eclipse_ot_rsa_distribution_bulkhead_concurrency() default -1;
+
+	/**
+	 * The maximum number of calls that may wait for a bulkhead before further
+	 * calls are rejected as overloaded, or -1 for no limit
+	 */
+	int org_eclipse_ot_rsa_distribution_bulkhead_queue_depth() default -1;
+
+	/**
+	 * Bulkheads for individual methods. Each entry is
+	 * <code>name=concurrency[:queueDepth]</code>, applying to every overload of
+	 * the method, or <code>name[param.Type,...]=concurrency[:queueDepth]</code>
+	 * for a single signature.
+	 */
+	String[] org_eclipse_ot_rsa_distribution_bulkhead_methods() default {};
+
+	/**
+	 * Methods which never block, and so are called directly on the network
+	 * thread that receives the request. Each entry is a method name, applying
+	 * to every overload, a signature <code>name[param.Type,...]</code>, or
+	 * <code>*</code> for every method. Methods taking asynchronous arguments are
+	 * never called inline.
+	 * <p>
+	 * Inline calls count towards the method's bulkhead, and wait in its queue
+	 * when it is full. They do not use the server workers, so the server work
+	 * queue limit does not apply to them. The network thread reads no further
+	 * requests while an inline call runs.
+	 */
+	String[] org_eclipse_ot_rsa_distribution_inline_methods() default {};
 }
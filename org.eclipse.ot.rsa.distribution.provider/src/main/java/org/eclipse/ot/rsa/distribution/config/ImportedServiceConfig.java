@@ -28,6 +28,14 @@ public @interface ImportedServiceConfig {
 
 	int org_eclipse_ot_rsa_distribution_timeout() default -1;
 
+	/**
+	 * Timeouts for individual methods, overriding the service timeout. Each
+	 * entry is <code>name=millis</code>, applying to every overload of the
+	 * method, or <code>name[param.Type,...]=millis</code> for a single
+	 * signature. A signature entry takes precedence over a name entry.
+	 */
+	String[] org_eclipse_ot_rsa_distribution_timeout_methods() default {};
+
 	long osgi_basic_timeout() default -1;
 
 }
@@ -28,6 +28,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.ot.rsa.constants.RSAConstants;
 import org.eclipse.ot.rsa.distribution.config.DistributionConfig;
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
+import org.eclipse.ot.rsa.distribution.provider.tcp.Transports;
 import org.osgi.annotation.bundle.Header;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
@@ -45,7 +46,6 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.MultithreadEventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.HashedWheelTimer;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.EventExecutorGroup;
@@ -67,6 +67,8 @@ public class Activator implements BundleActivator {
 
 	private Map<String, Object>							config;
 
+	private String										ioTransport;
+
 	private MultithreadEventLoopGroup					serverIo;
 
 	private MultithreadEventLoopGroup					clientIo;
@@ -75,6 +77,8 @@ public class Activator implements BundleActivator {
 
 	private int											serverWorkQueueMaxLength;
 
+	private boolean										virtualServerWorkers;
+
 	private MultithreadEventExecutorGroup				clientWorkers;
 
 	private int											clientWorkQueueMaxLength;
@@ -157,7 +161,11 @@ public class Activator implements BundleActivator {
 				.convert(rawConfig)
 				.to(DistributionConfig.class);
 
-			if (serverIo == null || serverIo.executorCount() != cfg.server_io_threads()) {
+			boolean transportChanged = !cfg.io_transport()
+				.equals(ioTransport);
+			ioTransport = cfg.io_transport();
+
+			if (serverIo == null || transportChanged || serverIo.executorCount() != cfg.server_io_threads()) {
 				toUnregister = toUnregister == null ? msfReg : toUnregister;
 				toDestroy = toDestroy == null ? msf : toDestroy;
 				msfReg = null;
@@ -166,7 +174,7 @@ public class Activator implements BundleActivator {
 
 				AtomicInteger ioThreadId = new AtomicInteger(1);
 
-				serverIo = new NioEventLoopGroup(cfg.server_io_threads(), r -> {
+				serverIo = Transports.eventLoopGroup(ioTransport, cfg.server_io_threads(), r -> {
 					String name = (cfg.share_io_threads() ? "Paremus RSA distribution IO: "
 						: "Paremus RSA distribution server IO: ") + ioThreadId.getAndIncrement();
 					Thread thread = new FastThreadLocalThread(r, name);
@@ -185,7 +193,7 @@ public class Activator implements BundleActivator {
 
 					clientIo = serverIo;
 				}
-			} else if (clientIo == null || clientIo == serverIo
+			} else if (clientIo == null || clientIo == serverIo || transportChanged
 				|| clientIo.executorCount() != cfg.client_io_threads()) {
 				toUnregister = toUnregister == null ? msfReg : toUnregister;
 				toDestroy = toDestroy == null ? msf : toDestroy;
@@ -195,7 +203,7 @@ public class Activator implements BundleActivator {
 
 				AtomicInteger ioThreadId = new AtomicInteger(1);
 
-				clientIo = new NioEventLoopGroup(cfg.client_io_threads(), r -> {
+				clientIo = Transports.eventLoopGroup(ioTransport, cfg.client_io_threads(), r -> {
 					String name = "Paremus RSA distribution client IO: " + ioThreadId.getAndIncrement();
 					Thread thread = new FastThreadLocalThread(r, name);
 					thread.setDaemon(true);
@@ -203,7 +211,14 @@ public class Activator implements BundleActivator {
 				});
 			}
 
-			if (serverWorkers == null || serverWorkers.executorCount() != cfg.server_io_threads()
+			boolean virtual = "virtual".equalsIgnoreCase(cfg.server_worker_mode());
+			if (virtual && !VirtualThreadExecutorGroup.isSupported()) {
+				LOG.warn("Virtual server workers are not supported by this JVM. Platform threads will be used instead");
+				virtual = false;
+			}
+
+			if (serverWorkers == null || virtualServerWorkers != virtual
+				|| (!virtual && serverWorkers.executorCount() != cfg.server_io_threads())
 				|| serverWorkQueueMaxLength != cfg.server_task_queue_depth()) {
 				toUnregister = toUnregister == null ? msfReg : toUnregister;
 				toDestroy = toDestroy == null ? msf : toDestroy;
@@ -212,16 +227,21 @@ public class Activator implements BundleActivator {
 				toDestroy4 = serverWorkers;
 
 				serverWorkQueueMaxLength = cfg.server_task_queue_depth();
-
-				AtomicInteger ioThreadId = new AtomicInteger(1);
-
-				serverWorkers = new RSAExecutorGroup(cfg.server_io_threads(), r -> {
-					String name = (cfg.share_io_threads() ? "Paremus RSA Server Worker " : "Paremus RSA Worker ")
-						+ ioThreadId.getAndIncrement();
-					Thread thread = new FastThreadLocalThread(r, name);
-					thread.setDaemon(true);
-					return thread;
-				}, serverWorkQueueMaxLength);
+				virtualServerWorkers = virtual;
+
+				if (virtual) {
+					serverWorkers = new VirtualThreadExecutorGroup(serverWorkQueueMaxLength);
+				} else {
+					AtomicInteger ioThreadId = new AtomicInteger(1);
+
+					serverWorkers = new RSAExecutorGroup(cfg.server_io_threads(), r -> {
+						String name = (cfg.share_io_threads() ? "Paremus RSA Server Worker " : "Paremus RSA Worker ")
+							+ ioThreadId.getAndIncrement();
+						Thread thread = new FastThreadLocalThread(r, name);
+						thread.setDaemon(true);
+						return thread;
+					}, serverWorkQueueMaxLength);
+				}
 			}
 
 			if (cfg.share_worker_threads()) {
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.activator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.util.concurrent.AbstractEventExecutor;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.MultithreadEventExecutorGroup;
+import io.netty.util.concurrent.Promise;
+
+/**
+ * A worker group which runs every task on a new virtual thread, so that
+ * blocking remote services are not limited by the size of a thread pool.
+ * <p>
+ * There is no queue. Instead the number of submitted tasks which may run at
+ * once is limited, and a submission beyond the limit is rejected just as a
+ * submission to a full {@link RSAExecutorGroup} queue would be. A
+ * {@code Bulkhead} hands its calls over with {@code submit}, so they are
+ * limited too.
+ * <p>
+ * Tasks passed to {@link EventExecutor#execute(Runnable)} are not limited,
+ * and are still run after a shutdown. Netty uses them to notify the listeners
+ * of promises completed by other threads, which must never be dropped.
+ * <p>
+ * Virtual threads are located reflectively as this bundle targets Java 8, use
+ * {@link #isSupported()} to check that they are available.
+ */
+public class VirtualThreadExecutorGroup extends MultithreadEventExecutorGroup {
+
+	private static final Logger			LOG	= LoggerFactory.getLogger(VirtualThreadExecutorGroup.class);
+
+	private static final ThreadFactory	VIRTUAL_THREADS;
+
+	static {
+		ThreadFactory factory = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			Object ofVirtual = Thread.class.getMethod("ofVirtual")
+				.invoke(null);
+			Method name = builder.getMethod("name", String.class, long.class);
+			ofVirtual = name.invoke(ofVirtual, "RSA Virtual Worker ", 1L);
+			factory = (ThreadFactory) builder.getMethod("factory")
+				.invoke(ofVirtual);
+		} catch (Exception e) {
+			LOG.debug("Virtual threads are not supported by this JVM", e);
+		}
+		VIRTUAL_THREADS = factory;
+	}
+
+	/**
+	 * @return <code>true</code> if the running JVM supports virtual threads
+	 */
+	public static boolean isSupported() {
+		return VIRTUAL_THREADS != null;
+	}
+
+	/**
+	 * Create a virtual thread worker group
+	 *
+	 * @param maxConcurrency the maximum number of tasks that may run at once,
+	 *            or -1 for no limit
+	 * @throws IllegalStateException if virtual threads are not supported
+	 */
+	public VirtualThreadExecutorGroup(int maxConcurrency) {
+		super(1, (Executor) null, maxConcurrency);
+	}
+
+	@Override
+	protected EventExecutor newChild(Executor executor, Object... args) throws Exception {
+		if (VIRTUAL_THREADS == null) {
+			throw new IllegalStateException("Virtual threads are not supported by this JVM");
+		}
+		return new VirtualThreadEventExecutor(this, (Integer) args[0]);
+	}
+
+	private static class VirtualThreadEventExecutor extends AbstractEventExecutor {
+
+		private static final ThreadLocal<VirtualThreadEventExecutor>	OWNER				= new ThreadLocal<>();
+
+		private final Semaphore											permits;
+
+		private final AtomicInteger										active				= new AtomicInteger();
+
+		private final Promise<Void>										terminationFuture	= new DefaultPromise<>(
+			GlobalEventExecutor.INSTANCE);
+
+		private volatile boolean										shuttingDown;
+
+		VirtualThreadEventExecutor(EventExecutorGroup parent, int maxConcurrency) {
+			super(parent);
+			permits = maxConcurrency < 0 ? null : new Semaphore(maxConcurrency);
+		}
+
+		@Override
+		public boolean inEventLoop(Thread thread) {
+			return thread == Thread.currentThread() && OWNER.get() == this;
+		}
+
+		@Override
+		public Future<?> submit(Runnable task) {
+			return submit(acquire(), Executors.callable(task));
+		}
+
+		@Override
+		public <T> Future<T> submit(Runnable task, T result) {
+			return submit(acquire(), Executors.callable(task, result));
+		}
+
+		@Override
+		public <T> Future<T> submit(Callable<T> task) {
+			return submit(acquire(), task);
+		}
+
+		/*
+		 * The permit is released by the task itself, before its result is
+		 * visible
+		 */
+		private <T> Future<T> submit(Permit permit, Callable<T> task) {
+			return permit.track(() -> {
+				RunnableFuture<T> future = newTaskFor(() -> {
+					try {
+						return task.call();
+					} finally {
+						permit.release();
+					}
+				});
+				execute(future);
+				return (Future<T>) future;
+			});
+		}
+
+		@Override
+		public void execute(Runnable task) {
+			active.incrementAndGet();
+			try {
+				VIRTUAL_THREADS.newThread(() -> {
+					OWNER.set(this);
+					try {
+						task.run();
+					} finally {
+						OWNER.remove();
+						if (active.decrementAndGet() == 0 && shuttingDown) {
+							terminationFuture.trySuccess(null);
+						}
+					}
+				})
+					.start();
+			} catch (RuntimeException | Error e) {
+				active.decrementAndGet();
+				throw e;
+			}
+		}
+
+		private Permit acquire() {
+			if (shuttingDown) {
+				throw new RejectedExecutionException("The worker group is shut down");
+			}
+			if (permits != null && !permits.tryAcquire()) {
+				throw new RejectedExecutionException("The maximum number of concurrent tasks is running");
+			}
+			return new Permit();
+		}
+
+		/*
+		 * Released by the task itself, before its result is visible, or when
+		 * the task completes without running, for example when it is cancelled
+		 */
+		private final class Permit extends AtomicBoolean {
+			private static final long serialVersionUID = 1L;
+
+			void release() {
+				if (permits != null && compareAndSet(false, true)) {
+					permits.release();
+				}
+			}
+
+			<T> Future<T> track(Supplier<Future<T>> submission) {
+				Future<T> f;
+				try {
+					f = submission.get();
+				} catch (RuntimeException | Error e) {
+					release();
+					throw e;
+				}
+				return f.addListener(x -> release());
+			}
+		}
+
+		@Override
+		public boolean isShuttingDown() {
+			return shuttingDown;
+		}
+
+		@Override
+		public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+			shutdown();
+			return terminationFuture;
+		}
+
+		@Override
+		public Future<?> terminationFuture() {
+			return terminationFuture;
+		}
+
+		@Override
+		@Deprecated
+		public void shutdown() {
+			shuttingDown = true;
+			if (active.get() == 0) {
+				terminationFuture.trySuccess(null);
+			}
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return shuttingDown;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return terminationFuture.isDone();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+			return terminationFuture.await(timeout, unit);
+		}
+	}
+}
@@ -15,7 +15,7 @@ package org.eclipse.ot.rsa.distribution.provider.client;
 import java.util.UUID;
 
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractPayloadMessage;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.util.concurrent.Future;
@@ -18,7 +18,7 @@ import static org.osgi.framework.ServiceException.REMOTE;
 import java.util.UUID;
 import java.util.function.Consumer;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.osgi.framework.ServiceException;
 
 import io.netty.buffer.ByteBuf;
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+
+/**
+ * The set of channels connected to a single remote address.
+ * <p>
+ * The primary channel identifies the pool. It carries all of the stateful
+ * traffic, such as streaming results, and it is the channel that imports are
+ * registered against. Plain method invocations are spread across all of the
+ * live members of the pool. When a secondary member closes it simply leaves
+ * the pool, calls in flight on it fail and later calls use the remaining
+ * members. When the primary closes the whole pool is closed.
+ */
+public class ClientChannelPool {
+
+	private static final Logger								LOG						= LoggerFactory
+		.getLogger(ClientChannelPool.class);
+
+	/**
+	 * The {@link ProtocolScheme} option defining the number of connections to
+	 * open to each remote address
+	 */
+	public static final String								CONNECTIONS_PER_ENDPOINT	= "connections.per.endpoint";
+
+	/**
+	 * The {@link ProtocolScheme} option selecting the {@link Strategy} used to
+	 * pick a connection for each call
+	 */
+	public static final String								CONNECTIONS_STRATEGY	= "connections.strategy";
+
+	static final AttributeKey<ClientChannelPool>			POOL					= AttributeKey
+		.valueOf(ClientChannelPool.class, "pool");
+
+	public enum Strategy {
+		/**
+		 * Use each member in turn
+		 */
+		ROUND_ROBIN("round-robin"),
+		/**
+		 * Use the member with the fewest calls awaiting a response
+		 */
+		LEAST_PENDING("least-pending");
+
+		private final String optionValue;
+
+		Strategy(String optionValue) {
+			this.optionValue = optionValue;
+		}
+
+		static Strategy fromOption(String value) {
+			for (Strategy s : values()) {
+				if (s.optionValue.equalsIgnoreCase(value)) {
+					return s;
+				}
+			}
+			throw new IllegalArgumentException("Unknown connection strategy " + value);
+		}
+	}
+
+	private static final class Member {
+		final Channel				channel;
+		final ClientInboundHandler	handler;
+
+		Member(Channel channel) {
+			this.channel = channel;
+			this.handler = channel.pipeline()
+				.get(ClientInboundHandler.class);
+		}
+
+		int pendingCalls() {
+			return handler == null ? Integer.MAX_VALUE : handler.pendingCalls();
+		}
+	}
+
+	private final Channel			primary;
+
+	private final Strategy			strategy;
+
+	private final List<Member>		members	= new CopyOnWriteArrayList<>();
+
+	private final AtomicInteger		counter	= new AtomicInteger();
+
+	ClientChannelPool(Channel primary, Strategy strategy) {
+		this.primary = primary;
+		this.strategy = strategy;
+		join(primary);
+	}
+
+	/**
+	 * Read the number of connections per endpoint from a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return the pool size, always at least one
+	 */
+	static int poolSize(ProtocolScheme p) {
+		Integer size = p.getOption(CONNECTIONS_PER_ENDPOINT, Integer.class);
+		if (size == null) {
+			return 1;
+		} else if (size < 1 || size > 64) {
+			LOG.warn(
+				"The number of connections per endpoint {} for {} is not supported. The value must be between 1 and 64. It will be set to 1",
+				size, p.getProtocol());
+			return 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Read the call distribution strategy from a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return the strategy, {@link Strategy#ROUND_ROBIN} by default
+	 */
+	static Strategy strategy(ProtocolScheme p) {
+		String value = p.getOption(CONNECTIONS_STRATEGY, String.class);
+		if (value == null) {
+			return Strategy.ROUND_ROBIN;
+		}
+		try {
+			return Strategy.fromOption(value);
+		} catch (IllegalArgumentException iae) {
+			LOG.warn("The connection strategy {} for {} is not supported. It will be set to round-robin", value,
+				p.getProtocol());
+			return Strategy.ROUND_ROBIN;
+		}
+	}
+
+	/**
+	 * Get the source of channels to use for method invocations made using the
+	 * supplied channel
+	 *
+	 * @param channel the primary channel for an import
+	 * @return a supplier of channels for invocations
+	 */
+	public static Supplier<Channel> callChannels(Channel channel) {
+		ClientChannelPool pool = channel.hasAttr(POOL) ? channel.attr(POOL)
+			.get() : null;
+		return pool == null ? () -> channel : pool::next;
+	}
+
+	/**
+	 * Get the primary channel of the pool that a channel belongs to
+	 *
+	 * @param channel a channel
+	 * @return the primary channel of its pool, or the channel itself if it is
+	 *         not pooled
+	 */
+	static Channel primaryOf(Channel channel) {
+		ClientChannelPool pool = channel.hasAttr(POOL) ? channel.attr(POOL)
+			.get() : null;
+		return pool == null ? channel : pool.primary;
+	}
+
+	void join(Channel channel) {
+		channel.attr(POOL)
+			.set(this);
+		Member member = new Member(channel);
+		members.add(member);
+		channel.closeFuture()
+			.addListener(f -> members.remove(member));
+	}
+
+	public Channel primary() {
+		return primary;
+	}
+
+	public int size() {
+		return members.size();
+	}
+
+	/**
+	 * Select the channel for the next invocation
+	 *
+	 * @return a live member of the pool, or the primary if there are none
+	 */
+	public Channel next() {
+		Object[] snapshot = members.toArray();
+		int size = snapshot.length;
+		if (size == 1) {
+			return ((Member) snapshot[0]).channel;
+		}
+
+		Member selected = null;
+		switch (strategy) {
+			case LEAST_PENDING :
+				int fewest = Integer.MAX_VALUE;
+				for (Object o : snapshot) {
+					Member m = (Member) o;
+					int pending = m.pendingCalls();
+					if (m.channel.isActive() && (selected == null || pending < fewest)) {
+						selected = m;
+						fewest = pending;
+					}
+				}
+				break;
+			case ROUND_ROBIN :
+			default :
+				for (int i = 0; i < size && selected == null; i++) {
+					Member m = (Member) snapshot[Math.floorMod(counter.getAndIncrement(), size)];
+					if (m.channel.isActive()) {
+						selected = m;
+					}
+				}
+				break;
+		}
+		return selected == null ? primary : selected.channel;
+	}
+
+	/**
+	 * Close every member of the pool
+	 */
+	public void close() {
+		members.forEach(m -> m.channel.close());
+		primary.close();
+	}
+}
@@ -13,19 +13,24 @@
 package org.eclipse.ot.rsa.distribution.provider.client;
 
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.osgi.framework.ServiceException.REMOTE;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
@@ -34,6 +39,11 @@ import javax.net.ssl.SSLEngine;
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.eclipse.ot.rsa.distribution.provider.tcp.FlushBatchingHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.MessageChunkingHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.MessageCompressionHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.Transports;
 import org.eclipse.ot.rsa.distribution.provider.tcp.VersionCheckingLengthFieldBasedFrameDecoder;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.osgi.framework.ServiceException;
@@ -49,19 +59,20 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.util.Timer;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.Promise;
 
 public class ClientConnectionManager {
 
 	private static final Logger																	LOG					= LoggerFactory
 		.getLogger(ClientConnectionManager.class);
 
-	private final ConcurrentMap<InetSocketAddress, Channel>										activeChannels		= new ConcurrentHashMap<>();
+	private final ConcurrentMap<InetSocketAddress, ClientChannelPool>							activeChannels		= new ConcurrentHashMap<>();
+
+	private final Map<InetSocketAddress, Future<ClientChannelPool>>								pendingConnects		= new HashMap<>();
 
 	private final ConcurrentMap<Channel, Set<ImportRegistrationImpl>>							channelsToServices	= new ConcurrentHashMap<>();
 
@@ -71,23 +82,24 @@ public class ClientConnectionManager {
 
 	private final NettyTLS																		tls;
 	private final Map<String, BiFunction<Consumer<Channel>, InetSocketAddress, ChannelFuture>>	connectors;
+	private final Map<String, ProtocolScheme>													schemes;
 
 	private final EventExecutorGroup															clientWorkers;
-	private final Timer																			timer;
+
+	private final LongAdder																		timedOutCalls		= new LongAdder();
 
 	boolean																						closed;
 
 	public ClientConnectionManager(TransportConfig config, NettyTLS tls, ByteBufAllocator allocator,
-		EventLoopGroup clientIo, EventExecutorGroup clientWorkers, Timer timer) {
+		EventLoopGroup clientIo, EventExecutorGroup clientWorkers) {
 		this.tls = tls;
 		this.allocator = allocator;
 		this.clientWorkers = clientWorkers;
-		this.timer = timer;
 
 		this.clientIo = clientIo;
 
 		String[] protocols = config.client_protocols();
-		connectors = Arrays.stream(protocols)
+		List<ProtocolScheme> permitted = Arrays.stream(protocols)
 			.map(ProtocolScheme::new)
 			.filter(p -> {
 				if (config.allow_insecure_transports() || p.getProtocol()
@@ -99,8 +111,14 @@ public class ClientConnectionManager {
 					p.getProtocol());
 				return false;
 			})
+			.collect(toList());
+
+		connectors = permitted.stream()
 			.collect(toMap(p -> p.getProtocol()
 				.getUriScheme(), p -> createConnectionTo(config, p)));
+		schemes = permitted.stream()
+			.collect(toMap(p -> p.getProtocol()
+				.getUriScheme(), p -> p));
 
 		if (connectors.isEmpty() && protocols.length > 0) {
 			LOG.error("There are no client transports available for this provider. Please check the configuration");
@@ -185,7 +203,7 @@ public class ClientConnectionManager {
 							"The connection timeout {} for {} is not supported. The value must be greater than 0 and less than 10000 It will be set to 3000");
 						connectionTimeout = 3000;
 					}
-					b.channel(NioSocketChannel.class)
+					b.channel(Transports.socketChannel(clientIo))
 						.option(ChannelOption.SO_KEEPALIVE, true)
 						.option(ChannelOption.TCP_NODELAY, p.getOption("nodelay", Boolean.class))
 						.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout);
@@ -193,7 +211,21 @@ public class ClientConnectionManager {
 						// Incoming
 						ch.pipeline()
 							.addLast(ImmediateEventExecutor.INSTANCE,
-								new VersionCheckingLengthFieldBasedFrameDecoder());
+								VersionCheckingLengthFieldBasedFrameDecoder.fromOptions(p));
+						SessionDictionaries.install(ch, p);
+						// Outgoing
+						ch.pipeline()
+							.addLast(MessageChunkingHandler.fromOptions(p));
+						FlushBatchingHandler flushBatching = FlushBatchingHandler.fromOptions(p);
+						if (flushBatching != null) {
+							ch.pipeline()
+								.addLast(flushBatching);
+						}
+						MessageCompressionHandler compression = MessageCompressionHandler.fromOptions(p);
+						if (compression != null) {
+							ch.pipeline()
+								.addLast(compression);
+						}
 					});
 					break;
 				default :
@@ -214,118 +246,241 @@ public class ClientConnectionManager {
 		};
 	}
 
+	/**
+	 * Get a channel to the endpoint, waiting for the connection to be
+	 * established if necessary.
+	 *
+	 * @param uri the endpoint location
+	 * @param endpointDescription the endpoint
+	 * @return the channel, or <code>null</code> if no connection could be made
+	 */
 	public Channel getChannelFor(URI uri, EndpointDescription endpointDescription) {
+		Future<Channel> future = connectTo(uri, endpointDescription);
+		try {
+			future.await();
+		} catch (InterruptedException e) {
+			LOG.error("Interrupted waiting for a connection to " + uri, e);
+			Thread.currentThread()
+				.interrupt();
+			return null;
+		}
+		return future.getNow();
+	}
+
+	/**
+	 * Get a channel to the endpoint without blocking. Concurrent requests for
+	 * the same remote address share a single connection attempt, and requests
+	 * for different addresses connect in parallel.
+	 *
+	 * @param uri the endpoint location
+	 * @param endpointDescription the endpoint
+	 * @return a future that completes with the channel once it is connected
+	 *         and any TLS handshake has finished
+	 */
+	public Future<Channel> connectTo(URI uri, EndpointDescription endpointDescription) {
 
 		UUID serviceId = UUID.fromString(endpointDescription.getId());
 		InetSocketAddress remoteAddress = new InetSocketAddress(uri.getHost(), uri.getPort());
+		String scheme = uri.getScheme();
+		BiFunction<Consumer<Channel>, InetSocketAddress, ChannelFuture> connector = connectors.get(scheme);
 
-		// We must not use computeIfAbsent as this holds a table lock in the
-		// activeChannels Map
-		// This can block the close listener of another channel (doing a
-		// remove), which prevents
-		// that thread from completing the connect in getChannelFor -> DEADLOCK!
-		boolean isOpen;
-		Channel channel;
+		// The lock is only held to update the maps, never while connecting, as
+		// the close listener of another channel may need it to complete
+		Future<ClientChannelPool> pending;
+		Promise<ClientChannelPool> toConnect = null;
 		synchronized (this) {
-			isOpen = !closed;
-			channel = activeChannels.get(remoteAddress);
-		}
-
-		if (channel == null && isOpen) {
-			Channel newChannel = ofNullable(connectors.get(uri.getScheme())).map(b -> getChannelFor(b, remoteAddress))
-				.orElse(null);
-			if (newChannel != null) {
-				synchronized (this) {
-					isOpen = !closed;
-					if (isOpen) {
-						channel = activeChannels.putIfAbsent(remoteAddress, newChannel);
-					}
-				}
-				if (channel == null && isOpen) {
-					channel = newChannel;
-				} else {
-					newChannel.close();
+			ClientChannelPool pool = activeChannels.get(remoteAddress);
+			if (closed) {
+				pending = clientIo.next()
+					.newFailedFuture(new ServiceException("The RSA client is closing.", REMOTE));
+			} else if (pool != null) {
+				pending = clientIo.next()
+					.newSucceededFuture(pool);
+			} else if (connector == null) {
+				pending = clientIo.next()
+					.newFailedFuture(new IllegalArgumentException("No client transport for the scheme " + scheme));
+			} else {
+				pending = pendingConnects.get(remoteAddress);
+				if (pending == null) {
+					toConnect = clientIo.next()
+						.newPromise();
+					pendingConnects.put(remoteAddress, toConnect);
+					pending = toConnect;
 				}
 			}
 		}
 
-		if (channel == null) {
-			LOG.warn("Unable to create a client connection for the service {} with endpoint {}", serviceId,
-				endpointDescription);
-			return null;
+		if (toConnect != null) {
+			connectPool(connector, schemes.get(scheme), remoteAddress, toConnect,
+				MessageCompressionHandler.isAdvertised(uri));
 		}
 
-		Channel toUse = channel;
+		Future<ClientChannelPool> connection = pending;
+		Promise<Channel> result = clientIo.next()
+			.newPromise();
+		connection.addListener(f -> {
+			if (!connection.isSuccess()) {
+				LOG.warn("Unable to create a client connection for the service {} with endpoint {}", serviceId,
+					endpointDescription);
+				result.tryFailure(connection.cause());
+				return;
+			}
 
-		channel.closeFuture()
-			.addListener(x -> {
-				Throwable failure = x.cause();
-				clientWorkers.execute(() -> {
-					String message = "The connection to the remote node " + toUse.remoteAddress() + " was lost";
-					failAll(toUse, failure == null ? new ServiceException(message, REMOTE)
-						: new ServiceException(message, REMOTE, failure));
+			Channel toUse = connection.getNow()
+				.primary();
+
+			toUse.closeFuture()
+				.addListener(x -> {
+					Throwable failure = x.cause();
+					clientWorkers.execute(() -> {
+						String message = "The connection to the remote node " + toUse.remoteAddress() + " was lost";
+						failAll(toUse, failure == null ? new ServiceException(message, REMOTE)
+							: new ServiceException(message, REMOTE, failure));
+					});
 				});
-			});
 
-		return toUse;
+			result.trySuccess(toUse);
+		});
+		return result;
 	}
 
-	private Channel getChannelFor(BiFunction<Consumer<Channel>, InetSocketAddress, ChannelFuture> f,
-		InetSocketAddress remoteAddress) {
-		ChannelFuture future = null;
-		try {
-			future = f.apply(ch -> {
-				ClientInboundHandler clientResponseHandler = new ClientInboundHandler(this, timer);
-				ch.pipeline()
-					.addLast(ImmediateEventExecutor.INSTANCE, clientResponseHandler);
-				ch.pipeline()
-					.addLast(ImmediateEventExecutor.INSTANCE, new ClientOutboundHandler(clientResponseHandler));
-			}, remoteAddress);
-			future.await();
+	/**
+	 * Connect all of the members of a new pool in parallel. The pool is
+	 * available as soon as its primary channel is connected, the other members
+	 * join it as they connect.
+	 * <p>
+	 * Imports are only registered against the primary channel, so losing the
+	 * primary fails them and closes the rest of the pool, whereas losing any
+	 * other member just removes it from the pool.
+	 * <p>
+	 * The members of the pool compress their messages if the server advertised
+	 * support for compression and it is configured for this client.
+	 */
+	private void connectPool(BiFunction<Consumer<Channel>, InetSocketAddress, ChannelFuture> f, ProtocolScheme p,
+		InetSocketAddress remoteAddress, Promise<ClientChannelPool> promise, boolean compress) {
+
+		Future<Channel> primaryFuture = connect(f, remoteAddress, compress);
+		List<Future<Channel>> secondaryFutures = new ArrayList<>();
+		for (int i = 1, size = ClientChannelPool.poolSize(p); i < size; i++) {
+			secondaryFutures.add(connect(f, remoteAddress, compress));
+		}
 
-			if (future.isSuccess()) {
-				Channel channel = future.channel();
-
-				channel.closeFuture()
-					.addListener(x -> {
-						activeChannels.remove(remoteAddress, channel);
-						ofNullable(channelsToServices.remove(channel)).ifPresent(s -> s.stream()
-							.forEach(ir -> {
-								Throwable failure = x.cause();
-								String message = "The connection to the remote node " + remoteAddress + " was lost";
-								ir.asyncFail(failure == null ? new ServiceException(message, REMOTE)
-									: new ServiceException(message, REMOTE, failure));
-							}));
-					});
+		primaryFuture.addListener(pf -> {
+			if (!primaryFuture.isSuccess()) {
+				synchronized (this) {
+					pendingConnects.remove(remoteAddress, promise);
+				}
+				secondaryFutures.forEach(sf -> sf.addListener(x -> {
+					if (sf.isSuccess()) {
+						sf.getNow()
+							.close();
+					}
+				}));
+				promise.tryFailure(primaryFuture.cause());
+				return;
+			}
 
-				ChannelHandler first = channel.pipeline()
-					.first();
+			Channel primary = primaryFuture.getNow();
+			ClientChannelPool pool = new ClientChannelPool(primary, ClientChannelPool.strategy(p));
+
+			primary.closeFuture()
+				.addListener(x -> {
+					activeChannels.remove(remoteAddress, pool);
+					pool.close();
+					ofNullable(channelsToServices.remove(primary)).ifPresent(s -> s.stream()
+						.forEach(ir -> {
+							Throwable failure = x.cause();
+							String message = "The connection to the remote node " + remoteAddress + " was lost";
+							ir.asyncFail(failure == null ? new ServiceException(message, REMOTE)
+								: new ServiceException(message, REMOTE, failure));
+						}));
+				});
 
-				if (first instanceof SslHandler) {
-					Future<Channel> handshake = ((SslHandler) first).handshakeFuture()
-						.await();
-					if (!handshake.isSuccess()) {
-						LOG.warn("Unable to complete the SSL Handshake with remote node " + remoteAddress,
-							handshake.cause());
-						channel.close();
-						return null;
+			secondaryFutures.forEach(sf -> sf.addListener(x -> {
+				if (sf.isSuccess()) {
+					Channel member = sf.getNow();
+					pool.join(member);
+					// The pool may have been closed while this member was
+					// connecting
+					if (!primary.isOpen()) {
+						member.close();
 					}
+				} else {
+					LOG.warn("A pooled connection to the remote address {} could not be opened", remoteAddress);
 				}
+			}));
 
-				return channel;
+			boolean registered;
+			synchronized (this) {
+				pendingConnects.remove(remoteAddress, promise);
+				registered = !closed && primary.isOpen();
+				if (registered) {
+					activeChannels.put(remoteAddress, pool);
+				}
+			}
+
+			if (registered) {
+				promise.trySuccess(pool);
 			} else {
-				LOG.error("Unable to connect to the remote address " + remoteAddress, future.cause());
-				return null;
+				pool.close();
+				promise.tryFailure(new ServiceException("The RSA client is closing.", REMOTE));
 			}
+		});
+	}
 
-		} catch (InterruptedException e) {
-			LOG.error("Unable to connect to the remote address" + remoteAddress, e);
-			if (future != null) {
-				future.channel()
-					.close();
+	/**
+	 * Open a single channel, completing once it is connected and any TLS
+	 * handshake has finished
+	 */
+	private Future<Channel> connect(BiFunction<Consumer<Channel>, InetSocketAddress, ChannelFuture> f,
+		InetSocketAddress remoteAddress, boolean compress) {
+		ChannelFuture future = f.apply(ch -> {
+			if (compress) {
+				MessageCompressionHandler.enable(ch);
 			}
-			return null;
+			ClientInboundHandler clientResponseHandler = new ClientInboundHandler(this);
+			ch.pipeline()
+				.addLast(ImmediateEventExecutor.INSTANCE, clientResponseHandler);
+			ch.pipeline()
+				.addLast(ImmediateEventExecutor.INSTANCE, new ClientOutboundHandler(clientResponseHandler));
+		}, remoteAddress);
+
+		if (future == null) {
+			return clientIo.next()
+				.newFailedFuture(new IllegalStateException("The client transport could not be configured"));
 		}
+
+		Channel channel = future.channel();
+		Promise<Channel> promise = channel.eventLoop()
+			.newPromise();
+
+		future.addListener(cf -> {
+			if (!future.isSuccess()) {
+				LOG.error("Unable to connect to the remote address " + remoteAddress, future.cause());
+				promise.tryFailure(future.cause());
+				return;
+			}
+
+			ChannelHandler first = channel.pipeline()
+				.first();
+
+			if (first instanceof SslHandler) {
+				Future<Channel> handshake = ((SslHandler) first).handshakeFuture();
+				handshake.addListener(h -> {
+					if (handshake.isSuccess()) {
+						promise.trySuccess(channel);
+					} else {
+						LOG.warn("Unable to complete the SSL Handshake with remote node " + remoteAddress,
+							handshake.cause());
+						channel.close();
+						promise.tryFailure(handshake.cause());
+					}
+				});
+			} else {
+				promise.trySuccess(channel);
+			}
+		});
+		return promise;
 	}
 
 	private void failAll(Channel channel, Throwable t) {
@@ -406,7 +561,18 @@ public class ClientConnectionManager {
 
 		activeChannels.values()
 			.stream()
-			.forEach(Channel::close);
+			.forEach(ClientChannelPool::close);
+	}
+
+	void notifyTimedOut(int calls) {
+		timedOutCalls.add(calls);
+	}
+
+	/**
+	 * @return the number of client calls that have timed out without a response
+	 */
+	public long getTimedOutCallCount() {
+		return timedOutCalls.sum();
 	}
 
 	public void notifyFailedService(Channel channel, UUID serviceId, ServiceException se) {
@@ -414,7 +580,10 @@ public class ClientConnectionManager {
 			if (closed)
 				return;
 		}
-		clientWorkers.execute(() -> ofNullable(channelsToServices.get(channel)).map(Set::stream)
+		// Failures may be reported by any member of a pool, but imports are
+		// registered against its primary channel
+		Channel primary = ClientChannelPool.primaryOf(channel);
+		clientWorkers.execute(() -> ofNullable(channelsToServices.get(primary)).map(Set::stream)
 			.flatMap(s -> s.filter(ir -> serviceId.equals(ir.getId()))
 				.findFirst())
 			.ifPresent(ir -> ir.asyncFail(se)));
@@ -22,17 +22,19 @@ import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1.SU
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.SERVER_CLOSE_EVENT;
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.SERVER_DATA_EVENT;
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.SERVER_ERROR_EVENT;
+import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.SESSION_DICTIONARY;
 import static org.osgi.framework.ServiceException.REMOTE;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage.CacheKey;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.freshvanilla.net.SessionDictionary.Scope;
 import org.osgi.framework.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,47 +42,121 @@ import org.slf4j.LoggerFactory;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import io.netty.util.Timeout;
-import io.netty.util.Timer;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
 
+/**
+ * Matches responses to the outstanding calls on a channel.
+ * <p>
+ * Call timeouts are tracked by the channel's own event loop rather than a
+ * shared timer. Each pending call records its deadline, and a single check is
+ * scheduled for the earliest deadline. The check expires every call whose
+ * deadline has passed and schedules itself again for the earliest remaining
+ * deadline, so calls that complete in time cost nothing to cancel.
+ */
 public class ClientInboundHandler extends ChannelInboundHandlerAdapter {
 
-	private static final Logger													LOG				= LoggerFactory
-		.getLogger(ClientInboundHandler.class);
+	private static final Logger				LOG				= LoggerFactory.getLogger(ClientInboundHandler.class);
+
+	/**
+	 * The resolution of the timeout check. Deadlines that fall within one tick
+	 * of each other are expired by the same check.
+	 */
+	static final long						TICK_NANOS		= TimeUnit.MILLISECONDS.toNanos(10);
+
+	/*
+	 * Only accessed from the event loop of the channel
+	 */
+	private final PendingCalls				pendingCalls	= new PendingCalls();
 
-	private final ConcurrentMap<CacheKey, AbstractClientInvocationWithResult>	pendingCalls	= new ConcurrentHashMap<>();
+	private final ClientConnectionManager	ccm;
 
-	private final ClientConnectionManager										ccm;
-	private final Timer															timer;
+	private EventExecutor					executor;
 
-	public ClientInboundHandler(ClientConnectionManager ccm, Timer timer) {
+	private ScheduledFuture<?>				expiryCheck;
+	private long							expiryCheckAt	= PendingCalls.NO_DEADLINE;
+
+	public ClientInboundHandler(ClientConnectionManager ccm) {
 		this.ccm = ccm;
-		this.timer = timer;
 	}
 
-	public void registerInvocation(AbstractClientInvocationWithResult invocation) {
-
-		CacheKey key = invocation.getKey();
-		pendingCalls.put(key, invocation);
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		// This handler runs on the immediate executor, so use the event loop
+		executor = ctx.channel()
+			.eventLoop();
+	}
 
+	public void registerInvocation(AbstractClientInvocationWithResult invocation) {
 		long timeout = invocation.getTimeout();
 		if (timeout > 0) {
-			Timeout pendingTimeout = timer.newTimeout(t -> {
-				pendingCalls.remove(key);
-				invocation.fail(
-					new ServiceException("There was no response from the remote service " + invocation.getServiceId(),
-						+REMOTE, new TimeoutException("The invocation timed out with no response.")));
-			}, timeout, TimeUnit.MILLISECONDS);
-
-			invocation.addCompletionListener(f -> {
-				if (!pendingTimeout.isExpired())
-					pendingTimeout.cancel();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+			onEventLoop(() -> {
+				pendingCalls.put(invocation, deadline);
+				scheduleExpiryCheck(deadline);
 			});
+		} else {
+			onEventLoop(() -> pendingCalls.put(invocation));
 		}
 	}
 
-	public void unregisterInvocation(CacheKey key) {
-		pendingCalls.remove(key);
+	public void unregisterInvocation(UUID serviceId, int callId) {
+		onEventLoop(() -> pendingCalls.remove(serviceId.getMostSignificantBits(),
+			serviceId.getLeastSignificantBits(), callId));
+	}
+
+	/*
+	 * Invocations are written from the caller's thread. The write is passed on
+	 * to the event loop after this task, so the call is always registered
+	 * before its response can arrive.
+	 */
+	private void onEventLoop(Runnable action) {
+		EventExecutor executor = this.executor;
+		if (executor == null || executor.inEventLoop()) {
+			action.run();
+		} else {
+			executor.execute(action);
+		}
+	}
+
+	private void scheduleExpiryCheck(long deadline) {
+		if (executor == null || deadline + TICK_NANOS >= expiryCheckAt) {
+			return;
+		}
+		if (expiryCheck != null) {
+			expiryCheck.cancel(false);
+		}
+		expiryCheckAt = deadline + TICK_NANOS;
+		expiryCheck = executor.schedule(this::expireCalls, expiryCheckAt - System.nanoTime(),
+			TimeUnit.NANOSECONDS);
+	}
+
+	private void expireCalls() {
+		expiryCheck = null;
+		expiryCheckAt = PendingCalls.NO_DEADLINE;
+
+		List<AbstractClientInvocationWithResult> expired = new ArrayList<>();
+		long next = pendingCalls.expire(System.nanoTime(), expired);
+
+		for (AbstractClientInvocationWithResult invocation : expired) {
+			invocation.fail(
+				new ServiceException("There was no response from the remote service " + invocation.getServiceId(),
+					REMOTE, new TimeoutException("The invocation timed out with no response.")));
+		}
+		if (!expired.isEmpty()) {
+			ccm.notifyTimedOut(expired.size());
+		}
+
+		if (next != PendingCalls.NO_DEADLINE) {
+			scheduleExpiryCheck(next);
+		}
+	}
+
+	/**
+	 * @return the number of invocations awaiting a response on this channel
+	 */
+	public int pendingCalls() {
+		return pendingCalls.size();
 	}
 
 	@Override
@@ -90,19 +166,25 @@ public class ClientInboundHandler extends ChannelInboundHandlerAdapter {
 		try {
 			byte command = buf.readByte();
 
-			UUID serviceId = new UUID(buf.readLong(), buf.readLong());
+			long msb = buf.readLong();
+			long lsb = buf.readLong();
 			int callId = buf.readInt();
 
-			CacheKey key = new CacheKey(serviceId, callId);
+			if (command == SESSION_DICTIONARY) {
+				SessionDictionaries.readDefinitions(ctx.channel(), buf);
+				return;
+			}
 
-			AbstractClientInvocationWithResult ci = command == SERVER_DATA_EVENT ? pendingCalls.get(key)
-				: pendingCalls.remove(key);
+			AbstractClientInvocationWithResult ci = command == SERVER_DATA_EVENT ? pendingCalls.get(msb, lsb, callId)
+				: pendingCalls.remove(msb, lsb, callId);
 
 			if (ci == null) {
 				return;
 			}
 
-			try {
+			UUID serviceId = ci.getServiceId();
+
+			try (Scope session = SessionDictionaries.decoding(ctx.channel())) {
 				switch (command) {
 					case SUCCESS_RESPONSE :
 					case SERVER_DATA_EVENT :
@@ -180,10 +262,14 @@ public class ClientInboundHandler extends ChannelInboundHandlerAdapter {
 
 	@Override
 	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		if (expiryCheck != null) {
+			expiryCheck.cancel(false);
+			expiryCheck = null;
+			expiryCheckAt = PendingCalls.NO_DEADLINE;
+		}
 		Exception e = new ServiceException("The remote connection was lost", ServiceException.REMOTE,
 			new IOException());
-		pendingCalls.values()
-			.stream()
+		pendingCalls.clear()
 			.forEach(f -> f.fail(e));
 	}
 }
@@ -24,7 +24,7 @@ import java.util.function.Function;
 
 import org.eclipse.ot.rsa.distribution.provider.serialize.CompletedPromise;
 import org.eclipse.ot.rsa.distribution.provider.serialize.CompletedPromise.State;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.osgi.framework.ServiceException;
 
 import io.netty.buffer.ByteBuf;
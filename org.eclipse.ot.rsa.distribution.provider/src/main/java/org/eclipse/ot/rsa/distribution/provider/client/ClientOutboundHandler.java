@@ -13,6 +13,9 @@
 package org.eclipse.ot.rsa.distribution.provider.client;
 
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage;
+import org.eclipse.ot.rsa.distribution.provider.message.MessageSizeEstimator;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.freshvanilla.net.SessionDictionary.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,6 +30,8 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
 
 	private final ClientInboundHandler	responseHandler;
 
+	private final MessageSizeEstimator	sizes	= new MessageSizeEstimator();
+
 	public ClientOutboundHandler(ClientInboundHandler responseHandler) {
 		this.responseHandler = responseHandler;
 	}
@@ -39,11 +44,12 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
 
 		ClientMessageType callType = invocation.getType();
 
-		try {
+		try (Scope session = SessionDictionaries.encoding(ctx.channel())) {
 			/* See Protocol_V1 and Protocol_V2 for header structure */
 			ByteBuf buffer = ctx.alloc()
-				.ioBuffer();
+				.ioBuffer(sizes.estimate(callType));
 			invocation.write(buffer, promise);
+			sizes.record(callType, buffer.readableBytes());
 
 			switch (callType.getAction()) {
 
@@ -51,12 +57,12 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
 					responseHandler.registerInvocation((AbstractClientInvocationWithResult) invocation);
 					promise.addListener(f -> {
 						if (!f.isSuccess()) {
-							responseHandler.unregisterInvocation(invocation.getKey());
+							responseHandler.unregisterInvocation(invocation.getServiceId(), invocation.getCallId());
 						}
 					});
 					break;
 				case REMOVE :
-					responseHandler.unregisterInvocation(invocation.getKey());
+					responseHandler.unregisterInvocation(invocation.getServiceId(), invocation.getCallId());
 					break;
 				case SKIP :
 					break;
@@ -64,6 +70,7 @@ public class ClientOutboundHandler extends ChannelOutboundHandlerAdapter {
 					throw new IllegalArgumentException("An unknown action type " + callType.getAction()
 						.name() + " was made on service " + invocation.getServiceId());
 			}
+			SessionDictionaries.writeDefinitions(ctx, session);
 			ctx.write(buffer, promise);
 		} catch (Exception e) {
 			LOG.error("An error occurred when invoking service {} ", invocation.getServiceId(), e);
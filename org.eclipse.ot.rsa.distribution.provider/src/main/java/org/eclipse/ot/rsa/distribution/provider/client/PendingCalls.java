@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The invocations awaiting a response on a single channel, keyed by call id
+ * and service id.
+ * <p>
+ * This is an open addressing hash table with linear probing, hashed on the
+ * call id. Call ids are only unique per imported service, so several entries
+ * may share a call id and lookups check the service id of each candidate.
+ * Nothing is allocated per call, the table only allocates when it grows.
+ * <p>
+ * Each entry may have a deadline. The slots of the entries with a deadline are
+ * also kept in a binary heap ordered by deadline, and each slot records its
+ * position in the heap. A call that completes leaves the heap along with the
+ * table, so {@link #expire(long, List)} only visits the calls that have
+ * expired, and nothing is allocated to track a deadline.
+ * <p>
+ * This class is not thread safe, it must only be used from the event loop of
+ * the channel. The exception is {@link #size()}, which may be read from any
+ * thread as a hint.
+ */
+final class PendingCalls {
+
+	/**
+	 * The deadline of a call that never times out
+	 */
+	static final long								NO_DEADLINE		= Long.MAX_VALUE;
+
+	private static final int						MIN_CAPACITY	= 64;
+
+	private int[]									callIds;
+	private long[]									deadlines;
+	private AbstractClientInvocationWithResult[]	invocations;
+	private int										mask;
+	private volatile int							size;
+
+	/**
+	 * The slots with a deadline, as a binary heap with the earliest first
+	 */
+	private int[]									heap;
+
+	/**
+	 * The position of each slot in the heap, or -1
+	 */
+	private int[]									heapIndex;
+	private int										heapSize;
+
+	PendingCalls() {
+		this(MIN_CAPACITY);
+	}
+
+	PendingCalls(int capacity) {
+		allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1));
+	}
+
+	private void allocate(int capacity) {
+		callIds = new int[capacity];
+		deadlines = new long[capacity];
+		invocations = new AbstractClientInvocationWithResult[capacity];
+		mask = capacity - 1;
+		heap = new int[capacity];
+		heapIndex = new int[capacity];
+		Arrays.fill(heapIndex, -1);
+		heapSize = 0;
+	}
+
+	private static int hash(int callId, long lsb) {
+		int h = (callId ^ (int) lsb ^ (int) (lsb >>> 32)) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add an invocation, replacing any invocation with the same service and
+	 * call id
+	 *
+	 * @param invocation the invocation to add
+	 * @return the replaced invocation, or <code>null</code>
+	 */
+	AbstractClientInvocationWithResult put(AbstractClientInvocationWithResult invocation) {
+		return put(invocation, NO_DEADLINE);
+	}
+
+	/**
+	 * Add an invocation with a deadline, replacing any invocation with the
+	 * same service and call id
+	 *
+	 * @param invocation the invocation to add
+	 * @param deadline the {@link System#nanoTime()} after which the call
+	 *            expires, or {@link #NO_DEADLINE}
+	 * @return the replaced invocation, or <code>null</code>
+	 */
+	AbstractClientInvocationWithResult put(AbstractClientInvocationWithResult invocation, long deadline) {
+		UUID serviceId = invocation.getServiceId();
+		int callId = invocation.getCallId();
+		long msb = serviceId.getMostSignificantBits();
+		long lsb = serviceId.getLeastSignificantBits();
+
+		int i = hash(callId, lsb) & mask;
+		for (AbstractClientInvocationWithResult existing; (existing = invocations[i]) != null; i = (i + 1) & mask) {
+			if (callIds[i] == callId && matches(existing, msb, lsb)) {
+				invocations[i] = invocation;
+				heapRemove(i);
+				deadlines[i] = deadline;
+				heapAdd(i);
+				return existing;
+			}
+		}
+		callIds[i] = callId;
+		deadlines[i] = deadline;
+		invocations[i] = invocation;
+		heapAdd(i);
+		if (++size > (mask + 1) >> 1) {
+			resize((mask + 1) << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Get the invocation for a response without removing it
+	 */
+	AbstractClientInvocationWithResult get(long msb, long lsb, int callId) {
+		int i = indexOf(msb, lsb, callId);
+		return i < 0 ? null : invocations[i];
+	}
+
+	/**
+	 * Remove the invocation for a response
+	 *
+	 * @return the removed invocation or <code>null</code> if there was none
+	 */
+	AbstractClientInvocationWithResult remove(long msb, long lsb, int callId) {
+		int i = indexOf(msb, lsb, callId);
+		if (i < 0) {
+			return null;
+		}
+		AbstractClientInvocationWithResult removed = invocations[i];
+		delete(i);
+		return removed;
+	}
+
+	/**
+	 * Remove a specific invocation, leaving any other invocation with the same
+	 * key in place
+	 *
+	 * @return <code>true</code> if the invocation was removed
+	 */
+	boolean remove(AbstractClientInvocationWithResult invocation) {
+		int callId = invocation.getCallId();
+		int i = hash(callId, invocation.getServiceId()
+			.getLeastSignificantBits()) & mask;
+		for (AbstractClientInvocationWithResult existing; (existing = invocations[i]) != null; i = (i + 1) & mask) {
+			if (existing == invocation) {
+				delete(i);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Remove all of the invocations
+	 *
+	 * @return the removed invocations
+	 */
+	List<AbstractClientInvocationWithResult> clear() {
+		List<AbstractClientInvocationWithResult> all = new ArrayList<>(size);
+		for (AbstractClientInvocationWithResult invocation : invocations) {
+			if (invocation != null) {
+				all.add(invocation);
+			}
+		}
+		Arrays.fill(invocations, null);
+		Arrays.fill(heapIndex, -1);
+		heapSize = 0;
+		size = 0;
+		return all;
+	}
+
+	/**
+	 * Remove the invocations whose deadline has passed
+	 *
+	 * @param now the current {@link System#nanoTime()}
+	 * @param expired receives the removed invocations
+	 * @return the earliest deadline of the remaining invocations, or
+	 *         {@link #NO_DEADLINE}
+	 */
+	long expire(long now, List<AbstractClientInvocationWithResult> expired) {
+		while (heapSize > 0) {
+			int slot = heap[0];
+			long deadline = deadlines[slot];
+			if (deadline - now > 0) {
+				return deadline;
+			}
+			expired.add(invocations[slot]);
+			delete(slot);
+		}
+		return NO_DEADLINE;
+	}
+
+	private int indexOf(long msb, long lsb, int callId) {
+		int i = hash(callId, lsb) & mask;
+		for (AbstractClientInvocationWithResult existing; (existing = invocations[i]) != null; i = (i + 1) & mask) {
+			if (callIds[i] == callId && matches(existing, msb, lsb)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(AbstractClientInvocationWithResult invocation, long msb, long lsb) {
+		UUID serviceId = invocation.getServiceId();
+		return serviceId.getLeastSignificantBits() == lsb && serviceId.getMostSignificantBits() == msb;
+	}
+
+	/*
+	 * Backward shift deletion, moving later entries of the probe sequence into
+	 * the gap so that no tombstones are needed
+	 */
+	private void delete(int gap) {
+		heapRemove(gap);
+		int i = gap;
+		for (;;) {
+			i = (i + 1) & mask;
+			AbstractClientInvocationWithResult candidate = invocations[i];
+			if (candidate == null) {
+				break;
+			}
+			int home = hash(callIds[i], candidate.getServiceId()
+				.getLeastSignificantBits()) & mask;
+			// Move the candidate if its home slot is not cyclically within
+			// (gap, i]
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				callIds[gap] = callIds[i];
+				deadlines[gap] = deadlines[i];
+				invocations[gap] = candidate;
+				int h = heapIndex[i];
+				heapIndex[gap] = h;
+				if (h >= 0) {
+					heap[h] = gap;
+				}
+				gap = i;
+			}
+		}
+		invocations[gap] = null;
+		heapIndex[gap] = -1;
+		size--;
+	}
+
+	private void resize(int capacity) {
+		int[] oldCallIds = callIds;
+		long[] oldDeadlines = deadlines;
+		AbstractClientInvocationWithResult[] oldInvocations = invocations;
+		allocate(capacity);
+		for (int j = 0; j < oldInvocations.length; j++) {
+			AbstractClientInvocationWithResult invocation = oldInvocations[j];
+			if (invocation != null) {
+				int i = hash(oldCallIds[j], invocation.getServiceId()
+					.getLeastSignificantBits()) & mask;
+				while (invocations[i] != null) {
+					i = (i + 1) & mask;
+				}
+				callIds[i] = oldCallIds[j];
+				deadlines[i] = oldDeadlines[j];
+				invocations[i] = invocation;
+				heapAdd(i);
+			}
+		}
+	}
+
+	private void heapAdd(int slot) {
+		if (deadlines[slot] == NO_DEADLINE) {
+			heapIndex[slot] = -1;
+			return;
+		}
+		heap[heapSize] = slot;
+		heapIndex[slot] = heapSize;
+		siftUp(heapSize++);
+	}
+
+	private void heapRemove(int slot) {
+		int h = heapIndex[slot];
+		if (h < 0) {
+			return;
+		}
+		heapIndex[slot] = -1;
+		int last = heap[--heapSize];
+		if (h != heapSize) {
+			heap[h] = last;
+			heapIndex[last] = h;
+			siftDown(h);
+			siftUp(heapIndex[last]);
+		}
+	}
+
+	/*
+	 * Deadlines are compared by difference, as nanoTime values may wrap
+	 */
+	private boolean earlier(int a, int b) {
+		return deadlines[heap[a]] - deadlines[heap[b]] < 0;
+	}
+
+	private void siftUp(int h) {
+		while (h > 0) {
+			int parent = (h - 1) >>> 1;
+			if (!earlier(h, parent)) {
+				break;
+			}
+			swap(h, parent);
+			h = parent;
+		}
+	}
+
+	private void siftDown(int h) {
+		for (;;) {
+			int child = (h << 1) + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && earlier(child + 1, child)) {
+				child++;
+			}
+			if (!earlier(child, h)) {
+				break;
+			}
+			swap(h, child);
+			h = child;
+		}
+	}
+
+	private void swap(int a, int b) {
+		int slotA = heap[a];
+		int slotB = heap[b];
+		heap[a] = slotB;
+		heap[b] = slotA;
+		heapIndex[slotB] = a;
+		heapIndex[slotA] = b;
+	}
+}
@@ -28,13 +28,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.ot.rsa.distribution.config.ImportedServiceConfig;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientConnectionManager;
 import org.eclipse.ot.rsa.distribution.provider.proxy.ClientServiceFactory;
-import org.eclipse.ot.rsa.distribution.provider.serialize.SerializationType;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceEvent;
@@ -72,12 +73,14 @@ public class ImportRegistrationImpl implements ImportRegistration {
 	private final Timer						_timer;
 	private final long						_defaultServiceTimeout;
 	private final AtomicLong				_serviceTimeout;
+	private final ConcurrentMap<String, AtomicLong>	_methodTimeouts	= new ConcurrentHashMap<>();
 	private final String					_frameworkUUID;
 
 	private EndpointDescription				_endpointDescription;
 	private Throwable						_exception;
 	private RegistrationState				_state	= PRE_INIT;
 	private ImportedServiceConfig			_config;
+	private SerializerFactory				_serializerFactory;
 
 	private final Map<Integer, String>		_methodMappings;
 
@@ -159,12 +162,20 @@ public class ImportRegistrationImpl implements ImportRegistration {
 
 		ServiceRegistration<?> reg;
 		try {
+			String serialization = _config.org_eclipse_ot_rsa_distribution_config_serialization();
+			SerializerFactory serializerFactory = _rsa.getSerializerFactory(serialization);
+			if (serializerFactory == null) {
+				throw new IllegalArgumentException(
+					"The serialization " + serialization + " used by the endpoint " + endpoint.getId()
+						+ " is not available");
+			}
+			synchronized (this) {
+				_serializerFactory = serializerFactory;
+			}
 			reg = _hostBundleContext.registerService(endpoint.getInterfaces()
 				.toArray(new String[0]),
 				new ClientServiceFactory(this, endpoint, _channel,
-					SerializationType.of(_config.org_eclipse_ot_rsa_distribution_config_serialization())
-						.getFactory(),
-					_serviceTimeout, _executor, _timer),
+					serializerFactory.forImport(_endpointDescription.getProperties()), _executor, _timer),
 				serviceProps);
 		} catch (Exception e) {
 			_serviceRegistration = null;
@@ -218,6 +229,47 @@ public class ImportRegistrationImpl implements ImportRegistration {
 		return serviceTimeout;
 	}
 
+	/**
+	 * Get the timeout for calls to a method of this import, which is updated
+	 * along with the endpoint
+	 *
+	 * @param signature the method signature
+	 * @return the timeout (in millis) for calls to the method
+	 */
+	public AtomicLong getMethodTimeout(String signature) {
+		return _methodTimeouts.computeIfAbsent(signature, s -> new AtomicLong(methodTimeout(s)));
+	}
+
+	private long methodTimeout(String signature) {
+		String name = signature.substring(0, signature.indexOf('['));
+		Long byName = null;
+		for (String entry : _config.org_eclipse_ot_rsa_distribution_timeout_methods()) {
+			int idx = entry.lastIndexOf('=');
+			if (idx < 0) {
+				LOG.warn("The method timeout {} for endpoint {} is not of the form method=millis and will be ignored",
+					entry, _endpointDescription.getId());
+				continue;
+			}
+			String method = entry.substring(0, idx)
+				.trim();
+			long timeout;
+			try {
+				timeout = Long.parseLong(entry.substring(idx + 1)
+					.trim());
+			} catch (NumberFormatException nfe) {
+				LOG.warn("The method timeout {} for endpoint {} is not a number and will be ignored", entry,
+					_endpointDescription.getId());
+				continue;
+			}
+			if (method.equals(signature)) {
+				return timeout;
+			} else if (method.equals(name)) {
+				byName = timeout;
+			}
+		}
+		return byName == null ? getServiceTimeout() : byName;
+	}
+
 	/**
 	 * Create a failed endpoint
 	 *
@@ -394,6 +446,7 @@ public class ImportRegistrationImpl implements ImportRegistration {
 			_endpointDescription = endpoint;
 			_config = tmpConfig;
 			_serviceTimeout.set(getServiceTimeout());
+			_methodTimeouts.forEach((s, t) -> t.set(methodTimeout(s)));
 
 			try {
 				// TODO check the handler is still valid
@@ -472,6 +525,17 @@ public class ImportRegistrationImpl implements ImportRegistration {
 		}
 	}
 
+	/**
+	 * @return the factory which created the serializer for the imported
+	 *         service, or <code>null</code> if the import failed before it was
+	 *         chosen
+	 */
+	SerializerFactory getSerializerFactory() {
+		synchronized (this) {
+			return _serializerFactory;
+		}
+	}
+
 	ServiceReference<?> getServiceReference() {
 		try {
 			return _serviceRegistration == null ? null : _serviceRegistration.getReference();
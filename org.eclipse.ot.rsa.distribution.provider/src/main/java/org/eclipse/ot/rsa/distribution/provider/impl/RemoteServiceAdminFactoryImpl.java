@@ -26,8 +26,10 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientConnectionManager;
+import org.eclipse.ot.rsa.distribution.provider.serialize.SerializerFactories;
 import org.eclipse.ot.rsa.distribution.provider.server.RemotingProvider;
 import org.eclipse.ot.rsa.distribution.provider.server.ServerConnectionManager;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -65,6 +67,7 @@ public class RemoteServiceAdminFactoryImpl implements ServiceFactory<RemoteServi
 	private final Timer								timer;
 	private final TransportConfig					config;
 	private final BundleContext						context;
+	private final SerializerFactories				serializerFactories;
 
 	public RemoteServiceAdminFactoryImpl(BundleContext context, TransportConfig config, NettyTLS tls,
 		ByteBufAllocator allocator, EventLoopGroup serverIo, EventLoopGroup clientIo, EventExecutorGroup serverWorkers,
@@ -76,8 +79,12 @@ public class RemoteServiceAdminFactoryImpl implements ServiceFactory<RemoteServi
 		this.serverWorkers = serverWorkers;
 		this.clientWorkers = clientWorkers;
 
-		clientConnectionManager = new ClientConnectionManager(config, tls, allocator, clientIo, clientWorkers, timer);
+		clientConnectionManager = new ClientConnectionManager(config, tls, allocator, clientIo, clientWorkers);
 		serverConnectionManager = new ServerConnectionManager(config, tls, allocator, serverIo, timer);
+
+		serializerFactories = new SerializerFactories(context,
+			f -> impls.forEach(impl -> impl.serializerFactoryRemoved(f)));
+		serializerFactories.open();
 	}
 
 	@Override
@@ -126,10 +133,20 @@ public class RemoteServiceAdminFactoryImpl implements ServiceFactory<RemoteServi
 	}
 
 	public void close() {
+		serializerFactories.close();
 		serverConnectionManager.close();
 		clientConnectionManager.close();
 	}
 
+	/**
+	 * @param name the name of a serialization
+	 * @return the whiteboard serializer factory with the name, or
+	 *         <code>null</code> if there is none
+	 */
+	public SerializerFactory getSerializerFactory(String name) {
+		return serializerFactories.getFactory(name);
+	}
+
 	public List<String> getSupportedIntents() {
 		List<String> intents = new ArrayList<>();
 		intents.add("asyncInvocation");
@@ -48,6 +48,8 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -59,10 +61,12 @@ import org.eclipse.ot.rsa.distribution.config.ExportedServiceConfig;
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientConnectionManager;
 import org.eclipse.ot.rsa.distribution.provider.serialize.SerializationType;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.distribution.provider.server.Bulkhead;
 import org.eclipse.ot.rsa.distribution.provider.server.RemotingProvider;
 import org.eclipse.ot.rsa.distribution.provider.server.ServiceInvoker;
 import org.eclipse.ot.rsa.multrsa.api.MultiFrameworkRemoteServiceAdmin;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.eclipse.ot.rsa.servicecap.util.ServiceCapability;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -106,6 +110,11 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 	private final Map<Framework, Map<ServiceReference<?>, Set<ExportRegistrationImpl>>>	exports					= new HashMap<>();
 	private final Map<Framework, Map<UUID, Set<ImportRegistrationImpl>>>				imports					= new HashMap<>();
 
+	/**
+	 * The serializer factory used by each export, by endpoint id
+	 */
+	private final ConcurrentMap<UUID, SerializerFactory>								exportSerializers		= new ConcurrentHashMap<>();
+
 	private final Framework																defaultFramework;
 	private final RemoteServiceAdminEventPublisher										publisher;
 
@@ -365,23 +374,38 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 				return null;
 			}
 
-			SerializationType serializationType = SerializationType
-				.of(config.org_eclipse_ot_rsa_distribution_config_serialization());
+			String serialization = selectSerialization(config.org_eclipse_ot_rsa_distribution_config_serialization());
+			if (serialization == null) {
+				LOG.error("Unable to export the service {} as none of the serializations {} are available", ref,
+					config.org_eclipse_ot_rsa_distribution_config_serialization());
+				throw new IllegalArgumentException("None of the serializations "
+					+ Arrays.toString(config.org_eclipse_ot_rsa_distribution_config_serialization())
+					+ " are available to export the service " + ref);
+			}
+			// Advertise the serialization that was chosen
+			serviceProperties.put(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION, serialization);
 
 			Bundle classSpace = FrameworkUtil.getBundle(service.getClass());
 
-			Serializer serializer = serializationType.getFactory()
-				.create(classSpace == null ? ref.getBundle() : classSpace);
-
 			SortedMap<String, Method> methodMappings = exportedClasses.stream()
 				.map(Class::getMethods)
 				.flatMap(Arrays::stream)
 				.collect(Collectors.toMap(m -> toSignature(m), Function.identity(), (a, b) -> a, TreeMap::new));
 
+			Method[] methods = methodMappings.values()
+				.toArray(new Method[0]);
+
+			SerializerFactory serializerFactory = getSerializerFactory(serialization);
+			Serializer serializer = serializerFactory.createForExport(classSpace == null ? ref.getBundle() : classSpace,
+				methods, serviceProperties);
+			exportSerializers.put(id, serializerFactory);
+
+			// The bulkheads are shared by every remoting provider for the service
+			Bulkhead[] bulkheads = Bulkhead.forMethods(String.valueOf(ref), config, methods, serverWorkers);
+			boolean[] inline = ServiceInvoker.inlineMethods(config, methods);
+
 			Function<RemotingProvider, ServiceInvoker> invoker = rp -> new ServiceInvoker(rp, id, serializer, service,
-				methodMappings.values()
-					.toArray(new Method[0]),
-				serverWorkers, timer);
+				methods, serverWorkers, bulkheads, inline, timer);
 
 			List<String> connectionStrings = validProviders.stream()
 				.map(rp -> rp.registerService(id, invoker.apply(rp)))
@@ -400,6 +424,7 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 		} catch (Exception e) {
 			remoteProviders.stream()
 				.forEach(rp -> rp.unregisterService(id));
+			exportSerializers.remove(id);
 			throw e;
 		}
 	}
@@ -474,6 +499,50 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 		}
 	}
 
+	/**
+	 * Find the first available serialization from a list of preferences
+	 *
+	 * @param preferences serialization names, each of which may be a comma
+	 *            separated list
+	 * @return the name of the serialization, or <code>null</code> if none of
+	 *         them is available
+	 */
+	String selectSerialization(String[] preferences) {
+		boolean empty = true;
+		for (String preference : preferences) {
+			for (String name : preference.split(",")) {
+				name = name.trim();
+				if (name.isEmpty()) {
+					continue;
+				}
+				empty = false;
+				if (getSerializerFactory(name) != null) {
+					return name;
+				}
+			}
+		}
+		return empty ? SerializationType.FAST_BINARY.name() : null;
+	}
+
+	/**
+	 * Get the factory for a serialization, which is either built in or
+	 * provided as a whiteboard service
+	 *
+	 * @param name the name of the serialization, FAST_BINARY if empty
+	 * @return the factory, or <code>null</code> if the serialization is not
+	 *         available
+	 */
+	SerializerFactory getSerializerFactory(String name) {
+		if (name == null || name.isEmpty()) {
+			return SerializationType.FAST_BINARY.getFactory();
+		}
+		SerializationType type = SerializationType.named(name);
+		if (type != null) {
+			return type.getFactory();
+		}
+		return factory.getSerializerFactory(name);
+	}
+
 	void removeExportRegistration(ExportRegistrationImpl exportRegistration, ServiceReference<?> serviceReference) {
 		synchronized (exports) {
 			UUID id = exportRegistration.getId();
@@ -483,6 +552,7 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 					.forEach(rp -> {
 						rp.unregisterService(id);
 					});
+				exportSerializers.remove(id);
 			}
 
 			exports.compute(exportRegistration.getSourceFramework(), (k, v) -> {
@@ -927,6 +997,48 @@ public class RemoteServiceAdminImpl implements MultiFrameworkRemoteServiceAdmin
 		return ed;
 	}
 
+	/**
+	 * Called when a whiteboard serializer factory goes away. Exports using it
+	 * are re-created with the best serialization still available, which fails
+	 * them if there is none. Imports using it are failed, as the endpoint
+	 * cannot be read without it.
+	 *
+	 * @param removed the factory which was removed
+	 */
+	void serializerFactoryRemoved(SerializerFactory removed) {
+		Set<ExportRegistrationImpl> exportsToUpdate;
+		synchronized (exports) {
+			exportsToUpdate = exports.values()
+				.stream()
+				.flatMap(m -> m.values()
+					.stream())
+				.flatMap(Set::stream)
+				.filter(r -> r.getId() != null && exportSerializers.get(r.getId()) == removed)
+				.collect(toSet());
+		}
+
+		exportsToUpdate.stream()
+			.forEach(r -> {
+				LOG.info("The serializer factory for the export {} was removed and the export will be updated", r);
+				r.update(null);
+			});
+
+		Set<ImportRegistrationImpl> importsToFail;
+		synchronized (imports) {
+			importsToFail = imports.values()
+				.stream()
+				.flatMap(m -> m.values()
+					.stream())
+				.flatMap(Set::stream)
+				.filter(r -> r.getSerializerFactory() == removed)
+				.collect(toSet());
+		}
+
+		importsToFail.stream()
+			.forEach(r -> r.asyncFail(new IllegalStateException("The serialization used by the endpoint "
+				+ r.getId() + " is no longer available")));
+	}
+
 	void close() {
 		Set<ImportRegistration> importsToClose;
 		synchronized (imports) {
@@ -14,7 +14,7 @@ package org.eclipse.ot.rsa.distribution.provider.message;
 
 import java.util.UUID;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 public abstract class AbstractPayloadMessage<M extends MessageType> extends AbstractRSAMessage<M> {
 
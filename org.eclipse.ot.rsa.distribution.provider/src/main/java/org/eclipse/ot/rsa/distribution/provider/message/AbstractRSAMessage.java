@@ -15,6 +15,9 @@ package org.eclipse.ot.rsa.distribution.provider.message;
 import java.io.IOException;
 import java.util.UUID;
 
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelPromise;
 
@@ -47,29 +50,21 @@ public abstract class AbstractRSAMessage<M extends MessageType> {
 	public abstract void write(ByteBuf buffer, ChannelPromise promise) throws IOException;
 
 	protected final void writeHeader(ByteBuf buffer) {
-		buffer.writeByte(type.getVersion())
-			.writeMedium(0)
-			.writeByte(type.getCommand())
-			.writeLong(serviceId.getMostSignificantBits())
-			.writeLong(serviceId.getLeastSignificantBits())
-			.writeInt(callId);
+		Protocol.header(buffer, type, serviceId, callId);
 	}
 
+	/**
+	 * Write the length of the message into its header. A message which is too
+	 * large for a single frame is given a length of zero, and is sent as a
+	 * series of {@link Protocol_V2#MESSAGE_CHUNK} frames.
+	 */
 	protected final void writeLength(ByteBuf buffer) {
 		final int pos = buffer.readerIndex();
 		final int length = buffer.readableBytes() - 4;
-		if ((length & 0xF000) != 0) {
-			lengthError(length);
-		}
-		buffer.setMedium(pos + 1, length);
-	}
-
-	private void lengthError(final int length) {
 		if (length < 0) {
 			throw new IllegalArgumentException("Adjusted frame length (" + length + ") is less than zero");
-		} else if (length >= 16777216) {
-			throw new IllegalArgumentException("length does not fit into a medium integer: " + length);
 		}
+		buffer.setMedium(pos + 1, length > Protocol_V2.MAX_FRAME_LENGTH ? 0 : length);
 	}
 
 	public final CacheKey getKey() {
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.message;
+
+import java.util.Arrays;
+
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+
+/**
+ * Learns the size of recently encoded messages for each command so that the
+ * buffer for the next message of that type can be allocated at a size which
+ * rarely needs to grow.
+ * <p>
+ * The estimate is a decaying maximum, a larger message raises it immediately
+ * and it then shrinks slowly as smaller messages are recorded. Updates are not
+ * synchronized as the values are only hints, so an instance may be shared
+ * between event loops.
+ */
+public class MessageSizeEstimator {
+
+	/**
+	 * The smallest estimate, large enough for any message without a payload
+	 */
+	static final int	MIN_ESTIMATE	= 64;
+
+	/**
+	 * The largest estimate, so that an occasional huge message does not pin
+	 * large buffers for every following message
+	 */
+	static final int	MAX_ESTIMATE	= 1 << 16;
+
+	private final int[]	estimates		= new int[Protocol_V2.LAST_COMMAND];
+
+	public MessageSizeEstimator() {
+		Arrays.fill(estimates, MIN_ESTIMATE);
+	}
+
+	public int estimate(MessageType type) {
+		return estimates[type.getCommand()];
+	}
+
+	public void record(MessageType type, int size) {
+		int command = type.getCommand();
+		int current = estimates[command];
+		int next = Math.max(size, current - (current >> 4));
+		next = Math.min(MAX_ESTIMATE, Math.max(MIN_ESTIMATE, next));
+		if (next != current) {
+			estimates[command] = next;
+		}
+	}
+}
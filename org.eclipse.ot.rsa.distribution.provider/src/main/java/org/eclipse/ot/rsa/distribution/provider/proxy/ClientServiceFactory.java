@@ -26,13 +26,12 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
 import org.eclipse.ot.rsa.distribution.provider.impl.RemoteServiceAdminImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.SerializerFactory;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
@@ -100,8 +99,6 @@ public class ClientServiceFactory implements ServiceFactory<Object> {
 
 	private final Timer						_timer;
 
-	private final AtomicLong				_serviceCallTimeout;
-
 	private final AtomicInteger				_callIdCounter			= new AtomicInteger(0);
 
 	/**
@@ -111,18 +108,15 @@ public class ClientServiceFactory implements ServiceFactory<Object> {
 	 * @param endpoint The endpoint description
 	 * @param channel The communications channel to talk to the server
 	 * @param serializerFactory the serializer to use when sending arguments
-	 * @param serviceCallTimeout the timeout for service calls
 	 * @param executor the worker for client calls
 	 * @param timer the worker for triggering scheduled calls
 	 */
 	public ClientServiceFactory(ImportRegistrationImpl importRegistration, EndpointDescription endpoint,
-		Channel channel, SerializerFactory serializerFactory, AtomicLong serviceCallTimeout,
-		EventExecutorGroup executor, Timer timer) {
+		Channel channel, SerializerFactory serializerFactory, EventExecutorGroup executor, Timer timer) {
 		_endpointDescription = endpoint;
 		_importRegistration = importRegistration;
 		_channel = channel;
 		_serializerFactory = serializerFactory;
-		_serviceCallTimeout = serviceCallTimeout;
 		_executor = executor;
 		_timer = timer;
 	}
@@ -174,7 +168,7 @@ public class ClientServiceFactory implements ServiceFactory<Object> {
 			ServiceInvocationHandler proxyHandler = new ServiceInvocationHandler(_importRegistration,
 				_endpointDescription, requestingBundle, proxyClass, interfaces, promise, asyncDelegate != null,
 				pushStream, pushEventSource, _channel, _serializerFactory.create(requestingBundle),
-				() -> _callIdCounter.getAndIncrement(), _serviceCallTimeout, _executor, _timer);
+				() -> _callIdCounter.getAndIncrement(), _executor, _timer);
 
 			return proxyClass.getConstructor(InvocationHandler.class)
 				.newInstance(proxyHandler);
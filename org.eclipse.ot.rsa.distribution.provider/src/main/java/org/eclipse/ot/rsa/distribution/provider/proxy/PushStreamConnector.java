@@ -20,7 +20,7 @@ import org.eclipse.ot.rsa.distribution.provider.client.ClientBackPressure;
 import org.eclipse.ot.rsa.distribution.provider.client.EndStreamingInvocation;
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage.CacheKey;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory.OnConnect;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.osgi.framework.ServiceException;
 
 import io.netty.channel.Channel;
@@ -35,16 +35,18 @@ import java.util.concurrent.CompletionStage;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.IntStream.Builder;
 
+import org.eclipse.ot.rsa.distribution.provider.client.ClientChannelPool;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientInvocation;
 import org.eclipse.ot.rsa.distribution.provider.client.EndStreamingInvocation;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
 import org.eclipse.ot.rsa.distribution.provider.promise.RSAPromiseFactory;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.ServiceException;
 import org.osgi.service.remoteserviceadmin.EndpointDescription;
@@ -72,6 +74,7 @@ public class ServiceInvocationHandler implements InvocationHandler {
 
 	private final ImportRegistrationImpl	_importRegistration;
 	private final Channel					_channel;
+	private final Supplier<Channel>			_callChannels;
 	private final EventExecutorGroup		_executor;
 	private final Timer						_timer;
 	private final Serializer				_serializer;
@@ -102,10 +105,10 @@ public class ServiceInvocationHandler implements InvocationHandler {
 	public ServiceInvocationHandler(ImportRegistrationImpl importRegistration, EndpointDescription endpoint,
 		Bundle callingContext, Class<?> proxyClass, List<Class<?>> interfaces, Class<?> promiseClass,
 		boolean isAsyncDelegate, Class<?> pushStreamClass, Class<?> pushEventSourceClass, Channel channel,
-		Serializer serializer, IntSupplier callIdGenerator, AtomicLong serviceCallTimeout, EventExecutorGroup executor,
-		Timer timer) {
+		Serializer serializer, IntSupplier callIdGenerator, EventExecutorGroup executor, Timer timer) {
 		_importRegistration = Objects.requireNonNull(importRegistration, "ImportRegistration cannot be null");
 		_channel = Objects.requireNonNull(channel, "A communications channel must be supplied");
+		_callChannels = ClientChannelPool.callChannels(channel);
 		_executor = Objects.requireNonNull(executor, "An executor must be supplied");
 		_timer = Objects.requireNonNull(timer, "A timer must be supplied");
 		_serializer = Objects.requireNonNull(serializer, "A Serializer must be supplied");
@@ -144,8 +147,8 @@ public class ServiceInvocationHandler implements InvocationHandler {
 					action = OBJECT_DELEGATOR;
 				} else {
 					action = getReturnActionFor(m, reverseMappings, promiseClass, promiseTransformer,
-						serviceCallTimeout, nettyPromiseSupplier, nettyFutureAdapter, pushStreamClass,
-						pushStreamTransformer, pushEventSourceClass, pushEventSourceTransformer);
+						nettyPromiseSupplier, nettyFutureAdapter, pushStreamClass, pushStreamTransformer,
+						pushEventSourceClass, pushEventSourceTransformer);
 				}
 				actions.put(m, action);
 				// We must also add the concrete type mapping in here for people
@@ -201,13 +204,14 @@ public class ServiceInvocationHandler implements InvocationHandler {
 	}
 
 	private InvocationInfo getReturnActionFor(Method method, Map<String, Integer> signaturesToIds,
-		Class<?> promiseClass, Function<Future<?>, Object> promiseTransform, AtomicLong timeout,
+		Class<?> promiseClass, Function<Future<?>, Object> promiseTransform,
 		Function<EventExecutor, Promise<Object>> nettyPromiseSupplier,
 		Function<Object, Future<Object>> nettyFutureAdapter, Class<?> pushStreamClass,
 		Function<Future<?>, Object> pushStreamTransformer, Class<?> pushEventSourceClass,
 		Function<Future<?>, Object> pushEventSourceTransformer) {
 
-		Integer i = signaturesToIds.get(toSignature(method));
+		String signature = toSignature(method);
+		Integer i = signaturesToIds.get(signature);
 
 		if (i != null) {
 			int methodId = i;
@@ -218,13 +222,23 @@ public class ServiceInvocationHandler implements InvocationHandler {
 			int[] completableFutureArgs = getArgsOfType(method, CompletableFuture.class, CompletionStage.class);
 
 			UUID id = _importRegistration.getId();
+			// Falls back to the service timeout if the method has no timeout
+			AtomicLong methodTimeout = _importRegistration.getMethodTimeout(signature);
 			ClientInvocation template = new ClientInvocation(false, id, methodId, -1, null, promiseArgs,
-				completableFutureArgs, _serializer, nettyFutureAdapter, null, timeout, method.toString());
+				completableFutureArgs, _serializer, nettyFutureAdapter, null, methodTimeout, method.toString());
+
+			// Streamed results are delivered on the channel that opens the
+			// stream, so these calls must stay on the primary channel
+			Class<?> returnType = method.getReturnType();
+			Supplier<Channel> channels = returnType.equals(pushStreamClass) || returnType.equals(pushEventSourceClass)
+				? () -> _channel
+				: _callChannels;
 
 			return new InvocationInfo((w, o, m, a) -> {
 				Promise<Object> result = nettyPromiseSupplier.apply(_executor.next());
-				_channel.writeAndFlush(template.fromTemplate(w, _callIdGenerator.getAsInt(), a, result),
-					_channel.newPromise()
+				Channel channel = channels.get();
+				channel.writeAndFlush(template.fromTemplate(w, _callIdGenerator.getAsInt(), a, result),
+					channel.newPromise()
 						.addListener(f -> {
 							if (!f.isSuccess()) {
 								result.tryFailure(new ServiceException("Failed to send the remote invocation",
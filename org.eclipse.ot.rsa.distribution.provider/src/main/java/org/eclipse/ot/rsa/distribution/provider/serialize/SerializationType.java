@@ -12,16 +12,19 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.serialize;
 
+import org.eclipse.ot.rsa.distribution.provider.serialize.dto.DTOSerializerFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializerFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializerFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.protobuf.ProtobufSerializerFactory;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public enum SerializationType {
 	FAST_BINARY(new VanillaRMISerializerFactory()),
 	DEFAULT_JAVA_SERIALIZATION(new JavaSerializerFactory()),
-	PROTOCOL_BUFFERS(new ProtobufSerializerFactory());
+	PROTOCOL_BUFFERS(new ProtobufSerializerFactory()),
+	DTO_COMPILED(new DTOSerializerFactory());
 
 	final static Logger				logger	= LoggerFactory.getLogger(SerializationType.class);
 
@@ -35,6 +38,21 @@ public enum SerializationType {
 		return factory;
 	}
 
+	/**
+	 * @param name a serialization name
+	 * @return the built in serialization with the name, or <code>null</code>
+	 *         if there is none
+	 */
+	public static SerializationType named(String name) {
+		for (SerializationType type : values()) {
+			if (type.name()
+				.equals(name)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
 	public static SerializationType of(String type) {
 		try {
 			if (type == null || type.isEmpty())
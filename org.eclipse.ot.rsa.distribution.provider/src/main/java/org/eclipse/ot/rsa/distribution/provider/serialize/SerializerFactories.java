@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import static org.eclipse.ot.rsa.serialize.SerializerFactory.SERIALIZATION_NAME;
+
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the {@link SerializerFactory} whiteboard services by their
+ * {@link SerializerFactory#SERIALIZATION_NAME}. The endpoints using a factory
+ * must stop doing so when it goes away, so removals are passed on once the
+ * factory is no longer returned by {@link #getFactory(String)}.
+ */
+public class SerializerFactories extends ServiceTracker<SerializerFactory, SerializerFactory> {
+
+	private static final Logger					LOG	= LoggerFactory.getLogger(SerializerFactories.class);
+
+	private final Consumer<SerializerFactory>	onRemoval;
+
+	/**
+	 * @param context the context to track services with
+	 * @param onRemoval called with each factory that is removed, before the
+	 *            service is released
+	 */
+	public SerializerFactories(BundleContext context, Consumer<SerializerFactory> onRemoval) {
+		super(context, SerializerFactory.class, null);
+		this.onRemoval = onRemoval;
+	}
+
+	@Override
+	public SerializerFactory addingService(ServiceReference<SerializerFactory> reference) {
+		Object name = reference.getProperty(SERIALIZATION_NAME);
+		if (!(name instanceof String) || ((String) name).isEmpty()) {
+			LOG.warn("The serializer factory {} has no {} property and will be ignored", reference, SERIALIZATION_NAME);
+			return null;
+		} else if (SerializationType.named((String) name) != null) {
+			LOG.warn("The serializer factory {} uses the name of the built in serialization {} and will be ignored",
+				reference, name);
+			return null;
+		}
+		return super.addingService(reference);
+	}
+
+	@Override
+	public void removedService(ServiceReference<SerializerFactory> reference, SerializerFactory service) {
+		try {
+			onRemoval.accept(service);
+		} catch (RuntimeException e) {
+			LOG.error("Failed to update the endpoints using the serializer factory {}", reference, e);
+		} finally {
+			super.removedService(reference, service);
+		}
+	}
+
+	/**
+	 * Get the highest ranked factory with a name
+	 *
+	 * @param name the name of the serialization
+	 * @return the factory, or <code>null</code> if there is none
+	 */
+	public SerializerFactory getFactory(String name) {
+		// Sorted with the highest ranked service first
+		for (Entry<ServiceReference<SerializerFactory>, SerializerFactory> e : getTracked().entrySet()) {
+			if (name.equals(e.getKey()
+				.getProperty(SERIALIZATION_NAME))) {
+				return e.getValue();
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.dto;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.freshvanilla.lang.MetaClass;
+import org.freshvanilla.lang.MetaClasses;
+import org.freshvanilla.lang.MetaField;
+import org.freshvanilla.net.VersionAwareVanillaPojoSerializer;
+import org.freshvanilla.net.WireFormat;
+import org.freshvanilla.utils.Classes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Writes the DTOs advertised by an endpoint positionally, using their
+ * {@link DTOSchema}. A compiled DTO is written as a POJO whose class tag is the
+ * class name and schema fingerprint, followed by its fields in layout order
+ * without names or tags. Primitive fields are written as zig-zag varints or
+ * fixed width floating point values, and other fields as normal objects.
+ * <p>
+ * A DTO is only compiled if the schema of the local class matches the one
+ * advertised by the endpoint, otherwise it falls back to the FAST_BINARY POJO
+ * encoding, which matches fields by name. The importing side can also read a
+ * compiled DTO whose local schema differs, using the layout advertised by the
+ * endpoint and setting the fields which exist locally.
+ */
+class CompiledDTOPojoSerializer extends VersionAwareVanillaPojoSerializer {
+
+	private static final Logger									LOG				= LoggerFactory
+		.getLogger(CompiledDTOPojoSerializer.class);
+
+	private static final Optional<DTOSchema>					NOT_COMPILED	= Optional.empty();
+
+	/**
+	 * The schemas advertised by the endpoint, by class name
+	 */
+	private final Map<String, DTOSchema>						advertised;
+
+	/**
+	 * The local schemas used for writing, empty if a class is not compiled
+	 */
+	private final ConcurrentMap<Class<?>, Optional<DTOSchema>>	writers			= new ConcurrentHashMap<>();
+
+	/**
+	 * The schemas used for reading, by tag
+	 */
+	private final ConcurrentMap<String, Reader>					readers			= new ConcurrentHashMap<>();
+
+	CompiledDTOPojoSerializer(MetaClasses metaclasses, Map<String, DTOSchema> advertised) {
+		super(metaclasses);
+		this.advertised = advertised;
+	}
+
+	private Optional<DTOSchema> writer(Class<?> clazz) {
+		Optional<DTOSchema> schema = writers.get(clazz);
+		if (schema == null) {
+			schema = writers.computeIfAbsent(clazz, this::compile);
+		}
+		return schema;
+	}
+
+	private Optional<DTOSchema> compile(Class<?> clazz) {
+		DTOSchema remote = advertised.get(clazz.getName());
+		if (remote == null || !DTOSchema.isDTO(clazz)) {
+			return NOT_COMPILED;
+		}
+		DTOSchema local = DTOSchema.of(_metaClasses.acquireMetaClass(clazz));
+		if (local.fingerprint != remote.fingerprint) {
+			LOG.warn(
+				"The DTO {} does not match the schema {} advertised by the endpoint. It will be sent using the FAST_BINARY POJO encoding",
+				local.descriptor, remote.descriptor);
+			return NOT_COMPILED;
+		}
+		return Optional.of(local);
+	}
+
+	@Override
+	public <Pojo> void serialize(ByteBuf wb, WireFormat wf, Pojo pojo) throws IOException {
+		Optional<DTOSchema> compiled = writer(pojo.getClass());
+		if (!compiled.isPresent()) {
+			super.serialize(wb, wf, pojo);
+			return;
+		}
+
+		DTOSchema schema = compiled.get();
+		wf.writeTag(wb, schema.tag);
+		MetaField<Object, Object>[] fields = schema.fields;
+		char[] kinds = schema.kinds;
+		for (int i = 0; i < fields.length; i++) {
+			MetaField<Object, Object> field = fields[i];
+			switch (kinds[i]) {
+				case 'Z' :
+					wb.writeBoolean(field.getBoolean(pojo));
+					break;
+				case 'B' :
+					wb.writeByte((int) field.getNum(pojo));
+					break;
+				case 'C' :
+				case 'S' :
+				case 'I' :
+				case 'J' :
+					writeVarLong(wb, field.getNum(pojo));
+					break;
+				case 'F' :
+					wb.writeFloat((float) field.getDouble(pojo));
+					break;
+				case 'D' :
+					wb.writeDouble(field.getDouble(pojo));
+					break;
+				default :
+					wf.writeObject(wb, field.get(pojo));
+			}
+		}
+	}
+
+	@Override
+	public <Pojo> Pojo deserialize(ByteBuf rb, WireFormat wf) throws ClassNotFoundException, IOException {
+		String tag = (String) wf.readObject(rb);
+		if (tag.indexOf('#') < 0) {
+			return deserialize(rb, wf, tag);
+		}
+
+		Reader reader = readers.get(tag);
+		if (reader == null) {
+			reader = newReader(tag);
+			readers.putIfAbsent(tag, reader);
+		}
+
+		@SuppressWarnings("unchecked")
+		Pojo pojo = (Pojo) reader.read(rb, wf);
+		return pojo;
+	}
+
+	private Reader newReader(String tag) throws ClassNotFoundException, StreamCorruptedException {
+		int idx = tag.indexOf('#');
+		String className = tag.substring(0, idx);
+		MetaClass<Object> metaClass = _metaClasses.acquireMetaClass(className);
+		if (metaClass == null) {
+			throw new ClassNotFoundException(className);
+		}
+
+		DTOSchema local = DTOSchema.of(metaClass);
+		if (local.tag.equals(tag)) {
+			return new Reader(metaClass, local, local.fields);
+		}
+
+		// Read the layout advertised by the endpoint into the local fields
+		DTOSchema remote = advertised.get(className);
+		if (remote == null || !remote.tag.equals(tag)) {
+			throw new StreamCorruptedException("The schema of the compiled DTO " + tag + " is not known");
+		}
+		Map<String, MetaField<Object, Object>> byName = new HashMap<>();
+		for (MetaField<Object, Object> field : local.fields) {
+			byName.put(field.getName(), field);
+		}
+		@SuppressWarnings("unchecked")
+		MetaField<Object, Object>[] fields = new MetaField[remote.names.length];
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = byName.get(remote.names[i]);
+		}
+		return new Reader(metaClass, remote, fields);
+	}
+
+	/**
+	 * Reads a compiled DTO written using a schema, setting the matching local
+	 * fields
+	 */
+	private static final class Reader {
+		private final MetaClass<Object>				metaClass;
+		private final char[]						kinds;
+		private final MetaField<Object, Object>[]	fields;
+
+		Reader(MetaClass<Object> metaClass, DTOSchema schema, MetaField<Object, Object>[] fields) {
+			this.metaClass = metaClass;
+			this.kinds = schema.kinds;
+			this.fields = fields;
+		}
+
+		Object read(ByteBuf rb, WireFormat wf) throws ClassNotFoundException, IOException {
+			Object pojo;
+			try {
+				pojo = metaClass.newInstance();
+				wf.registerPojo(pojo);
+			} catch (InstantiationException e) {
+				throw new NotSerializableException("Exception attempting to create " + metaClass + ' ' + e);
+			}
+
+			for (int i = 0; i < kinds.length; i++) {
+				MetaField<Object, Object> field = fields[i];
+				Object value;
+				switch (kinds[i]) {
+					case 'Z' :
+						boolean flag = rb.readBoolean();
+						if (field != null && field.getType() == boolean.class) {
+							field.setBoolean(pojo, flag);
+							continue;
+						}
+						value = flag;
+						break;
+					case 'B' :
+					case 'C' :
+					case 'S' :
+					case 'I' :
+					case 'J' :
+						long num = kinds[i] == 'B' ? rb.readByte() : readVarLong(rb);
+						if (field != null && field.isPrimitive() && field.getType() != boolean.class
+							&& field.getType() != float.class && field.getType() != double.class) {
+							field.setNum(pojo, num);
+							continue;
+						}
+						value = num;
+						break;
+					case 'F' :
+					case 'D' :
+						double d = kinds[i] == 'F' ? rb.readFloat() : rb.readDouble();
+						if (field != null && (field.getType() == float.class || field.getType() == double.class)) {
+							field.setDouble(pojo, d);
+							continue;
+						}
+						value = d;
+						break;
+					default :
+						value = wf.readObject(rb);
+				}
+				if (field != null) {
+					set(field, pojo, value);
+				}
+			}
+			return pojo;
+		}
+
+		/*
+		 * Only used when the field's type differs from the one that was
+		 * written, so a value which cannot be converted is dropped
+		 */
+		private static void set(MetaField<Object, Object> field, Object pojo, Object value) {
+			Class<?> type = field.getType();
+			try {
+				Object converted = value == null || type.isInstance(value) ? value : Classes.parseAs(value, type);
+				if (!field.isPrimitive()) {
+					field.set(pojo, converted);
+				} else if (converted == null) {
+					return;
+				} else if (type == boolean.class) {
+					field.setBoolean(pojo, (Boolean) converted);
+				} else if (type == float.class || type == double.class) {
+					field.setDouble(pojo, ((Number) converted).doubleValue());
+				} else if (type == char.class) {
+					field.setNum(pojo, (Character) converted);
+				} else {
+					field.setNum(pojo, ((Number) converted).longValue());
+				}
+			} catch (ClassCastException | IllegalArgumentException e) {
+				LOG.debug("The value {} cannot be set in the field {} of {}", value, field.getName(), pojo.getClass(),
+					e);
+			}
+		}
+	}
+
+	static void writeVarLong(ByteBuf wb, long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			wb.writeByte((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		wb.writeByte((int) zigzag);
+	}
+
+	static long readVarLong(ByteBuf rb) throws StreamCorruptedException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = rb.readByte();
+			zigzag |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new StreamCorruptedException("Malformed varint");
+	}
+}
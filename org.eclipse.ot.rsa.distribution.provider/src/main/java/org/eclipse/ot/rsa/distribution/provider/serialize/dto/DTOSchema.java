@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.dto;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.freshvanilla.lang.MetaClass;
+import org.freshvanilla.lang.MetaField;
+
+/**
+ * The fixed layout of a DTO class. The fields are sorted by name, so that the
+ * layout does not depend on the order in which the compiler emitted them, and
+ * described as <code>class(type name,type name,...)</code> using the
+ * {@link Class#getName()} of each type. The fingerprint is the CRC-32 of the
+ * description.
+ * <p>
+ * A local schema is created from a class and can read and write its fields. A
+ * remote schema is parsed from the description advertised by the other end,
+ * and only knows the names and kinds of the fields in its layout.
+ */
+final class DTOSchema {
+
+	private static final String					DTO		= "org.osgi.dto.DTO";
+
+	private static final Map<String, Character>	PRIMITIVES	= new HashMap<>();
+
+	static {
+		PRIMITIVES.put("boolean", 'Z');
+		PRIMITIVES.put("byte", 'B');
+		PRIMITIVES.put("char", 'C');
+		PRIMITIVES.put("short", 'S');
+		PRIMITIVES.put("int", 'I');
+		PRIMITIVES.put("long", 'J');
+		PRIMITIVES.put("float", 'F');
+		PRIMITIVES.put("double", 'D');
+	}
+
+	final String								className;
+	final String								descriptor;
+	final int									fingerprint;
+
+	/**
+	 * The tag written ahead of a compiled DTO: the class name and fingerprint
+	 */
+	final String								tag;
+
+	final String[]								names;
+
+	/**
+	 * The JVM descriptor character of each field's type, or <code>L</code> for
+	 * any non primitive type
+	 */
+	final char[]								kinds;
+
+	/**
+	 * The fields of a local schema in layout order, <code>null</code> for a
+	 * remote schema
+	 */
+	final MetaField<Object, Object>[]			fields;
+
+	private DTOSchema(String className, String descriptor, String[] names, char[] kinds,
+		MetaField<Object, Object>[] fields) {
+		this.className = className;
+		this.descriptor = descriptor;
+		this.names = names;
+		this.kinds = kinds;
+		this.fields = fields;
+
+		CRC32 crc = new CRC32();
+		crc.update(descriptor.getBytes(StandardCharsets.UTF_8));
+		this.fingerprint = (int) crc.getValue();
+		this.tag = className + '#' + Integer.toHexString(fingerprint);
+	}
+
+	/**
+	 * @param clazz a class
+	 * @return <code>true</code> if the class is a concrete subclass of
+	 *         <code>org.osgi.dto.DTO</code>
+	 */
+	static boolean isDTO(Class<?> clazz) {
+		if (clazz.isInterface() || clazz.isArray() || Modifier.isAbstract(clazz.getModifiers())) {
+			return false;
+		}
+		// Compare names, the DTO class may come from any bundle
+		for (Class<?> c = clazz.getSuperclass(); c != null; c = c.getSuperclass()) {
+			if (DTO.equals(c.getName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create the schema of a local DTO class
+	 */
+	@SuppressWarnings("unchecked")
+	static DTOSchema of(MetaClass<?> metaClass) {
+		MetaField<Object, Object>[] fields = (MetaField<Object, Object>[]) metaClass.fields()
+			.clone();
+		Arrays.sort(fields, Comparator.comparing(MetaField::getName));
+
+		String[] names = new String[fields.length];
+		char[] kinds = new char[fields.length];
+		StringBuilder sb = new StringBuilder(metaClass.getType()
+			.getName()).append('(');
+		for (int i = 0; i < fields.length; i++) {
+			String type = fields[i].getType()
+				.getName();
+			names[i] = fields[i].getName();
+			kinds[i] = PRIMITIVES.getOrDefault(type, 'L');
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(type)
+				.append(' ')
+				.append(names[i]);
+		}
+		sb.append(')');
+
+		return new DTOSchema(metaClass.getType()
+			.getName(), sb.toString(), names, kinds, fields);
+	}
+
+	/**
+	 * Parse the schema advertised by the remote end
+	 *
+	 * @param descriptor the description of the schema
+	 * @return the schema
+	 * @throws IllegalArgumentException if the description is not valid
+	 */
+	static DTOSchema parse(String descriptor) {
+		int open = descriptor.indexOf('(');
+		if (open < 1 || !descriptor.endsWith(")")) {
+			throw new IllegalArgumentException("Invalid DTO schema " + descriptor);
+		}
+		String body = descriptor.substring(open + 1, descriptor.length() - 1);
+		String[] entries = body.isEmpty() ? new String[0] : body.split(",");
+
+		String[] names = new String[entries.length];
+		char[] kinds = new char[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			int space = entries[i].indexOf(' ');
+			if (space < 1 || space == entries[i].length() - 1) {
+				throw new IllegalArgumentException("Invalid DTO schema " + descriptor);
+			}
+			names[i] = entries[i].substring(space + 1);
+			kinds[i] = PRIMITIVES.getOrDefault(entries[i].substring(0, space), 'L');
+		}
+		return new DTOSchema(descriptor.substring(0, open), descriptor, names, kinds, null);
+	}
+
+	/**
+	 * Find the DTO classes used by a set of methods, including those used by
+	 * the fields of other DTOs and as the type arguments of generic types such
+	 * as collections and promises.
+	 *
+	 * @param methods the methods
+	 * @return the DTO classes
+	 */
+	static Set<Class<?>> reachable(Method[] methods) {
+		Set<Class<?>> dtos = new LinkedHashSet<>();
+		Set<Type> visited = new LinkedHashSet<>();
+		for (Method m : methods) {
+			visit(m.getGenericReturnType(), dtos, visited);
+			for (Type t : m.getGenericParameterTypes()) {
+				visit(t, dtos, visited);
+			}
+		}
+		return dtos;
+	}
+
+	private static void visit(Type type, Set<Class<?>> dtos, Set<Type> visited) {
+		if (!visited.add(type)) {
+			return;
+		}
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>) type;
+			if (clazz.isArray()) {
+				visit(clazz.getComponentType(), dtos, visited);
+			} else if (isDTO(clazz)) {
+				dtos.add(clazz);
+				for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+					for (Field f : c.getDeclaredFields()) {
+						if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0) {
+							visit(f.getGenericType(), dtos, visited);
+						}
+					}
+				}
+			}
+		} else if (type instanceof ParameterizedType) {
+			for (Type t : ((ParameterizedType) type).getActualTypeArguments()) {
+				visit(t, dtos, visited);
+			}
+		} else if (type instanceof GenericArrayType) {
+			visit(((GenericArrayType) type).getGenericComponentType(), dtos, visited);
+		} else if (type instanceof WildcardType) {
+			for (Type t : ((WildcardType) type).getUpperBounds()) {
+				visit(t, dtos, visited);
+			}
+		} else if (type instanceof TypeVariable) {
+			for (Type t : ((TypeVariable<?>) type).getBounds()) {
+				visit(t, dtos, visited);
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.dto;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.MetaClassesClassLoader;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
+import org.freshvanilla.lang.MetaClasses;
+import org.osgi.framework.Bundle;
+import org.osgi.util.converter.Converters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The FAST_BINARY serialization, with the DTOs used by a service written
+ * positionally using a fixed schema.
+ * <p>
+ * The exporter advertises the schema of each DTO reachable from the exported
+ * methods in the {@link #DTO_SCHEMAS} endpoint property. The importer only
+ * compiles the DTOs whose local schema matches, and sends any others using the
+ * FAST_BINARY POJO encoding, so that mismatched versions of a DTO keep working.
+ */
+public class DTOSerializerFactory implements SerializerFactory {
+
+	private static final Logger				LOG			= LoggerFactory.getLogger(DTOSerializerFactory.class);
+
+	/**
+	 * The endpoint property listing the schemas of the DTOs used by the
+	 * service, see {@link DTOSchema}
+	 */
+	public static final String				DTO_SCHEMAS	= "org.eclipse.ot.rsa.distribution.config.dto.schemas";
+
+	private final Map<String, DTOSchema>	advertised;
+
+	public DTOSerializerFactory() {
+		this(emptyMap());
+	}
+
+	private DTOSerializerFactory(Map<String, DTOSchema> advertised) {
+		this.advertised = advertised;
+	}
+
+	@Override
+	public Serializer create(Bundle classSpace) {
+		MetaClasses metaClasses = new MetaClasses(new MetaClassesClassLoader(classSpace));
+		return new VanillaRMISerializer(metaClasses, new CompiledDTOPojoSerializer(metaClasses, advertised));
+	}
+
+	@Override
+	public Serializer createForExport(Bundle classSpace, Method[] methods, Map<String, Object> endpointProperties) {
+		MetaClasses metaClasses = new MetaClasses(new MetaClassesClassLoader(classSpace));
+
+		Map<String, DTOSchema> schemas = new HashMap<>();
+		for (Class<?> dto : DTOSchema.reachable(methods)) {
+			DTOSchema schema = DTOSchema.of(metaClasses.acquireMetaClass(dto));
+			schemas.put(schema.className, schema);
+		}
+
+		if (!schemas.isEmpty()) {
+			endpointProperties.put(DTO_SCHEMAS, schemas.values()
+				.stream()
+				.map(s -> s.descriptor)
+				.sorted()
+				.toArray(String[]::new));
+		}
+		return new VanillaRMISerializer(metaClasses,
+			new CompiledDTOPojoSerializer(metaClasses, unmodifiableMap(schemas)));
+	}
+
+	@Override
+	public SerializerFactory forImport(Map<String, Object> endpointProperties) {
+		String[] descriptors = Converters.standardConverter()
+			.convert(endpointProperties.get(DTO_SCHEMAS))
+			.defaultValue(new String[0])
+			.to(String[].class);
+
+		Map<String, DTOSchema> schemas = new HashMap<>();
+		for (String descriptor : descriptors) {
+			try {
+				DTOSchema schema = DTOSchema.parse(descriptor);
+				schemas.put(schema.className, schema);
+			} catch (IllegalArgumentException e) {
+				LOG.warn("Ignoring the invalid DTO schema {} advertised by the endpoint {}", descriptor,
+					endpointProperties.get("endpoint.id"));
+			}
+		}
+		return new DTOSerializerFactory(unmodifiableMap(schemas));
+	}
+}
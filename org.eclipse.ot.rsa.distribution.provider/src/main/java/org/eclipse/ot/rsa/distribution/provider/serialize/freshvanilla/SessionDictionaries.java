@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla;
+
+import java.io.StreamCorruptedException;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.freshvanilla.net.SessionDictionary;
+import org.freshvanilla.net.SessionDictionary.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+
+/**
+ * Connects the {@link SessionDictionary} used by the FAST_BINARY serialization
+ * to the channels of the distribution provider. The PROTOBUF serialization
+ * also uses it for the class names of protobuf messages.
+ * <p>
+ * Every TCP channel has a dictionary and can read session tags. A channel only
+ * writes session tags if the {@link #DICTIONARY} option is set for its
+ * {@link ProtocolScheme}, or once the remote end has sent some definitions.
+ * Peers which predate session tags do not understand them, so the option must
+ * only be set when every remote end supports them. The other end of the
+ * connection then replies in kind.
+ * <p>
+ * Primitive arrays are negotiated in the same way. They are only written with
+ * the packed encoding if the {@link #PACKED_ARRAYS} option is set, or once the
+ * remote end has sent a packed array.
+ */
+public final class SessionDictionaries {
+
+	/**
+	 * The {@link ProtocolScheme} option enabling session tags for outgoing
+	 * messages
+	 */
+	public static final String								DICTIONARY		= "fast.binary.dictionary";
+
+	/**
+	 * The {@link ProtocolScheme} option enabling packed primitive arrays for
+	 * outgoing messages. As with {@link #DICTIONARY} it must only be set when
+	 * every remote end supports them.
+	 */
+	public static final String								PACKED_ARRAYS	= "fast.binary.packed.arrays";
+
+	private static final Logger								LOG				= LoggerFactory
+		.getLogger(SessionDictionaries.class);
+
+	private static final AttributeKey<SessionDictionary>	KEY				= AttributeKey
+		.newInstance("fast.binary.dictionary");
+
+	private SessionDictionaries() {}
+
+	/**
+	 * Add a dictionary to a channel
+	 *
+	 * @param ch the channel
+	 * @param p the transport configuration
+	 */
+	public static void install(Channel ch, ProtocolScheme p) {
+		ch.attr(KEY)
+			.set(new SessionDictionary(Boolean.TRUE.equals(p.getOption(DICTIONARY, Boolean.class)),
+				Boolean.TRUE.equals(p.getOption(PACKED_ARRAYS, Boolean.class))));
+	}
+
+	/**
+	 * @return the dictionary for the channel, or <code>null</code> if it has
+	 *         none
+	 */
+	public static SessionDictionary get(Channel ch) {
+		return ch.attr(KEY)
+			.get();
+	}
+
+	/**
+	 * Bind the channel's dictionary for writing a message
+	 */
+	public static Scope encoding(Channel ch) {
+		return SessionDictionary.encoding(get(ch));
+	}
+
+	/**
+	 * Bind the channel's dictionary for reading a message
+	 */
+	public static Scope decoding(Channel ch) {
+		return SessionDictionary.decoding(get(ch));
+	}
+
+	/**
+	 * Write any definitions used by a message ahead of the message itself. This
+	 * must be called after the message has been written to its buffer, but
+	 * before the buffer is passed on to the channel.
+	 *
+	 * @param ctx the context to write to
+	 * @param scope the scope used to write the message
+	 */
+	public static void writeDefinitions(ChannelHandlerContext ctx, Scope scope) {
+		if (!scope.hasDefinitions()) {
+			return;
+		}
+		ByteBuf buf = ctx.alloc()
+			.ioBuffer();
+		buf.writeByte(Protocol_V2.VERSION)
+			.writeMedium(0)
+			.writeByte(Protocol_V2.SESSION_DICTIONARY)
+			.writeLong(0)
+			.writeLong(0)
+			.writeInt(0);
+		scope.writeDefinitions(buf);
+		buf.setMedium(buf.readerIndex() + 1, buf.readableBytes() - 4);
+		ctx.write(buf, ctx.voidPromise());
+		scope.definitionsSent();
+	}
+
+	/**
+	 * Read a set of definitions from the remote end of a channel. The channel
+	 * is closed if the definitions cannot be read, as the messages which follow
+	 * them could not be read either.
+	 *
+	 * @param ch the channel
+	 * @param buf the message, positioned after the header
+	 */
+	public static void readDefinitions(Channel ch, ByteBuf buf) {
+		SessionDictionary dictionary = get(ch);
+		try {
+			if (dictionary == null) {
+				throw new StreamCorruptedException("The channel does not support session tags");
+			}
+			dictionary.readDefinitions(buf);
+		} catch (StreamCorruptedException | IndexOutOfBoundsException e) {
+			LOG.error("The session tags sent by {} could not be read. The connection will be closed.",
+				ch.remoteAddress(), e);
+			ch.close();
+		}
+	}
+}
@@ -14,10 +14,11 @@ package org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla;
 
 import java.io.IOException;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.freshvanilla.lang.MetaClasses;
 import org.freshvanilla.lang.misc.AccessUtils;
 import org.freshvanilla.net.BinaryWireFormat;
+import org.freshvanilla.net.PojoSerializer;
 import org.freshvanilla.net.VanillaPojoSerializer;
 import org.freshvanilla.net.VersionAwareVanillaPojoSerializer;
 
@@ -26,22 +27,26 @@ import io.netty.util.concurrent.FastThreadLocal;
 
 public class VanillaRMISerializer implements Serializer {
 
-	private final MetaClasses						metaClasses;
-
-	private final FastThreadLocal<BinaryWireFormat>	wireFormats	= new FastThreadLocal<BinaryWireFormat>() {
-																	@Override
-																	protected BinaryWireFormat initialValue() {
-																		return new BinaryWireFormat(metaClasses,
-																			AccessUtils.isSafe()
-																				? new VersionAwareVanillaPojoSerializer(
-																					metaClasses)
-																				: new VanillaPojoSerializer(
-																					metaClasses));
-																	}
-																};
+	private final FastThreadLocal<BinaryWireFormat>	wireFormats;
 
 	public VanillaRMISerializer(MetaClasses metaClasses) {
-		this.metaClasses = metaClasses;
+		this(metaClasses, AccessUtils.isSafe() ? new VersionAwareVanillaPojoSerializer(metaClasses)
+			: new VanillaPojoSerializer(metaClasses));
+	}
+
+	/**
+	 * Create a serializer which uses a custom encoding for POJOs
+	 *
+	 * @param metaClasses the class space
+	 * @param pojoSerializer the POJO encoding, shared by every thread
+	 */
+	public VanillaRMISerializer(MetaClasses metaClasses, PojoSerializer pojoSerializer) {
+		this.wireFormats = new FastThreadLocal<BinaryWireFormat>() {
+			@Override
+			protected BinaryWireFormat initialValue() {
+				return new BinaryWireFormat(metaClasses, pojoSerializer);
+			}
+		};
 	}
 
 	public VanillaRMISerializer() {
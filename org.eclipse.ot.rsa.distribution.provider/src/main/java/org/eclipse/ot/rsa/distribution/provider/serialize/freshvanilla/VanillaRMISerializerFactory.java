@@ -12,8 +12,8 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
-import org.eclipse.ot.rsa.distribution.provider.serialize.SerializerFactory;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.freshvanilla.lang.MetaClasses;
 import org.osgi.framework.Bundle;
 
@@ -12,13 +12,19 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.serialize.protobuf;
 
+import static java.lang.invoke.MethodType.methodType;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,9 +38,13 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.freshvanilla.net.SessionDictionary;
+import org.freshvanilla.utils.PrimitiveArrays;
 import org.osgi.framework.Bundle;
 
 import io.netty.buffer.ByteBuf;
@@ -70,6 +80,7 @@ public class ProtoBufSerializer implements Serializer {
 	private static final byte	SORTED_MAP_TAG		= 0x18;
 	private static final byte	PROTOBUF_OBJECT_TAG	= 0x19;
 	private static final byte	JAVA_OBJECT_TAG		= 0x1A;
+	private static final byte	PROTOBUF_REF_TAG	= 0x1B;
 
 	private interface SimpleTypeSerializer {
 		void serialize(ByteBufOutputStream os, Object o) throws IOException;
@@ -120,55 +131,47 @@ public class ProtoBufSerializer implements Serializer {
 
 		map.put(boolean[].class, (os, o) -> {
 			os.write(BOOLEAN_ARRAY_TAG);
-			os.write(((boolean[]) o).length);
-			for (boolean b : (boolean[]) o)
-				os.write(b ? 1 : 0);
+			os.writeInt(((boolean[]) o).length);
+			PrimitiveArrays.writeBooleans(os.buffer(), (boolean[]) o);
 		});
 		map.put(byte[].class, (os, o) -> {
 			os.write(BYTE_ARRAY_TAG);
-			os.write(((byte[]) o).length);
-			for (byte b : (byte[]) o)
-				os.write(b);
+			os.writeInt(((byte[]) o).length);
+			os.write((byte[]) o);
 		});
 		map.put(short[].class, (os, o) -> {
 			os.write(SHORT_ARRAY_TAG);
-			os.write(((short[]) o).length);
-			for (short s : (short[]) o)
-				os.writeShort(s);
+			os.writeInt(((short[]) o).length);
+			PrimitiveArrays.writeShorts(os.buffer(), (short[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(char[].class, (os, o) -> {
 			os.write(CHAR_ARRAY_TAG);
-			os.write(((char[]) o).length);
-			for (char c : (char[]) o)
-				os.writeChar(c);
+			os.writeInt(((char[]) o).length);
+			PrimitiveArrays.writeChars(os.buffer(), (char[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(int[].class, (os, o) -> {
 			os.write(INT_ARRAY_TAG);
-			os.write(((int[]) o).length);
-			for (int i : (int[]) o)
-				os.writeInt(i);
+			os.writeInt(((int[]) o).length);
+			PrimitiveArrays.writeInts(os.buffer(), (int[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(float[].class, (os, o) -> {
 			os.write(FLOAT_ARRAY_TAG);
-			os.write(((float[]) o).length);
-			for (float f : (float[]) o)
-				os.writeFloat(f);
+			os.writeInt(((float[]) o).length);
+			PrimitiveArrays.writeFloats(os.buffer(), (float[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(long[].class, (os, o) -> {
 			os.write(LONG_ARRAY_TAG);
-			os.write(((long[]) o).length);
-			for (long l : (long[]) o)
-				os.writeLong(l);
+			os.writeInt(((long[]) o).length);
+			PrimitiveArrays.writeLongs(os.buffer(), (long[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(double[].class, (os, o) -> {
 			os.write(DOUBLE_ARRAY_TAG);
-			os.write(((double[]) o).length);
-			for (double d : (double[]) o)
-				os.writeDouble(d);
+			os.writeInt(((double[]) o).length);
+			PrimitiveArrays.writeDoubles(os.buffer(), (double[]) o, ByteOrder.BIG_ENDIAN);
 		});
 		map.put(String[].class, (os, o) -> {
 			os.write(STRING_ARRAY_TAG);
-			os.write(((String[]) o).length);
+			os.writeInt(((String[]) o).length);
 			for (String s : (String[]) o)
 				os.writeUTF(s);
 		});
@@ -176,7 +179,79 @@ public class ProtoBufSerializer implements Serializer {
 		SERIALIZERS = Collections.unmodifiableMap(map);
 	}
 
-	private final Bundle classSpace;
+	/**
+	 * The <code>writeTo(OutputStream)</code> method of each protobuf message
+	 * type, or <code>null</code> for types which are not protobuf messages
+	 */
+	private static final ClassValue<MethodHandle>	WRITERS	= new ClassValue<MethodHandle>() {
+																@Override
+																protected MethodHandle computeValue(Class<?> type) {
+																	try {
+																		return MethodHandles.publicLookup()
+																			.findVirtual(type, "writeTo",
+																				methodType(void.class, OutputStream.class))
+																			.asType(methodType(void.class, Object.class,
+																				OutputStream.class));
+																	} catch (NoSuchMethodException
+																		| IllegalAccessException e) {
+																		return null;
+																	}
+																}
+															};
+
+	/**
+	 * A function parsing a protobuf message type from an
+	 * <code>InputStream</code>, or <code>null</code> for types which are not
+	 * protobuf messages
+	 */
+	private static final ClassValue<MethodHandle>	PARSERS	= new ClassValue<MethodHandle>() {
+																@Override
+																protected MethodHandle computeValue(Class<?> type) {
+																	MethodHandle parser = messageParser(type);
+																	return parser != null ? parser : staticParser(type);
+																}
+															};
+
+	/**
+	 * Use the message type's <code>Parser</code>, from
+	 * <code>getDefaultInstance().getParserForType()</code>
+	 */
+	private static MethodHandle messageParser(Class<?> type) {
+		try {
+			Object defaultInstance = type.getMethod("getDefaultInstance")
+				.invoke(null);
+			Method getParser = type.getMethod("getParserForType");
+			Object parser = getParser.invoke(defaultInstance);
+			Method parseFrom = getParser.getReturnType()
+				.getMethod("parseFrom", InputStream.class);
+			return MethodHandles.publicLookup()
+				.unreflect(parseFrom)
+				.bindTo(parser)
+				.asType(methodType(Object.class, InputStream.class));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Use the message type's static <code>parseFrom(InputStream)</code> method
+	 */
+	private static MethodHandle staticParser(Class<?> type) {
+		try {
+			return MethodHandles.publicLookup()
+				.unreflect(type.getMethod("parseFrom", InputStream.class))
+				.asType(methodType(Object.class, InputStream.class));
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private final Bundle						classSpace;
+
+	/**
+	 * The classes loaded from the class space, by name
+	 */
+	private final ConcurrentMap<String, Class<?>>	classes	= new ConcurrentHashMap<>();
 
 	public ProtoBufSerializer(Bundle classSpace) {
 		this.classSpace = classSpace;
@@ -198,14 +273,15 @@ public class ProtoBufSerializer implements Serializer {
 	@Override
 	public Object[] deserializeArgs(ByteBuf buffer) throws ClassNotFoundException, IOException {
 		Object[] o = new Object[buffer.readInt()];
+		ByteBufInputStream bbis = new ByteBufInputStream(buffer);
 		for (int i = 0; i < o.length; i++)
-			o[i] = deserializeWithProtoBuf(new ByteBufInputStream(buffer), classSpace);
+			o[i] = deserialize(bbis, buffer);
 		return o;
 	}
 
 	@Override
 	public Object deserializeReturn(ByteBuf buffer) throws ClassNotFoundException, IOException {
-		return deserializeWithProtoBuf(new ByteBufInputStream(buffer), classSpace);
+		return deserialize(new ByteBufInputStream(buffer), buffer);
 	}
 
 	public static void serialzeWithProtoBuf(ByteBufOutputStream bbos, Object e) throws IOException {
@@ -254,12 +330,25 @@ public class ProtoBufSerializer implements Serializer {
 					serialzeWithProtoBuf(bbos, entry.getValue());
 				}
 			} else {
-				try {
-					Method m = classType.getMethod("writeTo", OutputStream.class);
-					bbos.write(PROTOBUF_OBJECT_TAG);
-					bbos.writeUTF(classType.getName());
-					m.invoke(e, bbos);
-				} catch (Exception e1) {
+				MethodHandle writeTo = WRITERS.get(classType);
+				if (writeTo != null) {
+					String name = classType.getName();
+					int id = SessionDictionary.encode(name);
+					if (id < 0) {
+						bbos.write(PROTOBUF_OBJECT_TAG);
+						bbos.writeUTF(name);
+					} else {
+						bbos.write(PROTOBUF_REF_TAG);
+						bbos.writeShort(id);
+					}
+					try {
+						writeTo.invokeExact(e, (OutputStream) bbos);
+					} catch (IOException | RuntimeException | Error ex) {
+						throw ex;
+					} catch (Throwable t) {
+						throw new IOException("Unable to serialize", t);
+					}
+				} else {
 					// Fall back to normal Java
 					// org.eclipse.ot.rsa.distribution.test.dosgi.dsw.net.serialization
 					bbos.write(JAVA_OBJECT_TAG);
@@ -269,7 +358,51 @@ public class ProtoBufSerializer implements Serializer {
 		}
 	}
 
-	public static Object deserializeWithProtoBuf(ByteBufInputStream bbis, Bundle classSpace) throws IOException {
+	public static Object deserializeWithProtoBuf(ByteBuf buffer, Bundle classSpace) throws IOException {
+		return new ProtoBufSerializer(classSpace).deserialize(new ByteBufInputStream(buffer), buffer);
+	}
+
+	private Class<?> loadClass(String name) throws ClassNotFoundException {
+		Class<?> cls = classes.get(name);
+		if (cls == null) {
+			try {
+				cls = classSpace.loadClass(name);
+			} catch (ClassNotFoundException cnfe) {
+				try {
+					cls = ProtoBufSerializer.class.getClassLoader()
+						.loadClass(name);
+				} catch (ClassNotFoundException cnfe2) {
+					throw cnfe;
+				}
+			}
+			Class<?> existing = classes.putIfAbsent(name, cls);
+			if (existing != null) {
+				cls = existing;
+			}
+		}
+		return cls;
+	}
+
+	private Object parse(ByteBufInputStream bbis, String type) throws IOException {
+		try {
+			MethodHandle parser = PARSERS.get(loadClass(type));
+			if (parser == null) {
+				throw new IOException("The type " + type + " is not a protobuf message");
+			}
+			return (Object) parser.invokeExact((InputStream) bbis);
+		} catch (IOException e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IOException("Unable to deserialize", t);
+		}
+	}
+
+	/*
+	 * The stream reads from the buffer, so primitive arrays can be copied
+	 * straight out of the buffer rather than one element at a time through the
+	 * stream.
+	 */
+	private Object deserialize(ByteBufInputStream bbis, ByteBuf buffer) throws IOException {
 
 		switch (bbis.read()) {
 			case NULL_TAG :
@@ -292,70 +425,30 @@ public class ProtoBufSerializer implements Serializer {
 				return bbis.readDouble();
 			case STRING_TAG :
 				return bbis.readUTF();
-			case BOOLEAN_ARRAY_TAG : {
-				int length = bbis.readInt();
-				boolean[] array = new boolean[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readByte() == 1;
-				}
-				return array;
-			}
+			case BOOLEAN_ARRAY_TAG :
+				return PrimitiveArrays.readBooleans(buffer, bbis.readInt());
 			case BYTE_ARRAY_TAG : {
 				int length = bbis.readInt();
-				byte[] array = new byte[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readByte();
-				}
-				return array;
-			}
-			case SHORT_ARRAY_TAG : {
-				int length = bbis.readInt();
-				short[] array = new short[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readShort();
-				}
-				return array;
-			}
-			case CHAR_ARRAY_TAG : {
-				int length = bbis.readInt();
-				char[] array = new char[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readChar();
-				}
-				return array;
-			}
-			case INT_ARRAY_TAG : {
-				int length = bbis.readInt();
-				int[] array = new int[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readInt();
-				}
-				return array;
-			}
-			case FLOAT_ARRAY_TAG : {
-				int length = bbis.readInt();
-				float[] array = new float[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readFloat();
-				}
-				return array;
-			}
-			case LONG_ARRAY_TAG : {
-				int length = bbis.readInt();
-				long[] array = new long[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readLong();
-				}
-				return array;
-			}
-			case DOUBLE_ARRAY_TAG : {
-				int length = bbis.readInt();
-				double[] array = new double[length];
-				for (int i = 0; i < length; i++) {
-					array[i] = bbis.readDouble();
+				if (length < 0 || length > buffer.readableBytes()) {
+					throw new StreamCorruptedException("Array length " + length + " exceeds the remaining "
+						+ buffer.readableBytes() + " bytes");
 				}
+				byte[] array = new byte[length];
+				buffer.readBytes(array);
 				return array;
 			}
+			case SHORT_ARRAY_TAG :
+				return PrimitiveArrays.readShorts(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
+			case CHAR_ARRAY_TAG :
+				return PrimitiveArrays.readChars(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
+			case INT_ARRAY_TAG :
+				return PrimitiveArrays.readInts(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
+			case FLOAT_ARRAY_TAG :
+				return PrimitiveArrays.readFloats(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
+			case LONG_ARRAY_TAG :
+				return PrimitiveArrays.readLongs(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
+			case DOUBLE_ARRAY_TAG :
+				return PrimitiveArrays.readDoubles(buffer, bbis.readInt(), ByteOrder.BIG_ENDIAN);
 			case STRING_ARRAY_TAG : {
 				int length = bbis.readInt();
 				String[] array = new String[length];
@@ -369,20 +462,10 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 
 				try {
-					Class<? extends Object> componentType = null;
-					try {
-						componentType = classSpace.loadClass(type);
-					} catch (ClassNotFoundException cnfe) {
-						try {
-							return ProtoBufSerializer.class.getClassLoader()
-								.loadClass(type);
-						} catch (ClassNotFoundException cnfe2) {
-							throw cnfe;
-						}
-					}
+					Class<?> componentType = loadClass(type);
 					Object array = Array.newInstance(componentType, length);
 					for (int i = 0; i < length; i++) {
-						Array.set(array, i, deserializeWithProtoBuf(bbis, classSpace));
+						Array.set(array, i, deserialize(bbis, buffer));
 					}
 					return array;
 				} catch (ClassNotFoundException e) {
@@ -393,7 +476,7 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 				List<Object> list = new ArrayList<>(length);
 				for (int i = 0; i < length; i++) {
-					list.add(deserializeWithProtoBuf(bbis, classSpace));
+					list.add(deserialize(bbis, buffer));
 				}
 				return list;
 			}
@@ -401,7 +484,7 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 				Set<Object> set = new HashSet<>(length);
 				for (int i = 0; i < length; i++) {
-					set.add(deserializeWithProtoBuf(bbis, classSpace));
+					set.add(deserialize(bbis, buffer));
 				}
 				return set;
 			}
@@ -409,7 +492,7 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 				SortedSet<Object> set = new TreeSet<>();
 				for (int i = 0; i < length; i++) {
-					set.add(deserializeWithProtoBuf(bbis, classSpace));
+					set.add(deserialize(bbis, buffer));
 				}
 				return set;
 			}
@@ -417,7 +500,8 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 				Map<Object, Object> map = new HashMap<>(length);
 				for (int i = 0; i < length; i++) {
-					map.put(deserializeWithProtoBuf(bbis, classSpace), deserializeWithProtoBuf(bbis, classSpace));
+					map.put(deserialize(bbis, buffer),
+						deserialize(bbis, buffer));
 				}
 				return map;
 			}
@@ -425,30 +509,15 @@ public class ProtoBufSerializer implements Serializer {
 				int length = bbis.readInt();
 				SortedMap<Object, Object> map = new TreeMap<>();
 				for (int i = 0; i < length; i++) {
-					map.put(deserializeWithProtoBuf(bbis, classSpace), deserializeWithProtoBuf(bbis, classSpace));
+					map.put(deserialize(bbis, buffer),
+						deserialize(bbis, buffer));
 				}
 				return map;
 			}
-			case PROTOBUF_OBJECT_TAG : {
-				String type = bbis.readUTF();
-				try {
-					Class<? extends Object> cls = null;
-					try {
-						cls = classSpace.loadClass(type);
-					} catch (ClassNotFoundException cnfe) {
-						try {
-							return ProtoBufSerializer.class.getClassLoader()
-								.loadClass(type);
-						} catch (ClassNotFoundException cnfe2) {
-							throw cnfe;
-						}
-					}
-					Method m = cls.getMethod("parseFrom", InputStream.class);
-					return m.invoke(null, bbis);
-				} catch (Exception e) {
-					throw new IOException("Unable to deserialize", e);
-				}
-			}
+			case PROTOBUF_OBJECT_TAG :
+				return parse(bbis, bbis.readUTF());
+			case PROTOBUF_REF_TAG :
+				return parse(bbis, SessionDictionary.lookup(bbis.readUnsignedShort()));
 			case JAVA_OBJECT_TAG : {
 				@SuppressWarnings("resource")
 				ObjectInputStream ois = null;
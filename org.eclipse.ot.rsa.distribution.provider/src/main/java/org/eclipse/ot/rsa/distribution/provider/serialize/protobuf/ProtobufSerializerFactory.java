@@ -12,8 +12,8 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.serialize.protobuf;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
-import org.eclipse.ot.rsa.distribution.provider.serialize.SerializerFactory;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.osgi.framework.Bundle;
 
 public class ProtobufSerializerFactory implements SerializerFactory {
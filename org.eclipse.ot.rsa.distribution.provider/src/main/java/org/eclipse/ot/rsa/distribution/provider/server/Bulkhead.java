@@ -0,0 +1,310 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.server;
+
+import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1.toSignature;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.ot.rsa.distribution.config.ExportedServiceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+/**
+ * Limits the share of the server workers that an exported service, or one of
+ * its methods, may occupy.
+ * <p>
+ * At most <code>maxConcurrency</code> calls are handed to the shared workers at
+ * once, and further calls wait in the bulkhead's own queue of at most
+ * <code>maxQueueDepth</code> entries. A slow service therefore fills its own
+ * queue, and is rejected as overloaded, rather than filling the shared queue
+ * that every other service depends on. As each bulkhead only ever has a few
+ * tasks in the shared queue the services take turns on the workers.
+ */
+public class Bulkhead {
+
+	private static final Logger		LOG				= LoggerFactory.getLogger(Bulkhead.class);
+
+	private static final class Task<V> {
+		final Callable<V>	callable;
+		final Promise<V>	promise;
+		final long			queuedAt;
+
+		Task(Callable<V> callable, Promise<V> promise) {
+			this.callable = callable;
+			this.promise = promise;
+			this.queuedAt = System.nanoTime();
+		}
+	}
+
+	private final String				name;
+	private final EventExecutorGroup	workers;
+	private final int					maxConcurrency;
+	private final int					maxQueueDepth;
+
+	private final Queue<Task<?>>	queue			= new ConcurrentLinkedQueue<>();
+	private final AtomicInteger		running			= new AtomicInteger();
+	private final AtomicInteger		outstanding		= new AtomicInteger();
+
+	private final LongAdder			executed		= new LongAdder();
+	private final LongAdder			rejected		= new LongAdder();
+	private final LongAdder			totalWaitNanos	= new LongAdder();
+	private final LongAccumulator	maxWaitNanos	= new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Create a bulkhead
+	 *
+	 * @param name a name for the bulkhead, used in log messages
+	 * @param workers the shared workers which run the calls
+	 * @param maxConcurrency the maximum number of calls running at once
+	 * @param maxQueueDepth the maximum number of calls waiting to run, or -1
+	 *            for no limit
+	 */
+	public Bulkhead(String name, EventExecutorGroup workers, int maxConcurrency, int maxQueueDepth) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("The bulkhead concurrency must be at least 1");
+		}
+		this.name = name;
+		this.workers = workers;
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueueDepth = maxQueueDepth;
+	}
+
+	/**
+	 * Create the bulkheads for the methods of an exported service
+	 *
+	 * @param serviceName a name for the service, used in log messages
+	 * @param config the configuration of the exported service
+	 * @param methods the exported methods
+	 * @param workers the shared workers
+	 * @return The bulkhead for each method, in the same order as the methods.
+	 *         An entry is <code>null</code> if the method has no bulkhead.
+	 */
+	public static Bulkhead[] forMethods(String serviceName, ExportedServiceConfig config, Method[] methods,
+		EventExecutorGroup workers) {
+		int serviceQueueDepth = config.org_eclipse_ot_rsa_distribution_bulkhead_queue_depth();
+
+		Bulkhead serviceBulkhead = null;
+		int serviceConcurrency = config.org_eclipse_ot_rsa_distribution_bulkhead_concurrency();
+		if (serviceConcurrency > 0) {
+			serviceBulkhead = new Bulkhead(serviceName, workers, serviceConcurrency, serviceQueueDepth);
+		}
+
+		String[] methodConfigs = config.org_eclipse_ot_rsa_distribution_bulkhead_methods();
+
+		Bulkhead[] bulkheads = new Bulkhead[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			String signature = toSignature(methods[i]);
+			String byName = null;
+			String bySignature = null;
+			for (String entry : methodConfigs) {
+				int idx = entry.lastIndexOf('=');
+				if (idx > 0) {
+					String key = entry.substring(0, idx)
+						.trim();
+					if (key.equals(signature)) {
+						bySignature = entry.substring(idx + 1);
+					} else if (key.equals(methods[i].getName())) {
+						byName = entry.substring(idx + 1);
+					}
+				}
+			}
+			String limits = bySignature != null ? bySignature : byName;
+			bulkheads[i] = limits == null ? serviceBulkhead
+				: forMethod(serviceName + " " + signature, limits, serviceQueueDepth, workers, serviceBulkhead);
+		}
+		return bulkheads;
+	}
+
+	private static Bulkhead forMethod(String name, String limits, int defaultQueueDepth, EventExecutorGroup workers,
+		Bulkhead fallback) {
+		try {
+			int idx = limits.indexOf(':');
+			int concurrency = Integer.parseInt((idx < 0 ? limits : limits.substring(0, idx)).trim());
+			int queueDepth = idx < 0 ? defaultQueueDepth
+				: Integer.parseInt(limits.substring(idx + 1)
+					.trim());
+			return new Bulkhead(name, workers, concurrency, queueDepth);
+		} catch (IllegalArgumentException iae) {
+			LOG.warn(
+				"The bulkhead limits {} for {} are not valid. They must be of the form concurrency[:queueDepth]. The service bulkhead will be used instead.",
+				limits, name);
+			return fallback;
+		}
+	}
+
+	/**
+	 * Submit a call to run on the shared workers once the bulkhead has space
+	 *
+	 * @param callable the call
+	 * @return A future for the result of the call. If the call is rejected by
+	 *         the shared workers the future fails with a
+	 *         {@link RejectedExecutionException}.
+	 * @throws RejectedExecutionException if the bulkhead queue is full
+	 */
+	public <V> Future<V> submit(Callable<V> callable) throws RejectedExecutionException {
+		int current = outstanding.incrementAndGet();
+		if (maxQueueDepth >= 0 && current > maxConcurrency + maxQueueDepth) {
+			outstanding.decrementAndGet();
+			rejected.increment();
+			throw new RejectedExecutionException("The bulkhead for " + name + " is full");
+		}
+		Promise<V> promise = workers.next()
+			.newPromise();
+		queue.offer(new Task<>(callable, promise));
+		drain();
+		return promise;
+	}
+
+	/**
+	 * Take a slot for a call which the caller will run on its own thread. No
+	 * slot is taken while calls are queued, so that an inline call cannot
+	 * overtake them.
+	 *
+	 * @return <code>true</code> if the call may run now, in which case the
+	 *         caller must call {@link #exit()} when it completes
+	 */
+	public boolean tryEnter() {
+		for (;;) {
+			int r = running.get();
+			if (r >= maxConcurrency || !queue.isEmpty()) {
+				return false;
+			}
+			if (running.compareAndSet(r, r + 1)) {
+				outstanding.incrementAndGet();
+				executed.increment();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release the slot taken by a successful {@link #tryEnter()}
+	 */
+	public void exit() {
+		running.decrementAndGet();
+		outstanding.decrementAndGet();
+		drain();
+	}
+
+	/*
+	 * Hand queued tasks to the workers while there are free slots. A task which
+	 * completes releases its slot before draining, and a new task is queued
+	 * before draining, so one of the two always sees the other.
+	 */
+	private void drain() {
+		for (;;) {
+			int r = running.get();
+			if (r >= maxConcurrency || queue.isEmpty()) {
+				return;
+			}
+			if (!running.compareAndSet(r, r + 1)) {
+				continue;
+			}
+			Task<?> task = queue.poll();
+			if (task == null) {
+				running.decrementAndGet();
+				continue;
+			}
+			try {
+				// Submitted rather than executed, as worker groups only limit
+				// submissions
+				workers.submit(() -> run(task));
+			} catch (RejectedExecutionException ree) {
+				running.decrementAndGet();
+				outstanding.decrementAndGet();
+				rejected.increment();
+				task.promise.tryFailure(ree);
+			}
+		}
+	}
+
+	private <V> void run(Task<V> task) {
+		try {
+			if (task.promise.setUncancellable()) {
+				long wait = System.nanoTime() - task.queuedAt;
+				totalWaitNanos.add(wait);
+				maxWaitNanos.accumulate(wait);
+				executed.increment();
+				try {
+					task.promise.trySuccess(task.callable.call());
+				} catch (Throwable t) {
+					task.promise.tryFailure(t);
+				}
+			}
+		} finally {
+			running.decrementAndGet();
+			outstanding.decrementAndGet();
+			drain();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of calls currently running
+	 */
+	public int getRunningCount() {
+		return running.get();
+	}
+
+	/**
+	 * @return the number of calls waiting to run
+	 */
+	public int getQueuedCount() {
+		return Math.max(0, outstanding.get() - running.get());
+	}
+
+	/**
+	 * @return the number of calls that have been run
+	 */
+	public long getExecutedCount() {
+		return executed.sum();
+	}
+
+	/**
+	 * @return the number of calls that were rejected
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * @return the total time (in nanoseconds) that calls spent waiting in the
+	 *         bulkhead queue before running
+	 */
+	public long getTotalQueueWaitNanos() {
+		return totalWaitNanos.sum();
+	}
+
+	/**
+	 * @return the longest time (in nanoseconds) that a call spent waiting in
+	 *         the bulkhead queue before running
+	 */
+	public long getMaxQueueWaitNanos() {
+		return maxWaitNanos.get();
+	}
+}
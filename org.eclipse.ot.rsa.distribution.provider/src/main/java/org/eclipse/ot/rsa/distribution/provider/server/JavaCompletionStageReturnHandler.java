@@ -15,7 +15,7 @@ package org.eclipse.ot.rsa.distribution.provider.server;
 import java.util.UUID;
 import java.util.concurrent.CompletionStage;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 import io.netty.channel.Channel;
 import io.netty.util.concurrent.EventExecutorGroup;
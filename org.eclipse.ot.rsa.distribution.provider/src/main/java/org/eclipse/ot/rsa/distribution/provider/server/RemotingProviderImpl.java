@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 
 import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory.DataStream;
+import org.eclipse.ot.rsa.distribution.provider.tcp.MessageCompressionHandler;
 
 import io.netty.channel.Channel;
 import io.netty.channel.group.ChannelGroup;
@@ -42,6 +43,11 @@ class RemotingProviderImpl implements RemotingProvider {
 
 	private final String				scheme;
 
+	/**
+	 * Advertises the optional features of the server, or <code>null</code>
+	 */
+	private final String				query;
+
 	private final ServerRequestHandler	handler;
 
 	private final Channel				channel;
@@ -55,6 +61,7 @@ class RemotingProviderImpl implements RemotingProvider {
 			.isSecure();
 		this.scheme = p.getProtocol()
 			.getUriScheme();
+		this.query = MessageCompressionHandler.advertisement(p);
 		this.handler = handler;
 		this.channel = channel;
 		this.channelGroup = group;
@@ -140,7 +147,7 @@ class RemotingProviderImpl implements RemotingProvider {
 
 	private URI toURI(String host, int port) {
 		try {
-			return new URI(scheme, null, host, port, null, null, null);
+			return new URI(scheme, null, host, port, null, query, null);
 		} catch (URISyntaxException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -23,6 +23,11 @@ import javax.net.ssl.SSLEngine;
 
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.eclipse.ot.rsa.distribution.provider.tcp.FlushBatchingHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.MessageChunkingHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.MessageCompressionHandler;
+import org.eclipse.ot.rsa.distribution.provider.tcp.Transports;
 import org.eclipse.ot.rsa.distribution.provider.tcp.VersionCheckingLengthFieldBasedFrameDecoder;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.slf4j.Logger;
@@ -34,9 +39,9 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.Timer;
 import io.netty.util.concurrent.ImmediateEventExecutor;
@@ -131,7 +136,7 @@ public class ServerConnectionManager {
 						.addLast(serverHandler);
 				});
 			case TCP :
-				b.channel(NioServerSocketChannel.class)
+				b.channel(Transports.serverSocketChannel(serverIo))
 					.option(ChannelOption.SO_BACKLOG, 128)
 					.childOption(ChannelOption.SO_KEEPALIVE, true)
 					.childOption(ChannelOption.TCP_NODELAY, p.getOption("nodelay", Boolean.class));
@@ -139,13 +144,36 @@ public class ServerConnectionManager {
 				c = c.andThen(ch -> {
 					// Incoming
 					ch.pipeline()
-						.addLast(new VersionCheckingLengthFieldBasedFrameDecoder());
+						.addLast(VersionCheckingLengthFieldBasedFrameDecoder.fromOptions(p));
+					SessionDictionaries.install(ch, p);
+					// Outgoing
+					ch.pipeline()
+						.addLast(MessageChunkingHandler.fromOptions(p));
+					FlushBatchingHandler flushBatching = FlushBatchingHandler.fromOptions(p);
+					if (flushBatching != null) {
+						ch.pipeline()
+							.addLast(flushBatching);
+					}
+					MessageCompressionHandler compression = MessageCompressionHandler.fromOptions(p);
+					if (compression != null) {
+						ch.pipeline()
+							.addLast(compression);
+					}
 				});
 				break;
 			default :
 				throw new IllegalArgumentException("No support for protocol " + p.getProtocol());
 		}
 
+		boolean reusePort = Boolean.TRUE.equals(p.getOption(Transports.REUSE_PORT, Boolean.class));
+		if (reusePort && !Transports.isEpoll(serverIo)) {
+			LOG.warn("The option {} for {} is only supported by the epoll transport and will be ignored",
+				Transports.REUSE_PORT, p.getProtocol());
+			reusePort = false;
+		} else if (reusePort) {
+			Transports.reusePort(b);
+		}
+
 		ServerRequestHandler srh = new ServerRequestHandler(p);
 		ServerResponseSerializer srs = new ServerResponseSerializer();
 		ChannelGroup group = new DefaultChannelGroup(serverIo.next());
@@ -166,6 +194,18 @@ public class ServerConnectionManager {
 				.sync()
 				.channel();
 			group.add(server);
+
+			if (reusePort && serverIo instanceof MultithreadEventLoopGroup) {
+				// Bind an acceptor on the same port for each of the other IO
+				// threads, each channel is registered with the next event loop
+				InetSocketAddress bound = (InetSocketAddress) server.localAddress();
+				int acceptors = ((MultithreadEventLoopGroup) serverIo).executorCount();
+				for (int i = 1; i < acceptors; i++) {
+					group.add(b.bind(bound)
+						.sync()
+						.channel());
+				}
+			}
 			return new RemotingProviderImpl(p, srh, server, group);
 		} catch (InterruptedException ie) {
 			LOG.warn("Interruped while configuring the transport {} with configuration {}", p.getProtocol(),
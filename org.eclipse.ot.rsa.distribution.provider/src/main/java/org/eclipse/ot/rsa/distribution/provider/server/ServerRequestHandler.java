@@ -23,6 +23,7 @@ import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.AS
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.CLIENT_BACK_PRESSURE;
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.CLIENT_CLOSE;
 import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.CLIENT_OPEN;
+import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2.SESSION_DICTIONARY;
 
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +31,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage.CacheKey;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory.DataStream;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.freshvanilla.net.SessionDictionary.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,26 +67,31 @@ class ServerRequestHandler extends ChannelInboundHandlerAdapter {
 			UUID serviceId = new UUID(buf.readLong(), buf.readLong());
 			int callId = buf.readInt();
 
-			switch (callType) {
-				case CALL_WITH_RETURN :
-				case CALL_WITHOUT_RETURN :
-				case CANCEL :
-				case ASYNC_METHOD_PARAM_DATA :
-				case ASYNC_METHOD_PARAM_FAILURE :
-					invokerAction(ctx, buf, callType, serviceId, callId);
-					break;
-				case CLIENT_OPEN :
-				case CLIENT_BACK_PRESSURE :
-				case CLIENT_CLOSE :
-					streamAction(ctx, buf, callType, serviceId, callId);
-					break;
-				default :
-					LOG.warn(
-						"The RSA distribution provider received an unknown request type {} for service {} and is ignoring it",
-						callType, serviceId);
-					ctx.write(new ServerErrorMessageResponse(FAILURE_UNKNOWN_TYPE, serviceId, callId,
-						"An unknown request type was received for service " + serviceId), ctx.voidPromise());
+			try (Scope session = SessionDictionaries.decoding(ctx.channel())) {
+				switch (callType) {
+					case CALL_WITH_RETURN :
+					case CALL_WITHOUT_RETURN :
+					case CANCEL :
+					case ASYNC_METHOD_PARAM_DATA :
+					case ASYNC_METHOD_PARAM_FAILURE :
+						invokerAction(ctx, buf, callType, serviceId, callId);
+						break;
+					case CLIENT_OPEN :
+					case CLIENT_BACK_PRESSURE :
+					case CLIENT_CLOSE :
+						streamAction(ctx, buf, callType, serviceId, callId);
+						break;
+					case SESSION_DICTIONARY :
+						SessionDictionaries.readDefinitions(ctx.channel(), buf);
+						break;
+					default :
+						LOG.warn(
+							"The RSA distribution provider received an unknown request type {} for service {} and is ignoring it",
+							callType, serviceId);
+						ctx.write(new ServerErrorMessageResponse(FAILURE_UNKNOWN_TYPE, serviceId, callId,
+							"An unknown request type was received for service " + serviceId), ctx.voidPromise());
 
+				}
 			}
 
 		} finally {
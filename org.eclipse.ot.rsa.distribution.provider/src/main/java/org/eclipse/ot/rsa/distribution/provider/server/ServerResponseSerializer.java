@@ -17,6 +17,9 @@ import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.
 import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.FAILURE_UNKNOWN_TYPE;
 
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage;
+import org.eclipse.ot.rsa.distribution.provider.message.MessageSizeEstimator;
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.SessionDictionaries;
+import org.freshvanilla.net.SessionDictionary.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,24 +32,28 @@ import io.netty.channel.ChannelPromise;
 @Sharable
 public class ServerResponseSerializer extends ChannelOutboundHandlerAdapter {
 
-	private static final Logger LOG = LoggerFactory.getLogger(ServerResponseSerializer.class);
+	private static final Logger			LOG		= LoggerFactory.getLogger(ServerResponseSerializer.class);
+
+	private final MessageSizeEstimator	sizes	= new MessageSizeEstimator();
 
 	@Override
 	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
 
 		@SuppressWarnings("unchecked")
 		AbstractRSAMessage<ServerMessageType> response = (AbstractRSAMessage<ServerMessageType>) msg;
-		try {
+		try (Scope session = SessionDictionaries.encoding(ctx.channel())) {
 			/* See Protocol_V1 and Protocol_V2 for header structure */
 			ByteBuf buf = ctx.alloc()
-				.ioBuffer();
+				.ioBuffer(sizes.estimate(response.getType()));
 			try {
 				response.write(buf, promise);
+				sizes.record(response.getType(), buf.readableBytes());
 			} catch (Exception e) {
 				buf.clear();
 				getErrorResponse(response, e).write(buf, promise);
 			}
 
+			SessionDictionaries.writeDefinitions(ctx, session);
 			ctx.writeAndFlush(buf, promise);
 		} catch (Exception e) {
 			LOG.error("An error occurred when invoking service {} ", response.getServiceId(), e);
@@ -16,7 +16,7 @@ import java.io.IOException;
 import java.util.UUID;
 
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractPayloadMessage;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelPromise;
@@ -17,6 +17,7 @@ import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.
 import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.FAILURE_TO_DESERIALIZE_TYPE;
 import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.FAILURE_UNKNOWN_TYPE;
 import static org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType.SERVER_ASYNC_METHOD_PARAM_ERROR_TYPE;
+import static org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1.toSignature;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -25,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -32,15 +34,17 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.eclipse.ot.rsa.distribution.config.ExportedServiceConfig;
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage;
 import org.eclipse.ot.rsa.distribution.provider.promise.RSAPromiseFactory;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory;
 import org.eclipse.ot.rsa.distribution.provider.pushstream.PushStreamFactory.DataStreamFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.CompletedPromise;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
 import org.eclipse.ot.rsa.distribution.util.Utils;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.osgi.framework.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -96,6 +100,8 @@ public class ServiceInvoker {
 	private final ReturnHandler[]							returnHandlers;
 
 	private final EventExecutorGroup						worker;
+	private final Bulkhead[]								bulkheads;
+	private final boolean[]									inline;
 	private final Timer										timer;
 
 	private final UUID										serviceId;
@@ -114,6 +120,23 @@ public class ServiceInvoker {
 
 	public ServiceInvoker(RemotingProvider rp, UUID serviceId, Serializer serializer, Object service, Method[] methods,
 		EventExecutorGroup serverWorkers, Timer timer) {
+		this(rp, serviceId, serializer, service, methods, serverWorkers, new Bulkhead[methods.length],
+			new boolean[methods.length], timer);
+	}
+
+	/**
+	 * Create an invoker whose calls are limited by bulkheads, or made inline
+	 *
+	 * @param bulkheads the bulkhead for each method, or <code>null</code>
+	 *            entries for methods which use the server workers directly
+	 * @param inline <code>true</code> for each method which should be called
+	 *            on the network thread that receives the request. An inline
+	 *            call must still get a slot from the method's bulkhead, and
+	 *            is queued there if none is free. As it does not use the
+	 *            server workers it is not limited by their queue.
+	 */
+	public ServiceInvoker(RemotingProvider rp, UUID serviceId, Serializer serializer, Object service, Method[] methods,
+		EventExecutorGroup serverWorkers, Bulkhead[] bulkheads, boolean[] inline, Timer timer) {
 
 		this.remotingProvider = rp;
 		this.serviceId = serviceId;
@@ -121,6 +144,8 @@ public class ServiceInvoker {
 		this.service = service;
 		this.methodCache = Arrays.copyOf(methods, methods.length);
 		this.worker = serverWorkers;
+		this.bulkheads = Arrays.copyOf(bulkheads, methods.length);
+		this.inline = Arrays.copyOf(inline, methods.length);
 		this.timer = timer;
 		completeAction = serverWorkers.next()
 			.newSucceededFuture(null);
@@ -177,6 +202,33 @@ public class ServiceInvoker {
 
 		setupReturnHandlers(methods);
 		setupArgsHandlers(methods, fromNettyFutureAdapter);
+
+		// An inline call waiting for an asynchronous argument would block the
+		// thread that has to deliver it
+		for (int i = 0; i < methods.length; i++) {
+			this.inline[i] &= argsHandlers[i] == DEFAULT_ARGS_HANDLER;
+		}
+	}
+
+	/**
+	 * Find the methods of an exported service which should be called inline
+	 *
+	 * @param config the configuration of the exported service
+	 * @param methods the exported methods
+	 * @return whether each method, in the same order as the methods, should be
+	 *         called inline
+	 */
+	public static boolean[] inlineMethods(ExportedServiceConfig config, Method[] methods) {
+		List<String> entries = Arrays.stream(config.org_eclipse_ot_rsa_distribution_inline_methods())
+			.map(String::trim)
+			.collect(Collectors.toList());
+
+		boolean[] inline = new boolean[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			inline[i] = entries.contains("*") || entries.contains(methods[i].getName())
+				|| entries.contains(toSignature(methods[i]));
+		}
+		return inline;
 	}
 
 	private void setupReturnHandlers(Method[] methods) {
@@ -345,7 +397,9 @@ public class ServiceInvoker {
 	}
 
 	public void call(Channel channel, ByteBuf buf, int callId) {
+		int idx;
 		Method m;
+		Bulkhead bulkhead;
 		ReturnHandler returnHandler;
 		Object[] args;
 		ArgumentResolver[] resolvers;
@@ -353,8 +407,9 @@ public class ServiceInvoker {
 		try {
 			ArgsHandler argsPostProcessor;
 			try {
-				int idx = buf.readUnsignedShort();
+				idx = buf.readUnsignedShort();
 				m = methodCache[idx];
+				bulkhead = bulkheads[idx];
 				returnHandler = returnHandlers[idx];
 				argsPostProcessor = argsHandlers[idx];
 			} catch (ArrayIndexOutOfBoundsException aioobe) {
@@ -375,13 +430,27 @@ public class ServiceInvoker {
 			sendInternalFailureResponse(channel, callId, FAILURE_UNKNOWN_TYPE, e);
 			return;
 		}
-		doCall(channel, callId, m, returnHandler, args, resolvers);
+		// An inline call still needs a bulkhead slot. Without a free slot it
+		// queues in the bulkhead like any other call
+		if (inline[idx] && (bulkhead == null || bulkhead.tryEnter())) {
+			try {
+				// Any asynchronous result completes the call later without help
+				invokeAndRespond(channel, callId, m, args, returnHandler);
+			} finally {
+				if (bulkhead != null) {
+					bulkhead.exit();
+				}
+			}
+		} else {
+			doCall(channel, callId, m, bulkhead, returnHandler, args, resolvers);
+		}
 	}
 
-	private void doCall(Channel channel, int callId, Method m, ReturnHandler returnHandler, Object[] args,
-		ArgumentResolver[] resolvers) {
+	private void doCall(Channel channel, int callId, Method m, Bulkhead bulkhead, ReturnHandler returnHandler,
+		Object[] args, ArgumentResolver[] resolvers) {
 		try {
-			Future<Future<?>> f = worker.submit(() -> invokeAndRespond(channel, callId, m, args, returnHandler));
+			Callable<Future<?>> task = () -> invokeAndRespond(channel, callId, m, args, returnHandler);
+			Future<Future<?>> f = bulkhead == null ? worker.submit(task) : bulkhead.submit(task);
 			// TODO Use the real timeout
 			Timeout t = timer.newTimeout(x -> timeoutAction(resolvers, f), 30, TimeUnit.SECONDS);
 			RemoteInvocation ri = new RemoteInvocation(resolvers, f, t);
@@ -394,6 +463,11 @@ public class ServiceInvoker {
 					gate = (Future<?>) g.getNow();
 				} else {
 					gate = g;
+					if (g.cause() instanceof RejectedExecutionException) {
+						LOG.warn("The RSA distribution provider is overloaded and rejecting calls", g.cause());
+						sendInternalFailureResponse(channel, callId, FAILURE_SERVER_OVERLOADED_TYPE,
+							(RejectedExecutionException) g.cause());
+					}
 				}
 				if (gate.isDone()) {
 					onCallCompletion(gate, callId, ri);
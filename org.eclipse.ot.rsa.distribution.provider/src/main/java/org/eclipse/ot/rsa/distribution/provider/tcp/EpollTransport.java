@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+/**
+ * The native epoll transport. The epoll packages are optional, so this class
+ * must only be used by {@link Transports}, which treats any
+ * {@link LinkageError} from loading it as the transport being unavailable.
+ */
+final class EpollTransport {
+
+	private EpollTransport() {}
+
+	static boolean isAvailable() {
+		return Epoll.isAvailable();
+	}
+
+	static MultithreadEventLoopGroup eventLoopGroup(int threads, ThreadFactory threadFactory) {
+		return new EpollEventLoopGroup(threads, threadFactory);
+	}
+
+	static boolean isEpoll(EventLoopGroup group) {
+		return group instanceof EpollEventLoopGroup;
+	}
+
+	static Class<? extends SocketChannel> socketChannel() {
+		return EpollSocketChannel.class;
+	}
+
+	static Class<? extends ServerSocketChannel> serverSocketChannel() {
+		return EpollServerSocketChannel.class;
+	}
+
+	static void reusePort(ServerBootstrap b) {
+		b.option(EpollChannelOption.SO_REUSEPORT, true);
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Coalesces the flushes issued for individual RSA messages so that many small
+ * messages written in the same event loop tick leave in a single syscall.
+ * <p>
+ * A flush is deferred until either {@link #maxPendingFlushes} flushes have
+ * been requested, or the deferred flush task runs. The deferred task runs at
+ * the end of the current event loop tick, or after {@link #maxDelayMicros} if
+ * a delay is configured. This handler must run on the channel's event loop.
+ */
+public class FlushBatchingHandler extends ChannelDuplexHandler {
+
+	private static final Logger	LOG						= LoggerFactory.getLogger(FlushBatchingHandler.class);
+
+	/**
+	 * The {@link ProtocolScheme} option enabling batching. The value is the
+	 * maximum number of flushes that may be coalesced
+	 */
+	public static final String	FLUSH_BATCH				= "flush.batch";
+
+	/**
+	 * The {@link ProtocolScheme} option defining the maximum time in
+	 * microseconds that a flush may be deferred
+	 */
+	public static final String	FLUSH_MAX_DELAY_MICROS	= "flush.max.delay.us";
+
+	private final int			maxPendingFlushes;
+
+	private final long			maxDelayMicros;
+
+	private final Runnable		flushTask				= this::deferredFlush;
+
+	private ChannelHandlerContext	ctx;
+
+	private int					pendingFlushes;
+
+	private boolean				flushScheduled;
+
+	public FlushBatchingHandler(int maxPendingFlushes, long maxDelayMicros) {
+		if (maxPendingFlushes < 1) {
+			throw new IllegalArgumentException("The maximum number of pending flushes must be greater than zero");
+		}
+		if (maxDelayMicros < 0) {
+			throw new IllegalArgumentException("The maximum flush delay must not be negative");
+		}
+		this.maxPendingFlushes = maxPendingFlushes;
+		this.maxDelayMicros = maxDelayMicros;
+	}
+
+	/**
+	 * Create a handler from the options of a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return A configured handler, or <code>null</code> if flush batching is
+	 *         not enabled for this scheme
+	 */
+	public static FlushBatchingHandler fromOptions(ProtocolScheme p) {
+		Integer batch = p.getOption(FLUSH_BATCH, Integer.class);
+		if (batch == null || batch < 2) {
+			return null;
+		}
+
+		Long delay = p.getOption(FLUSH_MAX_DELAY_MICROS, Long.class);
+		if (delay == null) {
+			delay = 0L;
+		} else if (delay < 0 || delay > 100000) {
+			LOG.warn(
+				"The maximum flush delay {} for {} is not supported. The value must be between 0 and 100000. It will be set to 0",
+				delay, p.getProtocol());
+			delay = 0L;
+		}
+		return new FlushBatchingHandler(batch, delay);
+	}
+
+	@Override
+	public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+		this.ctx = ctx;
+	}
+
+	@Override
+	public void flush(ChannelHandlerContext ctx) throws Exception {
+		if (++pendingFlushes >= maxPendingFlushes) {
+			flushNow(ctx);
+		} else if (!flushScheduled) {
+			flushScheduled = true;
+			if (maxDelayMicros == 0) {
+				ctx.executor()
+					.execute(flushTask);
+			} else {
+				ctx.executor()
+					.schedule(flushTask, maxDelayMicros, MICROSECONDS);
+			}
+		}
+	}
+
+	private void deferredFlush() {
+		flushScheduled = false;
+		if (pendingFlushes > 0) {
+			flushNow(ctx);
+		}
+	}
+
+	private void flushNow(ChannelHandlerContext ctx) {
+		pendingFlushes = 0;
+		ctx.flush();
+	}
+
+	private void flushIfNeeded(ChannelHandlerContext ctx) {
+		if (pendingFlushes > 0) {
+			flushNow(ctx);
+		}
+	}
+
+	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+		// Don't hold back data once the outbound buffer is filling up
+		if (!ctx.channel()
+			.isWritable()) {
+			flushIfNeeded(ctx);
+		}
+		ctx.fireChannelWritabilityChanged();
+	}
+
+	@Override
+	public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushIfNeeded(ctx);
+		ctx.disconnect(promise);
+	}
+
+	@Override
+	public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+		flushIfNeeded(ctx);
+		ctx.close(promise);
+	}
+
+	@Override
+	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+		flushIfNeeded(ctx);
+		ctx.fireExceptionCaught(cause);
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		flushIfNeeded(ctx);
+	}
+}
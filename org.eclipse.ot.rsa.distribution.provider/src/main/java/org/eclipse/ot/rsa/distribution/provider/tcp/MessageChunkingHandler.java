@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.PromiseCombiner;
+
+/**
+ * Splits encoded messages which are larger than the chunk size into a series
+ * of {@link Protocol_V2#MESSAGE_CHUNK} frames, which the
+ * {@link VersionCheckingLengthFieldBasedFrameDecoder} at the remote end joins
+ * back together.
+ * <p>
+ * The chunks are slices of the encoded message, so no data is copied, and they
+ * are written one after another so that they can leave as the socket accepts
+ * them. This handler must run on the channel's event loop, so that the chunks
+ * of a message are never interleaved with other messages.
+ */
+public class MessageChunkingHandler extends ChannelOutboundHandlerAdapter {
+
+	private static final Logger	LOG				= LoggerFactory.getLogger(MessageChunkingHandler.class);
+
+	/**
+	 * The {@link ProtocolScheme} option setting the largest message, in bytes,
+	 * which is sent as a single frame. Larger messages are sent in chunks of
+	 * this size.
+	 */
+	public static final String	CHUNK_SIZE		= "chunk.size";
+
+	/**
+	 * The length of a chunk header: the message header and the last chunk flag
+	 */
+	static final int			HEADER_LENGTH	= 4 + 1 + 16 + 4 + 1;
+
+	/**
+	 * The largest chunk which fits in a frame, and the default chunk size. By
+	 * default only messages which cannot be sent as a single frame are split,
+	 * which remote ends without support for chunks can still receive.
+	 */
+	public static final int		MAX_CHUNK_SIZE	= Protocol_V2.MAX_FRAME_LENGTH + 4 - HEADER_LENGTH;
+
+	/**
+	 * The smallest chunk size which may be configured
+	 */
+	static final int			MIN_CHUNK_SIZE	= 1024;
+
+	private final int			chunkSize;
+
+	public MessageChunkingHandler(int chunkSize) {
+		if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+			throw new IllegalArgumentException(
+				"The chunk size must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Create a handler from the options of a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return A configured handler
+	 */
+	public static MessageChunkingHandler fromOptions(ProtocolScheme p) {
+		Integer size = p.getOption(CHUNK_SIZE, Integer.class);
+		if (size == null) {
+			size = MAX_CHUNK_SIZE;
+		} else if (size < MIN_CHUNK_SIZE || size > MAX_CHUNK_SIZE) {
+			LOG.warn(
+				"The chunk size {} for {} is not supported. The value must be between {} and {}. It will be set to {}",
+				size, p.getProtocol(), MIN_CHUNK_SIZE, MAX_CHUNK_SIZE, MAX_CHUNK_SIZE);
+			size = MAX_CHUNK_SIZE;
+		}
+		return new MessageChunkingHandler(size);
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (!(msg instanceof ByteBuf) || ((ByteBuf) msg).readableBytes() <= chunkSize) {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		ByteBuf message = (ByteBuf) msg;
+		try {
+			PromiseCombiner combiner = new PromiseCombiner(ctx.executor());
+			int start = message.readerIndex();
+			while (message.isReadable()) {
+				int length = Math.min(chunkSize, message.readableBytes());
+				boolean last = length == message.readableBytes();
+
+				ByteBuf header = ctx.alloc()
+					.ioBuffer(HEADER_LENGTH)
+					.writeByte(Protocol_V2.VERSION)
+					.writeMedium(HEADER_LENGTH - 4 + length)
+					.writeByte(Protocol_V2.MESSAGE_CHUNK)
+					// The service id and call id of the message
+					.writeBytes(message, start + 5, 20)
+					.writeBoolean(last);
+
+				combiner.add(ctx.write(header));
+				combiner.add(ctx.write(message.readRetainedSlice(length)));
+			}
+			combiner.finish(promise);
+		} finally {
+			message.release();
+		}
+	}
+}
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import java.net.URI;
+import java.util.zip.Deflater;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Compresses encoded messages which are at least as large as the threshold,
+ * sending them as {@link Protocol_V2#MESSAGE_COMPRESSED} frames which the
+ * {@link VersionCheckingLengthFieldBasedFrameDecoder} at the remote end
+ * inflates.
+ * <p>
+ * Compression is only used when both ends support it. A server with the
+ * {@link #COMPRESSION} option advertises it in the query of its endpoint URIs,
+ * see {@link #advertisement(ProtocolScheme)}. A client with the option which
+ * connects to such a URI is {@link #enable(Channel) enabled}, and tells the
+ * server as soon as it connects. The server compresses its responses once it
+ * has heard from the client.
+ * <p>
+ * Messages are compressed on the channel's event loop, using a
+ * {@link Deflater} which belongs to the channel and is ended when the channel
+ * closes. The handler must be added after the {@link MessageChunkingHandler},
+ * so that large messages are compressed before they are split into chunks.
+ */
+public class MessageCompressionHandler extends ChannelDuplexHandler {
+
+	private static final Logger						LOG					= LoggerFactory
+		.getLogger(MessageCompressionHandler.class);
+
+	/**
+	 * The {@link ProtocolScheme} option naming the compression codec
+	 */
+	public static final String						COMPRESSION			= "compression";
+
+	/**
+	 * The {@link ProtocolScheme} option setting the smallest message, in bytes,
+	 * which is compressed
+	 */
+	public static final String						THRESHOLD			= "compression.threshold";
+
+	/**
+	 * The only supported {@link #COMPRESSION} codec
+	 */
+	public static final String						DEFLATE				= "deflate";
+
+	/**
+	 * The default for the {@link #THRESHOLD}
+	 */
+	public static final int							DEFAULT_THRESHOLD	= 4096;
+
+	/**
+	 * The codec byte of a {@link Protocol_V2#MESSAGE_COMPRESSED} frame
+	 */
+	static final byte								DEFLATE_CODEC		= 1;
+
+	/**
+	 * The length of a compressed frame header: the message header, the codec
+	 * and the uncompressed length
+	 */
+	static final int								HEADER_LENGTH		= 4 + 1 + 16 + 4 + 1 + 4;
+
+	/**
+	 * The size of the slices in which a direct message is passed to the
+	 * deflater
+	 */
+	static final int								INPUT_SLICE			= 8 * 1024;
+
+	private final int								threshold;
+
+	private volatile boolean						enabled;
+
+	/*
+	 * Only used on the channel's event loop. Deflaters hold native memory, so
+	 * the deflater is ended as soon as the channel closes
+	 */
+	private Deflater								deflater;
+	private byte[]									inputSlice;
+	private boolean									ended;
+
+	public MessageCompressionHandler(int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("The compression threshold must be greater than zero");
+		}
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Create a handler from the options of a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return A configured handler, or <code>null</code> if compression is not
+	 *         enabled for this scheme
+	 */
+	public static MessageCompressionHandler fromOptions(ProtocolScheme p) {
+		String codec = p.getOption(COMPRESSION, String.class);
+		if (codec == null || "none".equalsIgnoreCase(codec)) {
+			return null;
+		} else if (!DEFLATE.equalsIgnoreCase(codec)) {
+			LOG.warn("The compression {} for {} is not supported. It will be set to {}", codec, p.getProtocol(),
+				DEFLATE);
+		}
+
+		Integer threshold = p.getOption(THRESHOLD, Integer.class);
+		if (threshold == null) {
+			threshold = DEFAULT_THRESHOLD;
+		} else if (threshold < 1) {
+			LOG.warn("The compression threshold {} for {} is not supported. It will be set to {}", threshold,
+				p.getProtocol(), DEFAULT_THRESHOLD);
+			threshold = DEFAULT_THRESHOLD;
+		}
+		return new MessageCompressionHandler(threshold);
+	}
+
+	/**
+	 * @param p the protocol scheme of a server
+	 * @return the query to add to the endpoint URIs of the server, or
+	 *         <code>null</code> if it does not support compression
+	 */
+	public static String advertisement(ProtocolScheme p) {
+		return fromOptions(p) == null ? null : COMPRESSION + "=" + DEFLATE;
+	}
+
+	/**
+	 * @param uri an endpoint URI
+	 * @return <code>true</code> if the server at the URI supports compression
+	 */
+	public static boolean isAdvertised(URI uri) {
+		String query = uri.getQuery();
+		if (query == null) {
+			return false;
+		}
+		for (String param : query.split("&")) {
+			if (param.equalsIgnoreCase(COMPRESSION + "=" + DEFLATE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Start compressing the messages written to a channel. This has no effect
+	 * if compression is not configured for the channel. If the channel is not
+	 * yet active then the remote end is told that this end can receive
+	 * compressed messages as soon as it is.
+	 *
+	 * @param ch the channel
+	 */
+	public static void enable(Channel ch) {
+		MessageCompressionHandler handler = ch.pipeline()
+			.get(MessageCompressionHandler.class);
+		if (handler != null) {
+			handler.enabled = true;
+		}
+	}
+
+	boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		if (enabled) {
+			ByteBuf announcement = ctx.alloc()
+				.ioBuffer(HEADER_LENGTH)
+				.writeByte(Protocol_V2.VERSION)
+				.writeMedium(HEADER_LENGTH - 4)
+				.writeByte(Protocol_V2.MESSAGE_COMPRESSED)
+				.writeLong(0)
+				.writeLong(0)
+				.writeInt(0)
+				.writeByte(DEFLATE_CODEC)
+				.writeInt(0);
+			ctx.writeAndFlush(announcement, ctx.voidPromise());
+		}
+		ctx.fireChannelActive();
+	}
+
+	@Override
+	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+		end();
+		ctx.fireChannelInactive();
+	}
+
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		end();
+	}
+
+	private void end() {
+		ended = true;
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		inputSlice = null;
+	}
+
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+		if (!enabled || ended || !(msg instanceof ByteBuf) || ((ByteBuf) msg).readableBytes() < threshold
+			|| ((ByteBuf) msg).getByte(((ByteBuf) msg).readerIndex()) != Protocol_V2.VERSION) {
+			ctx.write(msg, promise);
+			return;
+		}
+
+		ByteBuf message = (ByteBuf) msg;
+		ByteBuf compressed;
+		try {
+			compressed = compress(ctx.alloc(), message);
+		} catch (RuntimeException e) {
+			message.release();
+			throw e;
+		}
+
+		if (compressed == null) {
+			ctx.write(message, promise);
+		} else {
+			message.release();
+			ctx.write(compressed, promise);
+		}
+	}
+
+	/**
+	 * @return the compressed frame, or <code>null</code> if it would be no
+	 *         smaller than the message
+	 */
+	ByteBuf compress(ByteBufAllocator alloc, ByteBuf message) {
+		int start = message.readerIndex();
+		int length = message.readableBytes() - 4;
+
+		if (deflater == null) {
+			deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		}
+
+		ByteBuf out = alloc.heapBuffer(message.readableBytes());
+		try {
+			out.writeByte(Protocol_V2.VERSION)
+				.writeMedium(0)
+				.writeByte(Protocol_V2.MESSAGE_COMPRESSED)
+				// The service id and call id of the message
+				.writeBytes(message, start + 5, 20)
+				.writeByte(DEFLATE_CODEC)
+				.writeInt(length);
+
+			// The Java 8 Deflater only works with arrays, so a direct message
+			// is passed in slices rather than copied as a whole
+			if (message.hasArray()) {
+				deflater.setInput(message.array(), message.arrayOffset() + start + 4, length);
+				deflater.finish();
+				deflate(out, true);
+			} else {
+				if (inputSlice == null) {
+					inputSlice = new byte[INPUT_SLICE];
+				}
+				for (int i = start + 4, end = start + 4 + length; i < end && out.isWritable();) {
+					int n = Math.min(inputSlice.length, end - i);
+					message.getBytes(i, inputSlice, 0, n);
+					deflater.setInput(inputSlice, 0, n);
+					i += n;
+					if (i == end) {
+						deflater.finish();
+					}
+					deflate(out, i == end);
+				}
+			}
+
+			if (!deflater.finished() || out.readableBytes() >= message.readableBytes()) {
+				out.release();
+				return null;
+			}
+			int frameLength = out.readableBytes() - 4;
+			out.setMedium(1, frameLength > Protocol_V2.MAX_FRAME_LENGTH ? 0 : frameLength);
+			return out;
+		} catch (RuntimeException e) {
+			out.release();
+			throw e;
+		} finally {
+			deflater.reset();
+		}
+	}
+
+	/*
+	 * Deflate the current input into the fixed size output, stopping early if
+	 * the output is full as the message is then not worth compressing
+	 */
+	private void deflate(ByteBuf out, boolean last) {
+		while (!deflater.finished() && out.isWritable() && (last || !deflater.needsInput())) {
+			int written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+			out.writerIndex(out.writerIndex() + written);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.ot.rsa.transport.util.IOTransport;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Selects the Netty transport used for the RSA channels. The native epoll
+ * transport is used when it is selected, or the selection is {@link #AUTO},
+ * and it is available, otherwise NIO is used. The selection is interpreted by
+ * {@link IOTransport}, which the gossip channels use too.
+ * <p>
+ * The channels used with an event loop group must come from the same transport
+ * as the group, so they are chosen using the group, see
+ * {@link #socketChannel(EventLoopGroup)} and
+ * {@link #serverSocketChannel(EventLoopGroup)}.
+ */
+public final class Transports {
+
+	public static final String		NIO			= IOTransport.NIO;
+
+	public static final String		EPOLL		= IOTransport.EPOLL;
+
+	/**
+	 * io_uring is not part of this version of Netty, so selecting it uses
+	 * epoll when it is available, and NIO otherwise
+	 */
+	public static final String		IO_URING	= IOTransport.IO_URING;
+
+	public static final String		AUTO		= IOTransport.AUTO;
+
+	/**
+	 * The {@link org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme}
+	 * option which binds a server channel for each server IO thread using
+	 * <code>SO_REUSEPORT</code>. This is off by default, as it also lets other
+	 * processes of the same user bind the port, and needs the epoll transport.
+	 */
+	public static final String		REUSE_PORT	= "reuse.port";
+
+	private static final boolean	EPOLL_AVAILABLE;
+
+	static {
+		boolean available;
+		try {
+			available = EpollTransport.isAvailable();
+		} catch (LinkageError e) {
+			available = false;
+		}
+		EPOLL_AVAILABLE = available;
+	}
+
+	private Transports() {}
+
+	/**
+	 * @param transport one of {@link #NIO}, {@link #EPOLL}, {@link #IO_URING}
+	 *            or {@link #AUTO}, any other value selects {@link #NIO}
+	 * @return <code>true</code> if the native epoll transport should be used
+	 */
+	public static boolean useEpoll(String transport) {
+		return IOTransport.useEpoll(transport, EPOLL_AVAILABLE);
+	}
+
+	/**
+	 * Create an event loop group for the selected transport
+	 *
+	 * @param transport the selected transport, see {@link #useEpoll(String)}
+	 * @param threads the number of threads
+	 * @param threadFactory the factory for the threads
+	 * @return the event loop group
+	 */
+	public static MultithreadEventLoopGroup eventLoopGroup(String transport, int threads,
+		ThreadFactory threadFactory) {
+		if (useEpoll(transport)) {
+			return EpollTransport.eventLoopGroup(threads, threadFactory);
+		}
+		return new NioEventLoopGroup(threads, threadFactory);
+	}
+
+	/**
+	 * @param group an event loop group
+	 * @return <code>true</code> if the group uses the native epoll transport
+	 */
+	public static boolean isEpoll(EventLoopGroup group) {
+		return EPOLL_AVAILABLE && !(group instanceof NioEventLoopGroup) && EpollTransport.isEpoll(group);
+	}
+
+	public static Class<? extends SocketChannel> socketChannel(EventLoopGroup group) {
+		return isEpoll(group) ? EpollTransport.socketChannel() : NioSocketChannel.class;
+	}
+
+	public static Class<? extends ServerSocketChannel> serverSocketChannel(EventLoopGroup group) {
+		return isEpoll(group) ? EpollTransport.serverSocketChannel() : NioServerSocketChannel.class;
+	}
+
+	/**
+	 * Allow several server channels to bind to the same port, so that the
+	 * kernel spreads the incoming connections across them. This is only
+	 * supported by the native epoll transport.
+	 *
+	 * @param b a server bootstrap using an epoll event loop group
+	 */
+	public static void reusePort(ServerBootstrap b) {
+		EpollTransport.reusePort(b);
+	}
+}
@@ -13,14 +13,105 @@
 package org.eclipse.ot.rsa.distribution.provider.tcp;
 
 import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
 
+/**
+ * Splits the incoming bytes into frames, passing each one on without its
+ * version and length. The chunks of a message sent by a
+ * {@link MessageChunkingHandler} are joined back together and passed on as a
+ * single frame, and {@link Protocol_V2#MESSAGE_COMPRESSED} frames are inflated,
+ * so the handlers which follow never see either command.
+ * <p>
+ * Compressed frames are only accepted if the channel has a
+ * {@link MessageCompressionHandler}. Until that handler is enabled the only
+ * compressed frame accepted is the remote end's announcement, which
+ * {@link MessageCompressionHandler#enable(io.netty.channel.Channel) enables}
+ * compression for the replies. The length declared by a compressed frame is
+ * not trusted, the message buffer only grows as bytes are inflated.
+ */
 public class VersionCheckingLengthFieldBasedFrameDecoder extends ByteToMessageDecoder {
 
+	private static final Logger	LOG							= LoggerFactory
+		.getLogger(VersionCheckingLengthFieldBasedFrameDecoder.class);
+
+	/**
+	 * The {@link ProtocolScheme} option setting the largest message, in bytes,
+	 * which may be received in chunks
+	 */
+	public static final String	MAX_MESSAGE_SIZE			= "max.message.size";
+
+	/**
+	 * The default for the {@link #MAX_MESSAGE_SIZE}
+	 */
+	public static final int		DEFAULT_MAX_MESSAGE_SIZE	= 512 * 1024 * 1024;
+
+	/**
+	 * The most that is allocated to inflate a message before any of it has
+	 * been inflated
+	 */
+	static final int			INITIAL_INFLATE_SIZE		= 64 * 1024;
+
+	private final int			maxMessageSize;
+
+	/**
+	 * The chunks received so far for the current message, or <code>null</code>
+	 */
+	private CompositeByteBuf	chunks;
+
+	/**
+	 * Set when the current chunked message is too large, so that the rest of
+	 * its chunks are discarded
+	 */
+	private boolean				discarding;
+
+	/**
+	 * Created when the first compressed frame is received
+	 */
+	private Inflater			inflater;
+
+	public VersionCheckingLengthFieldBasedFrameDecoder() {
+		this(DEFAULT_MAX_MESSAGE_SIZE);
+	}
+
+	public VersionCheckingLengthFieldBasedFrameDecoder(int maxMessageSize) {
+		if (maxMessageSize < 1) {
+			throw new IllegalArgumentException("The maximum message size must be greater than zero");
+		}
+		this.maxMessageSize = maxMessageSize;
+	}
+
+	/**
+	 * Create a decoder from the options of a protocol scheme
+	 *
+	 * @param p the protocol scheme
+	 * @return A configured decoder
+	 */
+	public static VersionCheckingLengthFieldBasedFrameDecoder fromOptions(ProtocolScheme p) {
+		Integer size = p.getOption(MAX_MESSAGE_SIZE, Integer.class);
+		if (size == null) {
+			size = DEFAULT_MAX_MESSAGE_SIZE;
+		} else if (size < 1) {
+			LOG.warn("The maximum message size {} for {} is not supported. It will be set to {}", size,
+				p.getProtocol(), DEFAULT_MAX_MESSAGE_SIZE);
+			size = DEFAULT_MAX_MESSAGE_SIZE;
+		}
+		return new VersionCheckingLengthFieldBasedFrameDecoder(size);
+	}
+
 	@Override
 	protected void decode(ChannelHandlerContext ctx, ByteBuf buf, List<Object> out) throws Exception {
 		while (buf.readableBytes() > 4) {
@@ -35,8 +126,155 @@ public class VersionCheckingLengthFieldBasedFrameDecoder extends ByteToMessageDe
 				break;
 			}
 
-			out.add(buf.retainedSlice(offset + 4, length));
+			ByteBuf frame = buf.retainedSlice(offset + 4, length);
 			buf.skipBytes(length + 4);
+
+			if (length > 0 && frame.getByte(0) == Protocol_V2.MESSAGE_CHUNK) {
+				addChunk(ctx, frame, out);
+			} else {
+				addFrame(ctx, frame, out);
+			}
+		}
+	}
+
+	/*
+	 * The chunk is positioned at its command. The chunks themselves are kept,
+	 * rather than copied into one buffer, so the message is never held twice.
+	 */
+	private void addChunk(ChannelHandlerContext ctx, ByteBuf chunk, List<Object> out) throws DataFormatException {
+		boolean last;
+		try {
+			// Skip the command, service id and call id
+			chunk.skipBytes(1 + 16 + 4);
+			last = chunk.readBoolean();
+
+			if (discarding) {
+				discarding = !last;
+				chunk.release();
+				return;
+			}
+			if (chunks == null) {
+				chunks = ctx.alloc()
+					.compositeBuffer(Integer.MAX_VALUE);
+			}
+			if ((long) chunks.readableBytes() + chunk.readableBytes() > maxMessageSize) {
+				discarding = !last;
+				throw new TooLongFrameException(
+					"The chunked message is larger than the maximum message size of " + maxMessageSize);
+			}
+		} catch (RuntimeException e) {
+			chunk.release();
+			releaseChunks();
+			throw e;
+		}
+		chunks.addComponent(true, chunk);
+
+		if (last) {
+			CompositeByteBuf message = chunks;
+			chunks = null;
+			if (message.readableBytes() < 4) {
+				message.release();
+				throw new CorruptedFrameException("The chunked message is too short");
+			}
+			// Pass on the message without its version and length
+			addFrame(ctx, message.skipBytes(4), out);
+		}
+	}
+
+	/*
+	 * The frame is positioned at its command
+	 */
+	private void addFrame(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws DataFormatException {
+		if (frame.isReadable() && frame.getByte(frame.readerIndex()) == Protocol_V2.MESSAGE_COMPRESSED) {
+			try {
+				inflate(ctx, frame, out);
+			} finally {
+				frame.release();
+			}
+		} else {
+			out.add(frame);
+		}
+	}
+
+	private void inflate(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws DataFormatException {
+		// Skip the command, service id and call id
+		frame.skipBytes(1 + 16 + 4);
+		byte codec = frame.readByte();
+		int length = frame.readInt();
+
+		if (codec != MessageCompressionHandler.DEFLATE_CODEC) {
+			throw new CorruptedFrameException("Unknown compression codec (" + codec + ")");
+		}
+		MessageCompressionHandler compression = ctx.pipeline()
+			.get(MessageCompressionHandler.class);
+		if (compression == null) {
+			throw new CorruptedFrameException("Received a compressed message but compression is not configured");
+		} else if (length == 0) {
+			// The remote end can receive compressed messages too
+			MessageCompressionHandler.enable(ctx.channel());
+			return;
+		} else if (!compression.isEnabled()) {
+			throw new CorruptedFrameException("Received a compressed message before compression was negotiated");
+		} else if (length < 0 || length > maxMessageSize) {
+			throw new TooLongFrameException(
+				"The compressed message is larger than the maximum message size of " + maxMessageSize);
+		}
+		if (inflater == null) {
+			inflater = new Inflater();
+		}
+
+		// The Java 8 Inflater only works with arrays
+		byte[] input;
+		int offset;
+		if (frame.hasArray()) {
+			input = frame.array();
+			offset = frame.arrayOffset() + frame.readerIndex();
+		} else {
+			input = ByteBufUtil.getBytes(frame);
+			offset = 0;
+		}
+
+		// Grow the message as it is inflated, up to its declared length
+		ByteBuf message = ctx.alloc()
+			.heapBuffer(Math.min(length, INITIAL_INFLATE_SIZE), length);
+		try {
+			inflater.setInput(input, offset, frame.readableBytes());
+			while (message.writerIndex() < length) {
+				if (!message.isWritable()) {
+					message.ensureWritable(1);
+				}
+				int read = inflater.inflate(message.array(), message.arrayOffset() + message.writerIndex(),
+					message.writableBytes());
+				if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				message.writerIndex(message.writerIndex() + read);
+			}
+			if (message.writerIndex() < length) {
+				throw new CorruptedFrameException("The compressed message is shorter than its length");
+			}
+		} catch (RuntimeException | DataFormatException e) {
+			message.release();
+			throw e;
+		} finally {
+			inflater.reset();
+		}
+		out.add(message);
+	}
+
+	private void releaseChunks() {
+		if (chunks != null) {
+			chunks.release();
+			chunks = null;
+		}
+	}
+
+	@Override
+	protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+		releaseChunks();
+		if (inflater != null) {
+			inflater.end();
+			inflater = null;
 		}
 	}
 }
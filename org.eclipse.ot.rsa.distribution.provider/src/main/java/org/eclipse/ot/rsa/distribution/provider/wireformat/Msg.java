@@ -13,10 +13,30 @@ import org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType;
 import org.eclipse.ot.rsa.distribution.util.Utils;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.ReferenceCounted;
 
-public class Msg {
+/**
+ * A decoded view of a single RSA message. The message does not copy the
+ * bytes it was created from, it takes ownership of one reference to the
+ * supplied buffer and must be released when it is no longer needed.
+ * <p>
+ * The {@link #payload()} is a slice of the owned buffer and is only valid
+ * while this message has not been released.
+ */
+public class Msg implements ReferenceCounted {
 
-	final static MessageType[] MT = new MessageType[Protocol_V2.LAST_COMMAND];
+	/**
+	 * The number of bytes before the frame, i.e. the version and the length
+	 */
+	final static int			PREFIX_LENGTH	= 1 + Protocol_V1.SIZE_WIDTH_IN_BYTES;
+
+	/**
+	 * The offset of the payload in the frame, i.e. after the command, service
+	 * id and call id
+	 */
+	final static int			PAYLOAD_OFFSET	= 1 + 16 + 4;
+
+	final static MessageType[]	MT				= new MessageType[Protocol_V2.LAST_COMMAND];
 	static {
 		for (ServerMessageType st : ServerMessageType.values()) {
 			int index = st.getCommand();
@@ -30,52 +50,164 @@ public class Msg {
 		}
 	}
 
-	private final ByteBuf	buffer;
+	/*
+	 * The frame starts at the command byte. The reader index of this buffer is
+	 * never moved, all access is relative to it.
+	 */
+	private final ByteBuf	frame;
 	final int				version;
 	final int				length;
 	final int				command;
 	final UUID				serviceId;
 	final int				callId;
-	final int				start;
 	final MessageType		messageType;
 	final Protocol			protocol;
 	String					text;
 
+	/**
+	 * Create a message from a complete wire frame, including the version and
+	 * length prefix. Ownership of the buffer is transferred to the message.
+	 *
+	 * @param protocol the protocol used to decode the payload
+	 * @param buffer a buffer positioned at the start of the frame
+	 */
 	public Msg(Protocol protocol, ByteBuf buffer) {
+		this(protocol, buffer.getUnsignedByte(buffer.readerIndex()), frameOf(buffer));
+	}
+
+	private Msg(Protocol protocol, int version, ByteBuf frame) {
 		this.protocol = protocol;
-		this.buffer = buffer.copy()
-			.asReadOnly();
-		this.version = buffer.readByte();
-		int l = 0;
-		for (int i = 0; i < 3; i++) {
-			int v = buffer.readUnsignedByte();
-			l = l * 256;
-			l += v;
-		}
-		this.length = l;
-		this.command = buffer.readByte();
-		long high = buffer.readLong();
-		long low = buffer.readLong();
-		this.serviceId = new UUID(high, low);
-		this.callId = buffer.readInt();
-		this.start = buffer.readerIndex();
+		this.frame = frame;
+		this.version = version;
+		this.length = frame.readableBytes();
+
+		int offset = frame.readerIndex();
+		this.command = frame.getByte(offset);
+		this.serviceId = new UUID(frame.getLong(offset + 1), frame.getLong(offset + 9));
+		this.callId = frame.getInt(offset + 17);
 		this.messageType = MT[this.command];
 	}
 
+	/**
+	 * Create a message from a frame as produced by the
+	 * {@link org.eclipse.ot.rsa.distribution.provider.tcp.VersionCheckingLengthFieldBasedFrameDecoder},
+	 * i.e. starting at the command byte. Ownership of the frame is transferred
+	 * to the message.
+	 *
+	 * @param protocol the protocol used to decode the payload
+	 * @param frame the frame
+	 * @return the message
+	 */
+	public static Msg fromFrame(Protocol protocol, ByteBuf frame) {
+		int command = frame.getByte(frame.readerIndex());
+		MessageType type = command > 0 && command < MT.length ? MT[command] : null;
+		if (type == null) {
+			throw new IllegalArgumentException("Unknown message command " + command);
+		}
+		return new Msg(protocol, type.getVersion(), frame);
+	}
+
+	private static ByteBuf frameOf(ByteBuf buffer) {
+		int offset = buffer.readerIndex();
+		int length = buffer.getUnsignedMedium(offset + 1);
+		if (buffer.readableBytes() < length + PREFIX_LENGTH) {
+			throw new IllegalArgumentException(
+				"The buffer holds " + buffer.readableBytes() + " bytes but the frame length is " + length);
+		}
+		// A slice shares the reference count of the buffer
+		return buffer.slice(offset + PREFIX_LENGTH, length);
+	}
+
 	public Msg send(ByteChannel channel) throws IOException {
-		ByteBuffer nioBuffer = buffer.nioBuffer(0, buffer.writerIndex());
-		channel.write(nioBuffer);
+		ByteBuffer header = ByteBuffer.allocate(PREFIX_LENGTH);
+		header.put((byte) version)
+			.put((byte) (length >> 16))
+			.put((byte) (length >> 8))
+			.put((byte) length)
+			.flip();
+		writeFully(channel, header);
+		writeFully(channel, frame.nioBuffer(frame.readerIndex(), length));
 		return this;
 	}
 
+	private static void writeFully(ByteChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Copy the complete wire frame, including the version and length prefix.
+	 * The caller owns the returned buffer.
+	 *
+	 * @return a copy of the message bytes
+	 */
 	public ByteBuf copy() {
-		return buffer.copy();
+		ByteBuf copy = frame.alloc()
+			.heapBuffer(length + PREFIX_LENGTH);
+		return copy.writeByte(version)
+			.writeMedium(length)
+			.writeBytes(frame, frame.readerIndex(), length);
+	}
+
+	/**
+	 * A view of the payload of this message. No bytes are copied and the
+	 * reference count is not changed, so the view must not be used after this
+	 * message is released.
+	 *
+	 * @return the payload of this message
+	 */
+	public ByteBuf payload() {
+		return frame.slice(frame.readerIndex() + PAYLOAD_OFFSET, length - PAYLOAD_OFFSET);
+	}
+
+	/**
+	 * A view of the payload of this message that holds its own reference to
+	 * the underlying buffer, and so must be released by the caller.
+	 *
+	 * @return the payload of this message
+	 */
+	public ByteBuf retainedPayload() {
+		return frame.retainedSlice(frame.readerIndex() + PAYLOAD_OFFSET, length - PAYLOAD_OFFSET);
+	}
+
+	@Override
+	public int refCnt() {
+		return frame.refCnt();
+	}
+
+	@Override
+	public Msg retain() {
+		frame.retain();
+		return this;
 	}
 
-	public ByteBuf copyPayload() {
-		ByteBuf copy = copy();
-		copy.readerIndex(start);
-		return copy;
+	@Override
+	public Msg retain(int increment) {
+		frame.retain(increment);
+		return this;
+	}
+
+	@Override
+	public Msg touch() {
+		frame.touch();
+		return this;
+	}
+
+	@Override
+	public Msg touch(Object hint) {
+		frame.touch(hint);
+		return this;
+	}
+
+	@Override
+	public boolean release() {
+		return frame.release();
+	}
+
+	@Override
+	public boolean release(int decrement) {
+		return frame.release(decrement);
 	}
 
 	@Override
@@ -98,16 +230,15 @@ public class Msg {
 	}
 
 	public static String report(ByteBuf buffer) {
-		ByteBuf copy = buffer.copy();
 		int n = 0;
 		try (Formatter f = new Formatter()) {
 			String del = "";
-			while (copy.isReadable()) {
+			for (int i = buffer.readerIndex(); i < buffer.writerIndex(); i++) {
 				if ((n % 16) == 0) {
 					f.format("%s%04X ", del, n);
 					del = "\n";
 				}
-				f.format(" %02X", copy.readUnsignedByte());
+				f.format(" %02X", buffer.getUnsignedByte(i));
 				n++;
 			}
 			f.format("\n");
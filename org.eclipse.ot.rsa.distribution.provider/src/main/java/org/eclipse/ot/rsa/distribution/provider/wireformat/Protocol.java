@@ -6,20 +6,39 @@ import java.util.UUID;
 import java.util.function.Consumer;
 
 import org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.distribution.provider.message.MessageSizeEstimator;
+import org.eclipse.ot.rsa.distribution.provider.message.MessageType;
 import org.eclipse.ot.rsa.distribution.provider.server.ServerMessageType;
 import org.eclipse.ot.rsa.distribution.util.Utils;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 
 public class Protocol implements Dispatcher {
-	final Serializer	serializer;
-	final Consumer<Msg>	queue;
+	final Serializer			serializer;
+	final Consumer<Msg>			queue;
+	final ByteBufAllocator		allocator;
+	final MessageSizeEstimator	sizes	= new MessageSizeEstimator();
 
 	public Protocol(Serializer serializer, Consumer<Msg> queue) {
+		this(serializer, queue, UnpooledByteBufAllocator.DEFAULT);
+	}
+
+	/**
+	 * Create a protocol which encodes all messages into buffers from the
+	 * supplied allocator. The initial size of each buffer is estimated from
+	 * the recent messages of the same type.
+	 *
+	 * @param serializer the serializer for the payloads
+	 * @param queue receives each encoded message
+	 * @param allocator the allocator for encoded messages
+	 */
+	public Protocol(Serializer serializer, Consumer<Msg> queue, ByteBufAllocator allocator) {
 		this.serializer = serializer;
 		this.queue = queue;
+		this.allocator = allocator;
 	}
 
 	@Override
@@ -37,9 +56,9 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeCallWithReturn(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			int methodIndex = copy.readShort();
-			return server.callWithReturn(msg.serviceId, msg.callId, methodIndex, serializer.deserializeArgs(copy));
+			ByteBuf payload = msg.payload();
+			int methodIndex = payload.readShort();
+			return server.callWithReturn(msg.serviceId, msg.callId, methodIndex, serializer.deserializeArgs(payload));
 		} catch (Exception e) {
 			throw Utils.duck(e);
 		}
@@ -59,9 +78,10 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeCallWithoutReturn(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			int methodIndex = copy.readShort();
-			return server.callWithoutReturn(msg.serviceId, msg.callId, methodIndex, serializer.deserializeArgs(copy));
+			ByteBuf payload = msg.payload();
+			int methodIndex = payload.readShort();
+			return server.callWithoutReturn(msg.serviceId, msg.callId, methodIndex,
+				serializer.deserializeArgs(payload));
 		} catch (Exception e) {
 			throw Utils.duck(e);
 		}
@@ -80,8 +100,8 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeCancel(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			boolean interrupt = copy.readBoolean();
+			ByteBuf payload = msg.payload();
+			boolean interrupt = payload.readBoolean();
 			return server.cancel(msg.serviceId, msg.callId, interrupt);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -102,10 +122,10 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeAsyncMethodParamData(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			byte paramIndex = copy.readByte();
+			ByteBuf payload = msg.payload();
+			byte paramIndex = payload.readByte();
 			return server.asyncMethodParamData(msg.serviceId, msg.callId, paramIndex,
-				serializer.deserializeReturn(copy));
+				serializer.deserializeReturn(payload));
 		} catch (Exception e) {
 			throw Utils.duck(e);
 		}
@@ -124,8 +144,8 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeAsyncMethodParamClose(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			byte paramIndex = copy.readByte();
+			ByteBuf payload = msg.payload();
+			byte paramIndex = payload.readByte();
 			return server.asyncMethodParamClose(msg.serviceId, msg.callId, paramIndex);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -146,8 +166,8 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeAsyncMethodParamFailure(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			byte paramIndex = copy.readByte();
+			ByteBuf payload = msg.payload();
+			byte paramIndex = payload.readByte();
 			return server.asyncMethodParamClose(msg.serviceId, msg.callId, paramIndex);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -166,7 +186,6 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeClientOpen(Msg msg, Server server) {
 		try {
-			ByteBuf copy = msg.copyPayload();
 			return server.clientOpen(msg.serviceId, msg.callId);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -222,9 +241,9 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeSuccessResponse(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
+			ByteBuf payload = msg.payload();
 
-			Object result = serializer.deserializeReturn(copy);
+			Object result = serializer.deserializeReturn(payload);
 			return client.successResponse(msg.serviceId, msg.callId, result);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -244,8 +263,8 @@ public class Protocol implements Dispatcher {
 
 	Msg decodeFailureResponse(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			Throwable result = (Throwable) serializer.deserializeReturn(copy);
+			ByteBuf payload = msg.payload();
+			Throwable result = (Throwable) serializer.deserializeReturn(payload);
 			return client.failureResponse(msg.serviceId, msg.callId, result);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -296,8 +315,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeFailureToDeserialize(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			String message = readString(copy);
+			ByteBuf payload = msg.payload();
+			String message = readString(payload);
 			return client.failureToDeserialize(msg.serviceId, msg.callId, message);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -317,8 +336,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeFailureToSerializeSuccess(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			String message = readString(copy);
+			ByteBuf payload = msg.payload();
+			String message = readString(payload);
 			return client.failureToSerializeSuccess(msg.serviceId, msg.callId, message);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -338,8 +357,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeFailureToSerializeFailure(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			String message = readString(copy);
+			ByteBuf payload = msg.payload();
+			String message = readString(payload);
 			return client.failureToSerializeFailure(msg.serviceId, msg.callId, message);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -359,8 +378,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeFailureServerOverloaded(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			String message = readString(copy);
+			ByteBuf payload = msg.payload();
+			String message = readString(payload);
 			return client.failureServerOverloaded(msg.serviceId, msg.callId, message);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -380,8 +399,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeFailureUnknown(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			String message = readString(copy);
+			ByteBuf payload = msg.payload();
+			String message = readString(payload);
 			return client.failureUnknown(msg.serviceId, msg.callId, message);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -402,9 +421,9 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeServerAsyncMethodParamError(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			int paramIndex = copy.readByte(); // Read the param index
-			Object value = serializer.deserializeReturn(copy);
+			ByteBuf payload = msg.payload();
+			int paramIndex = payload.readByte(); // Read the param index
+			Object value = serializer.deserializeReturn(payload);
 			return client.serverAsyncMethodParamError(msg.serviceId, msg.callId, paramIndex, value);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -424,8 +443,8 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeServerDataEvent(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			Object serializedData = serializer.deserializeReturn(copy);
+			ByteBuf payload = msg.payload();
+			Object serializedData = serializer.deserializeReturn(payload);
 			return client.serverDataEvent(msg.serviceId, msg.callId, serializedData);
 		} catch (Exception e) {
 			throw Utils.duck(e);
@@ -463,14 +482,19 @@ public class Protocol implements Dispatcher {
 
 	public Msg decodeServerErrorEvent(Msg msg, Client client) {
 		try {
-			ByteBuf copy = msg.copyPayload();
-			Object failure = serializer.deserializeReturn(copy);
+			ByteBuf payload = msg.payload();
+			Object failure = serializer.deserializeReturn(payload);
 			return client.serverErrorEvent(msg.serviceId, msg.callId, failure);
 		} catch (Exception e) {
 			throw Utils.duck(e);
 		}
 	}
 
+	/*
+	 * Completes the length field and hands the message to the queue. The
+	 * message owns the buffer, the caller of the encoding method is responsible
+	 * for releasing it.
+	 */
 	private Msg fixup(ByteBuf buffer) {
 		int size = buffer.writerIndex() - 4;
 		for (int i = 0; i < 3; i++) {
@@ -479,6 +503,7 @@ public class Protocol implements Dispatcher {
 			buffer.setByte(i + 1, bvalue);
 		}
 		Msg msg = new Msg(this, buffer);
+		sizes.record(msg.messageType, buffer.readableBytes());
 		queue.accept(msg);
 		return msg;
 	}
@@ -561,25 +586,30 @@ public class Protocol implements Dispatcher {
 	}
 
 	public ByteBuf header(ClientMessageType cmt, int callId, UUID serviceId) {
-		ByteBuf buffer = Unpooled.buffer();
-		buffer.writeByte(cmt.getVersion())
-			.writeBytes(new byte[3])
-			.writeByte(cmt.getCommand())
-			.writeLong(serviceId.getMostSignificantBits())
-			.writeLong(serviceId.getLeastSignificantBits())
-			.writeInt(callId);
-		return buffer;
+		return header(allocator.ioBuffer(sizes.estimate(cmt)), cmt, serviceId, callId);
 	}
 
 	public ByteBuf header(ServerMessageType cmt, UUID serviceId, int callId) {
-		ByteBuf buffer = Unpooled.buffer();
-		buffer.writeByte(cmt.getVersion())
-			.writeBytes(new byte[3])
-			.writeByte(cmt.getCommand())
+		return header(allocator.ioBuffer(sizes.estimate(cmt)), cmt, serviceId, callId);
+	}
+
+	/**
+	 * Write a message header into a caller supplied buffer. The length is
+	 * written as zero and must be fixed up once the payload is written.
+	 *
+	 * @param buffer the buffer to write to
+	 * @param type the message type
+	 * @param serviceId the service id
+	 * @param callId the call id
+	 * @return the supplied buffer
+	 */
+	public static ByteBuf header(ByteBuf buffer, MessageType type, UUID serviceId, int callId) {
+		return buffer.writeByte(type.getVersion())
+			.writeMedium(0)
+			.writeByte(type.getCommand())
 			.writeLong(serviceId.getMostSignificantBits())
 			.writeLong(serviceId.getLeastSignificantBits())
 			.writeInt(callId);
-		return buffer;
 	}
 
 	public void close() {
@@ -595,9 +625,9 @@ public class Protocol implements Dispatcher {
 		}
 	}
 
-	private String readString(ByteBuf copy) {
-		int l = copy.readUnsignedShort();
-		return copy.readCharSequence(l, StandardCharsets.UTF_8)
+	private String readString(ByteBuf buffer) {
+		int l = buffer.readUnsignedShort();
+		return buffer.readCharSequence(l, StandardCharsets.UTF_8)
 			.toString();
 	}
 
@@ -88,5 +88,39 @@ public interface Protocol_V2 extends Protocol_V1 {
 	 */
 	byte	SERVER_ERROR_EVENT				= 22;
 
-	int		LAST_COMMAND					= 23;
+	/**
+	 * Format: | Header | definition count unsigned short | (tag id unsigned
+	 * short | UTF-8 length unsigned short | UTF-8 tag)* | Usage - sent by
+	 * either end, with a zero service id and call id, to define the session
+	 * tags used by the messages which follow it on the connection
+	 */
+	byte	SESSION_DICTIONARY				= 23;
+
+	/**
+	 * Format: | Header | last chunk boolean | part of an encoded message |
+	 * Usage - sent by either end in place of a message which is larger than a
+	 * single frame, using the service id and call id of that message. The
+	 * chunks of a message are sent one after another, and joined together they
+	 * are the complete message starting with its header. The length in that
+	 * header is not used.
+	 */
+	byte	MESSAGE_CHUNK					= 24;
+
+	/**
+	 * Format: | Header | codec byte | uncompressed length int | compressed
+	 * message | Usage - sent by either end in place of a message, using the
+	 * service id and call id of that message. Uncompressed, it is the message
+	 * without its version and length, starting with its command. A frame with
+	 * an uncompressed length of zero carries no message, and is sent with a
+	 * zero service id and call id by a client which can receive compressed
+	 * messages as soon as it connects.
+	 */
+	byte	MESSAGE_COMPRESSED				= 25;
+
+	int		LAST_COMMAND					= 26;
+
+	/**
+	 * The largest length which fits in the size field of a frame header
+	 */
+	int		MAX_FRAME_LENGTH				= (1 << (8 * SIZE_WIDTH_IN_BYTES)) - 1;
 }
@@ -12,7 +12,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -26,12 +26,8 @@ public class RSAChannel implements AutoCloseable {
 
 	private static void write(Msg msg, ByteChannel channel) {
 		try {
-			ByteBuf b = msg.copy();
-			System.out.println("write " + Msg.report(b));
-			ByteBuffer nioBuffer = b.nioBuffer();
-			do {
-				int n = channel.write(nioBuffer);
-			} while (nioBuffer.hasRemaining());
+			System.out.println("write " + msg);
+			msg.send(channel);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -92,8 +88,12 @@ public class RSAChannel implements AutoCloseable {
 							ByteBuf copy = Unpooled.wrappedBuffer(buffer);
 							System.out.println("received " + copy + "\n" + Msg.report(copy));
 							Msg msg = new Msg(protocol, copy);
-							System.out.println("got " + msg);
-							write.accept(msg);
+							try {
+								System.out.println("got " + msg);
+								write.accept(msg);
+							} finally {
+								msg.release();
+							}
 							counter.incrementAndGet();
 						} catch (InterruptedException e) {
 							System.out.println("Interrupted");
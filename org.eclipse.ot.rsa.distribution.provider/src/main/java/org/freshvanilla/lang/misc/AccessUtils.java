@@ -19,21 +19,35 @@ package org.freshvanilla.lang.misc;
 import java.lang.reflect.Field;
 
 public class AccessUtils {
-	static final Accessor delegate;
+
+	/**
+	 * The system property used to choose how fields are accessed. The value
+	 * is one of <code>unsafe</code> (the default), <code>methodhandle</code> or
+	 * <code>reflection</code>. If <code>sun.misc.Unsafe</code> is unavailable
+	 * then method handles are used instead.
+	 */
+	public static final String	ACCESSOR_PROPERTY	= "org.freshvanilla.accessor";
+
+	static final Accessor		delegate;
 
 	private AccessUtils() {
 		// not used
 	}
 
 	static {
-		Accessor toUse;
-		try {
-			toUse = new Unsafe();
-		} catch (Throwable t) {
-			if (t instanceof OutOfMemoryError) {
-				throw t;
+		String requested = System.getProperty(ACCESSOR_PROPERTY, "unsafe");
+		Accessor toUse = null;
+		if ("unsafe".equals(requested)) {
+			try {
+				toUse = new Unsafe();
+			} catch (Throwable t) {
+				if (t instanceof OutOfMemoryError) {
+					throw t;
+				}
 			}
-			toUse = new SafeAccessor();
+		}
+		if (toUse == null) {
+			toUse = "reflection".equals(requested) ? new SafeAccessor() : new MethodHandleAccessor();
 		}
 		delegate = toUse;
 	}
@@ -47,7 +61,11 @@ public class AccessUtils {
 		return delegate.getFieldAccessor(field);
 	}
 
+	/**
+	 * @return <code>true</code> if new instances are created using their
+	 *         no-argument constructor, rather than by allocating them directly
+	 */
 	public static boolean isSafe() {
-		return delegate instanceof SafeAccessor;
+		return !(delegate instanceof Unsafe);
 	}
 }
@@ -0,0 +1,82 @@
+package org.freshvanilla.lang.misc;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * An {@link Accessor} which uses method handles rather than reflection. Unlike
+ * the {@link SafeAccessor} it does not box primitive field values, and the
+ * handles are checked once when they are created rather than on every access.
+ * <p>
+ * Like the {@link SafeAccessor}, and unlike {@link Unsafe}, new instances are
+ * created by calling the no-argument constructor.
+ */
+class MethodHandleAccessor implements Accessor {
+
+	private static final MethodHandles.Lookup		LOOKUP			= MethodHandles.lookup();
+
+	private static final ClassValue<MethodHandle>	CONSTRUCTORS	= new ClassValue<MethodHandle>() {
+																		@Override
+																		protected MethodHandle computeValue(
+																			Class<?> type) {
+																			try {
+																				Constructor<?> c = type
+																					.getDeclaredConstructor();
+																				c.setAccessible(true);
+																				return LOOKUP.unreflectConstructor(c)
+																					.asType(methodType(Object.class));
+																			} catch (Exception e) {
+																				return null;
+																			}
+																		}
+																	};
+
+	@Override
+	public <T> T newInstance(Class<T> clazz) throws InstantiationException {
+		MethodHandle constructor = CONSTRUCTORS.get(clazz);
+		if (constructor == null) {
+			throw new InstantiationException(clazz.getName() + " does not have a usable no-argument constructor");
+		}
+		try {
+			return clazz.cast((Object) constructor.invokeExact());
+		} catch (Throwable t) {
+			InstantiationException ie = new InstantiationException(t.toString());
+			ie.initCause(t);
+			throw ie;
+		}
+	}
+
+	@Override
+	public FieldAccessor<?> getFieldAccessor(Field field) {
+		field.setAccessible(true);
+
+		MethodHandle getter;
+		MethodHandle setter;
+		try {
+			getter = LOOKUP.unreflectGetter(field);
+			setter = LOOKUP.unreflectSetter(field);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Unable to access the field " + field, e);
+		}
+
+		Class<?> type = field.getType();
+
+		if (type == boolean.class) {
+			return new MethodHandleFieldAccessor.BooleanAccessor(getter, setter);
+		}
+
+		if (type == float.class || type == double.class) {
+			return new MethodHandleFieldAccessor.FloatingAccessor(getter, setter);
+		}
+
+		if (type.isPrimitive()) {
+			return new MethodHandleFieldAccessor.IntegralAccessor(getter, setter);
+		}
+
+		return new MethodHandleFieldAccessor.ObjectAccessor(getter, setter);
+	}
+}
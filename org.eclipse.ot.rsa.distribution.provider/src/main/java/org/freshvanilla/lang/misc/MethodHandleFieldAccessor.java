@@ -0,0 +1,232 @@
+package org.freshvanilla.lang.misc;
+
+import static java.lang.invoke.MethodHandles.explicitCastArguments;
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * The field accessors created by the {@link MethodHandleAccessor}. Each
+ * accessor adapts the field's getter and setter once, to the exact type used
+ * by the hot path for its kind of field, so that those calls never box. The
+ * conversions to other types follow the Safe accessors.
+ */
+abstract class MethodHandleFieldAccessor<T> implements FieldAccessor<T> {
+
+	private final MethodHandle	get;
+	private final MethodHandle	set;
+
+	MethodHandleFieldAccessor(MethodHandle getter, MethodHandle setter) {
+		get = getter.asType(methodType(Object.class, Object.class));
+		set = setter.asType(methodType(void.class, Object.class, Object.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <Pojo> T getField(Pojo pojo) {
+		try {
+			return (T) (Object) get.invokeExact((Object) pojo);
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	@Override
+	public <Pojo> void setField(Pojo pojo, T value) {
+		try {
+			set.invokeExact((Object) pojo, (Object) value);
+		} catch (Throwable t) {
+			throw new RuntimeException(t);
+		}
+	}
+
+	static final class IntegralAccessor extends MethodHandleFieldAccessor<Number> {
+		private final MethodHandle	getNum;
+		private final MethodHandle	setNum;
+
+		IntegralAccessor(MethodHandle getter, MethodHandle setter) {
+			super(getter, setter);
+			getNum = explicitCastArguments(getter, methodType(long.class, Object.class));
+			setNum = explicitCastArguments(setter, methodType(void.class, Object.class, long.class));
+		}
+
+		@Override
+		public <Pojo> long getNum(Pojo pojo) {
+			try {
+				return (long) getNum.invokeExact((Object) pojo);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> void setNum(Pojo pojo, long value) {
+			try {
+				setNum.invokeExact((Object) pojo, value);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> boolean getBoolean(Pojo pojo) {
+			return getNum(pojo) != 0;
+		}
+
+		@Override
+		public <Pojo> double getDouble(Pojo pojo) {
+			return getNum(pojo);
+		}
+
+		@Override
+		public <Pojo> void setBoolean(Pojo pojo, boolean value) {
+			setNum(pojo, value ? 1 : 0);
+		}
+
+		@Override
+		public <Pojo> void setDouble(Pojo pojo, double value) {
+			setNum(pojo, (long) value);
+		}
+	}
+
+	static final class FloatingAccessor extends MethodHandleFieldAccessor<Number> {
+		private final MethodHandle	getDouble;
+		private final MethodHandle	setDouble;
+
+		FloatingAccessor(MethodHandle getter, MethodHandle setter) {
+			super(getter, setter);
+			getDouble = explicitCastArguments(getter, methodType(double.class, Object.class));
+			setDouble = explicitCastArguments(setter, methodType(void.class, Object.class, double.class));
+		}
+
+		@Override
+		public <Pojo> double getDouble(Pojo pojo) {
+			try {
+				return (double) getDouble.invokeExact((Object) pojo);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> void setDouble(Pojo pojo, double value) {
+			try {
+				setDouble.invokeExact((Object) pojo, value);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> boolean getBoolean(Pojo pojo) {
+			return getDouble(pojo) != 0;
+		}
+
+		@Override
+		public <Pojo> long getNum(Pojo pojo) {
+			return (long) getDouble(pojo);
+		}
+
+		@Override
+		public <Pojo> void setBoolean(Pojo pojo, boolean value) {
+			setDouble(pojo, value ? 1 : 0);
+		}
+
+		@Override
+		public <Pojo> void setNum(Pojo pojo, long value) {
+			setDouble(pojo, value);
+		}
+	}
+
+	static final class BooleanAccessor extends MethodHandleFieldAccessor<Boolean> {
+		private final MethodHandle	getBoolean;
+		private final MethodHandle	setBoolean;
+
+		BooleanAccessor(MethodHandle getter, MethodHandle setter) {
+			super(getter, setter);
+			getBoolean = getter.asType(methodType(boolean.class, Object.class));
+			setBoolean = setter.asType(methodType(void.class, Object.class, boolean.class));
+		}
+
+		@Override
+		public <Pojo> boolean getBoolean(Pojo pojo) {
+			try {
+				return (boolean) getBoolean.invokeExact((Object) pojo);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> void setBoolean(Pojo pojo, boolean value) {
+			try {
+				setBoolean.invokeExact((Object) pojo, value);
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+
+		@Override
+		public <Pojo> long getNum(Pojo pojo) {
+			return getBoolean(pojo) ? 1 : 0;
+		}
+
+		@Override
+		public <Pojo> double getDouble(Pojo pojo) {
+			return getBoolean(pojo) ? 1 : 0;
+		}
+
+		@Override
+		public <Pojo> void setNum(Pojo pojo, long value) {
+			setBoolean(pojo, value != 0);
+		}
+
+		@Override
+		public <Pojo> void setDouble(Pojo pojo, double value) {
+			setBoolean(pojo, value != 0);
+		}
+	}
+
+	static final class ObjectAccessor extends MethodHandleFieldAccessor<Object> {
+
+		ObjectAccessor(MethodHandle getter, MethodHandle setter) {
+			super(getter, setter);
+		}
+
+		@Override
+		public <Pojo> boolean getBoolean(Pojo pojo) {
+			return Boolean.TRUE.equals(getField(pojo));
+		}
+
+		@Override
+		public <Pojo> long getNum(Pojo pojo) {
+			Object obj = getField(pojo);
+			if (obj instanceof Number)
+				return ((Number) obj).longValue();
+			throw new AssertionError("Cannot convert " + obj + " to long.");
+		}
+
+		@Override
+		public <Pojo> double getDouble(Pojo pojo) {
+			Object obj = getField(pojo);
+			if (obj instanceof Number)
+				return ((Number) obj).doubleValue();
+			throw new AssertionError("Cannot convert " + obj + " to double.");
+		}
+
+		@Override
+		public <Pojo> void setBoolean(Pojo pojo, boolean value) {
+			setField(pojo, value);
+		}
+
+		@Override
+		public <Pojo> void setNum(Pojo pojo, long value) {
+			setField(pojo, value);
+		}
+
+		@Override
+		public <Pojo> void setDouble(Pojo pojo, double value) {
+			setField(pojo, value);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StreamCorruptedException;
 import java.lang.reflect.Array;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -41,19 +42,26 @@ import org.freshvanilla.lang.MetaClasses;
 import org.freshvanilla.lang.MetaField;
 import org.freshvanilla.lang.ObjectBuilder;
 import org.freshvanilla.utils.Classes;
+import org.freshvanilla.utils.PrimitiveArrays;
 import org.freshvanilla.utils.VanillaResource;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
 
 public class BinaryWireFormat implements WireFormat {
 
 	private static final int			BYTES_SIZE			= 1024;
+	private static final byte			HICHAR				= (byte) 255;
 	private static final Object[]		NO_OBJECTS			= {};
 
 	private static final byte			SIGNED8_STAG		= (byte) ~SpecialTag.SIGNED8.ordinal();
 	private static final SpecialTag[]	SPECIAL_TAGS		= SpecialTag.values();
 
-	private final byte[]				_outBytesArray		= new byte[BYTES_SIZE];
+	/*
+	 * The byte order of packed primitive arrays. Little endian is the native
+	 * order of most hosts, so the bulk copies are usually plain memory copies.
+	 */
+	private static final ByteOrder		ORDER				= ByteOrder.LITTLE_ENDIAN;
 
 	private final Map<Object, Integer>	seenWritableObjects	= new IdentityHashMap<>(64);
 	private final ArrayList<Object>		seenReadableObjects	= new ArrayList<>(64);
@@ -271,6 +279,9 @@ public class BinaryWireFormat implements WireFormat {
 			case TAG :
 				return readTag0(readBuffer);
 
+			case SESSION_TAG :
+				return SessionDictionary.lookup(readNum(readBuffer));
+
 			case LIST :
 				// seenReadableObjects handled internally
 				return readList(readBuffer);
@@ -336,17 +347,46 @@ public class BinaryWireFormat implements WireFormat {
 			case FLOATS :
 				float[] floats = new float[readLen(readBuffer)];
 				for (int i = 0; i < floats.length; i++) {
-					floats[i] = readNum(readBuffer);
+					floats[i] = (float) readDouble(readBuffer);
 				}
 				return floats;
 
 			case DOUBLES :
 				double[] doubles = new double[readLen(readBuffer)];
 				for (int i = 0; i < doubles.length; i++) {
-					doubles[i] = readNum(readBuffer);
+					doubles[i] = readDouble(readBuffer);
 				}
 				return doubles;
 
+			case PACKED_BOOLEANS :
+				// The remote end can read packed arrays too
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readBooleans(readBuffer, readLen(readBuffer));
+
+			case PACKED_SHORTS :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readShorts(readBuffer, readLen(readBuffer), ORDER);
+
+			case PACKED_CHARS :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readChars(readBuffer, readLen(readBuffer), ORDER);
+
+			case PACKED_INTS :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readInts(readBuffer, readLen(readBuffer), ORDER);
+
+			case PACKED_LONGS :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readLongs(readBuffer, readLen(readBuffer), ORDER);
+
+			case PACKED_FLOATS :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readFloats(readBuffer, readLen(readBuffer), ORDER);
+
+			case PACKED_DOUBLES :
+				SessionDictionary.packedArraysReceived();
+				return PrimitiveArrays.readDoubles(readBuffer, readLen(readBuffer), ORDER);
+
 			case CLASS :
 				return _metaClasses.loadClass(readString(readBuffer));
 
@@ -535,59 +575,101 @@ public class BinaryWireFormat implements WireFormat {
 			writeBuffer.writeBytes(bytes);
 			return;
 		} else if (object instanceof boolean[]) {
-			writeSTag(writeBuffer, SpecialTag.BOOLEANS);
 			boolean[] bools = (boolean[]) object;
-			writeNum(writeBuffer, bools.length);
-			for (boolean b : bools) {
-				writeBoolean(writeBuffer, b);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_BOOLEANS);
+				writeNum(writeBuffer, bools.length);
+				PrimitiveArrays.writeBooleans(writeBuffer, bools);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.BOOLEANS);
+				writeNum(writeBuffer, bools.length);
+				for (boolean b : bools) {
+					writeBoolean(writeBuffer, b);
+				}
 			}
 			return;
 		} else if (object instanceof short[]) {
-			writeSTag(writeBuffer, SpecialTag.SHORTS);
 			short[] shorts = (short[]) object;
-			writeNum(writeBuffer, shorts.length);
-			for (short s : shorts) {
-				writeNum(writeBuffer, s);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_SHORTS);
+				writeNum(writeBuffer, shorts.length);
+				PrimitiveArrays.writeShorts(writeBuffer, shorts, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.SHORTS);
+				writeNum(writeBuffer, shorts.length);
+				for (short s : shorts) {
+					writeNum(writeBuffer, s);
+				}
 			}
 			return;
 		} else if (object instanceof char[]) {
-			writeSTag(writeBuffer, SpecialTag.CHARS);
 			char[] chars = (char[]) object;
-			writeNum(writeBuffer, chars.length);
-			for (char c : chars) {
-				writeNum(writeBuffer, c);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_CHARS);
+				writeNum(writeBuffer, chars.length);
+				PrimitiveArrays.writeChars(writeBuffer, chars, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.CHARS);
+				writeNum(writeBuffer, chars.length);
+				for (char c : chars) {
+					writeNum(writeBuffer, c);
+				}
 			}
 			return;
 		} else if (object instanceof int[]) {
-			writeSTag(writeBuffer, SpecialTag.INTS);
 			int[] ints = (int[]) object;
-			writeNum(writeBuffer, ints.length);
-			for (int j : ints) {
-				writeNum(writeBuffer, j);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_INTS);
+				writeNum(writeBuffer, ints.length);
+				PrimitiveArrays.writeInts(writeBuffer, ints, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.INTS);
+				writeNum(writeBuffer, ints.length);
+				for (int j : ints) {
+					writeNum(writeBuffer, j);
+				}
 			}
 			return;
 		} else if (object instanceof long[]) {
-			writeSTag(writeBuffer, SpecialTag.LONGS);
 			long[] longs = (long[]) object;
-			writeNum(writeBuffer, longs.length);
-			for (long l : longs) {
-				writeNum(writeBuffer, l);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_LONGS);
+				writeNum(writeBuffer, longs.length);
+				PrimitiveArrays.writeLongs(writeBuffer, longs, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.LONGS);
+				writeNum(writeBuffer, longs.length);
+				for (long l : longs) {
+					writeNum(writeBuffer, l);
+				}
 			}
 			return;
 		} else if (object instanceof float[]) {
-			writeSTag(writeBuffer, SpecialTag.FLOATS);
 			float[] floats = (float[]) object;
-			writeNum(writeBuffer, floats.length);
-			for (float f : floats) {
-				writeDouble(writeBuffer, f);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_FLOATS);
+				writeNum(writeBuffer, floats.length);
+				PrimitiveArrays.writeFloats(writeBuffer, floats, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.FLOATS);
+				writeNum(writeBuffer, floats.length);
+				for (float f : floats) {
+					writeDouble(writeBuffer, f);
+				}
 			}
 			return;
 		} else if (object instanceof double[]) {
-			writeSTag(writeBuffer, SpecialTag.DOUBLES);
 			double[] doubles = (double[]) object;
-			writeNum(writeBuffer, doubles.length);
-			for (double d : doubles) {
-				writeDouble(writeBuffer, d);
+			if (SessionDictionary.packArrays()) {
+				writeSTag(writeBuffer, SpecialTag.PACKED_DOUBLES);
+				writeNum(writeBuffer, doubles.length);
+				PrimitiveArrays.writeDoubles(writeBuffer, doubles, ORDER);
+			} else {
+				writeSTag(writeBuffer, SpecialTag.DOUBLES);
+				writeNum(writeBuffer, doubles.length);
+				for (double d : doubles) {
+					writeDouble(writeBuffer, d);
+				}
 			}
 			return;
 		} else if (object.getClass()
@@ -710,6 +792,13 @@ public class BinaryWireFormat implements WireFormat {
 
 	@Override
 	public void writeTag(ByteBuf writeBuffer, String tag) {
+		final int sessionId = SessionDictionary.encode(tag);
+		if (sessionId >= 0) {
+			writeSTag(writeBuffer, SpecialTag.SESSION_TAG);
+			writeNum(writeBuffer, sessionId);
+			return;
+		}
+
 		writeSTag(writeBuffer, SpecialTag.TAG);
 		final Integer num = outTagMap.get(tag);
 		if (num == null) {
@@ -727,6 +816,11 @@ public class BinaryWireFormat implements WireFormat {
 		writeString0(writeBuffer, text);
 	}
 
+	/*
+	 * A string is written as a block of Latin-1 bytes, with 0xFF standing in
+	 * for each high char, followed by the high chars as UTF-16. Both are
+	 * written in one pass, with the block filled in place.
+	 */
 	private void writeString0(ByteBuf writeBuffer, CharSequence text) {
 		int len = text.length();
 		writeNum(writeBuffer, len);
@@ -735,27 +829,32 @@ public class BinaryWireFormat implements WireFormat {
 			return;
 		}
 
-		boolean hichars = false;
-		byte[] bytes = _outBytesArray;
+		writeBuffer.ensureWritable(len);
+		int start = writeBuffer.writerIndex();
+		writeBuffer.writerIndex(start + len);
 
-		for (int off = 0; off < len; off += BYTES_SIZE) {
-			int len2 = len - off < BYTES_SIZE ? len - off : BYTES_SIZE;
-			for (int i = 0; i < len2; i++) {
-				char ch = text.charAt(i + off);
+		if (writeBuffer.hasArray()) {
+			byte[] array = writeBuffer.array();
+			int base = writeBuffer.arrayOffset() + start;
+			for (int i = 0; i < len; i++) {
+				char ch = text.charAt(i);
 				if (ch < 255) {
-					bytes[i] = (byte) ch;
+					array[base + i] = (byte) ch;
 				} else {
-					bytes[i] = (byte) 255;
-					hichars = true;
+					array[base + i] = HICHAR;
+					writeBuffer.writeChar(ch);
+					// Appending may have moved the buffer to a new array
+					array = writeBuffer.array();
+					base = writeBuffer.arrayOffset() + start;
 				}
 			}
-			writeBuffer.writeBytes(bytes, 0, len2);
-		}
-
-		if (hichars) {
+		} else {
 			for (int i = 0; i < len; i++) {
 				char ch = text.charAt(i);
-				if (ch >= 255) {
+				if (ch < 255) {
+					writeBuffer.setByte(start + i, ch);
+				} else {
+					writeBuffer.setByte(start + i, HICHAR);
 					writeBuffer.writeChar(ch);
 				}
 			}
@@ -781,8 +880,8 @@ public class BinaryWireFormat implements WireFormat {
 		}
 	}
 
-	private final byte[]	inBytesArray	= new byte[BYTES_SIZE];
-	private final char[]	inCharsArray	= new char[BYTES_SIZE];
+	private final char[]		inCharsArray	= new char[BYTES_SIZE];
+	private final StringCache	stringCache		= StringCache.isEnabled() ? new StringCache() : null;
 
 	private String readString0(ByteBuf readBuffer) throws StreamCorruptedException {
 		int len = readLen(readBuffer);
@@ -790,27 +889,38 @@ public class BinaryWireFormat implements WireFormat {
 			return "";
 		}
 
-		byte[] bytes = len <= BYTES_SIZE ? inBytesArray : new byte[len];
-		readBuffer.readBytes(bytes, 0, len);
+		int start = readBuffer.readerIndex();
+		if (stringCache != null && len <= StringCache.MAX_LENGTH) {
+			int hash = 0;
+			int i = 0;
+			for (; i < len; i++) {
+				int b = readBuffer.getByte(start + i) & 0xFF;
+				if (b == 255) {
+					break;
+				}
+				hash = 31 * hash + b;
+			}
+			if (i == len) {
+				readBuffer.skipBytes(len);
+				return stringCache.get(readBuffer, start, len, hash);
+			}
+		} else if (readBuffer.bytesBefore(start, len, HICHAR) < 0) {
+			readBuffer.skipBytes(len);
+			return readBuffer.toString(start, len, CharsetUtil.ISO_8859_1);
+		}
 
+		// The high chars follow the Latin-1 block
 		char[] chars = len <= BYTES_SIZE ? inCharsArray : new char[len];
-		boolean hichars = false;
-
+		int hichars = start + len;
 		for (int i = 0; i < len; i++) {
-			final char ch = (char) (bytes[i] & 0xFF);
+			char ch = (char) (readBuffer.getByte(start + i) & 0xFF);
 			if (ch == 255) {
-				hichars = true;
+				ch = readBuffer.getChar(hichars);
+				hichars += 2;
 			}
 			chars[i] = ch;
 		}
-
-		if (hichars) {
-			for (int i = 0; i < len; i++) {
-				if (chars[i] == 255) {
-					chars[i] = readBuffer.readChar();
-				}
-			}
-		}
+		readBuffer.readerIndex(hichars);
 
 		return new String(chars, 0, len);
 	}
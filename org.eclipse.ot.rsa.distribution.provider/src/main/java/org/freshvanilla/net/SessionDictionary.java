@@ -0,0 +1,328 @@
+package org.freshvanilla.net;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * A dictionary of class names and tags shared by the two ends of a connection.
+ * <p>
+ * Each tag is given an id the first time that it is written, and from then on
+ * the {@link BinaryWireFormat} writes only the id. The definitions of new ids
+ * are not part of the serialized message, they are collected while the message
+ * is written and must be sent ahead of it using
+ * {@link Scope#writeDefinitions(ByteBuf)}. This means that the receiver learns
+ * every definition even if it never deserializes the message that used it.
+ * <p>
+ * The outbound side may be used by any number of threads at once. A tag whose
+ * definition has not yet been sent is defined again by every message that uses
+ * it, so messages written concurrently never depend on each other's
+ * definitions. The inbound side must only be used by one thread at a time.
+ * <p>
+ * A {@link BinaryWireFormat} uses the dictionary bound to the current thread
+ * by {@link #encoding(SessionDictionary)} or
+ * {@link #decoding(SessionDictionary)}. Other serializers may share it using
+ * {@link #encode(String)} and {@link #lookup(long)}.
+ * <p>
+ * The dictionary also records whether the connection writes primitive arrays
+ * using the packed encoding, which older peers cannot read. Like the
+ * dictionary itself this is turned on by configuration, or once the remote end
+ * has sent a packed array.
+ */
+public final class SessionDictionary {
+
+	/**
+	 * The maximum number of tags in a dictionary. Tags written once the
+	 * dictionary is full are written into the message as normal
+	 */
+	public static final int						MAX_ENTRIES		= 4096;
+
+	/**
+	 * The longest tag which will be added to a dictionary
+	 */
+	public static final int						MAX_TAG_LENGTH	= 1024;
+
+	private static final FastThreadLocal<Scope>	CURRENT			= new FastThreadLocal<>();
+
+	private static final String[]				NO_TAGS			= new String[0];
+
+	private static final class Definition {
+		final String		tag;
+		final int			id;
+		volatile boolean	sent;
+
+		Definition(String tag, int id) {
+			this.tag = tag;
+			this.id = id;
+		}
+	}
+
+	private final ConcurrentMap<String, Definition>	outbound	= new ConcurrentHashMap<>();
+
+	private final AtomicInteger						nextId		= new AtomicInteger();
+
+	private String[]								inbound		= NO_TAGS;
+
+	private volatile boolean						sending;
+
+	private volatile boolean						packingArrays;
+
+	/**
+	 * Create a dictionary which does not pack primitive arrays
+	 *
+	 * @param sending <code>true</code> if outgoing messages should use the
+	 *            dictionary immediately, <code>false</code> if they should only
+	 *            do so once the remote end has shown that it supports
+	 *            dictionaries by sending some definitions
+	 */
+	public SessionDictionary(boolean sending) {
+		this(sending, false);
+	}
+
+	/**
+	 * Create a dictionary
+	 *
+	 * @param sending <code>true</code> if outgoing messages should use the
+	 *            dictionary immediately, <code>false</code> if they should only
+	 *            do so once the remote end has shown that it supports
+	 *            dictionaries by sending some definitions
+	 * @param packingArrays <code>true</code> if outgoing messages should pack
+	 *            primitive arrays immediately, <code>false</code> if they
+	 *            should only do so once the remote end has sent a packed array
+	 */
+	public SessionDictionary(boolean sending, boolean packingArrays) {
+		this.sending = sending;
+		this.packingArrays = packingArrays;
+	}
+
+	/**
+	 * @return <code>true</code> if outgoing messages use the dictionary
+	 */
+	public boolean isSending() {
+		return sending;
+	}
+
+	/**
+	 * @return <code>true</code> if outgoing messages pack primitive arrays
+	 */
+	public boolean isPackingArrays() {
+		return packingArrays;
+	}
+
+	/**
+	 * @return the number of tags defined for outgoing messages
+	 */
+	public int getOutboundSize() {
+		return outbound.size();
+	}
+
+	/**
+	 * Read a set of definitions sent by the remote end, see
+	 * {@link Scope#writeDefinitions(ByteBuf)}. Receiving definitions enables
+	 * the dictionary for outgoing messages too.
+	 *
+	 * @param buffer the definitions
+	 * @throws StreamCorruptedException if the definitions are not valid
+	 */
+	public void readDefinitions(ByteBuf buffer) throws StreamCorruptedException {
+		int count = buffer.readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			int id = buffer.readUnsignedShort();
+			int length = buffer.readUnsignedShort();
+			if (id >= MAX_ENTRIES || length > buffer.readableBytes()) {
+				throw new StreamCorruptedException("Invalid session tag definition " + id);
+			}
+			String tag = buffer.readCharSequence(length, StandardCharsets.UTF_8)
+				.toString();
+			if (id >= inbound.length) {
+				inbound = Arrays.copyOf(inbound, Math.min(MAX_ENTRIES, Math.max(id + 1, inbound.length * 2)));
+			}
+			inbound[id] = tag;
+		}
+		sending = true;
+	}
+
+	private Definition newDefinition(String tag) {
+		int id = nextId.getAndUpdate(i -> i < MAX_ENTRIES ? i + 1 : i);
+		return id < MAX_ENTRIES ? new Definition(tag, id) : null;
+	}
+
+	/**
+	 * Bind a dictionary to the current thread for writing a message. The
+	 * returned scope must be closed once the message has been written.
+	 *
+	 * @param dictionary the dictionary, may be <code>null</code> if the
+	 *            connection has none
+	 * @return the scope for the message
+	 */
+	public static Scope encoding(SessionDictionary dictionary) {
+		return bind(dictionary, true);
+	}
+
+	/**
+	 * Bind a dictionary to the current thread for reading a message. The
+	 * returned scope must be closed once the message has been read.
+	 *
+	 * @param dictionary the dictionary, may be <code>null</code> if the
+	 *            connection has none
+	 * @return the scope for the message
+	 */
+	public static Scope decoding(SessionDictionary dictionary) {
+		return bind(dictionary, false);
+	}
+
+	private static Scope bind(SessionDictionary dictionary, boolean encoding) {
+		Scope scope = new Scope(dictionary, encoding, CURRENT.get());
+		CURRENT.set(scope);
+		return scope;
+	}
+
+	/**
+	 * Encode a tag using the dictionary bound to the current thread
+	 *
+	 * @param tag the tag
+	 * @return the id to write for the tag, or -1 if the tag must be written
+	 *         into the message
+	 */
+	public static int encode(String tag) {
+		Scope scope = CURRENT.get();
+		return scope == null ? -1 : scope.encode(tag);
+	}
+
+	/**
+	 * Decode a tag using the dictionary bound to the current thread
+	 *
+	 * @param id an id returned by {@link #encode(String)} at the remote end
+	 * @return the tag
+	 * @throws StreamCorruptedException if the id is not defined
+	 */
+	public static String lookup(long id) throws StreamCorruptedException {
+		Scope scope = CURRENT.get();
+		if (scope == null || scope.encoding || scope.dictionary == null) {
+			throw new StreamCorruptedException("Received session tag " + id + " without a session dictionary");
+		}
+		String[] tags = scope.dictionary.inbound;
+		String tag = id >= 0 && id < tags.length ? tags[(int) id] : null;
+		if (tag == null) {
+			throw new StreamCorruptedException("Invalid session tag num= " + id);
+		}
+		return tag;
+	}
+
+	/**
+	 * @return <code>true</code> if the message being written by the current
+	 *         thread should pack its primitive arrays. Without a dictionary
+	 *         the encoding understood by every peer is used.
+	 */
+	public static boolean packArrays() {
+		Scope scope = CURRENT.get();
+		return scope != null && scope.encoding && scope.dictionary != null && scope.dictionary.packingArrays;
+	}
+
+	/**
+	 * Record that the message being read by the current thread contained a
+	 * packed array, so the remote end can read them too
+	 */
+	public static void packedArraysReceived() {
+		Scope scope = CURRENT.get();
+		if (scope != null && !scope.encoding && scope.dictionary != null) {
+			scope.dictionary.packingArrays = true;
+		}
+	}
+
+	/**
+	 * The use of a dictionary by a single message
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final SessionDictionary	dictionary;
+		private final boolean			encoding;
+		private final Scope				previous;
+
+		private List<Definition>		definitions;
+
+		Scope(SessionDictionary dictionary, boolean encoding, Scope previous) {
+			this.dictionary = dictionary;
+			this.encoding = encoding;
+			this.previous = previous;
+		}
+
+		int encode(String tag) {
+			if (!encoding || dictionary == null || !dictionary.sending || tag.length() > MAX_TAG_LENGTH) {
+				return -1;
+			}
+			Definition d = dictionary.outbound.get(tag);
+			if (d == null) {
+				if (dictionary.nextId.get() >= MAX_ENTRIES) {
+					return -1;
+				}
+				d = dictionary.outbound.computeIfAbsent(tag, dictionary::newDefinition);
+				if (d == null) {
+					return -1;
+				}
+			}
+			if (!d.sent) {
+				if (definitions == null) {
+					definitions = new ArrayList<>();
+				}
+				if (!definitions.contains(d)) {
+					definitions.add(d);
+				}
+			}
+			return d.id;
+		}
+
+		/**
+		 * @return <code>true</code> if the message used tags which must be
+		 *         defined before it is sent
+		 */
+		public boolean hasDefinitions() {
+			return definitions != null && !definitions.isEmpty();
+		}
+
+		/**
+		 * Write the definitions needed by the message. The definitions must
+		 * reach the remote end before the message, and once
+		 * {@link #definitionsSent()} is called other messages will assume that
+		 * they do.
+		 *
+		 * @param buffer the buffer to write to
+		 */
+		public void writeDefinitions(ByteBuf buffer) {
+			buffer.writeShort(definitions.size());
+			for (Definition d : definitions) {
+				buffer.writeShort(d.id);
+				int lengthIdx = buffer.writerIndex();
+				buffer.writeShort(0);
+				int length = ByteBufUtil.writeUtf8(buffer, d.tag);
+				buffer.setShort(lengthIdx, length);
+			}
+		}
+
+		/**
+		 * Record that the definitions written by
+		 * {@link #writeDefinitions(ByteBuf)} have been queued for sending ahead
+		 * of any message written after this call
+		 */
+		public void definitionsSent() {
+			for (Definition d : definitions) {
+				d.sent = true;
+			}
+			definitions.clear();
+		}
+
+		@Override
+		public void close() {
+			CURRENT.set(previous);
+		}
+	}
+}
@@ -47,5 +47,13 @@ enum SpecialTag {
 	INTS,
 	LONGS,
 	FLOATS,
-	DOUBLES
+	DOUBLES,
+	SESSION_TAG,
+	PACKED_BOOLEANS,
+	PACKED_SHORTS,
+	PACKED_CHARS,
+	PACKED_INTS,
+	PACKED_LONGS,
+	PACKED_FLOATS,
+	PACKED_DOUBLES
 }
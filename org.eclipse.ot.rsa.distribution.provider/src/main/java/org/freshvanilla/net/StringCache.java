@@ -0,0 +1,64 @@
+package org.freshvanilla.net;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+
+/**
+ * A small cache of the short strings read by one {@link BinaryWireFormat}, so
+ * that the values which repeat from message to message, such as map keys,
+ * enum-like values and field values, are not decoded and allocated again.
+ * <p>
+ * The cache is direct mapped by hash code, so a string only evicts the one
+ * which shares its slot, and looking a string up costs no more than decoding
+ * it. Only strings without high chars are cached.
+ */
+final class StringCache {
+
+	/**
+	 * The system property setting the length of the longest string which is
+	 * cached, 32 by default. Setting it to zero disables the cache.
+	 */
+	static final String			MAX_LENGTH_PROPERTY	= "org.freshvanilla.string.cache.length";
+
+	static final int			MAX_LENGTH			= Integer.getInteger(MAX_LENGTH_PROPERTY, 32);
+
+	private static final int	SIZE				= 1024;
+
+	private final String[]		strings				= new String[SIZE];
+
+	static boolean isEnabled() {
+		return MAX_LENGTH > 0;
+	}
+
+	/**
+	 * Get the string encoded as Latin-1 in a buffer
+	 *
+	 * @param buf the buffer
+	 * @param index the index of the first byte
+	 * @param length the length of the string, no more than {@link #MAX_LENGTH}
+	 * @param hash the {@link String#hashCode()} of the string
+	 * @return the string
+	 */
+	String get(ByteBuf buf, int index, int length, int hash) {
+		int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+		String s = strings[slot];
+		if (s != null && s.hashCode() == hash && matches(s, buf, index, length)) {
+			return s;
+		}
+		s = buf.toString(index, length, CharsetUtil.ISO_8859_1);
+		strings[slot] = s;
+		return s;
+	}
+
+	private static boolean matches(String s, ByteBuf buf, int index, int length) {
+		if (s.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (s.charAt(i) != (buf.getByte(index + i) & 0xFF)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
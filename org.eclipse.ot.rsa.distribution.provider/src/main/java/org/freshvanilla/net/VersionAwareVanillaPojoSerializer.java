@@ -32,7 +32,14 @@ public class VersionAwareVanillaPojoSerializer extends VanillaPojoSerializer {
 
 	@Override
 	public <Pojo> Pojo deserialize(ByteBuf rb, WireFormat wf) throws ClassNotFoundException, IOException {
-		String classWithParameters = (String) wf.readObject(rb);
+		return deserialize(rb, wf, (String) wf.readObject(rb));
+	}
+
+	/**
+	 * Read the fields of a POJO whose class tag has already been read
+	 */
+	protected <Pojo> Pojo deserialize(ByteBuf rb, WireFormat wf, String classWithParameters)
+		throws ClassNotFoundException, IOException {
 		MetaClass<Pojo> clazz = _metaClasses.acquireMetaClass(classWithParameters);
 
 		Pojo pojo;
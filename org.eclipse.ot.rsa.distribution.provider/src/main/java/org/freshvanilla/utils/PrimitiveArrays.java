@@ -0,0 +1,219 @@
+package org.freshvanilla.utils;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Copies whole primitive arrays to and from a {@link ByteBuf} as fixed width
+ * values, using a {@link ByteBuffer} view so that the copy is a bulk operation
+ * rather than one bounds checked call per element.
+ * <p>
+ * The read methods check that the buffer holds the whole array before
+ * allocating it, so a corrupt length cannot cause a huge allocation.
+ */
+public final class PrimitiveArrays {
+
+	private PrimitiveArrays() {
+		// not used
+	}
+
+	/*
+	 * A view of the next bytes to be written, or null if the buffer cannot
+	 * expose them as a single shared NIO buffer. The writer index is moved
+	 * past the bytes.
+	 */
+	private static ByteBuffer writeView(ByteBuf buf, int bytes, ByteOrder order) {
+		buf.ensureWritable(bytes);
+		if (buf.nioBufferCount() != 1) {
+			return null;
+		}
+		int idx = buf.writerIndex();
+		ByteBuffer view = buf.nioBuffer(idx, bytes)
+			.order(order);
+		buf.writerIndex(idx + bytes);
+		return view;
+	}
+
+	/*
+	 * A view of the next bytes to be read. The reader index is moved past the
+	 * bytes.
+	 */
+	private static ByteBuffer readView(ByteBuf buf, int length, int width, ByteOrder order)
+		throws StreamCorruptedException {
+		long bytes = (long) length * width;
+		if (length < 0 || bytes > buf.readableBytes()) {
+			throw new StreamCorruptedException("Array length " + length + " exceeds the remaining " + buf.readableBytes()
+				+ " bytes");
+		}
+		int idx = buf.readerIndex();
+		ByteBuffer view = buf.nioBuffer(idx, (int) bytes)
+			.order(order);
+		buf.readerIndex(idx + (int) bytes);
+		return view;
+	}
+
+	public static void writeBooleans(ByteBuf buf, boolean[] array) {
+		buf.ensureWritable(array.length);
+		int idx = buf.writerIndex();
+		for (int i = 0; i < array.length; i++) {
+			buf.setByte(idx + i, array[i] ? 1 : 0);
+		}
+		buf.writerIndex(idx + array.length);
+	}
+
+	public static boolean[] readBooleans(ByteBuf buf, int length) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 1, ByteOrder.BIG_ENDIAN);
+		boolean[] array = new boolean[length];
+		for (int i = 0; i < length; i++) {
+			array[i] = view.get() != 0;
+		}
+		return array;
+	}
+
+	public static void writeShorts(ByteBuf buf, short[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 2, order);
+		if (view != null) {
+			view.asShortBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (short v : array) {
+				buf.writeShort(v);
+			}
+		} else {
+			for (short v : array) {
+				buf.writeShortLE(v);
+			}
+		}
+	}
+
+	public static short[] readShorts(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 2, order);
+		short[] array = new short[length];
+		view.asShortBuffer()
+			.get(array);
+		return array;
+	}
+
+	public static void writeChars(ByteBuf buf, char[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 2, order);
+		if (view != null) {
+			view.asCharBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (char v : array) {
+				buf.writeChar(v);
+			}
+		} else {
+			for (char v : array) {
+				buf.writeShortLE(v);
+			}
+		}
+	}
+
+	public static char[] readChars(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 2, order);
+		char[] array = new char[length];
+		view.asCharBuffer()
+			.get(array);
+		return array;
+	}
+
+	public static void writeInts(ByteBuf buf, int[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 4, order);
+		if (view != null) {
+			view.asIntBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (int v : array) {
+				buf.writeInt(v);
+			}
+		} else {
+			for (int v : array) {
+				buf.writeIntLE(v);
+			}
+		}
+	}
+
+	public static int[] readInts(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 4, order);
+		int[] array = new int[length];
+		view.asIntBuffer()
+			.get(array);
+		return array;
+	}
+
+	public static void writeLongs(ByteBuf buf, long[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 8, order);
+		if (view != null) {
+			view.asLongBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (long v : array) {
+				buf.writeLong(v);
+			}
+		} else {
+			for (long v : array) {
+				buf.writeLongLE(v);
+			}
+		}
+	}
+
+	public static long[] readLongs(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 8, order);
+		long[] array = new long[length];
+		view.asLongBuffer()
+			.get(array);
+		return array;
+	}
+
+	public static void writeFloats(ByteBuf buf, float[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 4, order);
+		if (view != null) {
+			view.asFloatBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (float v : array) {
+				buf.writeFloat(v);
+			}
+		} else {
+			for (float v : array) {
+				buf.writeFloatLE(v);
+			}
+		}
+	}
+
+	public static float[] readFloats(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 4, order);
+		float[] array = new float[length];
+		view.asFloatBuffer()
+			.get(array);
+		return array;
+	}
+
+	public static void writeDoubles(ByteBuf buf, double[] array, ByteOrder order) {
+		ByteBuffer view = writeView(buf, array.length * 8, order);
+		if (view != null) {
+			view.asDoubleBuffer()
+				.put(array);
+		} else if (order == ByteOrder.BIG_ENDIAN) {
+			for (double v : array) {
+				buf.writeDouble(v);
+			}
+		} else {
+			for (double v : array) {
+				buf.writeDoubleLE(v);
+			}
+		}
+	}
+
+	public static double[] readDoubles(ByteBuf buf, int length, ByteOrder order) throws StreamCorruptedException {
+		ByteBuffer view = readView(buf, length, 8, order);
+		double[] array = new double[length];
+		view.asDoubleBuffer()
+			.get(array);
+		return array;
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.activator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ot.rsa.distribution.provider.server.Bulkhead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+
+public class VirtualThreadExecutorGroupTest {
+
+	VirtualThreadExecutorGroup group;
+
+	@BeforeEach
+	public void setUp() {
+		assumeTrue(VirtualThreadExecutorGroup.isSupported(), "Virtual threads are not supported");
+		group = new VirtualThreadExecutorGroup(2);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		if (group != null) {
+			group.shutdownGracefully()
+				.await(1, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void testConcurrencyLimit() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Object> first = group.submit(() -> {
+			release.await();
+			return null;
+		});
+		Future<Object> second = group.submit(() -> {
+			release.await();
+			return null;
+		});
+
+		assertThatThrownBy(() -> group.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+
+		release.countDown();
+		first.sync();
+		second.sync();
+
+		assertThat(group.submit(() -> "third")
+			.sync()
+			.getNow()).isEqualTo("third");
+	}
+
+	@Test
+	public void testListenersNotifiedWhenSaturated() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Object> first = group.submit(() -> {
+			release.await();
+			return null;
+		});
+		Future<Object> second = group.submit(() -> {
+			release.await();
+			return null;
+		});
+		assertThatThrownBy(() -> group.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+
+		// Completed here, so the listener is notified by a task on the group
+		Promise<String> promise = group.next()
+			.newPromise();
+		promise.setSuccess("done");
+		CountDownLatch notified = new CountDownLatch(1);
+		promise.addListener(f -> notified.countDown());
+		assertThat(notified.await(1, TimeUnit.SECONDS)).isTrue();
+
+		// The bulkhead hands over with submit, so it is limited
+		Bulkhead bulkhead = new Bulkhead("test", group, 1, -1);
+		assertThat(bulkhead.submit(() -> null)
+			.await(1000)).isTrue();
+		assertThat(bulkhead.getRejectedCount()).isEqualTo(1);
+
+		release.countDown();
+		first.sync();
+		second.sync();
+	}
+
+	@Test
+	public void testShutdown() throws Exception {
+		group.shutdownGracefully();
+		assertThat(group.terminationFuture()
+			.await(1000)).isTrue();
+		assertThatThrownBy(() -> group.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+
+		// Listener notifications still run
+		Promise<String> promise = group.next()
+			.newPromise();
+		promise.setSuccess("done");
+		CountDownLatch notified = new CountDownLatch(1);
+		promise.addListener(f -> notified.countDown());
+		assertThat(notified.await(1, TimeUnit.SECONDS)).isTrue();
+	}
+}
@@ -60,11 +60,11 @@ import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
 import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage;
 import org.eclipse.ot.rsa.distribution.provider.promise.RSAPromiseFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.CompletedPromise;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializerFactory;
 import org.eclipse.ot.rsa.distribution.provider.test.AbstractLeakCheckingTest;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -148,7 +148,7 @@ public abstract class AbstractClientConnectionManagerTest extends AbstractLeakCh
 
 		clientConnectionManager = new ClientConnectionManager(Converters.standardConverter()
 			.convert(config)
-			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, executor, timer);
+			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, executor);
 	}
 
 	@AfterEach
@@ -20,9 +20,9 @@ import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.freshvanilla.lang.MetaClasses;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+
+import org.eclipse.ot.rsa.distribution.provider.client.ClientChannelPool.Strategy;
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class ClientChannelPoolTest {
+
+	private EmbeddedChannel newChannel() {
+		return new EmbeddedChannel(new ClientInboundHandler(mock(ClientConnectionManager.class)));
+	}
+
+	@Test
+	public void testRoundRobin() {
+		EmbeddedChannel primary = newChannel();
+		EmbeddedChannel second = newChannel();
+		ClientChannelPool pool = new ClientChannelPool(primary, Strategy.ROUND_ROBIN);
+		pool.join(second);
+
+		assertThat(pool.next()).isSameAs(primary);
+		assertThat(pool.next()).isSameAs(second);
+		assertThat(pool.next()).isSameAs(primary);
+		assertThat(ClientChannelPool.primaryOf(second)).isSameAs(primary);
+	}
+
+	@Test
+	public void testLeastPending() {
+		EmbeddedChannel primary = newChannel();
+		EmbeddedChannel second = newChannel();
+		ClientChannelPool pool = new ClientChannelPool(primary, Strategy.LEAST_PENDING);
+		pool.join(second);
+
+		primary.pipeline()
+			.get(ClientInboundHandler.class)
+			.registerInvocation(new StubInvocation(new UUID(1, 2), 1));
+
+		assertThat(pool.next()).isSameAs(second);
+		assertThat(pool.next()).isSameAs(second);
+	}
+
+	@Test
+	public void testClosedMemberLeavesPool() {
+		EmbeddedChannel primary = newChannel();
+		EmbeddedChannel second = newChannel();
+		ClientChannelPool pool = new ClientChannelPool(primary, Strategy.ROUND_ROBIN);
+		pool.join(second);
+
+		second.close();
+
+		assertThat(pool.size()).isEqualTo(1);
+		for (int i = 0; i < 4; i++) {
+			assertThat(pool.next()).isSameAs(primary);
+		}
+	}
+
+	@Test
+	public void testUnpooledChannel() {
+		Channel channel = newChannel();
+		assertThat(ClientChannelPool.callChannels(channel)
+			.get()).isSameAs(channel);
+		assertThat(ClientChannelPool.primaryOf(channel)).isSameAs(channel);
+	}
+
+	@Test
+	public void testOptions() {
+		assertThat(ClientChannelPool.poolSize(new ProtocolScheme("TCP"))).isEqualTo(1);
+		assertThat(ClientChannelPool.poolSize(new ProtocolScheme("TCP;connections.per.endpoint=4"))).isEqualTo(4);
+		assertThat(ClientChannelPool.poolSize(new ProtocolScheme("TCP;connections.per.endpoint=0"))).isEqualTo(1);
+		assertThat(ClientChannelPool.strategy(new ProtocolScheme("TCP"))).isEqualTo(Strategy.ROUND_ROBIN);
+		assertThat(ClientChannelPool.strategy(new ProtocolScheme("TCP;connections.strategy=least-pending")))
+			.isEqualTo(Strategy.LEAST_PENDING);
+		assertThat(ClientChannelPool.strategy(new ProtocolScheme("TCP;connections.strategy=fastest")))
+			.isEqualTo(Strategy.ROUND_ROBIN);
+	}
+}
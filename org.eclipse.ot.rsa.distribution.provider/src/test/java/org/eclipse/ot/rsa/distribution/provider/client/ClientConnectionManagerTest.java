@@ -12,11 +12,19 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.client;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
+
 import java.net.InetAddress;
 import java.net.ServerSocket;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.Channel;
+import io.netty.util.concurrent.Future;
+
 public class ClientConnectionManagerTest extends AbstractClientConnectionManagerTest {
 
 	@Override
@@ -36,4 +44,15 @@ public class ClientConnectionManagerTest extends AbstractClientConnectionManager
 	protected ServerSocket getConfiguredSocket() throws Exception {
 		return new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
 	}
+
+	@Test
+	public void testConcurrentConnectsShareOneChannel() throws Exception {
+		URI uri = new URI(runTCPServer());
+
+		Future<Channel> first = clientConnectionManager.connectTo(uri, ed);
+		Future<Channel> second = clientConnectionManager.connectTo(uri, ed);
+
+		assertSame(first.get(), second.get());
+		assertSame(first.get(), clientConnectionManager.getChannelFor(uri, ed));
+	}
 }
@@ -22,10 +22,10 @@ import java.util.stream.Stream;
 
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializer;
 import org.eclipse.ot.rsa.distribution.provider.test.AbstractLeakCheckingTest;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.eclipse.ot.rsa.test.RSATestServer;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.junit.jupiter.api.AfterEach;
@@ -89,7 +89,7 @@ public abstract class ClientConnectionTest extends AbstractLeakCheckingTest {
 
 		clientConnectionManager = new ClientConnectionManager(Converters.standardConverter()
 			.convert(config)
-			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, executor, timer);
+			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, executor);
 	}
 
 	@AfterEach
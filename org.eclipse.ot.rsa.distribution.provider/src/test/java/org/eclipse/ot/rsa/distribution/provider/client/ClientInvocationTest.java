@@ -24,10 +24,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.ot.rsa.distribution.provider.promise.RSAPromiseFactory;
 import org.eclipse.ot.rsa.distribution.provider.serialize.CompletedPromise;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.freshvanilla.lang.MetaClasses;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,27 +12,25 @@
  */
 package org.eclipse.ot.rsa.distribution.provider.client;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.after;
-import static org.mockito.Mockito.timeout;
 
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import javax.sound.sampled.UnsupportedAudioFileException;
 
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.awaitility.Awaitility;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V1;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -44,9 +42,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.util.Timeout;
-import io.netty.util.Timer;
-import io.netty.util.TimerTask;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.util.concurrent.DefaultEventExecutor;
 import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.Promise;
@@ -55,10 +51,6 @@ import io.netty.util.concurrent.Promise;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class ClientResponseHandlerTest {
 
-	@Mock
-	Timer						timer;
-	@Mock
-	Timeout						timeout;
 	@Mock
 	Channel						channel;
 	@Mock
@@ -80,15 +72,12 @@ public class ClientResponseHandlerTest {
 
 	@BeforeEach
 	public void setUp() {
-		Mockito.when(timer.newTimeout(any(), ArgumentMatchers.anyLong(), any()))
-			.thenReturn(timeout);
-
 		executor = new DefaultEventExecutor();
 
 		nettyPromiseSupplier = () -> executor.next()
 			.newPromise();
 
-		impl = new ClientInboundHandler(ccm, timer);
+		impl = new ClientInboundHandler(ccm);
 	}
 
 	@AfterEach
@@ -156,14 +145,11 @@ public class ClientResponseHandlerTest {
 
 		assertTrue(ci.getResult()
 			.isSuccess());
-		Mockito.verify(timeout, timeout(100))
-			.cancel();
+		assertTrue(impl.pendingCalls() == 0);
 
 		buf.resetReaderIndex();
 		impl.channelRead(ctx, buf);
 		assertEquals(refCnt - 2, buf.refCnt());
-		Mockito.verify(timeout, after(100))
-			.cancel();
 	}
 
 	private void assertEquals(int i, int refCnt) {
@@ -173,21 +159,28 @@ public class ClientResponseHandlerTest {
 
 	@Test
 	public void testTimeoutCleansUp() throws Exception {
+		EmbeddedChannel channel = new EmbeddedChannel(impl);
+
 		ClientInvocation ci = new ClientInvocation(true, serviceId, -1, 42, new Object[0], new int[0], new int[0],
-			serializer, null, nettyPromiseSupplier.get(), new AtomicLong(3000), "test");
+			serializer, null, nettyPromiseSupplier.get(), new AtomicLong(20), "test");
 
 		impl.registerInvocation(ci);
-
-		ArgumentCaptor<TimerTask> taskCaptor = ArgumentCaptor.forClass(TimerTask.class);
-		Mockito.verify(timer)
-			.newTimeout(taskCaptor.capture(), ArgumentMatchers.anyLong(), any());
-
-		Mockito.when(timeout.isExpired())
-			.thenReturn(Boolean.TRUE);
-		taskCaptor.getValue()
-			.run(timeout);
-		assertTrue(ci.getResult()
-			.isDone());
+		assertTrue(impl.pendingCalls() == 1);
+
+		Awaitility.await()
+			.atMost(1, TimeUnit.SECONDS)
+			.until(() -> {
+				channel.runScheduledPendingTasks();
+				return ci.getResult()
+					.isDone();
+			});
+
+		assertInstanceOf(TimeoutException.class, ci.getResult()
+			.cause()
+			.getCause());
+		assertTrue(impl.pendingCalls() == 0);
+		Mockito.verify(ccm)
+			.notifyTimedOut(1);
 
 		ByteBuf buf = allocator.heapBuffer();
 		buf.writeByte(Protocol_V1.SUCCESS_RESPONSE);
@@ -197,8 +190,34 @@ public class ClientResponseHandlerTest {
 
 		impl.channelRead(ctx, buf);
 
-		Mockito.verify(timeout, Mockito.never())
-			.cancel();
+		channel.finishAndReleaseAll();
+	}
+
+	@Test
+	public void testCallsWithinDeadlineDoNotTimeOut() throws Exception {
+		EmbeddedChannel channel = new EmbeddedChannel(impl);
+
+		ClientInvocation slow = new ClientInvocation(true, serviceId, -1, 42, new Object[0], new int[0], new int[0],
+			serializer, null, nettyPromiseSupplier.get(), new AtomicLong(20), "test");
+		ClientInvocation patient = new ClientInvocation(true, serviceId, -1, 43, new Object[0], new int[0],
+			new int[0], serializer, null, nettyPromiseSupplier.get(), new AtomicLong(60000), "test");
+
+		impl.registerInvocation(patient);
+		impl.registerInvocation(slow);
+
+		Awaitility.await()
+			.atMost(1, TimeUnit.SECONDS)
+			.until(() -> {
+				channel.runScheduledPendingTasks();
+				return slow.getResult()
+					.isDone();
+			});
+
+		assertTrue(!patient.getResult()
+			.isDone());
+		assertTrue(impl.pendingCalls() == 1);
+
+		channel.finishAndReleaseAll();
 	}
 
 	@Test
@@ -212,8 +231,7 @@ public class ClientResponseHandlerTest {
 
 		assertTrue(ci.getResult()
 			.isDone());
-		Mockito.verify(timeout, timeout(100))
-			.cancel();
+		assertTrue(impl.pendingCalls() == 0);
 		assertNotNull(ci.getResult()
 			.cause());
 	}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage.CacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the pending call table with the map it replaced. Each operation
+ * sends one call and receives the response to the oldest outstanding call, so
+ * the table holds a steady number of outstanding calls.
+ * <p>
+ * Run with {@link #main(String[])}, e.g. from the IDE, adding
+ * <code>-prof gc</code> to the options to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PendingCallsBenchmark {
+
+	@Param({
+		"16", "1024", "131072"
+	})
+	int															outstanding;
+
+	StubInvocation[]											invocations;
+	int															next;
+
+	PendingCalls												pendingCalls;
+	ConcurrentMap<CacheKey, AbstractClientInvocationWithResult>	map;
+
+	@Setup
+	public void setUp() {
+		UUID serviceId = UUID.randomUUID();
+		invocations = new StubInvocation[outstanding * 2];
+		for (int i = 0; i < invocations.length; i++) {
+			invocations[i] = new StubInvocation(serviceId, i);
+		}
+
+		pendingCalls = new PendingCalls();
+		map = new ConcurrentHashMap<>();
+		for (int i = 0; i < outstanding; i++) {
+			pendingCalls.put(invocations[i]);
+			map.put(invocations[i].getKey(), invocations[i]);
+		}
+		next = outstanding;
+	}
+
+	private StubInvocation toSend() {
+		StubInvocation invocation = invocations[next];
+		next = (next + 1) % invocations.length;
+		return invocation;
+	}
+
+	private StubInvocation toReceive() {
+		return invocations[(next + outstanding) % invocations.length];
+	}
+
+	@Benchmark
+	public AbstractClientInvocationWithResult pendingCalls() {
+		StubInvocation response = toReceive();
+		pendingCalls.put(toSend());
+		// The inbound frame is decoded straight into the key
+		UUID id = response.getServiceId();
+		return pendingCalls.remove(id.getMostSignificantBits(), id.getLeastSignificantBits(), response.getCallId());
+	}
+
+	@Benchmark
+	public AbstractClientInvocationWithResult concurrentMap() {
+		StubInvocation response = toReceive();
+		StubInvocation sent = toSend();
+		map.put(sent.getKey(), sent);
+		// The inbound frame used to be decoded into a new UUID and key
+		UUID id = response.getServiceId();
+		return map.remove(
+			new CacheKey(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits()), response.getCallId()));
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(PendingCallsBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
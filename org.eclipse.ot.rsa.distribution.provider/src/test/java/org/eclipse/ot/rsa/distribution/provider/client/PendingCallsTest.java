@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.eclipse.ot.rsa.distribution.provider.message.AbstractRSAMessage.CacheKey;
+import org.junit.jupiter.api.Test;
+
+public class PendingCallsTest {
+
+	final UUID	serviceA	= new UUID(1, 2);
+	final UUID	serviceB	= new UUID(3, 4);
+
+	@Test
+	public void testSameCallIdDifferentService() {
+		PendingCalls calls = new PendingCalls();
+		StubInvocation a = new StubInvocation(serviceA, 7);
+		StubInvocation b = new StubInvocation(serviceB, 7);
+
+		assertThat(calls.put(a)).isNull();
+		assertThat(calls.put(b)).isNull();
+		assertThat(calls.size()).isEqualTo(2);
+
+		assertThat(calls.get(1, 2, 7)).isSameAs(a);
+		assertThat(calls.remove(3, 4, 7)).isSameAs(b);
+		assertThat(calls.get(3, 4, 7)).isNull();
+		assertThat(calls.get(1, 2, 7)).isSameAs(a);
+		assertThat(calls.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testReplaceAndRemoveByIdentity() {
+		PendingCalls calls = new PendingCalls();
+		StubInvocation first = new StubInvocation(serviceA, 1);
+		StubInvocation second = new StubInvocation(serviceA, 1);
+
+		calls.put(first);
+		assertThat(calls.put(second)).isSameAs(first);
+
+		// A stale timeout for the first call must not remove the second
+		assertThat(calls.remove(first)).isFalse();
+		assertThat(calls.remove(second)).isTrue();
+		assertThat(calls.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testManyOutstandingCalls() {
+		PendingCalls calls = new PendingCalls();
+		int count = 200_000;
+		for (int i = 0; i < count; i++) {
+			calls.put(new StubInvocation((i & 1) == 0 ? serviceA : serviceB, i >> 1));
+		}
+		assertThat(calls.size()).isEqualTo(count);
+		for (int i = 0; i < count; i++) {
+			UUID id = (i & 1) == 0 ? serviceA : serviceB;
+			assertThat(calls.remove(id.getMostSignificantBits(), id.getLeastSignificantBits(), i >> 1)).isNotNull();
+		}
+		assertThat(calls.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testRandomOperationsMatchMap() {
+		PendingCalls calls = new PendingCalls();
+		Map<CacheKey, StubInvocation> expected = new HashMap<>();
+		UUID[] services = {
+			serviceA, serviceB, new UUID(5, 6)
+		};
+		Random r = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			UUID id = services[r.nextInt(services.length)];
+			int callId = r.nextInt(512);
+			CacheKey key = new CacheKey(id, callId);
+			if (r.nextBoolean()) {
+				StubInvocation invocation = new StubInvocation(id, callId);
+				assertThat(calls.put(invocation)).isSameAs(expected.put(key, invocation));
+			} else {
+				assertThat(calls.remove(id.getMostSignificantBits(), id.getLeastSignificantBits(), callId))
+					.isSameAs(expected.remove(key));
+			}
+			assertThat(calls.size()).isEqualTo(expected.size());
+		}
+
+		expected.forEach((k, v) -> assertThat(calls.get(v.getServiceId()
+			.getMostSignificantBits(),
+			v.getServiceId()
+				.getLeastSignificantBits(),
+			v.getCallId())).isSameAs(v));
+
+		assertThat(calls.clear()).hasSize(expected.size());
+		assertThat(calls.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void testExpire() {
+		PendingCalls calls = new PendingCalls();
+		StubInvocation early = new StubInvocation(serviceA, 1);
+		StubInvocation completed = new StubInvocation(serviceA, 2);
+		StubInvocation late = new StubInvocation(serviceB, 1);
+		StubInvocation never = new StubInvocation(serviceB, 2);
+
+		calls.put(late, 300);
+		calls.put(completed, 50);
+		calls.put(early, 100);
+		calls.put(never);
+
+		// A completed call takes its deadline with it
+		assertThat(calls.remove(completed)).isTrue();
+
+		List<AbstractClientInvocationWithResult> expired = new ArrayList<>();
+		assertThat(calls.expire(99, expired)).isEqualTo(100);
+		assertThat(expired).isEmpty();
+
+		assertThat(calls.expire(200, expired)).isEqualTo(300);
+		assertThat(expired).containsExactly(early);
+
+		// Replacing a call replaces its deadline
+		StubInvocation replacement = new StubInvocation(serviceB, 1);
+		calls.put(replacement, 500);
+		assertThat(calls.expire(400, expired)).isEqualTo(500);
+		assertThat(expired).containsExactly(early);
+
+		assertThat(calls.expire(Long.MAX_VALUE - 1, expired)).isEqualTo(PendingCalls.NO_DEADLINE);
+		assertThat(expired).containsExactly(early, replacement);
+		assertThat(calls.get(3, 4, 2)).isSameAs(never);
+		assertThat(calls.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testRandomDeadlinesMatchMap() {
+		PendingCalls calls = new PendingCalls();
+		Map<CacheKey, StubInvocation> expected = new HashMap<>();
+		Map<StubInvocation, Long> deadlines = new HashMap<>();
+		Random r = new Random(42);
+		long now = 0;
+
+		for (int i = 0; i < 100_000; i++) {
+			int callId = r.nextInt(2048);
+			CacheKey key = new CacheKey(serviceA, callId);
+			int op = r.nextInt(8);
+			if (op < 4) {
+				StubInvocation invocation = new StubInvocation(serviceA, callId);
+				long deadline = now + 1 + r.nextInt(1000);
+				StubInvocation previous = expected.put(key, invocation);
+				deadlines.remove(previous);
+				deadlines.put(invocation, deadline);
+				assertThat(calls.put(invocation, deadline)).isSameAs(previous);
+			} else if (op < 7) {
+				StubInvocation removed = expected.remove(key);
+				deadlines.remove(removed);
+				assertThat(calls.remove(1, 2, callId)).isSameAs(removed);
+			} else {
+				long time = now += r.nextInt(100);
+				List<AbstractClientInvocationWithResult> expired = new ArrayList<>();
+				long earliest = calls.expire(time, expired);
+				for (AbstractClientInvocationWithResult e : expired) {
+					assertThat(deadlines.remove(e)).isLessThanOrEqualTo(time);
+					expected.remove(new CacheKey(e.getServiceId(), e.getCallId()));
+				}
+				assertThat(deadlines.values()).allMatch(d -> d > time);
+				assertThat(earliest).isEqualTo(deadlines.values()
+					.stream()
+					.mapToLong(Long::longValue)
+					.min()
+					.orElse(PendingCalls.NO_DEADLINE));
+			}
+			assertThat(calls.size()).isEqualTo(expected.size());
+		}
+	}
+}
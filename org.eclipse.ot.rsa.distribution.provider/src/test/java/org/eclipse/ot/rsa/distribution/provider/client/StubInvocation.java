@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.client;
+
+import static org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType.CALL_WITH_RETURN_TYPE;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+
+/**
+ * An invocation awaiting a response that does nothing when completed
+ */
+class StubInvocation extends AbstractClientInvocationWithResult {
+
+	StubInvocation(UUID serviceId, int callId) {
+		super(CALL_WITH_RETURN_TYPE, serviceId, callId, null);
+	}
+
+	@Override
+	public long getTimeout() {
+		return 0;
+	}
+
+	@Override
+	public void fail(Throwable e) {}
+
+	@Override
+	public void fail(ByteBuf o) throws Exception {}
+
+	@Override
+	public void data(ByteBuf o) throws Exception {}
+
+	@Override
+	public void addCompletionListener(GenericFutureListener<Future<Object>> listener) {}
+
+	@Override
+	public void write(ByteBuf buffer, ChannelPromise promise) throws IOException {}
+}
@@ -44,6 +44,8 @@ import org.eclipse.ot.rsa.constants.RSAConstants;
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientConnectionManager;
 import org.eclipse.ot.rsa.distribution.provider.server.RemotingProvider;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -120,6 +122,11 @@ public class RemoteServiceAdminImplTest {
 	@Mock
 	Timer									_timer;
 
+	@Mock
+	SerializerFactory						_serializerFactory;
+	@Mock
+	Serializer								_serializer;
+
 	UUID									_rootFrameworkId	= UUID.randomUUID();
 	UUID									_childFrameworkId	= UUID.randomUUID();
 
@@ -426,6 +433,66 @@ public class RemoteServiceAdminImplTest {
 		} catch (IllegalArgumentException uoe) {}
 	}
 
+	@Test
+	public void testExportUsesFirstAvailableSerializer() throws Exception {
+		// we need a valid service for this test
+		when(_serviceContext.getService(_serviceReference)).thenReturn("MyServiceObject");
+		when(_serviceReference.getProperty(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION)).thenReturn(new String[] {
+			"unsupported.serializer, custom.serializer", "FAST_BINARY"
+		});
+		when(_factory.getSerializerFactory("custom.serializer")).thenReturn(_serializerFactory);
+		when(_serializerFactory.createForExport(ArgumentMatchers.any(), ArgumentMatchers.any(),
+			ArgumentMatchers.any())).thenReturn(_serializer);
+
+		List<String> keyList = new ArrayList<>(asList(_serviceReference.getPropertyKeys()));
+		keyList.add(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION);
+
+		when(_serviceReference.getPropertyKeys()).thenReturn(keyList.toArray(new String[0]));
+
+		Collection<ExportRegistration> exRefs = _rsa.exportService(_serviceReference, null);
+		assertEquals(1, exRefs.size());
+		assertNull(exRefs.iterator().next().getException());
+
+		// The endpoint advertises the serializer that was chosen
+		EndpointDescription exportedEndpoint = exRefs.iterator().next().getExportReference()
+			.getExportedEndpoint();
+		assertEquals("custom.serializer", exportedEndpoint.getProperties()
+			.get(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION));
+	}
+
+	@Test
+	public void testExportUpdatedWhenSerializerRemoved() throws Exception {
+		// we need a valid service for this test
+		when(_serviceContext.getService(_serviceReference)).thenReturn("MyServiceObject");
+		when(_serviceReference.getProperty(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION)).thenReturn(new String[] {
+			"custom.serializer", "FAST_BINARY"
+		});
+		when(_factory.getSerializerFactory("custom.serializer")).thenReturn(_serializerFactory);
+		when(_serializerFactory.createForExport(ArgumentMatchers.any(), ArgumentMatchers.any(),
+			ArgumentMatchers.any())).thenReturn(_serializer);
+
+		List<String> keyList = new ArrayList<>(asList(_serviceReference.getPropertyKeys()));
+		keyList.add(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION);
+
+		when(_serviceReference.getPropertyKeys()).thenReturn(keyList.toArray(new String[0]));
+
+		Collection<ExportRegistration> exRefs = _rsa.exportService(_serviceReference, null);
+		assertEquals(1, exRefs.size());
+		ExportRegistration reg = exRefs.iterator().next();
+		assertNull(reg.getException());
+
+		// The whiteboard factory goes away
+		when(_factory.getSerializerFactory("custom.serializer")).thenReturn(null);
+		_rsa.serializerFactoryRemoved(_serializerFactory);
+
+		// The export falls back to the next serialization
+		assertNull(reg.getException());
+		assertEquals("FAST_BINARY", reg.getExportReference()
+			.getExportedEndpoint()
+			.getProperties()
+			.get(RSAConstants.DISTRIBUTION_CONFIG_SERIALIZATION));
+	}
+
 	@Test
 	public void testInsecureExportGetsBothURIs() throws Exception {
 		// we need a valid service for this test
@@ -111,9 +111,10 @@ public class ClientServiceFactoryTest {
 		methods.put(1, "getBar[]");
 		methods.put(2, "getName[]");
 		when(_importRegistration.getMethodMappings()).thenReturn(methods);
+		when(_importRegistration.getMethodTimeout(any())).thenReturn(new AtomicLong(3000));
 
 		_csf = new ClientServiceFactory(_importRegistration, _endpointDescription, _channel,
-			new VanillaRMISerializerFactory(), new AtomicLong(3000), executor, timer);
+			new VanillaRMISerializerFactory(), executor, timer);
 
 		when(_callingBundle.getBundleContext()).thenReturn(_callingContext);
 		when(_callingBundle.getSymbolicName()).thenReturn("RequestingBundle");
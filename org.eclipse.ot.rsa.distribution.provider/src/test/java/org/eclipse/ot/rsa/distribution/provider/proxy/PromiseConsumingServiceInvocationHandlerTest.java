@@ -39,7 +39,7 @@ import org.eclipse.ot.rsa.constants.RSAConstants;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientInvocation;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -125,6 +125,7 @@ public class PromiseConsumingServiceInvocationHandlerTest {
 		methods.put(1, "pending[org.osgi.util.promise.Promise]");
 		methods.put(2, "alsoPending[java.util.concurrent.CompletableFuture]");
 		when(_importRegistration.getMethodMappings()).thenReturn(methods);
+		when(_importRegistration.getMethodTimeout(any())).thenReturn(new AtomicLong(3000));
 		when(_importRegistration.getId()).thenReturn(new UUID(123, 456));
 	}
 
@@ -197,7 +198,7 @@ public class PromiseConsumingServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		TestConsumesAsyncTypes proxy = (TestConsumesAsyncTypes) createProxy(_proxyClass, sih);
 
@@ -222,7 +223,7 @@ public class PromiseConsumingServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		TestConsumesAsyncTypes proxy = (TestConsumesAsyncTypes) createProxy(_proxyClass, sih);
 
@@ -248,7 +249,7 @@ public class PromiseConsumingServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassWithDifferentPromiseInterfaces, _differentPromise, false, null,
-			null, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			null, _ch, _serializer, () -> 1, executor, timer);
 
 		Object proxy = createProxy(_proxyClassWithDifferentPromise, sih);
 
@@ -38,7 +38,7 @@ import org.eclipse.ot.rsa.constants.RSAConstants;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientInvocation;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -122,6 +122,7 @@ public class PromiseReturningServiceInvocationHandlerTest {
 		methods.put(2, "isPrime[long]");
 		methods.put(3, "countGrainsOfSand[java.lang.String]");
 		when(_importRegistration.getMethodMappings()).thenReturn(methods);
+		when(_importRegistration.getMethodTimeout(any())).thenReturn(new AtomicLong(3000));
 		when(_importRegistration.getId()).thenReturn(new UUID(123, 456));
 	}
 
@@ -194,7 +195,7 @@ public class PromiseReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		TestReturnsAsyncTypes proxy = (TestReturnsAsyncTypes) createProxy(_proxyClass, sih);
 
@@ -219,7 +220,7 @@ public class PromiseReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		TestReturnsAsyncTypes proxy = (TestReturnsAsyncTypes) createProxy(_proxyClass, sih);
 
@@ -243,7 +244,7 @@ public class PromiseReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		TestReturnsAsyncTypes proxy = (TestReturnsAsyncTypes) createProxy(_proxyClass, sih);
 
@@ -268,7 +269,7 @@ public class PromiseReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassWithDifferentPromiseInterfaces, _differentPromise, false, null,
-			null, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			null, _ch, _serializer, () -> 1, executor, timer);
 
 		Object proxy = createProxy(_proxyClassWithDifferentPromise, sih);
 
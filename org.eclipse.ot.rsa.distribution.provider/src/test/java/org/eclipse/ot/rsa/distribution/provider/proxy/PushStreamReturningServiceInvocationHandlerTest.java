@@ -41,7 +41,7 @@ import org.eclipse.ot.rsa.distribution.provider.client.AbstractClientInvocationW
 import org.eclipse.ot.rsa.distribution.provider.client.ClientInvocation;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -143,6 +143,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 		methods.put(1, "booleans[]");
 		methods.put(2, "integers[]");
 		when(_importRegistration.getMethodMappings()).thenReturn(methods);
+		when(_importRegistration.getMethodTimeout(any())).thenReturn(new AtomicLong(3000));
 		when(_importRegistration.getId()).thenReturn(new UUID(123, 456));
 
 		when(_serializer.deserializeReturn(_trueBuf)).thenReturn(Boolean.TRUE);
@@ -224,7 +225,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, PushStream.class,
-			PushEventConsumer.class, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			PushEventConsumer.class, _ch, _serializer, () -> 1, executor, timer);
 
 		TestReturnsPushStreamTypes proxy = (TestReturnsPushStreamTypes) createProxy(_proxyClass, sih);
 
@@ -264,7 +265,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, false, PushStream.class,
-			PushEventSource.class, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			PushEventSource.class, _ch, _serializer, () -> 1, executor, timer);
 
 		TestReturnsPushStreamTypes proxy = (TestReturnsPushStreamTypes) createProxy(_proxyClass, sih);
 
@@ -308,7 +309,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClassWithDifferentPushStream, _proxyClassWithDifferentPushStreamInterfaces,
 			_differentPromise, false, _differentPushStream, _differentPushEventSource, _ch, _serializer, () -> 1,
-			new AtomicLong(3000), executor, timer);
+			executor, timer);
 
 		Object proxy = createProxy(_proxyClassWithDifferentPushStream, sih);
 
@@ -352,7 +353,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClassWithDifferentPushStream, _proxyClassWithDifferentPushStreamInterfaces,
 			_differentPromise, false, _differentPushStream, _differentPushEventSource, _ch, _serializer, () -> 1,
-			new AtomicLong(3000), executor, timer);
+			executor, timer);
 
 		Object proxy = createProxy(_proxyClassWithDifferentPushStream, sih);
 
@@ -402,7 +403,7 @@ public class PushStreamReturningServiceInvocationHandlerTest {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClassWithDifferentPushStream, _proxyClassWithDifferentPushStreamInterfaces,
 			_differentPromise, false, _differentPushStream, _differentPushEventSource, _ch, _serializer, () -> 1,
-			new AtomicLong(3000), executor, timer);
+			executor, timer);
 
 		Object proxy = createProxy(_proxyClassWithDifferentPushStream, sih);
 
@@ -42,7 +42,7 @@ import org.eclipse.ot.rsa.constants.RSAConstants;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientInvocation;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientMessageType;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -129,6 +129,7 @@ public class ServiceInvocationHandlerTest {
 		methods.put(1, "length[]");
 		methods.put(2, "subSequence[int,int]");
 		when(_importRegistration.getMethodMappings()).thenReturn(methods);
+		when(_importRegistration.getMethodTimeout(any())).thenReturn(new AtomicLong(3000));
 	}
 
 	@AfterEach
@@ -200,7 +201,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -224,7 +225,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -252,7 +253,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -273,7 +274,7 @@ public class ServiceInvocationHandlerTest {
 	public void testInvocationFailureWithUndeclaredThrowable() throws Exception {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -304,7 +305,7 @@ public class ServiceInvocationHandlerTest {
 	public void testInvocationFailureWithForwardedException() {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -328,7 +329,7 @@ public class ServiceInvocationHandlerTest {
 	public void testMethodsInObjectClassAreNotPropagated() throws Exception {
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -372,7 +373,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClassWithDifferentAsyncDelegate, _proxyClassWithDifferentAsyncDelegateInterfaces,
-			_differentPromise, true, null, null, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			_differentPromise, true, null, null, _ch, _serializer, () -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClassWithDifferentAsyncDelegate, sih);
 
@@ -405,7 +406,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClassWithDifferentAsyncDelegate, _proxyClassWithDifferentAsyncDelegateInterfaces,
-			_differentPromise, true, null, null, _ch, _serializer, () -> 1, new AtomicLong(3000), executor, timer);
+			_differentPromise, true, null, null, _ch, _serializer, () -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClassWithDifferentAsyncDelegate, sih);
 
@@ -430,7 +431,7 @@ public class ServiceInvocationHandlerTest {
 
 		ServiceInvocationHandler sih = new ServiceInvocationHandler(_importRegistration, _endpointDescription,
 			_callingContext, _proxyClass, _proxyClassInterfaces, Promise.class, true, null, null, _ch, _serializer,
-			() -> 1, new AtomicLong(3000), executor, timer);
+			() -> 1, executor, timer);
 
 		CharSequence proxy = createProxy(_proxyClass, sih);
 
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.osgi.dto.DTO;
+
+public class CorpusDTO extends DTO implements Serializable {
+	private static final long	serialVersionUID	= 1L;
+
+	public long					id;
+	public String				name;
+	public int					depth;
+	public double				weight;
+	public boolean				leaf;
+	public List<CorpusDTO>		children;
+}
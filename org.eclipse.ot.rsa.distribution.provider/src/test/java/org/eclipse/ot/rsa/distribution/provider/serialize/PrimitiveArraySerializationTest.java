@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
+import org.eclipse.ot.rsa.distribution.provider.serialize.protobuf.ProtoBufSerializer;
+import org.freshvanilla.net.SessionDictionary;
+import org.freshvanilla.net.SessionDictionary.Scope;
+import org.junit.jupiter.api.Test;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class PrimitiveArraySerializationTest {
+
+	private final SessionDictionary	sender		= new SessionDictionary(false, true);
+
+	private final SessionDictionary	receiver	= new SessionDictionary(false);
+
+	static Stream<Serializer> serializers() {
+		return Stream.of(new VanillaRMISerializer(), new ProtoBufSerializer(null));
+	}
+
+	private static Object[] arrays() {
+		// Longer than 255 elements, and with fractional values
+		Random random = new Random(42);
+		int size = 1000;
+
+		boolean[] booleans = new boolean[size];
+		byte[] bytes = new byte[size];
+		short[] shorts = new short[size];
+		char[] chars = new char[size];
+		int[] ints = new int[size];
+		long[] longs = new long[size];
+		float[] floats = new float[size];
+		double[] doubles = new double[size];
+
+		random.nextBytes(bytes);
+		for (int i = 0; i < size; i++) {
+			booleans[i] = random.nextBoolean();
+			shorts[i] = (short) random.nextInt();
+			chars[i] = (char) random.nextInt();
+			ints[i] = random.nextInt();
+			longs[i] = random.nextLong();
+			floats[i] = random.nextFloat() - 0.5f;
+			doubles[i] = random.nextGaussian();
+		}
+		return new Object[] {
+			booleans, bytes, shorts, chars, ints, longs, floats, doubles, new double[0]
+		};
+	}
+
+	@ParameterizedTest
+	@MethodSource("serializers")
+	public void testArgs(Serializer serializer) throws Exception {
+		Object[] args = arrays();
+
+		ByteBuf buf = Unpooled.directBuffer();
+		try {
+			try (Scope scope = SessionDictionary.encoding(sender)) {
+				serializer.serializeArgs(buf, args);
+			}
+			try (Scope scope = SessionDictionary.decoding(receiver)) {
+				assertThat(serializer.deserializeArgs(buf)).containsExactly(args);
+			}
+			assertThat(buf.isReadable()).isFalse();
+		} finally {
+			buf.release();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("serializers")
+	public void testReturn(Serializer serializer) throws Exception {
+		double[] series = new Random(7).doubles(100_000)
+			.toArray();
+
+		ByteBuf buf = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(buf, series);
+		}
+		assertThat(buf.readableBytes()).isLessThan(series.length * 8 + 16);
+		try (Scope scope = SessionDictionary.decoding(receiver)) {
+			assertThat((double[]) serializer.deserializeReturn(buf)).containsExactly(series);
+		}
+	}
+
+	@Test
+	public void testArraysNotPackedByDefault() throws Exception {
+		Serializer serializer = new VanillaRMISerializer();
+		Object[] args = arrays();
+
+		// Packed arrays are a single tag, the length and then the values
+		ByteBuf packed = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeArgs(packed, args);
+		}
+
+		// Older peers can only read the original encoding
+		ByteBuf buf = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(receiver)) {
+			serializer.serializeArgs(buf, args);
+		}
+		assertThat(buf.readableBytes()).isGreaterThan(packed.readableBytes());
+		assertThat(receiver.isPackingArrays()).isFalse();
+		assertThat(serializer.deserializeArgs(buf)).containsExactly(args);
+
+		// Once the remote end has sent packed arrays they are sent in reply
+		try (Scope scope = SessionDictionary.decoding(receiver)) {
+			assertThat(serializer.deserializeArgs(packed)).containsExactly(args);
+		}
+		assertThat(receiver.isPackingArrays()).isTrue();
+	}
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.osgi.framework.Bundle;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Compares the speed and allocation of every {@link SerializationType} across
+ * the {@link SerializerCorpus}. The encoded sizes do not depend on timing, so
+ * they are checked against a baseline by {@link SerializerCorpusTest} instead.
+ * <p>
+ * Run with {@link #main(String[])}, which adds the <code>gc</code> profiler to
+ * report the allocation per operation and writes the results as JSON, by
+ * default to <code>serializer-benchmark.json</code>, so that a run can be
+ * compared with a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+	@Param
+	SerializationType	serialization;
+
+	@Param
+	SerializerCorpus	payload;
+
+	Object[]			args;
+	Serializer			serializer;
+	ByteBuf				encoded;
+	ByteBuf				buf;
+
+	@Setup
+	public void setUp() throws Exception {
+		args = payload.args();
+		serializer = serializer(serialization);
+
+		encoded = Unpooled.buffer();
+		serializer.serializeArgs(encoded, args);
+		buf = Unpooled.directBuffer(encoded.readableBytes());
+	}
+
+	@TearDown
+	public void tearDown() {
+		encoded.release();
+		buf.release();
+	}
+
+	static Serializer serializer(SerializationType serialization) throws Exception {
+		Bundle classSpace = mock(Bundle.class);
+		when(classSpace.loadClass(anyString())).thenAnswer(i -> SerializerBenchmark.class.getClassLoader()
+			.loadClass(i.getArgument(0)));
+		// The methods let DTO_COMPILED find the corpus DTO
+		return serialization.getFactory()
+			.createForExport(classSpace, SerializerCorpus.class.getMethods(), new HashMap<>());
+	}
+
+	@Benchmark
+	public ByteBuf serialize() throws Exception {
+		buf.clear();
+		serializer.serializeArgs(buf, args);
+		return buf;
+	}
+
+	@Benchmark
+	public Object[] deserialize() throws Exception {
+		return serializer.deserializeArgs(encoded.duplicate());
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(SerializerBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.resultFormat(ResultFormatType.JSON)
+			.result(args.length > 0 ? args[0] : "serializer-benchmark.json")
+			.build()).run();
+	}
+}
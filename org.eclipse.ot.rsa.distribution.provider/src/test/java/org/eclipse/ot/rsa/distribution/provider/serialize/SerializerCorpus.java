@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.Asset;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.Fibre;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.FibreFileSystem;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.FibreGCInfo;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.FibreNetworkInterface;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.FibreThreadPoolInfo;
+import org.eclipse.ot.rsa.distribution.test.fabric.v2.dto.Status;
+
+/**
+ * The arguments used to compare the serializations. Every payload is built
+ * from a fixed seed, so the encoded sizes only change when an encoding does.
+ */
+public enum SerializerCorpus {
+
+	PRIMITIVES {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				true, (byte) 7, (short) -300, 'x', 42, 1234567890123L, 1.5f, Math.PI
+			};
+		}
+	},
+	ASCII_STRINGS {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				"ping", text(100, false), text(10_000, false)
+			};
+		}
+	},
+	UNICODE_STRINGS {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				"pïng", text(100, true), text(10_000, true)
+			};
+		}
+	},
+	NESTED_DTO {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				nestedDTO()
+			};
+		}
+	},
+	LARGE_MAP {
+		@Override
+		Object[] args() {
+			Random random = new Random(4);
+			Map<String, Object> map = new HashMap<>();
+			for (int i = 0; i < 10_000; i++) {
+				switch (i % 3) {
+					case 0 :
+						map.put("key." + i, random.nextInt());
+						break;
+					case 1 :
+						map.put("key." + i, random.nextDouble());
+						break;
+					default :
+						map.put("key." + i, "value." + random.nextInt(1000));
+				}
+			}
+			return new Object[] {
+				map
+			};
+		}
+	},
+	PRIMITIVE_ARRAYS {
+		@Override
+		Object[] args() {
+			Random random = new Random(5);
+			byte[] bytes = new byte[10_000];
+			random.nextBytes(bytes);
+			return new Object[] {
+				bytes, random.ints(10_000)
+					.toArray(),
+				random.longs(10_000)
+					.toArray(),
+				random.doubles(10_000)
+					.toArray()
+			};
+		}
+	},
+	STRUCT {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				asset("Linux", "5.15.0", "Canonical", "0")
+			};
+		}
+	},
+	FIBRE {
+		@Override
+		Object[] args() {
+			return new Object[] {
+				fibre()
+			};
+		}
+	};
+
+	abstract Object[] args();
+
+	private static String text(int length, boolean highChars) {
+		// Latin 1, CJK and surrogate pairs as well as ASCII
+		String[] words = highChars ? new String[] {
+			"café", "日本語", "naïve", "😀", "remote"
+		} : new String[] {
+			"remote", "service", "admin", "distribution", "provider"
+		};
+		Random random = new Random(length);
+		StringBuilder sb = new StringBuilder(length + 16);
+		while (sb.length() < length) {
+			sb.append(words[random.nextInt(words.length)])
+				.append(' ');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A tree of DTOs four deep. This is public so that the DTO_COMPILED
+	 * serializer can find the DTO using the methods of this class.
+	 */
+	public static CorpusDTO nestedDTO() {
+		return node(new Random(3), 0);
+	}
+
+	private static CorpusDTO node(Random random, int depth) {
+		CorpusDTO dto = new CorpusDTO();
+		dto.id = random.nextLong();
+		dto.name = "node-" + random.nextInt(1000);
+		dto.depth = depth;
+		dto.weight = random.nextDouble();
+		dto.leaf = depth == 3;
+		dto.children = new ArrayList<>();
+		if (!dto.leaf) {
+			for (int i = 0; i < 4; i++) {
+				dto.children.add(node(random, depth + 1));
+			}
+		}
+		return dto;
+	}
+
+	private static Asset asset(String name, String version, String vendor, String serial) {
+		Asset asset = new Asset();
+		asset.name = name;
+		asset.version = version;
+		asset.vendor = vendor;
+		asset.serial = serial;
+		return asset;
+	}
+
+	private static Fibre fibre() {
+		Fibre fibre = new Fibre();
+		fibre.id = "fibre-1";
+		fibre.status = Status.VALID;
+		fibre.infrastructure = true;
+		fibre.frameworkUUID = "a9b1c3d4-0000-4000-8000-123456789abc";
+		fibre.version = "2.0.0";
+		fibre.hostname = "node1.example.com";
+		fibre.bootTime = 1_600_000_000_000L;
+		fibre.uri = URI.create("urn:fibre:node1:0");
+		fibre.fabric = "test";
+		fibre.systems.addAll(Arrays.asList("alpha", "beta"));
+		fibre.java = "1.8.0_312";
+		fibre.features.put("region", "eu-west");
+		fibre.features.put("cores", 8);
+		fibre.systemParts.put("kernel", "5.15.0");
+		fibre.startTime = 1_600_000_100_000L;
+		fibre.machine = asset("node1", "1", "Dell", "SN-1");
+		fibre.os = asset("Linux", "5.15.0", "Canonical", "0");
+		fibre.cpu = asset("Xeon", "E5-2680", "Intel", "0");
+		fibre.architecture = "amd64";
+		fibre.cpuLoadAvg = 37;
+		fibre.coreCount = 8;
+		for (int i = 0; i < fibre.coreCount; i++) {
+			fibre.coreLoadAvg.add(30 + i);
+		}
+		fibre.ramTotal = 32L << 30;
+		fibre.ramUsed = 12L << 30;
+		fibre.clockSpeed = 2_400_000_000L;
+
+		FibreFileSystem fs = new FibreFileSystem();
+		fs.device = "/dev/sda1";
+		fs.mount = "/";
+		fs.type = "ext4";
+		fs.spaceTotal = 500L << 30;
+		fs.spaceUsed = 120L << 30;
+		fibre.fileSystems.add(fs);
+
+		FibreNetworkInterface nic = new FibreNetworkInterface();
+		nic.name = "eth0";
+		nic.type = "ethernet";
+		nic.address = "10.0.1.33";
+		nic.netmask = "255.255.255.0";
+		nic.macAddress = "00:11:22:33:44:55";
+		nic.active = true;
+		nic.speedMax = 10_000_000_000L;
+		fibre.networkInterfaces.add(nic);
+
+		fibre.jvm = asset("OpenJDK 64-Bit Server VM", "25.312", "Oracle", "0");
+		fibre.jvmSpecification = asset("Java Virtual Machine Specification", "1.8", "Oracle", "0");
+		FibreGCInfo gc = new FibreGCInfo();
+		gc.name = "G1 Young Generation";
+		gc.type = "young";
+		fibre.jvmGarbageCollectors.add(gc);
+		fibre.jvmHeap.used = 1L << 30;
+		fibre.jvmHeap.max = 4L << 30;
+		FibreThreadPoolInfo pool = new FibreThreadPoolInfo();
+		pool.name = "rsa-server";
+		pool.active = 4;
+		pool.max = 16;
+		fibre.jvmThreadPools.add(pool);
+		fibre.sampleTime = 1_600_000_200_000L;
+		fibre.sampleId = 12;
+		fibre.sampleInterval = 5000;
+		return fibre;
+	}
+}
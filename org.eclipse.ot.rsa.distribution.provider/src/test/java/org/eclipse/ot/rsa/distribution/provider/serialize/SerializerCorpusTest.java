@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Checks that every serialization can round trip the
+ * {@link SerializerBenchmark} corpus, so that the benchmark measures valid
+ * encodings, and that no encoding grows beyond its recorded baseline.
+ * <p>
+ * The baseline is <code>test-resources/serializer-sizes.properties</code>. Run
+ * with <code>-Dserializer.sizes.record=true</code> to record the current sizes
+ * after an intended change in size.
+ */
+public class SerializerCorpusTest {
+
+	private static final File					BASELINE	= new File("test-resources/serializer-sizes.properties");
+
+	/**
+	 * The fraction that an encoding may grow by before the test fails
+	 */
+	private static final double					TOLERANCE	= 0.05;
+
+	private static final boolean				RECORD		= Boolean.getBoolean("serializer.sizes.record");
+
+	private static final Properties				baseline	= new Properties();
+
+	private static final Map<String, Integer>	recorded	= new TreeMap<>();
+
+	static Stream<Arguments> corpus() {
+		return Arrays.stream(SerializationType.values())
+			.flatMap(s -> Arrays.stream(SerializerCorpus.values())
+				.map(p -> Arguments.of(s, p)));
+	}
+
+	@BeforeAll
+	public static void loadBaseline() throws Exception {
+		if (BASELINE.isFile()) {
+			try (InputStream in = new FileInputStream(BASELINE)) {
+				baseline.load(in);
+			}
+		}
+	}
+
+	@AfterAll
+	public static void recordBaseline() throws Exception {
+		if (RECORD) {
+			try (OutputStream out = new FileOutputStream(BASELINE)) {
+				StringBuilder sb = new StringBuilder();
+				sb.append("# The encoded size in bytes of each serialization of the SerializerCorpus\n")
+					.append("# Recorded by SerializerCorpusTest with -Dserializer.sizes.record=true\n");
+				recorded.forEach((k, v) -> sb.append(k)
+					.append('=')
+					.append(v)
+					.append('\n'));
+				out.write(sb.toString()
+					.getBytes("ISO-8859-1"));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	public void testRoundTrip(SerializationType serialization, SerializerCorpus payload) throws Exception {
+		Serializer serializer = SerializerBenchmark.serializer(serialization);
+		Object[] args = payload.args();
+
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			serializer.serializeArgs(buf, args);
+			assertThat(serializer.deserializeArgs(buf)).usingRecursiveComparison()
+				.isEqualTo(args);
+			assertThat(buf.isReadable()).isFalse();
+		} finally {
+			buf.release();
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("corpus")
+	public void testEncodedSize(SerializationType serialization, SerializerCorpus payload) throws Exception {
+		Serializer serializer = SerializerBenchmark.serializer(serialization);
+
+		int size;
+		ByteBuf buf = Unpooled.buffer();
+		try {
+			serializer.serializeArgs(buf, payload.args());
+			size = buf.readableBytes();
+		} finally {
+			buf.release();
+		}
+
+		String key = serialization + "." + payload;
+		if (RECORD) {
+			synchronized (recorded) {
+				recorded.put(key, size);
+			}
+			return;
+		}
+
+		String expected = baseline.getProperty(key);
+		if (expected == null) {
+			fail("There is no baseline size for %s, which is now %d bytes. Record it with -Dserializer.sizes.record=true",
+				key, size);
+		}
+		int limit = (int) (Integer.parseInt(expected.trim()) * (1 + TOLERANCE));
+		assertThat(size).as("The encoded size of %s, with a baseline of %s bytes", key, expected)
+			.isLessThanOrEqualTo(limit);
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.dto;
+
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.eclipse.ot.rsa.serialize.SerializerFactory;
+import org.freshvanilla.lang.MetaClasses;
+import org.freshvanilla.net.BinaryWireFormat;
+import org.freshvanilla.net.PojoSerializer;
+import org.freshvanilla.net.WireFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.Bundle;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class CompiledDTOSerializerTest {
+
+	Bundle				bundle;
+	Map<String, Object>	endpoint;
+	Serializer			exporter;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		bundle = mock(Bundle.class);
+		when(bundle.loadClass(anyString())).thenAnswer(i -> getClass().getClassLoader()
+			.loadClass(i.getArgument(0)));
+
+		endpoint = new HashMap<>();
+		exporter = new DTOSerializerFactory().createForExport(bundle, OrderService.class.getMethods(), endpoint);
+	}
+
+	private static OrderDTO order() {
+		LineDTO line1 = new LineDTO();
+		line1.sku = "A-1";
+		line1.quantity = 3;
+		LineDTO line2 = new LineDTO();
+		line2.sku = "B-2";
+		line2.quantity = -1;
+
+		OrderDTO order = new OrderDTO();
+		order.id = Long.MIN_VALUE + 5;
+		order.priority = 42;
+		order.express = true;
+		order.total = 12.5;
+		order.customer = "bob";
+		order.lines = Arrays.asList(line1, line2);
+		return order;
+	}
+
+	private static void assertOrder(Object o) {
+		assertThat(o).isInstanceOf(OrderDTO.class);
+		OrderDTO order = (OrderDTO) o;
+		assertThat(order.id).isEqualTo(Long.MIN_VALUE + 5);
+		assertThat(order.priority).isEqualTo(42);
+		assertThat(order.express).isTrue();
+		assertThat(order.total).isEqualTo(12.5);
+		assertThat(order.customer).isEqualTo("bob");
+		assertThat(order.lines).hasSize(2);
+		assertThat(order.lines.get(0).sku).isEqualTo("A-1");
+		assertThat(order.lines.get(0).quantity).isEqualTo((short) 3);
+		assertThat(order.lines.get(1).sku).isEqualTo("B-2");
+		assertThat(order.lines.get(1).quantity).isEqualTo((short) -1);
+	}
+
+	@Test
+	public void testSchemas() {
+		assertThat(DTOSchema.reachable(OrderService.class.getMethods())).containsExactlyInAnyOrder(OrderDTO.class,
+			LineDTO.class);
+
+		DTOSchema schema = DTOSchema.of(new MetaClasses(getClass().getClassLoader()).acquireMetaClass(LineDTO.class));
+		assertThat(schema.descriptor).isEqualTo(LineDTO.class.getName() + "(short quantity,java.lang.String sku)");
+		assertThat(schema.kinds).containsExactly('S', 'L');
+
+		DTOSchema parsed = DTOSchema.parse(schema.descriptor);
+		assertThat(parsed.tag).isEqualTo(schema.tag);
+		assertThat(parsed.names).containsExactly("quantity", "sku");
+		assertThat(parsed.kinds).containsExactly('S', 'L');
+
+		assertThat(endpoint.get(DTOSerializerFactory.DTO_SCHEMAS)).isInstanceOf(String[].class);
+		assertThat((String[]) endpoint.get(DTOSerializerFactory.DTO_SCHEMAS)).hasSize(2)
+			.contains(schema.descriptor);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Serializer importer = new DTOSerializerFactory().forImport(endpoint)
+			.create(bundle);
+
+		ByteBuf compiled = Unpooled.buffer();
+		importer.serializeArgs(compiled, order());
+		ByteBuf fastBinary = Unpooled.buffer();
+		new VanillaRMISerializer().serializeArgs(fastBinary, order());
+		assertThat(compiled.readableBytes()).isLessThan(fastBinary.readableBytes());
+
+		Object[] args = exporter.deserializeArgs(compiled);
+		assertThat(args).hasSize(1);
+		assertOrder(args[0]);
+
+		ByteBuf response = Unpooled.buffer();
+		exporter.serializeReturn(response, args[0]);
+		assertOrder(importer.deserializeReturn(response));
+	}
+
+	@Test
+	public void testMismatchedSchemaFallsBack() throws Exception {
+		// The exporter's OrderDTO has a different layout
+		SerializerFactory factory = new DTOSerializerFactory().forImport(singletonMap(DTOSerializerFactory.DTO_SCHEMAS,
+			new String[] {
+				OrderDTO.class.getName() + "(java.lang.String customer,long id)"
+			}));
+		Serializer importer = factory.create(bundle);
+
+		ByteBuf buf = Unpooled.buffer();
+		importer.serializeArgs(buf, order());
+
+		// Plain FAST_BINARY can read the fallback encoding
+		assertOrder(new VanillaRMISerializer().deserializeArgs(buf.copy())[0]);
+		assertOrder(exporter.deserializeArgs(buf)[0]);
+	}
+
+	@Test
+	public void testReadsAdvertisedLayout() throws Exception {
+		// A newer OrderDTO with a renamed field, a widened field and a new one
+		DTOSchema remote = DTOSchema.parse(OrderDTO.class.getName()
+			+ "(java.lang.String customer,boolean gift,long id,long priority,java.lang.String total)");
+		PojoSerializer writer = new PojoSerializer() {
+			@Override
+			public <Pojo> boolean canSerialize(Pojo pojo) {
+				return pojo instanceof OrderDTO;
+			}
+
+			@Override
+			public <Pojo> void serialize(ByteBuf wb, WireFormat wf, Pojo pojo) {
+				wf.writeTag(wb, remote.tag);
+				wf.writeTag(wb, "alice");
+				wb.writeBoolean(true);
+				CompiledDTOPojoSerializer.writeVarLong(wb, 7);
+				CompiledDTOPojoSerializer.writeVarLong(wb, 3);
+				wf.writeTag(wb, "9.5");
+			}
+
+			@Override
+			public <Pojo> Pojo deserialize(ByteBuf rb, WireFormat wf) {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		MetaClasses metaClasses = new MetaClasses(getClass().getClassLoader());
+		ByteBuf buf = Unpooled.buffer();
+		new BinaryWireFormat(metaClasses, writer).writeObject(buf, new OrderDTO());
+
+		BinaryWireFormat reader = new BinaryWireFormat(metaClasses,
+			new CompiledDTOPojoSerializer(metaClasses, singletonMap(remote.className, remote)));
+		OrderDTO order = (OrderDTO) reader.readObject(buf);
+		assertThat(order.customer).isEqualTo("alice");
+		assertThat(order.id).isEqualTo(7);
+		assertThat(order.priority).isEqualTo(3);
+		assertThat(order.total).isEqualTo(9.5);
+		assertThat(order.express).isFalse();
+		assertThat(buf.isReadable()).isFalse();
+	}
+}
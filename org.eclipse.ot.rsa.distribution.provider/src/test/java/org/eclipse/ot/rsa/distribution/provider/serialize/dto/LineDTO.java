@@ -10,12 +10,11 @@
  * 		Paremus Ltd. - initial API and implementation
  *      Data In Motion
  */
-package org.eclipse.ot.rsa.distribution.provider.serialize;
+package org.eclipse.ot.rsa.distribution.provider.serialize.dto;
 
-import org.osgi.framework.Bundle;
-
-public interface SerializerFactory {
-
-	public Serializer create(Bundle classSpace);
+import org.osgi.dto.DTO;
 
+public class LineDTO extends DTO {
+	public String	sku;
+	public short	quantity;
 }
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.freshvanilla.net.SessionDictionary;
+import org.freshvanilla.net.SessionDictionary.Scope;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class SessionDictionariesTest {
+
+	private final VanillaRMISerializer	serializer	= new VanillaRMISerializer();
+
+	private final SessionDictionary		sender		= new SessionDictionary(true);
+
+	private final SessionDictionary		receiver	= new SessionDictionary(false);
+
+	private Object message() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("unit", TimeUnit.SECONDS);
+		map.put("units", Arrays.asList(TimeUnit.MINUTES, TimeUnit.HOURS));
+		return map;
+	}
+
+	private ByteBuf write(Object o, ByteBuf definitions) throws Exception {
+		ByteBuf buf = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(buf, o);
+			if (scope.hasDefinitions()) {
+				scope.writeDefinitions(definitions);
+				scope.definitionsSent();
+			}
+		}
+		return buf;
+	}
+
+	private Object read(ByteBuf buf) throws Exception {
+		try (Scope scope = SessionDictionary.decoding(receiver)) {
+			return serializer.deserializeReturn(buf);
+		}
+	}
+
+	@Test
+	public void testTagsAreSentOnce() throws Exception {
+		ByteBuf plain = Unpooled.buffer();
+		serializer.serializeReturn(plain, message());
+
+		ByteBuf definitions = Unpooled.buffer();
+		ByteBuf first = write(message(), definitions);
+		assertThat(definitions.readableBytes()).isGreaterThan(0);
+		assertThat(sender.getOutboundSize()).isEqualTo(5);
+
+		ByteBuf moreDefinitions = Unpooled.buffer();
+		ByteBuf second = write(message(), moreDefinitions);
+		assertThat(moreDefinitions.readableBytes()).isZero();
+
+		assertThat(first.readableBytes()).isLessThan(plain.readableBytes() / 2);
+		assertThat(second.toString(StandardCharsets.ISO_8859_1)).doesNotContain("TimeUnit");
+
+		receiver.readDefinitions(definitions);
+		assertThat(receiver.isSending()).isTrue();
+
+		assertThat(read(first)).isEqualTo(message());
+		assertThat(read(second)).isEqualTo(message());
+	}
+
+	@Test
+	public void testUnknownTagIsRejected() throws Exception {
+		ByteBuf buf = write(TimeUnit.SECONDS, Unpooled.buffer());
+
+		assertThatThrownBy(() -> read(buf.copy())).isInstanceOf(StreamCorruptedException.class);
+		assertThatThrownBy(() -> serializer.deserializeReturn(buf.copy()))
+			.isInstanceOf(StreamCorruptedException.class);
+	}
+
+	@Test
+	public void testDefinitionsMayArriveOutOfOrder() throws Exception {
+		ByteBuf firstDefinitions = Unpooled.buffer();
+		ByteBuf first = write(TimeUnit.SECONDS, firstDefinitions);
+		ByteBuf secondDefinitions = Unpooled.buffer();
+		ByteBuf second = write(TimeUnit.MINUTES, secondDefinitions);
+
+		receiver.readDefinitions(secondDefinitions);
+		assertThat(read(second)).isEqualTo(TimeUnit.MINUTES);
+
+		receiver.readDefinitions(firstDefinitions);
+		assertThat(read(first)).isEqualTo(TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testNotSendingUntilEnabled() throws Exception {
+		try (Scope scope = SessionDictionary.encoding(new SessionDictionary(false))) {
+			ByteBuf buf = Unpooled.buffer();
+			serializer.serializeReturn(buf, message());
+			assertThat(scope.hasDefinitions()).isFalse();
+			assertThat(serializer.deserializeReturn(buf)).isEqualTo(message());
+		}
+	}
+
+	@Test
+	public void testConcurrentWritersBothDefine() throws Exception {
+		ByteBuf firstDefinitions = Unpooled.buffer();
+		ByteBuf secondDefinitions = Unpooled.buffer();
+		ByteBuf first = Unpooled.buffer();
+		ByteBuf second = Unpooled.buffer();
+
+		try (Scope a = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(first, TimeUnit.SECONDS);
+			try (Scope b = SessionDictionary.encoding(sender)) {
+				serializer.serializeReturn(second, TimeUnit.SECONDS);
+				b.writeDefinitions(secondDefinitions);
+				b.definitionsSent();
+			}
+			a.writeDefinitions(firstDefinitions);
+			a.definitionsSent();
+		}
+
+		// Both messages carry the definition as neither had been sent
+		assertThat(firstDefinitions).isEqualTo(secondDefinitions);
+
+		receiver.readDefinitions(secondDefinitions);
+		receiver.readDefinitions(firstDefinitions);
+		assertThat(read(first)).isEqualTo(TimeUnit.SECONDS);
+		assertThat(read(second)).isEqualTo(TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testDefinitionFrame() throws Exception {
+		SessionDictionary dictionary = new SessionDictionary(true);
+		ByteBuf definitions = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(dictionary)) {
+			serializer.serializeReturn(Unpooled.buffer(), TimeUnit.SECONDS);
+			scope.writeDefinitions(definitions);
+		}
+
+		assertThat(definitions.readUnsignedShort()).isEqualTo(1);
+		assertThat(definitions.readUnsignedShort()).isZero();
+		int length = definitions.readUnsignedShort();
+		assertThat(definitions.readCharSequence(length, StandardCharsets.UTF_8)).hasToString(
+			TimeUnit.class.getName() + " SECONDS");
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.protobuf;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.freshvanilla.net.SessionDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.osgi.framework.Bundle;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Measures the cost of writing and reading one protobuf message. The
+ * <code>reflective</code> benchmark repeats the method and class lookups
+ * which the serializer made for every message before they were cached, and
+ * the <code>dictionary</code> parameter replaces the class name with a session
+ * tag.
+ * <p>
+ * Run with {@link #main(String[])}, e.g. from the IDE, adding
+ * <code>-prof gc</code> to the options to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtoBufSerializerBenchmark {
+
+	@Param({
+		"false", "true"
+	})
+	boolean						dictionary;
+
+	TestMessage					message;
+	ProtoBufSerializer			serializer;
+	ByteBuf						buf;
+
+	SessionDictionary			sender;
+	SessionDictionary			receiver;
+
+	@Setup
+	public void setUp() throws Exception {
+		message = new TestMessage(42, "benchmark");
+
+		Bundle classSpace = mock(Bundle.class);
+		doReturn(TestMessage.class).when(classSpace)
+			.loadClass(TestMessage.class.getName());
+		serializer = new ProtoBufSerializer(classSpace);
+		buf = Unpooled.directBuffer(256);
+
+		sender = new SessionDictionary(dictionary);
+		receiver = new SessionDictionary(false);
+		if (dictionary) {
+			// Define the class name once, as the first message on a connection
+			// would
+			ByteBuf definitions = Unpooled.buffer();
+			try (SessionDictionary.Scope scope = SessionDictionary.encoding(sender)) {
+				serializer.serializeReturn(Unpooled.buffer(), message);
+				scope.writeDefinitions(definitions);
+				scope.definitionsSent();
+			}
+			receiver.readDefinitions(definitions);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		buf.release();
+	}
+
+	@Benchmark
+	public Object cached() throws Exception {
+		buf.clear();
+		try (SessionDictionary.Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(buf, message);
+		}
+		try (SessionDictionary.Scope scope = SessionDictionary.decoding(receiver)) {
+			return serializer.deserializeReturn(buf);
+		}
+	}
+
+	@Benchmark
+	public Object reflective() throws Exception {
+		buf.clear();
+		ByteBufOutputStream bbos = new ByteBufOutputStream(buf);
+		Class<?> classType = message.getClass();
+		Method writeTo = classType.getMethod("writeTo", OutputStream.class);
+		bbos.writeUTF(classType.getName());
+		writeTo.invoke(message, bbos);
+
+		ByteBufInputStream bbis = new ByteBufInputStream(buf);
+		Class<?> cls = TestMessage.class.getClassLoader()
+			.loadClass(bbis.readUTF());
+		Method parseFrom = cls.getMethod("parseFrom", InputStream.class);
+		return parseFrom.invoke(null, bbis);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(ProtoBufSerializerBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.protobuf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+
+import org.freshvanilla.net.SessionDictionary;
+import org.freshvanilla.net.SessionDictionary.Scope;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.Bundle;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class ProtoBufSerializerTest {
+
+	private final Bundle				classSpace	= mock(Bundle.class);
+
+	private final ProtoBufSerializer	serializer	= new ProtoBufSerializer(classSpace);
+
+	@Test
+	public void testClassesAreLoadedOnce() throws Exception {
+		doReturn(TestMessage.class).when(classSpace)
+			.loadClass(TestMessage.class.getName());
+
+		Object[] args = {
+			new TestMessage(1, "one"), "two", new TestMessage(3, "three")
+		};
+
+		for (int i = 0; i < 3; i++) {
+			ByteBuf buf = Unpooled.buffer();
+			serializer.serializeArgs(buf, args);
+			assertThat(serializer.deserializeArgs(buf)).containsExactly(args);
+		}
+
+		verify(classSpace, times(1)).loadClass(TestMessage.class.getName());
+	}
+
+	@Test
+	public void testFallbackClassLoader() throws Exception {
+		doThrow(ClassNotFoundException.class).when(classSpace)
+			.loadClass(anyString());
+
+		ByteBuf buf = Unpooled.buffer();
+		serializer.serializeReturn(buf, new TestMessage(42, "answer"));
+		assertThat(serializer.deserializeReturn(buf)).isEqualTo(new TestMessage(42, "answer"));
+	}
+
+	@Test
+	public void testClassNameDictionary() throws Exception {
+		doReturn(TestMessage.class).when(classSpace)
+			.loadClass(TestMessage.class.getName());
+
+		SessionDictionary sender = new SessionDictionary(true);
+		SessionDictionary receiver = new SessionDictionary(false);
+
+		ByteBuf definitions = Unpooled.buffer();
+		ByteBuf first = Unpooled.buffer();
+		ByteBuf second = Unpooled.buffer();
+		try (Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(first, new TestMessage(1, "one"));
+			scope.writeDefinitions(definitions);
+			scope.definitionsSent();
+		}
+		try (Scope scope = SessionDictionary.encoding(sender)) {
+			serializer.serializeReturn(second, new TestMessage(2, "two"));
+			assertThat(scope.hasDefinitions()).isFalse();
+		}
+
+		assertThat(first.toString(StandardCharsets.UTF_8)).doesNotContain(TestMessage.class.getName());
+		assertThat(definitions.toString(StandardCharsets.UTF_8)).contains(TestMessage.class.getName());
+
+		receiver.readDefinitions(definitions);
+		try (Scope scope = SessionDictionary.decoding(receiver)) {
+			assertThat(serializer.deserializeReturn(first)).isEqualTo(new TestMessage(1, "one"));
+			assertThat(serializer.deserializeReturn(second)).isEqualTo(new TestMessage(2, "two"));
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.serialize.protobuf;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * A stand in for a generated protobuf message, with the same
+ * <code>writeTo</code> and <code>parseFrom</code> methods
+ */
+public final class TestMessage {
+
+	private final int		id;
+	private final String	name;
+
+	public TestMessage(int id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.writeInt(id);
+		dos.writeUTF(name);
+		dos.flush();
+	}
+
+	public static TestMessage parseFrom(InputStream in) throws IOException {
+		DataInputStream dis = new DataInputStream(in);
+		return new TestMessage(dis.readInt(), dis.readUTF());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof TestMessage)) {
+			return false;
+		}
+		TestMessage other = (TestMessage) obj;
+		return id == other.id && Objects.equals(name, other.name);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, name);
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ot.rsa.distribution.config.ExportedServiceConfig;
+import org.eclipse.ot.rsa.distribution.provider.activator.RSAExecutorGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.util.converter.Converters;
+
+import io.netty.util.concurrent.Future;
+
+public class BulkheadTest {
+
+	public interface Service {
+		String slow();
+
+		String fast();
+
+		String fast(int i);
+	}
+
+	RSAExecutorGroup workers;
+
+	@BeforeEach
+	public void setUp() {
+		workers = new RSAExecutorGroup(4, Thread::new, -1);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		workers.shutdownGracefully(0, 1, TimeUnit.SECONDS)
+			.await(2, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testConcurrencyLimit() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("test", workers, 1, -1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<String> first = bulkhead.submit(() -> {
+			release.await();
+			return "first";
+		});
+		Future<String> second = bulkhead.submit(() -> "second");
+
+		assertThat(second.await(200)).isFalse();
+		assertThat(bulkhead.getRunningCount()).isEqualTo(1);
+		assertThat(bulkhead.getQueuedCount()).isEqualTo(1);
+
+		release.countDown();
+
+		assertThat(first.sync()
+			.getNow()).isEqualTo("first");
+		assertThat(second.sync()
+			.getNow()).isEqualTo("second");
+		assertThat(bulkhead.getExecutedCount()).isEqualTo(2);
+		assertThat(bulkhead.getMaxQueueWaitNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+	}
+
+	@Test
+	public void testFullBulkheadRejects() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("test", workers, 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		bulkhead.submit(() -> {
+			release.await();
+			return null;
+		});
+		Future<Object> queued = bulkhead.submit(() -> null);
+
+		assertThatThrownBy(() -> bulkhead.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+		assertThat(bulkhead.getRejectedCount()).isEqualTo(1);
+
+		release.countDown();
+		assertThat(queued.await(1000)).isTrue();
+	}
+
+	@Test
+	public void testTryEnter() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("test", workers, 1, 1);
+
+		assertThat(bulkhead.tryEnter()).isTrue();
+		assertThat(bulkhead.tryEnter()).isFalse();
+		assertThat(bulkhead.getRunningCount()).isEqualTo(1);
+
+		// The inline call holds the only slot, so a submitted call queues
+		Future<String> queued = bulkhead.submit(() -> "queued");
+		assertThat(queued.await(200)).isFalse();
+		assertThatThrownBy(() -> bulkhead.submit(() -> null)).isInstanceOf(RejectedExecutionException.class);
+
+		bulkhead.exit();
+		assertThat(queued.sync()
+			.getNow()).isEqualTo("queued");
+		assertThat(bulkhead.getExecutedCount()).isEqualTo(2);
+		assertThat(bulkhead.tryEnter()).isTrue();
+		bulkhead.exit();
+	}
+
+	@Test
+	public void testSlowServiceDoesNotStarveOthers() throws Exception {
+		Bulkhead slow = new Bulkhead("slow", workers, 2, -1);
+		Bulkhead other = new Bulkhead("other", workers, 2, -1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		for (int i = 0; i < 20; i++) {
+			slow.submit(() -> {
+				release.await();
+				return null;
+			});
+		}
+
+		try {
+			assertThat(other.submit(() -> "done")
+				.await(1000)).isTrue();
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testCancelledCallDoesNotRun() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("test", workers, 1, -1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		Future<Object> first = bulkhead.submit(() -> {
+			release.await();
+			return null;
+		});
+		Future<Object> second = bulkhead.submit(() -> {
+			throw new AssertionError("Should not run");
+		});
+
+		assertThat(second.cancel(true)).isTrue();
+		release.countDown();
+
+		first.sync();
+		Future<Object> third = bulkhead.submit(() -> null);
+		assertThat(third.await(1000)).isTrue();
+		assertThat(bulkhead.getExecutedCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testForMethods() throws Exception {
+		Method slow = Service.class.getMethod("slow");
+		Method fast = Service.class.getMethod("fast");
+		Method fastInt = Service.class.getMethod("fast", int.class);
+
+		Map<String, Object> props = new HashMap<>();
+		props.put("org.eclipse.ot.rsa.distribution.bulkhead.concurrency", 4);
+		props.put("org.eclipse.ot.rsa.distribution.bulkhead.methods",
+			new String[] {
+				"slow=1:10", "fast[int]=2", "fast=bad"
+			});
+
+		ExportedServiceConfig config = Converters.standardConverter()
+			.convert(props)
+			.to(ExportedServiceConfig.class);
+
+		Bulkhead[] bulkheads = Bulkhead.forMethods("test", config, new Method[] {
+			slow, fast, fastInt
+		}, workers);
+
+		assertThat(bulkheads[0].getName()).isEqualTo("test slow[]");
+		assertThat(bulkheads[1].getName()).isEqualTo("test");
+		assertThat(bulkheads[2].getName()).isEqualTo("test fast[int]");
+	}
+
+	@Test
+	public void testNoBulkheadsByDefault() throws Exception {
+		ExportedServiceConfig config = Converters.standardConverter()
+			.convert(new HashMap<>())
+			.to(ExportedServiceConfig.class);
+
+		assertThat(Bulkhead.forMethods("test", config, Service.class.getMethods(), workers)).containsOnlyNulls();
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.server;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.awaitility.Awaitility;
+import org.eclipse.ot.rsa.distribution.config.ExportedServiceConfig;
+import org.eclipse.ot.rsa.serialize.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.util.converter.Converters;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+
+public class InlineDispatchTest {
+
+	public static class Cache {
+		final AtomicReference<Thread> caller = new AtomicReference<>();
+
+		public String lookup() {
+			caller.set(Thread.currentThread());
+			return "value";
+		}
+
+		public String load() {
+			caller.set(Thread.currentThread());
+			return "value";
+		}
+
+		public String await(CompletableFuture<String> f) {
+			caller.set(Thread.currentThread());
+			return f.join();
+		}
+	}
+
+	DefaultEventExecutorGroup	workers;
+	HashedWheelTimer			timer;
+
+	@BeforeEach
+	public void setUp() {
+		workers = new DefaultEventExecutorGroup(1);
+		timer = new HashedWheelTimer();
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		timer.stop();
+		workers.shutdownGracefully(0, 1, TimeUnit.SECONDS)
+			.await(2, TimeUnit.SECONDS);
+	}
+
+	private Method[] methods() throws Exception {
+		return new Method[] {
+			Cache.class.getMethod("lookup"), Cache.class.getMethod("load"),
+			Cache.class.getMethod("await", CompletableFuture.class)
+		};
+	}
+
+	private ExportedServiceConfig config(String... inline) {
+		return Converters.standardConverter()
+			.convert(Collections.singletonMap("org.eclipse.ot.rsa.distribution.inline.methods", inline))
+			.to(ExportedServiceConfig.class);
+	}
+
+	@Test
+	public void testInlineMethods() throws Exception {
+		assertThat(ServiceInvoker.inlineMethods(config(), methods())).containsExactly(false, false, false);
+		assertThat(ServiceInvoker.inlineMethods(config("lookup"), methods())).containsExactly(true, false, false);
+		assertThat(ServiceInvoker.inlineMethods(config("load[]", "await"), methods())).containsExactly(false, true,
+			true);
+		assertThat(ServiceInvoker.inlineMethods(config("*"), methods())).containsExactly(true, true, true);
+	}
+
+	@Test
+	public void testInlineCallRunsOnCallingThread() throws Exception {
+		Cache cache = new Cache();
+		ServiceInvoker invoker = invoker(cache, "lookup");
+
+		invoker.call(null, request(0), 1);
+		assertThat(cache.caller.get()).isSameAs(Thread.currentThread());
+
+		cache.caller.set(null);
+		invoker.call(null, request(1), 2);
+		Awaitility.await()
+			.until(() -> cache.caller.get() != null);
+		assertThat(cache.caller.get()).isNotSameAs(Thread.currentThread());
+	}
+
+	@Test
+	public void testAsyncArgumentsAreNeverInline() throws Exception {
+		Cache cache = new Cache();
+		ServiceInvoker invoker = invoker(cache, "*");
+
+		invoker.call(null, request(2), 1);
+		Awaitility.await()
+			.until(() -> cache.caller.get() != null);
+		assertThat(cache.caller.get()).isNotSameAs(Thread.currentThread());
+		invoker.close(null);
+	}
+
+	@Test
+	public void testInlineCallUsesBulkhead() throws Exception {
+		Cache cache = new Cache();
+		Method[] methods = methods();
+		Bulkhead bulkhead = new Bulkhead("test", workers, 1, -1);
+		Bulkhead[] bulkheads = new Bulkhead[methods.length];
+		bulkheads[0] = bulkhead;
+		ServiceInvoker invoker = invoker(cache, bulkheads, "lookup");
+
+		invoker.call(null, request(0), 1);
+		assertThat(cache.caller.get()).isSameAs(Thread.currentThread());
+		assertThat(bulkhead.getRunningCount()).isZero();
+		assertThat(bulkhead.getExecutedCount()).isEqualTo(1);
+
+		// Without a free slot the call waits for the bulkhead on the workers
+		cache.caller.set(null);
+		assertThat(bulkhead.tryEnter()).isTrue();
+		invoker.call(null, request(0), 2);
+		assertThat(cache.caller.get()).isNull();
+		assertThat(bulkhead.getQueuedCount()).isEqualTo(1);
+
+		bulkhead.exit();
+		Awaitility.await()
+			.until(() -> cache.caller.get() != null);
+		assertThat(cache.caller.get()).isNotSameAs(Thread.currentThread());
+		invoker.close(null);
+	}
+
+	private ServiceInvoker invoker(Cache cache, String... inline) throws Exception {
+		return invoker(cache, new Bulkhead[methods().length], inline);
+	}
+
+	private ServiceInvoker invoker(Cache cache, Bulkhead[] bulkheads, String... inline) throws Exception {
+		Serializer serializer = mock(Serializer.class);
+		when(serializer.deserializeArgs(any())).thenAnswer(i -> {
+			ByteBuf buf = i.getArgument(0);
+			return buf.readableBytes() > 0 ? new Object[] {
+				null
+			} : new Object[0];
+		});
+		Method[] methods = methods();
+		return new ServiceInvoker(mock(RemotingProvider.class), UUID.randomUUID(), serializer, cache, methods,
+			workers, bulkheads, ServiceInvoker.inlineMethods(config(inline), methods), timer);
+	}
+
+	private ByteBuf request(int methodIndex) {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeShort(methodIndex);
+		if (methodIndex == 2) {
+			// One argument
+			buf.writeByte(0);
+		}
+		return buf;
+	}
+}
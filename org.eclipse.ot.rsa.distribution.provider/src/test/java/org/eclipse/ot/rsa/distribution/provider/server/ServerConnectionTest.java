@@ -32,7 +32,6 @@ import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import org.awaitility.Awaitility;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.freshvanilla.VanillaRMISerializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializer;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.Client;
@@ -41,6 +40,7 @@ import org.eclipse.ot.rsa.distribution.provider.wireformat.Server;
 import org.eclipse.ot.rsa.distribution.util.ClassSpace;
 import org.eclipse.ot.rsa.distribution.util.ClassSpace.ActualTypeName;
 import org.eclipse.ot.rsa.distribution.util.ClassSpace.Proxied;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.eclipse.ot.rsa.test.RSATestServer;
 import org.eclipse.ot.rsa.test.RSATestServer.Reg;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class FlushBatchingHandlerTest {
+
+	EmbeddedChannel channel;
+
+	@AfterEach
+	public void tearDown() {
+		if (channel != null) {
+			channel.finishAndReleaseAll();
+		}
+	}
+
+	@Test
+	public void testFlushDeferredToEndOfTick() {
+		channel = new EmbeddedChannel(new FlushBatchingHandler(16, 0));
+
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(1));
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(2));
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(3));
+
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		channel.runPendingTasks();
+
+		assertThat(channel.outboundMessages()).hasSize(3);
+	}
+
+	@Test
+	public void testFlushWhenBatchIsFull() {
+		channel = new EmbeddedChannel(new FlushBatchingHandler(2, 0));
+
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(1));
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(2));
+		assertThat(channel.outboundMessages()).hasSize(2);
+
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(3));
+		assertThat(channel.outboundMessages()).hasSize(2);
+
+		channel.runPendingTasks();
+		assertThat(channel.outboundMessages()).hasSize(3);
+	}
+
+	@Test
+	public void testPendingFlushOnClose() {
+		channel = new EmbeddedChannel(new FlushBatchingHandler(16, 0));
+
+		channel.writeAndFlush(Unpooled.buffer(4)
+			.writeInt(1));
+		assertThat(channel.outboundMessages()).isEmpty();
+
+		channel.close();
+		assertThat(channel.outboundMessages()).hasSize(1);
+	}
+
+	@Test
+	public void testOptions() {
+		assertThat(FlushBatchingHandler.fromOptions(new ProtocolScheme("TCP;nodelay=true"))).isNull();
+		assertThat(FlushBatchingHandler.fromOptions(new ProtocolScheme("TCP;flush.batch=1"))).isNull();
+		assertThat(FlushBatchingHandler.fromOptions(new ProtocolScheme("TCP;flush.batch=32;flush.max.delay.us=50")))
+			.isNotNull();
+	}
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.test.AbstractLeakCheckingTest;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.TooLongFrameException;
+
+public class MessageChunkingTest extends AbstractLeakCheckingTest {
+
+	EmbeddedChannel	sender;
+	EmbeddedChannel	receiver;
+
+	@AfterEach
+	public void tearDown() {
+		if (sender != null) {
+			sender.finishAndReleaseAll();
+		}
+		if (receiver != null) {
+			receiver.finishAndReleaseAll();
+		}
+	}
+
+	private static ByteBuf message(int callId, int payload) {
+		byte[] bytes = new byte[payload];
+		new Random(callId).nextBytes(bytes);
+
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(Protocol_V2.VERSION)
+			.writeMedium(0)
+			.writeByte(Protocol_V2.SUCCESS_RESPONSE)
+			.writeLong(1)
+			.writeLong(2)
+			.writeInt(callId)
+			.writeBytes(bytes);
+		int length = buf.readableBytes() - 4;
+		buf.setMedium(1, length > Protocol_V2.MAX_FRAME_LENGTH ? 0 : length);
+		return buf;
+	}
+
+	private List<ByteBuf> send(ByteBuf... messages) {
+		for (ByteBuf message : messages) {
+			ChannelFuture f = sender.writeAndFlush(message.retainedDuplicate());
+			assertThat(f.isSuccess()).isTrue();
+		}
+		List<ByteBuf> frames = new ArrayList<>();
+		ByteBuf frame;
+		while ((frame = sender.readOutbound()) != null) {
+			frames.add(frame);
+		}
+		return frames;
+	}
+
+	private List<ByteBuf> receive(List<ByteBuf> frames) {
+		for (ByteBuf frame : frames) {
+			receiver.writeInbound(frame);
+		}
+		List<ByteBuf> received = new ArrayList<>();
+		ByteBuf message;
+		while ((message = receiver.readInbound()) != null) {
+			received.add(message);
+		}
+		return received;
+	}
+
+	private static void assertReceived(ByteBuf received, ByteBuf sent) {
+		try {
+			assertThat(ByteBufUtil.equals(received, sent.slice(4, sent.readableBytes() - 4))).isTrue();
+		} finally {
+			received.release();
+		}
+	}
+
+	@Test
+	public void testLargeMessageIsChunked() {
+		sender = new EmbeddedChannel(new MessageChunkingHandler(4096));
+		receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf small = message(1, 100);
+		ByteBuf large = message(2, 50_000);
+		try {
+			List<ByteBuf> frames = send(small, large, small);
+
+			// One frame for each small message, and a header and data buffer
+			// for each chunk of the large one
+			int chunks = (large.readableBytes() + 4095) / 4096;
+			assertThat(frames).hasSize(2 + 2 * chunks);
+			for (int i = 1; i < frames.size() - 1; i += 2) {
+				ByteBuf header = frames.get(i);
+				assertThat(header.getByte(4)).isEqualTo(Protocol_V2.MESSAGE_CHUNK);
+				assertThat(header.getInt(21)).isEqualTo(2);
+				assertThat(header.getBoolean(25)).isEqualTo(i == frames.size() - 3);
+				assertThat(frames.get(i + 1)
+					.readableBytes()).isLessThanOrEqualTo(4096);
+			}
+
+			List<ByteBuf> received = receive(frames);
+			assertThat(received).hasSize(3);
+			assertReceived(received.get(0), small);
+			assertReceived(received.get(1), large);
+			assertReceived(received.get(2), small);
+		} finally {
+			small.release();
+			large.release();
+		}
+	}
+
+	@Test
+	public void testMessageLargerThanAFrame() {
+		sender = new EmbeddedChannel(new MessageChunkingHandler(MessageChunkingHandler.MAX_CHUNK_SIZE));
+		receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf large = message(3, Protocol_V2.MAX_FRAME_LENGTH + 1000);
+		try {
+			List<ByteBuf> received = receive(send(large));
+			assertThat(received).hasSize(1);
+			assertReceived(received.get(0), large);
+		} finally {
+			large.release();
+		}
+	}
+
+	@Test
+	public void testMaxMessageSize() {
+		sender = new EmbeddedChannel(new MessageChunkingHandler(1024));
+		receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder(10_000));
+
+		ByteBuf large = message(4, 20_000);
+		ByteBuf small = message(5, 100);
+		try {
+			List<ByteBuf> frames = send(large, small);
+			int next = 0;
+			Throwable failure = null;
+			while (failure == null && next < frames.size()) {
+				try {
+					receiver.writeInbound(frames.get(next++));
+				} catch (TooLongFrameException e) {
+					failure = e;
+				}
+			}
+			assertThat(failure).isNotNull();
+
+			// The rest of the large message is discarded
+			List<ByteBuf> received = receive(frames.subList(next, frames.size()));
+			assertThat(received).hasSize(1);
+			assertReceived(received.get(0), small);
+		} finally {
+			large.release();
+			small.release();
+		}
+	}
+
+	@Test
+	public void testPartialMessageReleasedOnClose() {
+		sender = new EmbeddedChannel(new MessageChunkingHandler(1024));
+		receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf large = message(6, 5000);
+		try {
+			List<ByteBuf> frames = send(large);
+			assertThat(receive(frames.subList(0, 4))).isEmpty();
+			frames.subList(4, frames.size())
+				.forEach(ByteBuf::release);
+		} finally {
+			large.release();
+		}
+		receiver.close();
+	}
+
+	@Test
+	public void testFromOptions() {
+		assertThat(MessageChunkingHandler.fromOptions(new ProtocolScheme("TCP"))).isNotNull();
+		assertThat(MessageChunkingHandler.fromOptions(new ProtocolScheme("TCP;chunk.size=1048576"))).isNotNull();
+		assertThat(VersionCheckingLengthFieldBasedFrameDecoder
+			.fromOptions(new ProtocolScheme("TCP;max.message.size=1048576"))).isNotNull();
+	}
+}
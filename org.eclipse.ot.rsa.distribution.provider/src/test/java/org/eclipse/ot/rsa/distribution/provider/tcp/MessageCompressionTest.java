@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ot.rsa.distribution.provider.config.ProtocolScheme;
+import org.eclipse.ot.rsa.distribution.provider.test.AbstractLeakCheckingTest;
+import org.eclipse.ot.rsa.distribution.provider.wireformat.Protocol_V2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+public class MessageCompressionTest extends AbstractLeakCheckingTest {
+
+	EmbeddedChannel	sender;
+	EmbeddedChannel	receiver;
+
+	@AfterEach
+	public void tearDown() {
+		if (sender != null) {
+			sender.finishAndReleaseAll();
+		}
+		if (receiver != null) {
+			receiver.finishAndReleaseAll();
+		}
+	}
+
+	private static ByteBuf message(int callId, byte[] payload) {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeByte(Protocol_V2.VERSION)
+			.writeMedium(0)
+			.writeByte(Protocol_V2.SUCCESS_RESPONSE)
+			.writeLong(1)
+			.writeLong(2)
+			.writeInt(callId)
+			.writeBytes(payload);
+		int length = buf.readableBytes() - 4;
+		buf.setMedium(1, length > Protocol_V2.MAX_FRAME_LENGTH ? 0 : length);
+		return buf;
+	}
+
+	private static ByteBuf text(int callId, int size) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; sb.length() < size; i++) {
+			sb.append("{\"name\":\"value")
+				.append(i % 100)
+				.append("\"},");
+		}
+		return message(callId, sb.substring(0, size)
+			.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static ByteBuf random(int callId, int size) {
+		byte[] bytes = new byte[size];
+		new Random(callId).nextBytes(bytes);
+		return message(callId, bytes);
+	}
+
+	/**
+	 * Create a sender with compression enabled, as a client connecting to a
+	 * server which advertises compression would be, discarding its
+	 * announcement
+	 */
+	private static EmbeddedChannel compressingSender(ChannelHandler... handlers) throws Exception {
+		EmbeddedChannel ch = new EmbeddedChannel(false, false);
+		ch.pipeline()
+			.addLast(handlers);
+		MessageCompressionHandler.enable(ch);
+		ch.register();
+		ByteBuf announcement = ch.readOutbound();
+		assertThat(announcement).isNotNull();
+		announcement.release();
+		return ch;
+	}
+
+	/**
+	 * Create a receiver which has already negotiated compression
+	 */
+	private static EmbeddedChannel decompressingReceiver(VersionCheckingLengthFieldBasedFrameDecoder decoder) {
+		EmbeddedChannel ch = new EmbeddedChannel(decoder, new MessageCompressionHandler(1024));
+		MessageCompressionHandler.enable(ch);
+		return ch;
+	}
+
+	private List<ByteBuf> send(ByteBuf... messages) {
+		for (ByteBuf message : messages) {
+			ChannelFuture f = sender.writeAndFlush(message.retainedDuplicate());
+			assertThat(f.isSuccess()).isTrue();
+		}
+		List<ByteBuf> frames = new ArrayList<>();
+		ByteBuf frame;
+		while ((frame = sender.readOutbound()) != null) {
+			frames.add(frame);
+		}
+		return frames;
+	}
+
+	private List<ByteBuf> receive(List<ByteBuf> frames) {
+		for (ByteBuf frame : frames) {
+			receiver.writeInbound(frame);
+		}
+		List<ByteBuf> received = new ArrayList<>();
+		ByteBuf message;
+		while ((message = receiver.readInbound()) != null) {
+			received.add(message);
+		}
+		return received;
+	}
+
+	private static void assertReceived(ByteBuf received, ByteBuf sent) {
+		try {
+			assertThat(ByteBufUtil.equals(received, sent.slice(4, sent.readableBytes() - 4))).isTrue();
+		} finally {
+			received.release();
+		}
+	}
+
+	@Test
+	public void testLargeMessageIsCompressed() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+		receiver = decompressingReceiver(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf small = text(1, 100);
+		ByteBuf large = text(2, 50_000);
+		try {
+			List<ByteBuf> frames = send(small, large);
+			assertThat(frames).hasSize(2);
+			assertThat(frames.get(0)
+				.getByte(4)).isEqualTo(Protocol_V2.SUCCESS_RESPONSE);
+
+			ByteBuf compressed = frames.get(1);
+			assertThat(compressed.getByte(4)).isEqualTo(Protocol_V2.MESSAGE_COMPRESSED);
+			assertThat(compressed.getInt(21)).isEqualTo(2);
+			assertThat(compressed.getUnsignedMedium(1)).isEqualTo(compressed.readableBytes() - 4);
+			assertThat(compressed.readableBytes()).isLessThan(large.readableBytes() / 10);
+
+			List<ByteBuf> received = receive(frames);
+			assertThat(received).hasSize(2);
+			assertReceived(received.get(0), small);
+			assertReceived(received.get(1), large);
+		} finally {
+			small.release();
+			large.release();
+		}
+	}
+
+	@Test
+	public void testDirectMessageIsCompressed() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+		receiver = decompressingReceiver(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf text = text(8, 50_000);
+		ByteBuf direct = Unpooled.directBuffer(text.readableBytes())
+			.writeBytes(text, text.readerIndex(), text.readableBytes());
+		try {
+			List<ByteBuf> frames = send(direct);
+			assertThat(frames).hasSize(1);
+			assertThat(frames.get(0)
+				.getByte(4)).isEqualTo(Protocol_V2.MESSAGE_COMPRESSED);
+			assertThat(frames.get(0)
+				.readableBytes()).isLessThan(direct.readableBytes() / 10);
+
+			List<ByteBuf> received = receive(frames);
+			assertThat(received).hasSize(1);
+			assertReceived(received.get(0), text);
+		} finally {
+			text.release();
+			direct.release();
+		}
+	}
+
+	@Test
+	public void testCompressedMessageRejectedUnlessNegotiated() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+
+		ByteBuf large = text(9, 10_000);
+		List<ByteBuf> frames = send(large);
+		large.release();
+		assertThat(frames).hasSize(1);
+		ByteBuf compressed = frames.get(0);
+		try {
+			// Compression is not configured
+			receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder());
+			assertThatThrownBy(() -> receiver.writeInbound(compressed.retainedDuplicate()))
+				.isInstanceOf(CorruptedFrameException.class);
+			receiver.finishAndReleaseAll();
+
+			// Compression is configured, but the other end never announced
+			// itself
+			receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder(),
+				new MessageCompressionHandler(1024));
+			assertThatThrownBy(() -> receiver.writeInbound(compressed.retainedDuplicate()))
+				.isInstanceOf(CorruptedFrameException.class);
+		} finally {
+			compressed.release();
+		}
+	}
+
+	@Test
+	public void testDeclaredLengthIsNotTrusted() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+		receiver = decompressingReceiver(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf large = text(10, 50_000);
+		List<ByteBuf> frames = send(large);
+		large.release();
+		assertThat(frames).hasSize(1);
+
+		// Claim a huge message, the buffer must only grow as it is inflated
+		ByteBuf compressed = frames.get(0);
+		compressed.setInt(26, 400 * 1024 * 1024);
+		assertThatThrownBy(() -> receiver.writeInbound(compressed)).isInstanceOf(CorruptedFrameException.class)
+			.hasMessageContaining("shorter");
+	}
+
+	@Test
+	public void testIncompressibleMessageIsSentAsIs() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+
+		ByteBuf large = random(3, 10_000);
+		try {
+			List<ByteBuf> frames = send(large);
+			assertThat(frames).hasSize(1);
+			try {
+				assertThat(ByteBufUtil.equals(frames.get(0), large)).isTrue();
+			} finally {
+				frames.get(0)
+					.release();
+			}
+		} finally {
+			large.release();
+		}
+	}
+
+	@Test
+	public void testNotCompressedUntilEnabled() {
+		sender = new EmbeddedChannel(new MessageCompressionHandler(1024));
+
+		ByteBuf large = text(4, 10_000);
+		try {
+			List<ByteBuf> frames = send(large);
+			assertThat(frames).hasSize(1);
+			try {
+				assertThat(ByteBufUtil.equals(frames.get(0), large)).isTrue();
+			} finally {
+				frames.get(0)
+					.release();
+			}
+		} finally {
+			large.release();
+		}
+	}
+
+	@Test
+	public void testCompressedMessageIsChunked() throws Exception {
+		sender = compressingSender(new MessageChunkingHandler(1024), new MessageCompressionHandler(1024));
+		receiver = decompressingReceiver(new VersionCheckingLengthFieldBasedFrameDecoder());
+
+		ByteBuf large = random(5, 5_000);
+		ByteBuf text = text(6, 500_000);
+		try {
+			List<ByteBuf> frames = send(large, text);
+			assertThat(frames.size()).isGreaterThan(2);
+
+			List<ByteBuf> received = receive(frames);
+			assertThat(received).hasSize(2);
+			assertReceived(received.get(0), large);
+			assertReceived(received.get(1), text);
+		} finally {
+			large.release();
+			text.release();
+		}
+	}
+
+	@Test
+	public void testNegotiation() throws Exception {
+		sender = new EmbeddedChannel(false, false);
+		sender.pipeline()
+			.addLast(new MessageCompressionHandler(1024));
+		MessageCompressionHandler.enable(sender);
+		sender.register();
+
+		MessageCompressionHandler server = new MessageCompressionHandler(1024);
+		receiver = new EmbeddedChannel(new VersionCheckingLengthFieldBasedFrameDecoder(), server);
+		assertThat(server.isEnabled()).isFalse();
+
+		// The client announces itself as soon as it is active
+		List<ByteBuf> frames = send();
+		assertThat(frames).hasSize(1);
+		assertThat(frames.get(0)
+			.getByte(4)).isEqualTo(Protocol_V2.MESSAGE_COMPRESSED);
+
+		assertThat(receive(frames)).isEmpty();
+		assertThat(server.isEnabled()).isTrue();
+	}
+
+	@Test
+	public void testMaxMessageSize() throws Exception {
+		sender = compressingSender(new MessageCompressionHandler(1024));
+		receiver = decompressingReceiver(new VersionCheckingLengthFieldBasedFrameDecoder(10_000));
+
+		ByteBuf large = text(7, 20_000);
+		try {
+			List<ByteBuf> frames = send(large);
+			assertThat(frames).hasSize(1);
+			assertThatThrownBy(() -> receiver.writeInbound(frames.get(0)))
+				.isInstanceOf(TooLongFrameException.class);
+		} finally {
+			large.release();
+		}
+	}
+
+	@Test
+	public void testOptions() throws Exception {
+		assertThat(MessageCompressionHandler.fromOptions(new ProtocolScheme("TCP"))).isNull();
+		assertThat(MessageCompressionHandler.fromOptions(new ProtocolScheme("TCP;compression=none"))).isNull();
+		assertThat(MessageCompressionHandler
+			.fromOptions(new ProtocolScheme("TCP;compression=deflate;compression.threshold=8192"))).isNotNull();
+		// Unsupported codecs fall back to deflate
+		assertThat(MessageCompressionHandler.fromOptions(new ProtocolScheme("TCP;compression=lz4"))).isNotNull();
+
+		assertThat(MessageCompressionHandler.advertisement(new ProtocolScheme("TCP"))).isNull();
+		String query = MessageCompressionHandler.advertisement(new ProtocolScheme("TCP;compression=deflate"));
+		assertThat(query).isEqualTo("compression=deflate");
+
+		assertThat(MessageCompressionHandler.isAdvertised(new URI("ptcp", null, "localhost", 1234, null, query, null)))
+			.isTrue();
+		assertThat(MessageCompressionHandler.isAdvertised(new URI("ptcp://localhost:1234"))).isFalse();
+	}
+}
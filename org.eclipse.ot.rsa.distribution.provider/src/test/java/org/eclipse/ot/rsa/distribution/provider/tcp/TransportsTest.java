@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2012 - 2021 Paremus Ltd., Data In Motion and others.
+ * All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * 		Paremus Ltd. - initial API and implementation
+ *      Data In Motion
+ */
+package org.eclipse.ot.rsa.distribution.provider.tcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.MultithreadEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+public class TransportsTest {
+
+	@Test
+	public void testNio() throws Exception {
+		assertThat(Transports.useEpoll(Transports.NIO)).isFalse();
+
+		MultithreadEventLoopGroup group = Transports.eventLoopGroup(Transports.NIO, 1, Thread::new);
+		try {
+			assertThat(group).isInstanceOf(NioEventLoopGroup.class);
+			assertThat(Transports.isEpoll(group)).isFalse();
+			assertThat(Transports.socketChannel(group)).isEqualTo(NioSocketChannel.class);
+			assertThat(Transports.serverSocketChannel(group)).isEqualTo(NioServerSocketChannel.class);
+		} finally {
+			group.shutdownGracefully()
+				.sync();
+		}
+	}
+
+	@Test
+	public void testNativeTransportsMatchTheirGroup() throws Exception {
+		for (String transport : new String[] {
+			Transports.EPOLL, Transports.IO_URING, Transports.AUTO, "unknown"
+		}) {
+			MultithreadEventLoopGroup group = Transports.eventLoopGroup(transport, 1, Thread::new);
+			try {
+				// Falls back to NIO when epoll is not available
+				assertThat(Transports.isEpoll(group)).isEqualTo(Transports.useEpoll(transport));
+				assertThat(group instanceof NioEventLoopGroup).isNotEqualTo(Transports.isEpoll(group));
+				assertThat(Transports.socketChannel(group) == NioSocketChannel.class)
+					.isNotEqualTo(Transports.isEpoll(group));
+			} finally {
+				group.shutdownGracefully()
+					.sync();
+			}
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package org.eclipse.ot.rsa.distribution.provider.wireformat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.UUID;
+
+import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializer;
+import org.eclipse.ot.rsa.distribution.provider.test.AbstractLeakCheckingTest;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Runs with paranoid leak detection, so any buffer that the decode path fails
+ * to release fails the test
+ */
+class MsgOwnershipTest extends AbstractLeakCheckingTest {
+	final UUID		uuid		= new UUID(0xAA, 0xBB);
+	final Protocol	protocol	= new Protocol(new JavaSerializer(), m -> {});
+
+	@Test
+	void testDecodeFromFrameWithoutCopy() {
+		ByteBuf frame = toPooledFrame(protocol.cancel(uuid, 1000, false));
+
+		Msg msg = Msg.fromFrame(protocol, frame);
+		assertThat(msg.refCnt()).isEqualTo(1);
+		assertThat(msg.version).isEqualTo(Protocol_V1.VERSION);
+		assertThat(msg.serviceId).isEqualTo(uuid);
+		assertThat(msg.callId).isEqualTo(1000);
+
+		Server server = mock(Server.class);
+		protocol.dispatch(msg, server);
+		verify(server).cancel(uuid, 1000, false);
+
+		// The payload is a view of the frame, not a copy
+		msg.payload()
+			.setBoolean(0, true);
+		protocol.dispatch(msg, server);
+		verify(server).cancel(uuid, 1000, true);
+
+		assertThat(msg.release()).isTrue();
+		assertThat(frame.refCnt()).isZero();
+	}
+
+	@Test
+	void testRetainedPayloadOutlivesMessage() {
+		Msg msg = Msg.fromFrame(protocol, toPooledFrame(protocol.asyncMethodParamClose(uuid, 1000, 5)));
+
+		ByteBuf payload = msg.retainedPayload();
+		assertThat(msg.release()).isFalse();
+
+		assertThat(payload.readByte()).isEqualTo((byte) 5);
+		assertThat(payload.release()).isTrue();
+	}
+
+	@Test
+	void testCopyIsCompleteWireFrame() {
+		Msg msg = protocol.clientOpen(uuid, 1000);
+		ByteBuf copy = msg.copy();
+		try {
+			assertThat(copy.readableBytes()).isEqualTo(msg.length + Msg.PREFIX_LENGTH);
+
+			Msg decoded = new Msg(protocol, copy.retain());
+			assertThat(decoded.toString()).isEqualTo(msg.toString());
+			decoded.release();
+		} finally {
+			copy.release();
+			msg.release();
+		}
+	}
+
+	/*
+	 * Mimics the VersionCheckingLengthFieldBasedFrameDecoder which hands up a
+	 * retained slice of a pooled buffer without the version and length
+	 */
+	private ByteBuf toPooledFrame(Msg msg) {
+		ByteBuf copy = msg.copy();
+		ByteBuf wire = PooledByteBufAllocator.DEFAULT.directBuffer();
+		try {
+			wire.writeBytes(copy);
+			return wire.retainedSlice(Msg.PREFIX_LENGTH, wire.readableBytes() - Msg.PREFIX_LENGTH);
+		} finally {
+			wire.release();
+			copy.release();
+			msg.release();
+		}
+	}
+}
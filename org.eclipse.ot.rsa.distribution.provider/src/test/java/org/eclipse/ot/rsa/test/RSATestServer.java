@@ -16,7 +16,6 @@ import java.util.function.Function;
 import org.eclipse.ot.rsa.distribution.config.TransportConfig;
 import org.eclipse.ot.rsa.distribution.provider.client.ClientConnectionManager;
 import org.eclipse.ot.rsa.distribution.provider.impl.ImportRegistrationImpl;
-import org.eclipse.ot.rsa.distribution.provider.serialize.Serializer;
 import org.eclipse.ot.rsa.distribution.provider.serialize.java.JavaSerializer;
 import org.eclipse.ot.rsa.distribution.provider.server.RemotingProvider;
 import org.eclipse.ot.rsa.distribution.provider.server.ServerConnectionManager;
@@ -25,6 +24,7 @@ import org.eclipse.ot.rsa.distribution.provider.test.TestResourceLeakDetector;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.MethodIndexes;
 import org.eclipse.ot.rsa.distribution.provider.wireformat.RSAChannel;
 import org.eclipse.ot.rsa.distribution.util.Utils;
+import org.eclipse.ot.rsa.serialize.Serializer;
 import org.eclipse.ot.rsa.tls.netty.provider.tls.NettyTLS;
 import org.mockito.Mockito;
 import org.osgi.service.remoteserviceadmin.ImportRegistration;
@@ -129,7 +129,7 @@ public class RSATestServer implements AutoCloseable {
 		this.serializer = Mockito.spy(serializer);
 		this.clientConnectionManager = new ClientConnectionManager(Converters.standardConverter()
 			.convert(config)
-			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, worker, timer);
+			.to(TransportConfig.class), tls, PooledByteBufAllocator.DEFAULT, ioWorker, worker);
 
 	}
 
@@ -0,0 +1,116 @@
+package org.freshvanilla.lang.misc;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the field accessor strategies when reading and writing every field
+ * of a small DTO, as the POJO serializer does for each object.
+ * <p>
+ * Run with {@link #main(String[])}, e.g. from the IDE, adding
+ * <code>-prof gc</code> to the options to see the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessorBenchmark {
+
+	public static class Dto {
+		int		id;
+		long	timestamp;
+		short	flags;
+		boolean	active;
+		double	price;
+		float	ratio;
+		String	name;
+	}
+
+	@Param({
+		"unsafe", "methodhandle", "reflection"
+	})
+	String			strategy;
+
+	Dto				dto;
+
+	@SuppressWarnings("rawtypes")
+	FieldAccessor	id, timestamp, flags, active, price, ratio, name;
+
+	@Setup
+	public void setUp() throws Exception {
+		Accessor accessor;
+		switch (strategy) {
+			case "unsafe" :
+				accessor = new Unsafe();
+				break;
+			case "methodhandle" :
+				accessor = new MethodHandleAccessor();
+				break;
+			default :
+				accessor = new SafeAccessor();
+		}
+
+		id = accessor(accessor, "id");
+		timestamp = accessor(accessor, "timestamp");
+		flags = accessor(accessor, "flags");
+		active = accessor(accessor, "active");
+		price = accessor(accessor, "price");
+		ratio = accessor(accessor, "ratio");
+		name = accessor(accessor, "name");
+
+		dto = accessor.newInstance(Dto.class);
+		dto.name = "benchmark";
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static FieldAccessor accessor(Accessor accessor, String field) throws Exception {
+		Field f = Dto.class.getDeclaredField(field);
+		return accessor.getFieldAccessor(f);
+	}
+
+	@Benchmark
+	public void readAll(Blackhole bh) {
+		bh.consume(id.getNum(dto));
+		bh.consume(timestamp.getNum(dto));
+		bh.consume(flags.getNum(dto));
+		bh.consume(active.getBoolean(dto));
+		bh.consume(price.getDouble(dto));
+		bh.consume(ratio.getDouble(dto));
+		bh.consume(name.getField(dto));
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public Dto writeAll() {
+		id.setNum(dto, 42);
+		timestamp.setNum(dto, 1234567890L);
+		flags.setNum(dto, 7);
+		active.setBoolean(dto, true);
+		price.setDouble(dto, 9.99d);
+		ratio.setDouble(dto, 0.5d);
+		name.setField(dto, "benchmark");
+		return dto;
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(FieldAccessorBenchmark.class.getSimpleName())
+			.build()).run();
+	}
+}
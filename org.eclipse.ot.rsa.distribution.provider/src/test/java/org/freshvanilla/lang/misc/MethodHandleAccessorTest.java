@@ -0,0 +1,99 @@
+package org.freshvanilla.lang.misc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+public class MethodHandleAccessorTest {
+
+	static class Pojo {
+		private boolean	flag;
+		private byte	b;
+		private char	c;
+		private short	s;
+		private int		i;
+		private long	l;
+		private float	f;
+		private double	d;
+		private String	text;
+	}
+
+	static class NoDefaultConstructor {
+		NoDefaultConstructor(int i) {}
+	}
+
+	private final MethodHandleAccessor accessor = new MethodHandleAccessor();
+
+	@SuppressWarnings("unchecked")
+	private <T> FieldAccessor<T> field(String name) throws Exception {
+		return (FieldAccessor<T>) accessor.getFieldAccessor(Pojo.class.getDeclaredField(name));
+	}
+
+	@Test
+	public void testNewInstance() throws Exception {
+		assertThat(accessor.newInstance(Pojo.class)).isInstanceOf(Pojo.class);
+		assertThatThrownBy(() -> accessor.newInstance(NoDefaultConstructor.class))
+			.isInstanceOf(InstantiationException.class);
+	}
+
+	@Test
+	public void testIntegralFields() throws Exception {
+		Pojo pojo = new Pojo();
+
+		field("b").setNum(pojo, 0x1FF);
+		field("c").setNum(pojo, 'x');
+		field("s").setNum(pojo, -2);
+		field("i").setNum(pojo, Integer.MAX_VALUE);
+		field("l").setNum(pojo, Long.MIN_VALUE);
+
+		assertThat(pojo.b).isEqualTo((byte) -1);
+		assertThat(pojo.c).isEqualTo('x');
+		assertThat(pojo.s).isEqualTo((short) -2);
+		assertThat(pojo.i).isEqualTo(Integer.MAX_VALUE);
+		assertThat(pojo.l).isEqualTo(Long.MIN_VALUE);
+
+		assertThat(field("b").getNum(pojo)).isEqualTo(-1);
+		assertThat(field("c").getNum(pojo)).isEqualTo('x');
+		assertThat(field("s").getNum(pojo)).isEqualTo(-2);
+		assertThat(field("i").getNum(pojo)).isEqualTo(Integer.MAX_VALUE);
+		assertThat(field("l").getNum(pojo)).isEqualTo(Long.MIN_VALUE);
+
+		assertThat(field("i").getField(pojo)).isEqualTo(Integer.MAX_VALUE);
+		field("i").setField(pojo, 42);
+		assertThat(pojo.i).isEqualTo(42);
+		assertThat(field("i").getBoolean(pojo)).isTrue();
+	}
+
+	@Test
+	public void testFloatingFields() throws Exception {
+		Pojo pojo = new Pojo();
+
+		field("f").setDouble(pojo, 1.5d);
+		field("d").setDouble(pojo, Math.PI);
+
+		assertThat(pojo.f).isEqualTo(1.5f);
+		assertThat(pojo.d).isEqualTo(Math.PI);
+		assertThat(field("f").getDouble(pojo)).isEqualTo(1.5d);
+		assertThat(field("d").getDouble(pojo)).isEqualTo(Math.PI);
+		assertThat(field("d").getNum(pojo)).isEqualTo(3);
+		assertThat(field("f").getField(pojo)).isEqualTo(1.5f);
+	}
+
+	@Test
+	public void testBooleanAndObjectFields() throws Exception {
+		Pojo pojo = new Pojo();
+
+		field("flag").setBoolean(pojo, true);
+		field("text").setField(pojo, "hello");
+
+		assertThat(pojo.flag).isTrue();
+		assertThat(pojo.text).isEqualTo("hello");
+		assertThat(field("flag").getBoolean(pojo)).isTrue();
+		assertThat(field("flag").getNum(pojo)).isEqualTo(1);
+		assertThat(field("text").getField(pojo)).isEqualTo("hello");
+
+		field("flag").setNum(pojo, 0);
+		assertThat(pojo.flag).isFalse();
+	}
+}
@@ -0,0 +1,110 @@
+package org.freshvanilla.net;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.stream.Stream;
+
+import org.freshvanilla.lang.MetaClasses;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class BinaryWireFormatStringTest {
+
+	private static String repeat(String s, int times) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
+	static Stream<String> strings() {
+		return Stream.of("", "a", "café", "þÿ", "日本語", "😀 emoji", repeat("ascii ", 500),
+			repeat("naïve 日本 ", 300), repeat("ÿ", 2000));
+	}
+
+	static Stream<Arguments> stringsAndBuffers() {
+		return strings().flatMap(s -> {
+			CompositeByteBuf composite = Unpooled.compositeBuffer();
+			composite.addComponent(true, Unpooled.buffer(8));
+			composite.addComponent(true, Unpooled.directBuffer(8));
+			composite.writerIndex(0);
+			// Small enough that writing high chars reallocates the buffer
+			return Stream.of(Arguments.of(s, Unpooled.buffer(4)), Arguments.of(s, Unpooled.directBuffer(4)),
+				Arguments.of(s, composite));
+		});
+	}
+
+	private static BinaryWireFormat wireFormat() {
+		MetaClasses metaClasses = new MetaClasses(BinaryWireFormatStringTest.class.getClassLoader());
+		return new BinaryWireFormat(metaClasses, new VanillaPojoSerializer(metaClasses));
+	}
+
+	/**
+	 * The encoding written before strings were written in one pass
+	 */
+	private static byte[] legacy(String text) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			out.write(ch < 255 ? ch : 255);
+		}
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch >= 255) {
+				out.write(ch >>> 8);
+				out.write(ch);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	@ParameterizedTest
+	@MethodSource("stringsAndBuffers")
+	public void testRoundTrip(String text, ByteBuf buf) throws Exception {
+		try {
+			BinaryWireFormat wf = wireFormat();
+			wf.writeObject(buf, text);
+			// The encoding is unchanged
+			byte[] expected = legacy(text);
+			assertThat(ByteBufUtil.getBytes(buf, buf.writerIndex() - expected.length, expected.length))
+				.isEqualTo(expected);
+			wf.writeObject(buf, "next");
+
+			assertThat(wf.readObject(buf)).isEqualTo(text);
+			assertThat(wf.readObject(buf)).isEqualTo("next");
+			assertThat(buf.isReadable()).isFalse();
+		} finally {
+			buf.release();
+		}
+	}
+
+	@Test
+	public void testShortStringsAreShared() throws Exception {
+		BinaryWireFormat wf = wireFormat();
+		ByteBuf buf = Unpooled.buffer();
+		String longer = repeat("x", StringCache.MAX_LENGTH + 1);
+		for (int i = 0; i < 2; i++) {
+			wf.writeObject(buf, new String("status"));
+			wf.writeObject(buf, new String(longer));
+			wf.writeObject(buf, new String("日本"));
+		}
+
+		Object status = wf.readObject(buf);
+		Object first = wf.readObject(buf);
+		Object hichars = wf.readObject(buf);
+		assertThat(wf.readObject(buf)).isSameAs(status);
+		assertThat(wf.readObject(buf)).isEqualTo(first)
+			.isNotSameAs(first);
+		assertThat(wf.readObject(buf)).isEqualTo(hichars)
+			.isNotSameAs(hichars);
+	}
+}
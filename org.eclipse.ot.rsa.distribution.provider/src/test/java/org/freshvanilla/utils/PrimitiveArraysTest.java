@@ -0,0 +1,108 @@
+package org.freshvanilla.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteOrder;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class PrimitiveArraysTest {
+
+	static Stream<ByteBuf> buffers() {
+		CompositeByteBuf composite = Unpooled.compositeBuffer();
+		composite.addComponent(true, Unpooled.buffer(8));
+		composite.addComponent(true, Unpooled.directBuffer(8));
+		composite.writerIndex(0);
+		return Stream.of(Unpooled.buffer(4), Unpooled.directBuffer(4), composite);
+	}
+
+	@ParameterizedTest
+	@MethodSource("buffers")
+	public void testRoundTrip(ByteBuf buf) throws Exception {
+		boolean[] booleans = {
+			true, false, true
+		};
+		short[] shorts = {
+			Short.MIN_VALUE, -1, 0, 1, Short.MAX_VALUE
+		};
+		char[] chars = "héllo ☺".toCharArray();
+		int[] ints = {
+			Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE
+		};
+		long[] longs = {
+			Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE
+		};
+		float[] floats = {
+			Float.NaN, -0.5f, 0, 1.25f, Float.MAX_VALUE
+		};
+		double[] doubles = {
+			Double.NEGATIVE_INFINITY, -0.1, 0, Math.PI, Double.MIN_VALUE
+		};
+
+		try {
+			for (ByteOrder order : new ByteOrder[] {
+				ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN
+			}) {
+				PrimitiveArrays.writeBooleans(buf, booleans);
+				PrimitiveArrays.writeShorts(buf, shorts, order);
+				PrimitiveArrays.writeChars(buf, chars, order);
+				PrimitiveArrays.writeInts(buf, ints, order);
+				PrimitiveArrays.writeLongs(buf, longs, order);
+				PrimitiveArrays.writeFloats(buf, floats, order);
+				PrimitiveArrays.writeDoubles(buf, doubles, order);
+
+				assertThat(buf.readableBytes()).isEqualTo(3 + 10 + 2 * chars.length + 20 + 40 + 20 + 40);
+
+				assertThat(PrimitiveArrays.readBooleans(buf, booleans.length)).containsExactly(booleans);
+				assertThat(PrimitiveArrays.readShorts(buf, shorts.length, order)).containsExactly(shorts);
+				assertThat(PrimitiveArrays.readChars(buf, chars.length, order)).containsExactly(chars);
+				assertThat(PrimitiveArrays.readInts(buf, ints.length, order)).containsExactly(ints);
+				assertThat(PrimitiveArrays.readLongs(buf, longs.length, order)).containsExactly(longs);
+				assertThat(PrimitiveArrays.readFloats(buf, floats.length, order)).containsExactly(floats);
+				assertThat(PrimitiveArrays.readDoubles(buf, doubles.length, order)).containsExactly(doubles);
+				assertThat(buf.isReadable()).isFalse();
+			}
+		} finally {
+			buf.release();
+		}
+	}
+
+	@Test
+	public void testByteOrder() throws Exception {
+		ByteBuf buf = Unpooled.buffer();
+		PrimitiveArrays.writeInts(buf, new int[] {
+			0x01020304
+		}, ByteOrder.BIG_ENDIAN);
+		PrimitiveArrays.writeInts(buf, new int[] {
+			0x01020304
+		}, ByteOrder.LITTLE_ENDIAN);
+
+		assertThat(buf.readInt()).isEqualTo(0x01020304);
+		assertThat(buf.readIntLE()).isEqualTo(0x01020304);
+	}
+
+	@Test
+	public void testCorruptLength() throws Exception {
+		ByteBuf buf = Unpooled.buffer();
+		buf.writeLong(42);
+
+		assertThatThrownBy(() -> PrimitiveArrays.readLongs(buf, 2, ByteOrder.BIG_ENDIAN))
+			.isInstanceOf(StreamCorruptedException.class);
+		assertThatThrownBy(() -> PrimitiveArrays.readDoubles(buf, Integer.MAX_VALUE, ByteOrder.BIG_ENDIAN))
+			.isInstanceOf(StreamCorruptedException.class);
+		assertThatThrownBy(() -> PrimitiveArrays.readInts(buf, -1, ByteOrder.BIG_ENDIAN))
+			.isInstanceOf(StreamCorruptedException.class);
+
+		assertThat(buf.readerIndex()).isZero();
+		assertThat(PrimitiveArrays.readLongs(buf, 1, ByteOrder.BIG_ENDIAN)).containsExactly(42L);
+	}
+}
@@ -0,0 +1,66 @@
+package org.eclipse.ot.rsa.transport.util;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The <code>io_transport</code> configuration shared by the RSA and gossip
+ * channels. This only interprets the configured value, the caller checks
+ * whether the native transport is available, so that this class does not
+ * depend on Netty.
+ */
+public final class IOTransport {
+
+	private static final Logger	LOG			= LoggerFactory.getLogger(IOTransport.class);
+
+	public static final String	NIO			= "nio";
+
+	public static final String	EPOLL		= "epoll";
+
+	/**
+	 * io_uring is not part of the supported version of Netty, so selecting it
+	 * uses epoll when it is available, and NIO otherwise
+	 */
+	public static final String	IO_URING	= "io_uring";
+
+	/**
+	 * Use epoll when it is available
+	 */
+	public static final String	AUTO		= "auto";
+
+	private IOTransport() {}
+
+	/**
+	 * @param transport one of {@link #NIO}, {@link #EPOLL}, {@link #IO_URING}
+	 *            or {@link #AUTO}. Any other value, including
+	 *            <code>null</code>, selects {@link #NIO}
+	 * @param epollAvailable <code>true</code> if the native epoll transport
+	 *            can be used
+	 * @return <code>true</code> if the native epoll transport should be used
+	 */
+	public static boolean useEpoll(String transport, boolean epollAvailable) {
+		String selected = transport == null ? NIO
+			: transport.trim()
+				.toLowerCase(Locale.ROOT);
+		switch (selected) {
+			case NIO :
+				return false;
+			case EPOLL :
+				if (!epollAvailable) {
+					LOG.warn("The native epoll transport is not available. NIO will be used instead");
+				}
+				return epollAvailable;
+			case IO_URING :
+				LOG.warn("The io_uring transport is not supported. {} will be used instead",
+					epollAvailable ? "epoll" : "NIO");
+				return epollAvailable;
+			case AUTO :
+				return epollAvailable;
+			default :
+				LOG.warn("The IO transport {} is not supported. It will be set to {}", transport, NIO);
+				return false;
+		}
+	}
+}